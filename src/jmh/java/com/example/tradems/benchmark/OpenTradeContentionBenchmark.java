@@ -0,0 +1,108 @@
+package com.example.tradems.benchmark;
+
+import com.example.tradems.TradeMsApplication;
+import com.example.tradems.dto.request.OpenTradeRequest;
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.exception.ConcurrentUpdateException;
+import com.example.tradems.model.TradeEntity;
+import com.example.tradems.model.UserEntity;
+import com.example.tradems.repository.UserRepository;
+import com.example.tradems.service.TradeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.ConcurrencyFailureException;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code openTrade}-in paralel yük altında gecikməsi: optimistik (version + retry) və
+ * pessimistik ({@code SELECT ... FOR UPDATE}) rejimlər. {@code SampleTime} p99-u da verir.
+ * Az sayda istifadəçi eyni hesablar üzərində rəqabət yaradır. H2 üzərində işləyir.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(16)
+@Fork(1)
+public class OpenTradeContentionBenchmark {
+
+    @Param({"OPTIMISTIC", "PESSIMISTIC"})
+    public String locking;
+
+    @Param({"4", "64"})
+    public int users;
+
+    private ConfigurableApplicationContext context;
+    private TradeService tradeService;
+    private Long[] userIds;
+    private final LongAdder rejected = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(TradeMsApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:contention;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.liquibase.enabled=false",
+                        "spring.cloud.vault.enabled=false",
+                        "trading.price.stub.enabled=true",
+                        "trading.engine.fixed-delay=3600000",
+                        "trading.locking.mode=" + locking,
+                        "trading.retry.max-attempts=10",
+                        "logging.level.com.example.tradems=WARN"
+                )
+                .run();
+        tradeService = context.getBean(TradeService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+
+        userIds = new Long[users];
+        for (int i = 0; i < users; i++) {
+            UserEntity user = new UserEntity();
+            user.setUsername("contention-" + i);
+            user.setPremium(true);
+            user.setVirtualBalance(new BigDecimal("1000000000"));
+            userIds[i] = userRepository.save(user).getId();
+        }
+    }
+
+    @Benchmark
+    public TradeEntity openTrade() {
+        Long userId = userIds[ThreadLocalRandom.current().nextInt(users)];
+        OpenTradeRequest request = new OpenTradeRequest(userId, "BTCUSDT", PositionSide.LONG,
+                new BigDecimal("10"), 10, null, null, null);
+        try {
+            return tradeService.openTrade(request);
+        } catch (ConcurrentUpdateException | ConcurrencyFailureException e) {
+            rejected.increment();
+            return null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        System.out.printf("%n[%s, users=%d] retry-dən sonra rədd edilən: %d%n", locking, users, rejected.sum());
+        context.close();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.tradems.benchmark;
+
+import com.example.tradems.engine.OpenTradeRules;
+import com.example.tradems.engine.TradeMath;
+import com.example.tradems.model.TradeEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code openTrade}-in bazaya toxunmayan hissəsi: margin/leverage və TP/SL yoxlaması,
+ * likvidasiya qiymətinin hesablanması. Sorğular süni portfeldən götürülür, hamısı keçərlidir.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OpenTradeValidationBenchmark {
+
+    private static final BigDecimal AVAILABLE = new BigDecimal("100000.00");
+
+    private TradeEntity[] requests;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        List<TradeEntity> portfolio = SyntheticPortfolio.openTrades(4096, 20);
+        requests = portfolio.toArray(new TradeEntity[0]);
+    }
+
+    @Benchmark
+    public BigDecimal validateAndPrice() {
+        TradeEntity request = requests[cursor++ & (requests.length - 1)];
+        OpenTradeRules.validateUserAndMargin(true, AVAILABLE, request.getMargin(), request.getLeverage());
+        OpenTradeRules.validateTPSL(request.getSide(), request.getEntryPrice(), request.getTakeProfit(), request.getStopLoss());
+        return TradeMath.liquidationPrice(request.getEntryPrice(), request.getLeverage(), request.getSide());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.tradems.benchmark;
+
+import com.example.tradems.client.PriceCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Köhnə {@code split/replace} parse ilə {@link PriceCodec} müqayisəsi.
+ * Allokasiyanı görmək üçün {@code -prof gc} ilə işlədin.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PriceCodecBenchmark {
+
+    private String legacyText;
+    private byte[] legacyBytes;
+    private byte[] jsonBytes;
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setUp() {
+        legacyText = "Price: 67123.45 USD";
+        legacyBytes = legacyText.getBytes(StandardCharsets.US_ASCII);
+        jsonBytes = "{\"symbol\":\"BTCUSDT\",\"price\":67123.45}".getBytes(StandardCharsets.US_ASCII);
+        binaryBytes = PriceCodec.encodeBinary(new BigDecimal("67123.45"));
+    }
+
+    @Benchmark
+    public BigDecimal legacySplitParse() {
+        return new BigDecimal(legacyText.split(": ")[1].replace(" USD", "").trim());
+    }
+
+    @Benchmark
+    public BigDecimal legacyBytesToStringSplitParse() {
+        String raw = new String(legacyBytes, StandardCharsets.US_ASCII);
+        return new BigDecimal(raw.split(": ")[1].replace(" USD", "").trim());
+    }
+
+    @Benchmark
+    public BigDecimal codecLegacyText() {
+        return PriceCodec.decode(legacyBytes);
+    }
+
+    @Benchmark
+    public BigDecimal codecJson() {
+        return PriceCodec.decode(jsonBytes);
+    }
+
+    @Benchmark
+    public BigDecimal codecBinary() {
+        return PriceCodec.decode(binaryBytes);
+    }
+}
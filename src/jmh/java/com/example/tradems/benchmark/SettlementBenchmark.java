@@ -0,0 +1,145 @@
+package com.example.tradems.benchmark;
+
+import com.example.tradems.TradeMsApplication;
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.model.TradeEntity;
+import com.example.tradems.model.UserEntity;
+import com.example.tradems.repository.BalanceLedgerRepository;
+import com.example.tradems.repository.TradeRepository;
+import com.example.tradems.repository.UserRepository;
+import com.example.tradems.service.TradeSettlementService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kəskin qiymət hərəkətində bir dövrdə {@code trades} pozisiyanın bağlanması:
+ * hər trade üçün ayrı kilid və tranzaksiya ({@code PER_TRADE}) ilə istifadəçi başına bir
+ * tranzaksiya və JDBC batch ({@code BATCHED}) müqayisəsi. Saniyədə bağlanma = trades / ölçülən vaxt.
+ * H2 üzərində işləyir; mütləq rəqəmlər Postgres-də fərqli olacaq, nisbət isə göstəricidir.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SettlementBenchmark {
+
+    @Param({"PER_TRADE", "BATCHED"})
+    public String mode;
+
+    @Param({"500"})
+    public int trades;
+
+    @Param({"10"})
+    public int users;
+
+    private ConfigurableApplicationContext context;
+    private TradeRepository tradeRepository;
+    private UserRepository userRepository;
+    private BalanceLedgerRepository ledgerRepository;
+    private TradeSettlementService settlementService;
+    private Map<Long, Map<UUID, BigDecimal>> batch;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(TradeMsApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:settlement;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.liquibase.enabled=false",
+                        "spring.cloud.vault.enabled=false",
+                        "trading.price.stub.enabled=true",
+                        "logging.level.com.example.tradems=WARN"
+                )
+                .run();
+        tradeRepository = context.getBean(TradeRepository.class);
+        userRepository = context.getBean(UserRepository.class);
+        ledgerRepository = context.getBean(BalanceLedgerRepository.class);
+        settlementService = context.getBean(TradeSettlementService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void openPositions() {
+        tradeRepository.deleteAllInBatch();
+        ledgerRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+
+        List<UserEntity> savedUsers = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            UserEntity user = new UserEntity();
+            user.setUsername("bench-" + i);
+            user.setPremium(true);
+            savedUsers.add(userRepository.save(user));
+        }
+
+        List<TradeEntity> positions = new ArrayList<>(trades);
+        for (int i = 0; i < trades; i++) {
+            TradeEntity trade = new TradeEntity();
+            trade.setUserId(savedUsers.get(i % users).getId());
+            trade.setSymbol("BTCUSDT");
+            trade.setSide(PositionSide.LONG);
+            trade.setStatus(TradeStatus.OPEN);
+            trade.setEntryPrice(new BigDecimal("100"));
+            trade.setMargin(new BigDecimal("10"));
+            trade.setLeverage(10);
+            trade.setTakeProfit(new BigDecimal("110"));
+            trade.setLiquidationPrice(new BigDecimal("90.5"));
+            positions.add(trade);
+        }
+
+        batch = new HashMap<>();
+        BigDecimal price = new BigDecimal("120");
+        for (TradeEntity trade : tradeRepository.saveAll(positions)) {
+            batch.computeIfAbsent(trade.getUserId(), u -> new LinkedHashMap<>()).put(trade.getId(), price);
+        }
+    }
+
+    @Benchmark
+    public int settle() {
+        int closed = 0;
+        if ("PER_TRADE".equals(mode)) {
+            for (Map<UUID, BigDecimal> group : batch.values()) {
+                for (Map.Entry<UUID, BigDecimal> entry : group.entrySet()) {
+                    closed += settlementService.tryClose(entry.getKey(), entry.getValue()) ? 1 : 0;
+                }
+            }
+        } else {
+            for (Map.Entry<Long, Map<UUID, BigDecimal>> group : batch.entrySet()) {
+                closed += settlementService.settleBatch(group.getKey(), group.getValue());
+            }
+        }
+        return closed;
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+}
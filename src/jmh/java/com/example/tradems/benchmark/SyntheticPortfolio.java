@@ -0,0 +1,78 @@
+package com.example.tradems.benchmark;
+
+import com.example.tradems.engine.TradeMath;
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.model.TradeEntity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Benchmark-lar üçün təkrarlanan süni portfel: sabit seed, bir neçə simvol, müxtəlif
+ * leverage, təxminən yarısında TP/SL. Qiymətlər 4 onluq rəqəmlə, bazada olduğu kimi.
+ */
+final class SyntheticPortfolio {
+
+    private static final long SEED = 42L;
+
+    private SyntheticPortfolio() {
+    }
+
+    static String symbol(int index) {
+        return "SYM" + index + "USDT";
+    }
+
+    static BigDecimal basePrice(int symbolIndex) {
+        return BigDecimal.valueOf(100L + symbolIndex * 37L).setScale(4, RoundingMode.UNNECESSARY);
+    }
+
+    static List<TradeEntity> openTrades(int count, int symbols) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<TradeEntity> trades = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int symbolIndex = random.nextInt(symbols);
+            PositionSide side = random.nextBoolean() ? PositionSide.LONG : PositionSide.SHORT;
+            BigDecimal entry = move(basePrice(symbolIndex), random.nextDouble(-0.02, 0.02));
+            int leverage = 2 + random.nextInt(49);
+
+            TradeEntity trade = new TradeEntity();
+            trade.setId(new UUID(SEED, i));
+            trade.setUserId(1L + random.nextInt(Math.max(1, count / 20)));
+            trade.setSymbol(symbol(symbolIndex));
+            trade.setSide(side);
+            trade.setEntryPrice(entry);
+            trade.setMargin(BigDecimal.valueOf(10 + random.nextInt(990)).setScale(2, RoundingMode.UNNECESSARY));
+            trade.setLeverage(leverage);
+            trade.setLiquidationPrice(TradeMath.liquidationPrice(entry, leverage, side));
+            if (random.nextBoolean()) {
+                double sign = side == PositionSide.LONG ? 1 : -1;
+                trade.setTakeProfit(move(entry, sign * random.nextDouble(0.005, 0.05)));
+                trade.setStopLoss(move(entry, -sign * random.nextDouble(0.005, 0.05)));
+            }
+            trade.setStatus(TradeStatus.OPEN);
+            trades.add(trade);
+        }
+        return trades;
+    }
+
+    /**
+     * Simvol başına {@code count} qiymət: baza qiyməti ətrafında ±{@code range} nisbətində təsadüfi gəzinti.
+     */
+    static BigDecimal[] priceWalk(int symbolIndex, int count, double range) {
+        SplittableRandom random = new SplittableRandom(SEED + symbolIndex);
+        BigDecimal[] prices = new BigDecimal[count];
+        for (int i = 0; i < count; i++) {
+            prices[i] = move(basePrice(symbolIndex), random.nextDouble(-range, range));
+        }
+        return prices;
+    }
+
+    private static BigDecimal move(BigDecimal price, double fraction) {
+        return price.multiply(BigDecimal.valueOf(1 + fraction)).setScale(4, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.tradems.benchmark;
+
+import com.example.tradems.engine.TradeMath;
+import com.example.tradems.enums.PositionSide;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PnL, likvidasiya və trigger müqayisəsi: BigDecimal referansı ilə fixed-point yol.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TradeMathBenchmark {
+
+    private BigDecimal entry;
+    private BigDecimal exit;
+    private BigDecimal margin;
+    private BigDecimal stopLoss;
+    private long entryUnits;
+    private long exitUnits;
+    private long marginUnits;
+    private long stopLossTicks;
+    private long exitTicks;
+
+    @Setup
+    public void setUp() {
+        entry = new BigDecimal("67123.4500");
+        exit = new BigDecimal("67890.1200");
+        margin = new BigDecimal("250.00");
+        stopLoss = new BigDecimal("66000.0000");
+        entryUnits = entry.unscaledValue().longValueExact();
+        exitUnits = exit.unscaledValue().longValueExact();
+        marginUnits = margin.unscaledValue().longValueExact();
+        stopLossTicks = TradeMath.toUnits(stopLoss, 4, RoundingMode.FLOOR);
+        exitTicks = TradeMath.toUnits(exit, 4, RoundingMode.FLOOR);
+    }
+
+    @Benchmark
+    public BigDecimal pnlReference() {
+        return TradeMath.pnlReference(PositionSide.LONG, entry, exit, margin, 20);
+    }
+
+    @Benchmark
+    public BigDecimal pnlFixedPoint() {
+        return TradeMath.pnl(PositionSide.LONG, entry, exit, margin, 20);
+    }
+
+    @Benchmark
+    public long pnlUnits() {
+        return TradeMath.pnlUnits(true, entryUnits, exitUnits, marginUnits, 20);
+    }
+
+    @Benchmark
+    public BigDecimal liquidationReference() {
+        return TradeMath.liquidationPriceReference(entry, 20, PositionSide.LONG);
+    }
+
+    @Benchmark
+    public BigDecimal liquidationFixedPoint() {
+        return TradeMath.liquidationPrice(entry, 20, PositionSide.LONG);
+    }
+
+    @Benchmark
+    public boolean stopLossCompareBigDecimal() {
+        return exit.compareTo(stopLoss) <= 0;
+    }
+
+    @Benchmark
+    public boolean stopLossCompareTicks() {
+        return exitTicks <= stopLossTicks;
+    }
+}
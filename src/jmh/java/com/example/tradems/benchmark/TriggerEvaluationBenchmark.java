@@ -0,0 +1,85 @@
+package com.example.tradems.benchmark;
+
+import com.example.tradems.config.SymbolProperties;
+import com.example.tradems.engine.TriggerIndex;
+import com.example.tradems.engine.TriggerRules;
+import com.example.tradems.model.TradeEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bir qiymət yeniləməsində bir simvolun açıq pozisiyalarının yoxlanması: hər trade-i
+ * {@link TriggerRules} ilə tək-tək yoxlamaq ilə {@link TriggerIndex}-dən keçilmiş səviyyələri götürmək.
+ * Qiymətlər baza ətrafında ±3% gəzir, yəni hər çağırışda trade-lərin bir hissəsi işə düşür.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TriggerEvaluationBenchmark {
+
+    private static final int PRICES = 1024;
+
+    @Param({"1000", "100000"})
+    public int trades;
+
+    @Param({"20"})
+    public int symbols;
+
+    private Map<String, List<TradeEntity>> bySymbol;
+    private TriggerIndex triggerIndex;
+    private BigDecimal[][] walks;
+    private List<UUID> out;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        List<TradeEntity> portfolio = SyntheticPortfolio.openTrades(trades, symbols);
+        bySymbol = new HashMap<>();
+        triggerIndex = new TriggerIndex(new SymbolProperties());
+        for (TradeEntity trade : portfolio) {
+            bySymbol.computeIfAbsent(trade.getSymbol(), s -> new ArrayList<>()).add(trade);
+            triggerIndex.index(trade);
+        }
+        walks = new BigDecimal[symbols][];
+        for (int i = 0; i < symbols; i++) {
+            walks[i] = SyntheticPortfolio.priceWalk(i, PRICES, 0.03);
+        }
+        out = new ArrayList<>();
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int symbolIndex = cursor % symbols;
+        BigDecimal price = walks[symbolIndex][cursor++ % PRICES];
+        int hits = 0;
+        for (TradeEntity trade : bySymbol.getOrDefault(SyntheticPortfolio.symbol(symbolIndex), List.of())) {
+            if (TriggerRules.closeReason(trade, price) != null) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int triggerIndex() {
+        int symbolIndex = cursor % symbols;
+        BigDecimal price = walks[symbolIndex][cursor++ % PRICES];
+        out.clear();
+        triggerIndex.collectOpen(SyntheticPortfolio.symbol(symbolIndex), price, price, out);
+        return out.size();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.tradems.loadtest;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Gecikmələri (mikrosaniyə) toplayır və faizlikləri hesablayır. Yük testi üçün kifayət
+ * qədər sadədir: bütün nümunələr yaddaşda saxlanılır.
+ */
+final class LatencyRecorder {
+
+    private final String name;
+    private long[] samples = new long[1024];
+    private int count;
+
+    LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    synchronized void record(long micros) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = micros;
+    }
+
+    synchronized Summary summary() {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Summary(name, count,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), count == 0 ? 0 : sorted[count - 1]);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    record Summary(String name, int count, long p50, long p90, long p99, long p999, long max) {
+
+        String toLine() {
+            return String.format(Locale.ROOT, "%-28s n=%-8d p50=%9.2fms p90=%9.2fms p99=%9.2fms p99.9=%9.2fms max=%9.2fms",
+                    name, count, p50 / 1000.0, p90 / 1000.0, p99 / 1000.0, p999 / 1000.0, max / 1000.0);
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT,
+                    "{\"count\":%d,\"p50Micros\":%d,\"p90Micros\":%d,\"p99Micros\":%d,\"p999Micros\":%d,\"maxMicros\":%d}",
+                    count, p50, p90, p99, p999, max);
+        }
+    }
+}
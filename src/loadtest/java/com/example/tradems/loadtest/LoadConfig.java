@@ -0,0 +1,77 @@
+package com.example.tradems.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Yük testinin parametrləri. {@code --key=value} arqumentləri ilə dəyişdirilir, məsələn
+ * {@code ./gradlew loadTest --args="--open-rate=500 --duration=120"}.
+ */
+public record LoadConfig(
+        int users,
+        int symbols,
+        double openRate,
+        double readRate,
+        int durationSeconds,
+        int drainSeconds,
+        long engineIntervalMillis,
+        long tickMillis,
+        double volatility,
+        double gapProbability,
+        double gapSize,
+        double crashProbability,
+        double crashSize,
+        int crashTicks,
+        int maxInFlight,
+        int readers,
+        int positionsPerUser,
+        boolean virtualThreads,
+        long seed,
+        String report
+) {
+
+    private static final Set<String> KNOWN = Set.of(
+            "users", "symbols", "open-rate", "read-rate", "duration", "drain", "engine-interval", "tick",
+            "volatility", "gap-probability", "gap-size", "crash-probability", "crash-size", "crash-ticks",
+            "max-in-flight", "readers", "positions", "threads", "seed", "report"
+    );
+
+    public static LoadConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Arqument --key=value formatında olmalıdır: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        LoadConfig config = new LoadConfig(
+                Integer.parseInt(values.getOrDefault("users", "200")),
+                Integer.parseInt(values.getOrDefault("symbols", "20")),
+                Double.parseDouble(values.getOrDefault("open-rate", "50")),
+                Double.parseDouble(values.getOrDefault("read-rate", "20")),
+                Integer.parseInt(values.getOrDefault("duration", "60")),
+                Integer.parseInt(values.getOrDefault("drain", "5")),
+                Long.parseLong(values.getOrDefault("engine-interval", "250")),
+                Long.parseLong(values.getOrDefault("tick", "50")),
+                Double.parseDouble(values.getOrDefault("volatility", "0.002")),
+                Double.parseDouble(values.getOrDefault("gap-probability", "0.001")),
+                Double.parseDouble(values.getOrDefault("gap-size", "0.03")),
+                Double.parseDouble(values.getOrDefault("crash-probability", "0.0002")),
+                Double.parseDouble(values.getOrDefault("crash-size", "0.15")),
+                Integer.parseInt(values.getOrDefault("crash-ticks", "20")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "256")),
+                Integer.parseInt(values.getOrDefault("readers", "0")),
+                Integer.parseInt(values.getOrDefault("positions", "0")),
+                "virtual".equalsIgnoreCase(values.getOrDefault("threads", "platform")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                values.getOrDefault("report", "build/results/loadtest/report.json")
+        );
+        values.keySet().removeAll(KNOWN);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Naməlum parametr: " + values.keySet());
+        }
+        return config;
+    }
+}
@@ -0,0 +1,380 @@
+package com.example.tradems.loadtest;
+
+import com.example.tradems.TradeMsApplication;
+import com.example.tradems.client.PriceClient;
+import com.example.tradems.dto.request.OpenTradeRequest;
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.model.TradeEntity;
+import com.example.tradems.repository.TradeRepository;
+import com.example.tradems.scheduled.TradeExecutionEngine;
+import com.example.tradems.service.PriceService;
+import com.example.tradems.service.TradeService;
+import com.example.tradems.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongPredicate;
+
+/**
+ * Xarici asılılığı olmayan yük testi: tətbiq H2 və {@link SimulatedPriceClient} ilə təsadüfi portda
+ * qalxır, mühərrik {@code EXTERNAL} rejimində bu sinifin thread-i ilə işlədilir, REST endpoint-lərə
+ * verilmiş tezlikdə sorğu göndərilir. Sonda trigger-dən yerinə yetirilməyə qədər gecikmə
+ * (simulyatorun səviyyəni ilk keçdiyi andan {@code closeTime}-a qədər), mühərrik dövrünün müddəti
+ * və trade açma ötürücülüyü çap olunur və JSON kimi yazılır.
+ *
+ * <pre>./gradlew loadTest --args="--open-rate=200 --duration=120 --symbols=50"</pre>
+ *
+ * {@code --readers=N} əlavə olaraq N virtual thread-dən fasiləsiz {@code /active} sorğuları göndərir
+ * (qapalı dövrə, eyni anda N sorğu); {@code --threads=virtual|platform} tətbiqin thread rejimini seçir:
+ * {@code --positions=K} hər istifadəçiyə başlanğıcda K pozisiya açır ki, oxumalar qiymət yolundan keçsin:
+ * <pre>./gradlew loadTest --args="--readers=5000 --positions=20 --open-rate=0 --threads=platform"
+ * ./gradlew loadTest --args="--readers=5000 --positions=20 --open-rate=0 --threads=virtual"</pre>
+ */
+@Slf4j
+public class LoadHarness {
+
+    private final LoadConfig config;
+    private final SimulatedPriceClient simulator;
+    private final ConfigurableApplicationContext context;
+    private final List<Long> userIds;
+    private final String baseUrl;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    private final Semaphore inFlight;
+    private final AtomicBoolean engineRunning = new AtomicBoolean(true);
+    private final LatencyRecorder openLatency = new LatencyRecorder("open-trade HTTP");
+    private final LatencyRecorder readLatency = new LatencyRecorder("active-trades HTTP");
+    private final LatencyRecorder cycleTime = new LatencyRecorder("engine cycle");
+    private final LatencyRecorder triggerToSettle = new LatencyRecorder("trigger -> settlement");
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder reads = new LongAdder();
+    private final AtomicBoolean readersRunning = new AtomicBoolean(true);
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder engineSettled = new LongAdder();
+    private final Map<Integer, LongAdder> failures = new ConcurrentHashMap<>();
+
+    LoadHarness(LoadConfig config, SimulatedPriceClient simulator, ConfigurableApplicationContext context,
+                List<Long> userIds) {
+        this.config = config;
+        this.simulator = simulator;
+        this.context = context;
+        this.userIds = userIds;
+        this.baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        this.inFlight = new Semaphore(config.maxInFlight());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.parse(args);
+        List<String> symbols = new ArrayList<>(config.symbols());
+        for (int i = 0; i < config.symbols(); i++) {
+            symbols.add("SIM" + i + "USDT");
+        }
+        SimulatedPriceClient simulator = new SimulatedPriceClient(symbols, config);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TradeMsApplication.class)
+                .initializers(ctx -> ((GenericApplicationContext) ctx).registerBean(
+                        "simulatedPriceClient", PriceClient.class, () -> simulator, bd -> bd.setPrimary(true)))
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.hikari.maximum-pool-size=32",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.liquibase.enabled=false",
+                        "spring.cloud.vault.enabled=false",
+                        "trading.engine.mode=EXTERNAL",
+                        "trading.threads.virtual=" + config.virtualThreads(),
+                        "server.tomcat.max-connections=" + Math.max(8192, config.readers() * 2),
+                        "logging.level.com.example.tradems=WARN"
+                )
+                .run();
+
+        int exit = 0;
+        try {
+            UserService userService = context.getBean(UserService.class);
+            TradeService tradeService = context.getBean(TradeService.class);
+            List<Long> userIds = new ArrayList<>(config.users());
+            for (int i = 0; i < config.users(); i++) {
+                Long userId = userService.createUser("load-" + i, true).getId();
+                userIds.add(userId);
+                for (int p = 0; p < config.positionsPerUser(); p++) {
+                    tradeService.openTrade(new OpenTradeRequest(userId, symbols.get((i + p) % symbols.size()),
+                            p % 2 == 0 ? PositionSide.LONG : PositionSide.SHORT, BigDecimal.TEN, 2, null, null, null));
+                }
+            }
+            new LoadHarness(config, simulator, context, userIds).run();
+        } catch (Exception e) {
+            log.error("Yük testi uğursuz oldu", e);
+            exit = 1;
+        } finally {
+            context.close();
+        }
+        System.exit(exit);
+    }
+
+    void run() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+        TradeExecutionEngine engine = context.getBean(TradeExecutionEngine.class);
+        Thread engineThread = Thread.ofPlatform().name("load-engine").start(() -> driveEngine(engine));
+
+        scheduler.scheduleAtFixedRate(simulator::tick, config.tickMillis(), config.tickMillis(), TimeUnit.MILLISECONDS);
+        List<ScheduledFuture<?>> load = new ArrayList<>();
+        if (config.openRate() > 0) {
+            load.add(scheduler.scheduleAtFixedRate(this::sendOpen, 0, periodNanos(config.openRate()), TimeUnit.NANOSECONDS));
+        }
+        if (config.readRate() > 0) {
+            load.add(scheduler.scheduleAtFixedRate(this::sendRead, 0, periodNanos(config.readRate()), TimeUnit.NANOSECONDS));
+        }
+
+        List<Thread> readers = new ArrayList<>(config.readers());
+        for (int i = 0; i < config.readers(); i++) {
+            readers.add(Thread.ofVirtual().name("load-reader-", i).start(this::readLoop));
+        }
+
+        long loadStart = System.currentTimeMillis();
+        TimeUnit.SECONDS.sleep(config.durationSeconds());
+        load.forEach(task -> task.cancel(false));
+        readersRunning.set(false);
+        long loadEnd = System.currentTimeMillis();
+        for (Thread reader : readers) {
+            reader.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        inFlight.tryAcquire(config.maxInFlight(), 30, TimeUnit.SECONDS);
+
+        TimeUnit.SECONDS.sleep(config.drainSeconds());
+        engineRunning.set(false);
+        engineThread.join();
+        scheduler.shutdownNow();
+
+        report(loadStart, loadEnd);
+    }
+
+    private void driveEngine(TradeExecutionEngine engine) {
+        while (engineRunning.get()) {
+            long start = System.nanoTime();
+            engineSettled.add(engine.runCycle(engine.ownedSymbols()).settled());
+            long elapsed = System.nanoTime() - start;
+            cycleTime.record(TimeUnit.NANOSECONDS.toMicros(elapsed));
+            long sleep = config.engineIntervalMillis() - TimeUnit.NANOSECONDS.toMillis(elapsed);
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void sendOpen() {
+        if (!inFlight.tryAcquire()) {
+            dropped.increment();
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String symbol = simulator.symbols().get(random.nextInt(simulator.symbols().size()));
+        PositionSide side = random.nextBoolean() ? PositionSide.LONG : PositionSide.SHORT;
+        BigDecimal price = simulator.priceOf(symbol);
+        String levels = "";
+        if (random.nextDouble() < 0.7) {
+            double sign = side == PositionSide.LONG ? 1 : -1;
+            levels = String.format(Locale.ROOT, ",\"takeProfit\":%s,\"stopLoss\":%s",
+                    scale(price, 1 + sign * random.nextDouble(0.005, 0.05)),
+                    scale(price, 1 - sign * random.nextDouble(0.005, 0.05)));
+        }
+        String body = String.format(Locale.ROOT,
+                "{\"userId\":%d,\"symbol\":\"%s\",\"side\":\"%s\",\"margin\":%d,\"leverage\":%d%s}",
+                userIds.get(random.nextInt(userIds.size())), symbol, side, 10 + random.nextInt(41),
+                2 + random.nextInt(49), levels);
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/trades/user/open"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), openLatency, true);
+    }
+
+    private void sendRead() {
+        if (!inFlight.tryAcquire()) {
+            dropped.increment();
+            return;
+        }
+        Long userId = userIds.get(ThreadLocalRandom.current().nextInt(userIds.size()));
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/trades/user/active/" + userId)).GET().build(),
+                readLatency, false);
+    }
+
+    private void readLoop() {
+        while (readersRunning.get()) {
+            Long userId = userIds.get(ThreadLocalRandom.current().nextInt(userIds.size()));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/trades/user/active/" + userId))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            long start = System.nanoTime();
+            try {
+                int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status / 100 == 2) {
+                    readLatency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                    reads.increment();
+                } else {
+                    failures.computeIfAbsent(status, s -> new LongAdder()).increment();
+                }
+            } catch (IOException e) {
+                failures.computeIfAbsent(-1, s -> new LongAdder()).increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void send(HttpRequest request, LatencyRecorder latency, boolean open) {
+        long start = System.nanoTime();
+        http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            inFlight.release();
+            int status = error != null ? -1 : response.statusCode();
+            if (status / 100 != 2) {
+                failures.computeIfAbsent(status, s -> new LongAdder()).increment();
+                return;
+            }
+            latency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            (open ? opened : reads).increment();
+        });
+    }
+
+    private void report(long loadStart, long loadEnd) throws IOException {
+        PriceHistory history = simulator.history();
+        int missed = 0;
+        for (TradeEntity trade : context.getBean(TradeRepository.class).findAll()) {
+            long from = toMillis(trade.getOpenTime());
+            long triggeredAt = firstTrigger(history, trade, from);
+            if (trade.getStatus() == TradeStatus.OPEN) {
+                if (triggeredAt >= 0 && triggeredAt <= loadEnd) {
+                    missed++;
+                }
+            } else if (trade.getCloseTime() != null && triggeredAt >= 0) {
+                long latency = Math.max(0, toMillis(trade.getCloseTime()) - triggeredAt);
+                triggerToSettle.record(TimeUnit.MILLISECONDS.toMicros(latency));
+            }
+        }
+
+        double seconds = (loadEnd - loadStart) / 1000.0;
+        List<LatencyRecorder.Summary> summaries = List.of(
+                triggerToSettle.summary(), cycleTime.summary(), openLatency.summary(), readLatency.summary());
+        System.out.println();
+        System.out.printf(Locale.ROOT, "Yük: %.0f s, hədəf %.1f açma/s, %.1f oxuma/s, %d oxuyucu, %d simvol, %d istifadəçi, %s thread%n",
+                seconds, config.openRate(), config.readRate(), config.readers(), config.symbols(), config.users(),
+                config.virtualThreads() ? "virtual" : "platform");
+        System.out.printf(Locale.ROOT, "Oxuma: %d (%.1f/s)%n", reads.sum(), reads.sum() / seconds);
+        System.out.printf(Locale.ROOT, "Açılan trade: %d (%.1f/s), atılan sorğu: %d, xətalar: %s%n",
+                opened.sum(), opened.sum() / seconds, dropped.sum(), failureCounts());
+        System.out.printf(Locale.ROOT, "Mühərrik: %d yerinə yetirildi, keçilmiş amma bağlanmamış: %d, qiymət addımı: %d%n",
+                engineSettled.sum(), missed, history.size());
+        summaries.forEach(summary -> System.out.println(summary.toLine()));
+        System.out.println("Qiymət servisi: " + context.getBean(PriceService.class).stats());
+
+        Path path = Path.of(config.report());
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.writeString(path, String.format(Locale.ROOT,
+                "{\"config\":\"%s\",\"seconds\":%.3f,\"opened\":%d,\"openThroughput\":%.3f,"
+                        + "\"reads\":%d,\"readThroughput\":%.3f,\"dropped\":%d,"
+                        + "\"failures\":\"%s\",\"settled\":%d,\"missed\":%d,"
+                        + "\"triggerToSettlement\":%s,\"engineCycle\":%s,\"openLatency\":%s,\"readLatency\":%s}%n",
+                config, seconds, opened.sum(), opened.sum() / seconds, reads.sum(), reads.sum() / seconds,
+                dropped.sum(), failureCounts(),
+                engineSettled.sum(), missed, summaries.get(0).toJson(), summaries.get(1).toJson(),
+                summaries.get(2).toJson(), summaries.get(3).toJson()));
+        System.out.println("Hesabat: " + path.toAbsolutePath());
+    }
+
+    /**
+     * Trade-in hər hansı səviyyəsinin simulyatorda ilk keçildiyi an. Səviyyələr mühərrikdə
+     * olduğu kimi yuvarlaqlaşdırılır: aşağıdan işə düşənlər floor, yuxarıdan ceiling.
+     */
+    private long firstTrigger(PriceHistory history, TradeEntity trade, long from) {
+        int symbol = simulator.indexOf(trade.getSymbol());
+        boolean isLong = trade.getSide() == PositionSide.LONG;
+        long first = -1;
+        first = earliest(first, atOrBelow(history, symbol, from, isLong ? trade.getLiquidationPrice() : trade.getTakeProfit()));
+        first = earliest(first, atOrBelow(history, symbol, from, isLong ? trade.getStopLoss() : null));
+        first = earliest(first, atOrAbove(history, symbol, from, isLong ? trade.getTakeProfit() : trade.getLiquidationPrice()));
+        first = earliest(first, atOrAbove(history, symbol, from, isLong ? null : trade.getStopLoss()));
+        return first;
+    }
+
+    private static long atOrBelow(PriceHistory history, int symbol, long from, BigDecimal level) {
+        if (level == null) {
+            return -1;
+        }
+        long units = units(level, RoundingMode.FLOOR);
+        LongPredicate hit = price -> price <= units;
+        return history.firstMatch(symbol, from, hit);
+    }
+
+    private static long atOrAbove(PriceHistory history, int symbol, long from, BigDecimal level) {
+        if (level == null) {
+            return -1;
+        }
+        long units = units(level, RoundingMode.CEILING);
+        LongPredicate hit = price -> price >= units;
+        return history.firstMatch(symbol, from, hit);
+    }
+
+    private static long earliest(long a, long b) {
+        if (a < 0) return b;
+        if (b < 0) return a;
+        return Math.min(a, b);
+    }
+
+    private static long units(BigDecimal price, RoundingMode rounding) {
+        return price.setScale(SimulatedPriceClient.SCALE, rounding).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal scale(BigDecimal price, double factor) {
+        return price.multiply(BigDecimal.valueOf(factor)).setScale(SimulatedPriceClient.SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static long periodNanos(double ratePerSecond) {
+        return Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+    }
+
+    private String failureCounts() {
+        StringBuilder out = new StringBuilder();
+        failures.forEach((status, count) -> out.append(out.isEmpty() ? "" : " ").append(status).append('=').append(count.sum()));
+        return out.isEmpty() ? "-" : out.toString();
+    }
+}
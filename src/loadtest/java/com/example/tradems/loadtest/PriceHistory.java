@@ -0,0 +1,41 @@
+package com.example.tradems.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * Simulyatorun bütün addımları: zaman və hər simvolun qiyməti (unit ilə).
+ */
+final class PriceHistory {
+
+    private final List<long[]> frames = new ArrayList<>();
+    private final List<Long> times = new ArrayList<>();
+
+    synchronized void append(long atMillis, long[] prices) {
+        times.add(atMillis);
+        frames.add(prices);
+    }
+
+    /**
+     * {@code fromMillis}-dən sonra simvolun qiymətinin şərti ilk dəfə ödədiyi an, yoxdursa {@code -1}.
+     */
+    synchronized long firstMatch(int symbol, long fromMillis, LongPredicate condition) {
+        int start = Collections.binarySearch(times, fromMillis);
+        start = start < 0 ? -start - 1 : start;
+        while (start > 0 && times.get(start - 1) >= fromMillis) {
+            start--;
+        }
+        for (int i = start; i < frames.size(); i++) {
+            if (condition.test(frames.get(i)[symbol])) {
+                return times.get(i);
+            }
+        }
+        return -1;
+    }
+
+    synchronized int size() {
+        return frames.size();
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.tradems.loadtest;
+
+import com.example.tradems.client.PriceClient;
+import com.example.tradems.client.PriceCodec;
+import com.example.tradems.client.PriceQuote;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Proses daxilində price-ms simulyatoru. Qiymətlər oxunuşdan asılı olmayaraq {@link #tick}
+ * ilə hərəkət edir: təsadüfi gəzinti, bəzən bir addımlıq sıçrayış (gap), bəzən bir neçə
+ * addıma yayılan çöküş. Hər addım tarixçəyə yazılır ki, trigger anı sonradan tapılsın.
+ * Qiymətlər 4 onluq rəqəmlə tam ədəd (unit) kimi saxlanılır.
+ */
+public class SimulatedPriceClient implements PriceClient {
+
+    static final int SCALE = 4;
+
+    private final List<String> symbols;
+    private final Map<String, Integer> indexOf = new ConcurrentHashMap<>();
+    private final LoadConfig config;
+    private final SplittableRandom random;
+    private final PriceHistory history;
+
+    private volatile long[] current;
+    private final int[] crashTicksLeft;
+    private final double[] crashStep;
+
+    public SimulatedPriceClient(List<String> symbols, LoadConfig config) {
+        this.symbols = List.copyOf(symbols);
+        this.config = config;
+        this.random = new SplittableRandom(config.seed());
+        this.history = new PriceHistory();
+        this.crashTicksLeft = new int[symbols.size()];
+        this.crashStep = new double[symbols.size()];
+        long[] initial = new long[symbols.size()];
+        for (int i = 0; i < initial.length; i++) {
+            indexOf.put(symbols.get(i), i);
+            initial[i] = BigDecimal.valueOf(100L + i * 37L).movePointRight(SCALE).longValueExact();
+        }
+        current = initial;
+        history.append(System.currentTimeMillis(), initial);
+    }
+
+    @Override
+    public byte[] getRealtimePrice(String symbol) {
+        return PriceCodec.encodeBinary(priceOf(symbol));
+    }
+
+    @Override
+    public List<PriceQuote> getRealtimePrices(Collection<String> requested) {
+        List<PriceQuote> quotes = new ArrayList<>(requested.size());
+        for (String symbol : requested) {
+            BigDecimal price = priceOf(symbol);
+            if (price != null) {
+                quotes.add(new PriceQuote(symbol, price));
+            }
+        }
+        return quotes;
+    }
+
+    public BigDecimal priceOf(String symbol) {
+        Integer index = indexOf.get(symbol);
+        return index == null ? null : BigDecimal.valueOf(current[index], SCALE);
+    }
+
+    /**
+     * Bütün simvolları bir addım irəli aparır. Tək thread-dən çağırılmalıdır.
+     */
+    public void tick() {
+        long[] next = current.clone();
+        for (int i = 0; i < next.length; i++) {
+            double move;
+            if (crashTicksLeft[i] > 0) {
+                crashTicksLeft[i]--;
+                move = crashStep[i];
+            } else if (random.nextDouble() < config.crashProbability()) {
+                crashTicksLeft[i] = Math.max(0, config.crashTicks() - 1);
+                crashStep[i] = -config.crashSize() / config.crashTicks();
+                move = crashStep[i];
+            } else if (random.nextDouble() < config.gapProbability()) {
+                move = random.nextBoolean() ? config.gapSize() : -config.gapSize();
+            } else {
+                move = random.nextDouble(-config.volatility(), config.volatility());
+            }
+            next[i] = Math.max(1, Math.round(next[i] * (1 + move)));
+        }
+        current = next;
+        history.append(System.currentTimeMillis(), next);
+    }
+
+    public List<String> symbols() {
+        return symbols;
+    }
+
+    int indexOf(String symbol) {
+        return indexOf.get(symbol);
+    }
+
+    PriceHistory history() {
+        return history;
+    }
+}
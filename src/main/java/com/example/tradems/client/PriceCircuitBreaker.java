@@ -0,0 +1,77 @@
+package com.example.tradems.client;
+
+/**
+ * Ardıcıl {@code failureThreshold} uğursuzluqdan sonra {@code openMillis} müddətinə açılır;
+ * bu müddətdə price-ms-ə sorğu getmir. Müddət bitəndə tək bir sınaq sorğusu buraxılır:
+ * uğurlu olarsa bağlanır, uğursuz olarsa yenidən açılır.
+ */
+final class PriceCircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private long opens;
+
+    PriceCircuitBreaker(int failureThreshold, long openNanos) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openNanos;
+    }
+
+    synchronized boolean tryAcquire(long now) {
+        return switch (state) {
+            case CLOSED -> true;
+            case HALF_OPEN -> false;
+            case OPEN -> {
+                if (now - openedAt < openNanos) {
+                    yield false;
+                }
+                state = State.HALF_OPEN;
+                yield true;
+            }
+        };
+    }
+
+    synchronized boolean isCallPermitted(long now) {
+        return state == State.CLOSED || state == State.OPEN && now - openedAt >= openNanos;
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    /**
+     * Nəticəsi bilinməyən çağırış (thread kəsildi, executor rədd etdi). Uğursuzluq sayılmır;
+     * sınaq sorğusu idisə circuit açıq vəziyyətə qayıdır və növbəti çağırış dərhal sınaq ola bilər.
+     */
+    synchronized void release(long now) {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openedAt = now - openNanos;
+        }
+    }
+
+    synchronized void onFailure(long now) {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                opens++;
+            }
+            state = State.OPEN;
+            openedAt = now;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized long opens() {
+        return opens;
+    }
+}
@@ -3,10 +3,17 @@ package com.example.tradems.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.Collection;
+import java.util.List;
 
 @FeignClient(name = "price-ms",url = "http://localhost:8080")
 public interface PriceClient {
 
     @GetMapping("/api/crypto/price/{symbol}")
-    String getRealtimePrice(@PathVariable("symbol") String symbol);
+    byte[] getRealtimePrice(@PathVariable("symbol") String symbol);
+
+    @GetMapping("/api/crypto/prices")
+    List<PriceQuote> getRealtimePrices(@RequestParam("symbols") Collection<String> symbols);
 }
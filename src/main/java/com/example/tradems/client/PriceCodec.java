@@ -0,0 +1,153 @@
+package com.example.tradems.client;
+
+import com.example.tradems.exception.PriceFormatException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * price-ms cavablarını birbaşa baytlardan qiymətə çevirir, aralıq sətir yaratmadan.
+ * Üç format dəstəklənir:
+ * <ul>
+ *     <li>köhnə mətn: {@code Price: 50000.0 USD}</li>
+ *     <li>JSON: {@code {"symbol":"BTCUSDT","price":50000.0}}</li>
+ *     <li>binar: {@code 0x01}, scale baytı, 8 baytlıq big-endian unscaled dəyər</li>
+ * </ul>
+ */
+public final class PriceCodec {
+
+    public static final byte BINARY_MAGIC = 0x01;
+    public static final int BINARY_LENGTH = 10;
+
+    private static final byte[] PRICE_KEY = "\"price\"".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_DIGITS = 18;
+
+    private PriceCodec() {
+    }
+
+    public static BigDecimal decode(byte[] body) {
+        if (body == null || body.length == 0) {
+            throw new PriceFormatException("Qiymət cavabı boşdur");
+        }
+        if (body[0] == BINARY_MAGIC) {
+            return decodeBinary(body);
+        }
+        int start = skipWhitespace(body, 0);
+        if (start < body.length && body[start] == '{') {
+            return parseNumber(body, jsonValueStart(body, start));
+        }
+        return parseNumber(body, textValueStart(body, start));
+    }
+
+    public static byte[] encodeBinary(BigDecimal price) {
+        if (price.scale() < 0 || price.scale() > MAX_DIGITS) {
+            throw new PriceFormatException("Qiymətin scale dəyəri dəstəklənmir: " + price.scale());
+        }
+        long unscaled = price.unscaledValue().longValueExact();
+        byte[] out = new byte[BINARY_LENGTH];
+        out[0] = BINARY_MAGIC;
+        out[1] = (byte) price.scale();
+        for (int i = 0; i < 8; i++) {
+            out[2 + i] = (byte) (unscaled >>> (56 - 8 * i));
+        }
+        return out;
+    }
+
+    private static BigDecimal decodeBinary(byte[] body) {
+        if (body.length != BINARY_LENGTH) {
+            throw new PriceFormatException("Binar qiymət cavabının uzunluğu səhvdir: " + body.length);
+        }
+        int scale = body[1];
+        if (scale < 0 || scale > MAX_DIGITS) {
+            throw new PriceFormatException("Binar qiymətin scale dəyəri səhvdir: " + scale);
+        }
+        long unscaled = 0;
+        for (int i = 2; i < BINARY_LENGTH; i++) {
+            unscaled = (unscaled << 8) | (body[i] & 0xFF);
+        }
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private static int textValueStart(byte[] body, int from) {
+        for (int i = from; i < body.length; i++) {
+            if (body[i] == ':') {
+                return skipWhitespace(body, i + 1);
+            }
+        }
+        return from;
+    }
+
+    private static int jsonValueStart(byte[] body, int from) {
+        int key = indexOf(body, PRICE_KEY, from);
+        if (key < 0) {
+            throw new PriceFormatException("JSON qiymət cavabında \"price\" sahəsi yoxdur");
+        }
+        int i = skipWhitespace(body, key + PRICE_KEY.length);
+        if (i >= body.length || body[i] != ':') {
+            throw new PriceFormatException("JSON qiymət cavabı səhvdir");
+        }
+        i = skipWhitespace(body, i + 1);
+        if (i < body.length && body[i] == '"') {
+            i++;
+        }
+        return i;
+    }
+
+    private static BigDecimal parseNumber(byte[] body, int from) {
+        int i = from;
+        boolean negative = false;
+        if (i < body.length && body[i] == '-') {
+            negative = true;
+            i++;
+        }
+
+        long unscaled = 0;
+        int scale = -1;
+        int digits = 0;
+        for (; i < body.length; i++) {
+            byte c = body[i];
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_DIGITS) {
+                    throw new PriceFormatException("Qiymət çox uzundur");
+                }
+                unscaled = unscaled * 10 + (c - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                break;
+            }
+        }
+
+        if (digits == 0) {
+            throw new PriceFormatException("Qiymət cavabında rəqəm tapılmadı");
+        }
+        if (i < body.length && (body[i] == 'e' || body[i] == 'E')) {
+            throw new PriceFormatException("Eksponensial qiymət formatı dəstəklənmir");
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    private static int skipWhitespace(byte[] body, int from) {
+        int i = from;
+        while (i < body.length && (body[i] == ' ' || body[i] == '\t' || body[i] == '\r' || body[i] == '\n')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int indexOf(byte[] body, byte[] needle, int from) {
+        outer:
+        for (int i = from; i <= body.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (body[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
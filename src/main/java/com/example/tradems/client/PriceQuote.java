@@ -0,0 +1,9 @@
+package com.example.tradems.client;
+
+import java.math.BigDecimal;
+
+public record PriceQuote(
+        String symbol,
+        BigDecimal price
+) {
+}
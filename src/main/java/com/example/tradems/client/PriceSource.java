@@ -0,0 +1,189 @@
+package com.example.tradems.client;
+
+import com.example.tradems.exception.PriceUnavailableException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * {@link PriceClient} qarşısında dayanıqlıq qatı. Hər çağırışın sərt son müddəti var;
+ * cavab {@code hedge-delay} ərzində gəlməsə eyni sorğu ikinci dəfə göndərilir və ilk uğurlu
+ * cavab götürülür. Ardıcıl uğursuzluqlar circuit-i açır, açıq circuit-də sorğu göndərilmir.
+ * Bütün uğursuzluqlar {@link PriceUnavailableException} kimi qaytarılır — çağıran tərəf
+ * qiyməti ya köhnə dəyərlə əvəz edir, ya da simvolu buraxır; sıfır qiymət heç vaxt qaytarılmır.
+ *
+ * <p>Son müddət çağıran thread-i azad edir, HTTP sorğusunu isə yox: {@code priceCallExecutor}
+ * thread-i Feign-in read-timeout-una qədər məşğul qalır, ona görə həmin timeout bu qatın
+ * son müddətindən çox uzun olmamalıdır.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PriceSource {
+
+    private final PriceClient priceClient;
+    @Qualifier("priceCallExecutor")
+    private final ExecutorService priceCallExecutor;
+
+    @Value("${trading.price.call-timeout:500}")
+    private long callTimeoutMillis = 500;
+
+    @Value("${trading.price.hedge-delay:150}")
+    private long hedgeDelayMillis = 150;
+
+    @Value("${trading.price.circuit.failure-threshold:5}")
+    private int failureThreshold = 5;
+
+    @Value("${trading.price.circuit.open-duration:5000}")
+    private long openDurationMillis = 5000;
+
+    private volatile PriceCircuitBreaker breaker;
+
+    private final LongAdder hedged = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public List<PriceQuote> getPrices(Collection<String> symbols) {
+        return call(() -> priceClient.getRealtimePrices(symbols), "toplu");
+    }
+
+    public BigDecimal getPrice(String symbol) {
+        BigDecimal price = PriceCodec.decode(call(() -> priceClient.getRealtimePrice(symbol), symbol));
+        if (price.signum() <= 0) {
+            throw new PriceUnavailableException("Qiymət servisi müsbət olmayan qiymət qaytardı: " + symbol);
+        }
+        return price;
+    }
+
+    /**
+     * Circuit bağlıdır və ya sınaq sorğusuna hazırdır.
+     */
+    public boolean isAvailable() {
+        return breaker().isCallPermitted(System.nanoTime());
+    }
+
+    public String circuitState() {
+        return breaker().state().name();
+    }
+
+    public long getCircuitOpens() {
+        return breaker().opens();
+    }
+
+    public long getHedgedRequests() {
+        return hedged.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private <T> T call(Supplier<T> request, String target) {
+        PriceCircuitBreaker circuit = breaker();
+        long start = System.nanoTime();
+        if (!circuit.tryAcquire(start)) {
+            rejected.increment();
+            throw new PriceUnavailableException("Qiymət servisi müvəqqəti əlçatmazdır (circuit açıq): " + target);
+        }
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(callTimeoutMillis);
+        CompletableFuture<T> result = null;
+        boolean resolved = false;
+        try {
+            CompletableFuture<T> primary = CompletableFuture.supplyAsync(request, priceCallExecutor);
+            result = primary;
+            if (hedgeDelayMillis > 0 && hedgeDelayMillis < callTimeoutMillis) {
+                try {
+                    T value = primary.get(hedgeDelayMillis, TimeUnit.MILLISECONDS);
+                    resolved = true;
+                    return succeeded(circuit, value);
+                } catch (TimeoutException slow) {
+                    hedged.increment();
+                    result = firstSuccessful(primary, CompletableFuture.supplyAsync(request, priceCallExecutor));
+                }
+            }
+            T value = result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            resolved = true;
+            return succeeded(circuit, value);
+        } catch (TimeoutException e) {
+            resolved = true;
+            timeouts.increment();
+            result.cancel(false);
+            throw failed(circuit, "Qiymət servisi " + callTimeoutMillis + " ms ərzində cavab vermədi: " + target);
+        } catch (ExecutionException e) {
+            resolved = true;
+            throw failed(circuit, "Qiymət servisi xətası (" + target + "): " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(false);
+            throw new PriceUnavailableException("Qiymət sorğusu dayandırıldı: " + target);
+        } finally {
+            if (!resolved) {
+                // kəsilmiş və ya göndərilə bilməmiş sorğu servis haqqında heç nə demir,
+                // amma sınaq icazəsini qaytarmalıdır — yoxsa circuit HALF_OPEN-da qalar
+                circuit.release(System.nanoTime());
+            }
+        }
+    }
+
+    private <T> T succeeded(PriceCircuitBreaker circuit, T value) {
+        circuit.onSuccess();
+        return value;
+    }
+
+    private PriceUnavailableException failed(PriceCircuitBreaker circuit, String message) {
+        circuit.onFailure(System.nanoTime());
+        log.warn(message);
+        return new PriceUnavailableException(message);
+    }
+
+    /**
+     * İki sorğudan ilk uğurlu cavab; ikisi də uğursuz olarsa sonuncunun xətası.
+     */
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> first, CompletableFuture<T> second) {
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<T> attempt : List.of(first, second)) {
+            attempt.whenComplete((value, error) -> {
+                if (error == null) {
+                    winner.complete(value);
+                } else if (failures.incrementAndGet() == 2) {
+                    winner.completeExceptionally(error instanceof CompletionException wrapped && wrapped.getCause() != null
+                            ? wrapped.getCause() : error);
+                }
+            });
+        }
+        return winner;
+    }
+
+    private PriceCircuitBreaker breaker() {
+        PriceCircuitBreaker current = breaker;
+        if (current == null) {
+            synchronized (this) {
+                if (breaker == null) {
+                    breaker = new PriceCircuitBreaker(failureThreshold, TimeUnit.MILLISECONDS.toNanos(openDurationMillis));
+                }
+                current = breaker;
+            }
+        }
+        return current;
+    }
+}
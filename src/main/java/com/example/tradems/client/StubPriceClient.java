@@ -0,0 +1,64 @@
+package com.example.tradems.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * price-ms olmadan işləmək üçün yerli qiymət mənbəyi. Hər oxunuşda qiymət
+ * {@code volatility} payı qədər təsadüfi addım atır; {@code 0} olduqda qiymət sabitdir.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(prefix = "trading.price.stub", name = "enabled", havingValue = "true")
+public class StubPriceClient implements PriceClient {
+
+    private final ConcurrentMap<String, BigDecimal> prices = new ConcurrentHashMap<>();
+    private final BigDecimal initialPrice;
+    private final double volatility;
+
+    public StubPriceClient(@Value("${trading.price.stub.initial-price:100}") BigDecimal initialPrice,
+                           @Value("${trading.price.stub.volatility:0.001}") double volatility) {
+        this.initialPrice = initialPrice;
+        this.volatility = volatility;
+    }
+
+    @Override
+    public byte[] getRealtimePrice(String symbol) {
+        return PriceCodec.encodeBinary(nextPrice(symbol));
+    }
+
+    @Override
+    public List<PriceQuote> getRealtimePrices(Collection<String> symbols) {
+        List<PriceQuote> quotes = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            quotes.add(new PriceQuote(symbol, nextPrice(symbol)));
+        }
+        return quotes;
+    }
+
+    public void setPrice(String symbol, BigDecimal price) {
+        prices.put(symbol, price);
+    }
+
+    private BigDecimal nextPrice(String symbol) {
+        if (volatility == 0) {
+            return prices.computeIfAbsent(symbol, s -> initialPrice);
+        }
+        return prices.compute(symbol, (s, current) -> {
+            BigDecimal base = current == null ? initialPrice : current;
+            double step = ThreadLocalRandom.current().nextDouble(-volatility, volatility);
+            return base.multiply(BigDecimal.valueOf(1 + step)).setScale(2, RoundingMode.HALF_UP);
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.tradems.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${trading.threads.virtual:false}")
+    private boolean virtualThreads;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService priceFetchExecutor(@Value("${trading.price.fetch-threads:16}") int threads) {
+        return pool("price-fetch-", threads);
+    }
+
+    /**
+     * price-ms HTTP çağırışları. Son müddəti keçmiş və hedge olunmuş sorğular da burada
+     * işləyir, ona görə ölçü {@code priceFetchExecutor}-dan böyükdür.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService priceCallExecutor(@Value("${trading.price.call-threads:32}") int threads) {
+        return pool("price-call-", threads);
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService bulkOperationExecutor() {
+        return Executors.newSingleThreadExecutor(namedDaemonThreads("bulk-op-"));
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService positionStreamExecutor(@Value("${trading.stream.send-threads:8}") int threads) {
+        return pool("position-stream-", threads);
+    }
+
+    /**
+     * Mühərrik dövründə istifadəçi qruplarının paralel yerinə yetirilməsi. Paralellik
+     * {@code trading.engine.settle-parallelism} ilə məhdudlaşır, JDBC pool-undan az olmalıdır.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService engineSettleExecutor(@Value("${trading.engine.settle-parallelism:1}") int parallelism) {
+        return pool("engine-settle-", Math.max(1, parallelism));
+    }
+
+    /**
+     * {@code trading.threads.virtual=true} olduqda hər tapşırıq üçün virtual thread, əks halda
+     * sabit ölçülü daemon pool. Virtual rejimdə limit pool ölçüsü ilə deyil, çağıran tərəfin
+     * semaforu və JDBC pool-u ilə qoyulur.
+     */
+    private ExecutorService pool(String prefix, int platformThreads) {
+        return virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 1).factory())
+                : Executors.newFixedThreadPool(platformThreads, namedDaemonThreads(prefix));
+    }
+
+    static ThreadFactory namedDaemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
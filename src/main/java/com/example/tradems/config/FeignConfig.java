@@ -0,0 +1,9 @@
+package com.example.tradems.config;
+
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableFeignClients(basePackages = "com.example.tradems.client")
+public class FeignConfig {
+}
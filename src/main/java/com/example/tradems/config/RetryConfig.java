@@ -0,0 +1,12 @@
+package com.example.tradems.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.annotation.EnableRetry;
+
+/**
+ * Retry advisor-u tranzaksiya advisor-undan kənarda işləyir: hər cəhd yeni tranzaksiyadır.
+ */
+@Configuration
+@EnableRetry
+public class RetryConfig {
+}
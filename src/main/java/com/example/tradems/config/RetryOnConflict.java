@@ -0,0 +1,25 @@
+package com.example.tradems.config;
+
+import com.example.tradems.exception.ConcurrentUpdateException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Version toqquşması, kilid xətası və ya ledger konflikti olduqda metodu məhdud sayda,
+ * təsadüfi artan fasilə ilə yenidən çağırır.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(retryFor = {ConcurrencyFailureException.class, ConcurrentUpdateException.class},
+        maxAttemptsExpression = "${trading.retry.max-attempts:3}",
+        backoff = @Backoff(delayExpression = "${trading.retry.backoff-millis:5}", multiplier = 2, random = true))
+public @interface RetryOnConflict {
+}
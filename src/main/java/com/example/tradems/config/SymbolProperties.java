@@ -0,0 +1,31 @@
+package com.example.tradems.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Simvolların qiymət addımı (tick). Tick 10-un qüvvəti olmalıdır; trigger səviyyələri
+ * bu addımla tam ədəd kimi saxlanılır.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "trading.symbols")
+public class SymbolProperties {
+
+    private BigDecimal defaultTickSize = new BigDecimal("0.0001");
+    private Map<String, BigDecimal> tickSize = new HashMap<>();
+
+    public int priceScaleOf(String symbol) {
+        BigDecimal tick = tickSize.getOrDefault(symbol, defaultTickSize).stripTrailingZeros();
+        if (tick.unscaledValue().compareTo(BigInteger.ONE) != 0 || tick.scale() < 0) {
+            throw new IllegalStateException("Tick ölçüsü 10-un mənfi qüvvəti olmalıdır: " + symbol + " = " + tick);
+        }
+        return tick.scale();
+    }
+}
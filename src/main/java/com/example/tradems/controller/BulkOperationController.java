@@ -0,0 +1,28 @@
+package com.example.tradems.controller;
+
+import com.example.tradems.dto.response.BulkOperationResponse;
+import com.example.tradems.enums.BulkOperationType;
+import com.example.tradems.scheduled.BulkOperationRunner;
+import com.example.tradems.service.BulkOperationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/bulk-operations")
+@RequiredArgsConstructor
+public class BulkOperationController {
+
+    private final BulkOperationRunner bulkOperationRunner;
+    private final BulkOperationService bulkOperationService;
+
+    @PostMapping("/{type}")
+    public ResponseEntity<BulkOperationResponse> start(@PathVariable BulkOperationType type) {
+        return ResponseEntity.accepted().body(bulkOperationRunner.start(type));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<BulkOperationResponse> status(@PathVariable Long id) {
+        return ResponseEntity.ok(bulkOperationService.status(id));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.tradems.controller;
+
+import com.example.tradems.dto.request.CreateContestRequest;
+import com.example.tradems.dto.response.ContestResponse;
+import com.example.tradems.dto.response.ContestStandingResponse;
+import com.example.tradems.service.ContestService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/contests")
+@RequiredArgsConstructor
+public class ContestController {
+
+    private final ContestService contestService;
+
+    @PostMapping
+    public ResponseEntity<ContestResponse> create(@Valid @RequestBody CreateContestRequest request) {
+        return ResponseEntity.ok(contestService.create(request));
+    }
+
+    @PostMapping("/{id}/start")
+    public ResponseEntity<ContestResponse> start(@PathVariable Long id) {
+        return ResponseEntity.ok(contestService.start(id));
+    }
+
+    @PostMapping("/{id}/stop")
+    public ResponseEntity<ContestResponse> stop(@PathVariable Long id) {
+        return ResponseEntity.ok(contestService.stop(id));
+    }
+
+    @PostMapping("/{id}/join/{userId}")
+    public ResponseEntity<ContestResponse> join(@PathVariable Long id, @PathVariable Long userId) {
+        return ResponseEntity.ok(contestService.join(id, userId));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ContestResponse> get(@PathVariable Long id) {
+        return ResponseEntity.ok(contestService.get(id));
+    }
+
+    @GetMapping("/{id}/standings")
+    public ResponseEntity<List<ContestStandingResponse>> standings(@PathVariable Long id,
+                                                                   @RequestParam(defaultValue = "0") int page,
+                                                                   @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(contestService.standings(id, page, size));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.tradems.controller;
+
+import com.example.tradems.dto.response.EngineShardResponse;
+import com.example.tradems.dto.response.PriceStatsResponse;
+import com.example.tradems.scheduled.ShardedEngineRunner;
+import com.example.tradems.service.PriceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/engine")
+@RequiredArgsConstructor
+public class EngineController {
+
+    private final PriceService priceService;
+    private final ObjectProvider<ShardedEngineRunner> shardedEngineRunner;
+
+    @GetMapping("/prices")
+    public ResponseEntity<PriceStatsResponse> getPriceStats() {
+        return ResponseEntity.ok(priceService.stats());
+    }
+
+    @GetMapping("/shards")
+    public ResponseEntity<List<EngineShardResponse>> getShardStats() {
+        ShardedEngineRunner runner = shardedEngineRunner.getIfAvailable();
+        return ResponseEntity.ok(runner == null ? List.of() : runner.stats());
+    }
+}
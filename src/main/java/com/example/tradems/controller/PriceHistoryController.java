@@ -0,0 +1,25 @@
+package com.example.tradems.controller;
+
+import com.example.tradems.dto.response.CandleResponse;
+import com.example.tradems.engine.TickHistory;
+import com.example.tradems.enums.CandleInterval;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/prices")
+@RequiredArgsConstructor
+public class PriceHistoryController {
+
+    private final TickHistory tickHistory;
+
+    @GetMapping("/{symbol}/candles")
+    public ResponseEntity<List<CandleResponse>> candles(@PathVariable String symbol,
+                                                        @RequestParam(defaultValue = "1m") String interval,
+                                                        @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(tickHistory.candles(symbol, CandleInterval.of(interval), limit));
+    }
+}
@@ -1,14 +1,19 @@
 package com.example.tradems.controller;
 
+import com.example.tradems.dto.request.BulkOrderRequest;
 import com.example.tradems.dto.request.OpenTradeRequest;
+import com.example.tradems.dto.response.BulkOrderResponse;
 import com.example.tradems.dto.response.OpenTradeResponse;
 import com.example.tradems.dto.response.PendingTradeResponse;
 import com.example.tradems.model.TradeEntity;
+import com.example.tradems.service.PositionStreamService;
 import com.example.tradems.service.TradeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.UUID;
@@ -21,17 +26,28 @@ import java.util.UUID;
 public class TradeController {
 
     private final TradeService tradeService;
+    private final PositionStreamService positionStreamService;
 
     @PostMapping("/open")
     public ResponseEntity<TradeEntity> openTrade(@Valid @RequestBody OpenTradeRequest request) {
         return ResponseEntity.ok(tradeService.openTrade(request));
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkOrderResponse> submitBatch(@Valid @RequestBody BulkOrderRequest request) {
+        return ResponseEntity.ok(tradeService.submitBatch(request));
+    }
+
     @GetMapping("/active/{userId}")
     public ResponseEntity<List<OpenTradeResponse>> getActiveTrades(@PathVariable Long userId) {
         return ResponseEntity.ok(tradeService.getActiveTrades(userId));
     }
 
+    @GetMapping(value = "/stream/{userId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamActiveTrades(@PathVariable Long userId) {
+        return positionStreamService.subscribe(userId);
+    }
+
     @GetMapping("/pending/{userId}")
     public ResponseEntity<List<PendingTradeResponse>> getPendingOrders(@PathVariable Long userId) {
         return ResponseEntity.ok(tradeService.getUserPendingOrders(userId));
@@ -0,0 +1,23 @@
+package com.example.tradems.controller;
+
+import com.example.tradems.outbox.TradeEvent;
+import com.example.tradems.service.TradeOutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/trades/events")
+@RequiredArgsConstructor
+public class TradeEventController {
+
+    private final TradeOutboxService outboxService;
+
+    @GetMapping
+    public ResponseEntity<List<TradeEvent>> readAfter(@RequestParam(defaultValue = "0") long after,
+                                                      @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(outboxService.readAfter(after, Math.min(Math.max(limit, 1), 5000)));
+    }
+}
@@ -2,7 +2,13 @@ package com.example.tradems.controller;
 
 import com.example.tradems.dto.request.CreateUserRequest;
 import com.example.tradems.dto.request.UpdateBalanceRequest;
+import com.example.tradems.dto.response.BulkOperationResponse;
+import com.example.tradems.dto.response.LeaderboardEntryResponse;
+import com.example.tradems.enums.BulkOperationType;
+import com.example.tradems.dto.response.UserBalanceResponse;
 import com.example.tradems.model.UserEntity;
+import com.example.tradems.scheduled.BulkOperationRunner;
+import com.example.tradems.service.LeaderboardService;
 import com.example.tradems.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +22,8 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final LeaderboardService leaderboardService;
+    private final BulkOperationRunner bulkOperationRunner;
 
 
         @PostMapping("/create")
@@ -30,6 +38,11 @@ public class UserController {
             return ResponseEntity.ok(user);
         }
 
+        @GetMapping("/{id}/balance")
+        public ResponseEntity<UserBalanceResponse> getBalance(@PathVariable Long id) {
+            return ResponseEntity.ok(userService.getBalance(id));
+        }
+
         @PostMapping("/{id}/balance")
         public ResponseEntity<Void> updateBalance(
                 @PathVariable Long id,
@@ -39,15 +52,20 @@ public class UserController {
         }
 
         @PostMapping("/reset-balances")
-        public ResponseEntity<Void> resetBalances() {
-            userService.resetBalances();
-            return ResponseEntity.ok().build();
+        public ResponseEntity<BulkOperationResponse> resetBalances() {
+            return ResponseEntity.accepted().body(bulkOperationRunner.start(BulkOperationType.RESET_BALANCES));
         }
 
         @GetMapping("/leaderboard")
-        public ResponseEntity<List<UserEntity>> getLeaderboard() {
-            List<UserEntity> leaderboard = userService.getLeaderboard();
-            return ResponseEntity.ok(leaderboard);
+        public ResponseEntity<List<LeaderboardEntryResponse>> getLeaderboard(
+                @RequestParam(defaultValue = "0") int page,
+                @RequestParam(defaultValue = "50") int size) {
+            return ResponseEntity.ok(leaderboardService.page(page, size));
+        }
+
+        @GetMapping("/leaderboard/rank/{id}")
+        public ResponseEntity<LeaderboardEntryResponse> getRank(@PathVariable Long id) {
+            return ResponseEntity.ok(leaderboardService.rankOf(id));
         }
     }
 
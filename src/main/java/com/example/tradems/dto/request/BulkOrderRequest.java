@@ -0,0 +1,23 @@
+package com.example.tradems.dto.request;
+
+import com.example.tradems.enums.BulkOrderMode;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+public record BulkOrderRequest(
+        @NotNull(message = "Id bos ola bilez")
+        Long userId,
+        @NotNull(message = "mode bos ola bilez")
+        BulkOrderMode mode,
+        @Size(max = 500, message = "Bir paketdə ən çox 500 açılış ola bilər")
+        List<@Valid OpenTradeRequest> open,
+        @Size(max = 500, message = "Bir paketdə ən çox 500 ləğv ola bilər")
+        List<UUID> cancel,
+        @Size(max = 500, message = "Bir paketdə ən çox 500 bağlanış ola bilər")
+        List<UUID> close
+) {
+}
@@ -0,0 +1,12 @@
+package com.example.tradems.dto.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+
+public record CreateContestRequest(
+        @NotBlank(message = "name bos ola bilez")
+        String name,
+        @Min(value = 1, message = "Hədəf ən azı 1 iştirakçı olmalıdır")
+        int targetParticipants
+) {
+}
@@ -0,0 +1,20 @@
+package com.example.tradems.dto.response;
+
+import com.example.tradems.enums.BulkOperationStatus;
+import com.example.tradems.enums.BulkOperationType;
+
+import java.time.LocalDateTime;
+
+public record BulkOperationResponse(
+        Long id,
+        BulkOperationType type,
+        BulkOperationStatus status,
+        long processed,
+        long affected,
+        long total,
+        String error,
+        LocalDateTime startedAt,
+        LocalDateTime updatedAt,
+        LocalDateTime finishedAt
+) {
+}
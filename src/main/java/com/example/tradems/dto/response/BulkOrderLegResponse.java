@@ -0,0 +1,15 @@
+package com.example.tradems.dto.response;
+
+import com.example.tradems.enums.BulkOrderAction;
+import com.example.tradems.enums.BulkOrderLegStatus;
+
+import java.util.UUID;
+
+public record BulkOrderLegResponse(
+        BulkOrderAction action,
+        int index,
+        UUID tradeId,
+        BulkOrderLegStatus status,
+        String error
+) {
+}
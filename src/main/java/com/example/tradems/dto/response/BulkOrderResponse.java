@@ -0,0 +1,15 @@
+package com.example.tradems.dto.response;
+
+import com.example.tradems.enums.BulkOrderMode;
+
+import java.util.List;
+
+public record BulkOrderResponse(
+        Long userId,
+        BulkOrderMode mode,
+        boolean applied,
+        int appliedLegs,
+        int rejectedLegs,
+        List<BulkOrderLegResponse> legs
+) {
+}
@@ -0,0 +1,13 @@
+package com.example.tradems.dto.response;
+
+import java.math.BigDecimal;
+
+public record CandleResponse(
+        long openTime,
+        BigDecimal open,
+        BigDecimal high,
+        BigDecimal low,
+        BigDecimal close,
+        int ticks
+) {
+}
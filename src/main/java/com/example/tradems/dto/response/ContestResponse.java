@@ -0,0 +1,14 @@
+package com.example.tradems.dto.response;
+
+import java.time.LocalDateTime;
+
+public record ContestResponse(
+        Long id,
+        String name,
+        boolean active,
+        long participants,
+        int targetParticipants,
+        LocalDateTime startedAt,
+        LocalDateTime targetReachedAt
+) {
+}
@@ -0,0 +1,11 @@
+package com.example.tradems.dto.response;
+
+import java.math.BigDecimal;
+
+public record ContestStandingResponse(
+        long rank,
+        Long userId,
+        BigDecimal pnl,
+        int closedTrades
+) {
+}
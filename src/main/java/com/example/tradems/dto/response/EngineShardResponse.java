@@ -0,0 +1,13 @@
+package com.example.tradems.dto.response;
+
+public record EngineShardResponse(
+        int shard,
+        int symbols,
+        long cycles,
+        long lastCycleMillis,
+        long maxCycleMillis,
+        double avgCycleMillis,
+        int backlog,
+        long overruns
+) {
+}
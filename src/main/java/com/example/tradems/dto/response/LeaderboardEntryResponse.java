@@ -0,0 +1,10 @@
+package com.example.tradems.dto.response;
+
+import java.math.BigDecimal;
+
+public record LeaderboardEntryResponse(
+        long rank,
+        String username,
+        BigDecimal balance
+) {
+}
@@ -0,0 +1,21 @@
+package com.example.tradems.dto.response;
+
+public record PriceStatsResponse(
+        long fetchCount,
+        long fetchFailures,
+        double avgFetchMillis,
+        double maxFetchMillis,
+        long snapshotHits,
+        long snapshotMisses,
+        long cacheHits,
+        long cacheMisses,
+        int cachedSymbols,
+        long staleServed,
+        long skippedSymbols,
+        long hedgedRequests,
+        long timeouts,
+        long circuitRejected,
+        String circuitState,
+        long circuitOpens
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.tradems.dto.response;
+
+import java.math.BigDecimal;
+
+public record UserBalanceResponse(
+        Long userId,
+        BigDecimal available,
+        BigDecimal frozen
+) {
+}
@@ -0,0 +1,47 @@
+package com.example.tradems.engine;
+
+import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.model.ActiveTradeView;
+import com.example.tradems.repository.TradeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Aktiv trade-ləri {@code id} üzrə keyset səhifələri ilə oxuyur. Yaddaşda eyni anda ən çox
+ * bir səhifə proyeksiya olur, hər səhifə emal olunan kimi növbəti oxunur.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActiveTradeScanner {
+
+    private static final UUID FIRST_KEY = new UUID(0L, 0L);
+    private static final List<TradeStatus> ACTIVE = List.of(TradeStatus.PENDING, TradeStatus.OPEN);
+
+    private final TradeRepository tradeRepository;
+
+    @Value("${trading.engine.scan-page-size:1000}")
+    private int pageSize = 1000;
+
+    /**
+     * @return oxunan trade sayı
+     */
+    public long scan(Consumer<ActiveTradeView> consumer) {
+        long total = 0;
+        UUID after = FIRST_KEY;
+        while (true) {
+            List<ActiveTradeView> page = tradeRepository.findActivePage(ACTIVE, after, Limit.of(pageSize));
+            page.forEach(consumer);
+            total += page.size();
+            if (page.size() < pageSize) {
+                return total;
+            }
+            after = page.get(page.size() - 1).id();
+        }
+    }
+}
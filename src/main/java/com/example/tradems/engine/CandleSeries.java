@@ -0,0 +1,85 @@
+package com.example.tradems.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bir interval üçün son {@code capacity} OHLC şamı, hər sahə ayrıca primitiv massivdə.
+ * Tick gələndə yalnız cari şam yenilənir və ya yenisi açılır. Gecikmiş tick öz şamı hələ
+ * yaddaşdadırsa onun high/low-unu genişləndirir, close-u dəyişmir.
+ */
+final class CandleSeries {
+
+    private final long intervalMillis;
+    private final long[] starts;
+    private final long[] opens;
+    private final long[] highs;
+    private final long[] lows;
+    private final long[] closes;
+    private final int[] ticks;
+    private int last = -1;
+    private int size;
+
+    CandleSeries(long intervalMillis, int capacity) {
+        this.intervalMillis = intervalMillis;
+        this.starts = new long[capacity];
+        this.opens = new long[capacity];
+        this.highs = new long[capacity];
+        this.lows = new long[capacity];
+        this.closes = new long[capacity];
+        this.ticks = new int[capacity];
+    }
+
+    void add(long time, long price) {
+        long start = time - Math.floorMod(time, intervalMillis);
+        if (size > 0 && start == starts[last]) {
+            highs[last] = Math.max(highs[last], price);
+            lows[last] = Math.min(lows[last], price);
+            closes[last] = price;
+            ticks[last]++;
+            return;
+        }
+        if (size > 0 && start < starts[last]) {
+            addLate(start, price);
+            return;
+        }
+        last = (last + 1) % starts.length;
+        starts[last] = start;
+        opens[last] = price;
+        highs[last] = price;
+        lows[last] = price;
+        closes[last] = price;
+        ticks[last] = 1;
+        if (size < starts.length) {
+            size++;
+        }
+    }
+
+    /**
+     * Köhnədən yeniyə ən çox {@code limit} şam; hər element {start, open, high, low, close, ticks}.
+     */
+    List<long[]> last(int limit) {
+        int count = Math.min(limit, size);
+        List<long[]> result = new ArrayList<>(count);
+        for (int i = count - 1; i >= 0; i--) {
+            int at = Math.floorMod(last - i, starts.length);
+            result.add(new long[]{starts[at], opens[at], highs[at], lows[at], closes[at], ticks[at]});
+        }
+        return result;
+    }
+
+    private void addLate(long start, long price) {
+        for (int i = 1; i < size; i++) {
+            int at = Math.floorMod(last - i, starts.length);
+            if (starts[at] == start) {
+                highs[at] = Math.max(highs[at], price);
+                lows[at] = Math.min(lows[at], price);
+                ticks[at]++;
+                return;
+            }
+            if (starts[at] < start) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.tradems.engine;
+
+import com.example.tradems.dto.response.EngineShardResponse;
+import com.example.tradems.scheduled.TradeExecutionEngine;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Simvolların {@code hash % shardCount == id} olan hissəsini öz thread-ində, öz tempi ilə
+ * yoxlayır. Shard-lar bir-birini gözləmir.
+ */
+@Slf4j
+public class EngineShard implements Runnable {
+
+    private final int id;
+    private final int shardCount;
+    private final long fixedDelayMillis;
+    private final TradeExecutionEngine engine;
+    private final TriggerIndex triggerIndex;
+
+    private volatile boolean running = true;
+    private volatile int symbols;
+    private volatile int backlog;
+    private volatile long lastCycleNanos;
+    private volatile long maxCycleNanos;
+    private volatile long totalCycleNanos;
+    private volatile long cycles;
+    private volatile long overruns;
+
+    public EngineShard(int id, int shardCount, long fixedDelayMillis,
+                       TradeExecutionEngine engine, TriggerIndex triggerIndex) {
+        this.id = id;
+        this.shardCount = shardCount;
+        this.fixedDelayMillis = fixedDelayMillis;
+        this.engine = engine;
+        this.triggerIndex = triggerIndex;
+    }
+
+    public static int shardOf(String symbol, int shardCount) {
+        return Math.floorMod(symbol.hashCode(), shardCount);
+    }
+
+    @Override
+    public void run() {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            if (triggerIndex.isReady()) {
+                runOnce();
+            }
+            try {
+                Thread.sleep(fixedDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void runOnce() {
+        long start = System.nanoTime();
+        Set<String> owned = engine.ownedSymbols().stream()
+                .filter(symbol -> shardOf(symbol, shardCount) == id)
+                .collect(Collectors.toSet());
+        try {
+            TradeExecutionEngine.CycleResult result = engine.runCycle(owned);
+            backlog = result.candidates() - result.settled();
+        } catch (Exception e) {
+            log.error("Shard {} dövründə xəta: {}", id, e.getMessage());
+        }
+        record(owned.size(), System.nanoTime() - start);
+    }
+
+    private void record(int symbolCount, long elapsed) {
+        symbols = symbolCount;
+        lastCycleNanos = elapsed;
+        maxCycleNanos = Math.max(maxCycleNanos, elapsed);
+        totalCycleNanos += elapsed;
+        cycles++;
+        if (elapsed > TimeUnit.MILLISECONDS.toNanos(fixedDelayMillis)) {
+            overruns++;
+        }
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    public EngineShardResponse stats() {
+        long count = cycles;
+        return new EngineShardResponse(
+                id, symbols, count,
+                TimeUnit.NANOSECONDS.toMillis(lastCycleNanos),
+                TimeUnit.NANOSECONDS.toMillis(maxCycleNanos),
+                count == 0 ? 0 : (double) totalCycleNanos / count / TimeUnit.MILLISECONDS.toNanos(1),
+                backlog, overruns
+        );
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.tradems.engine;
+
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.model.ActiveTradeView;
+import com.example.tradems.model.TradeEntity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * İndeksdəki trade. Səviyyələr indeksə düşəndə bir dəfə simvolun tick ölçüsündə tam ədədə
+ * çevrilir: aşağıda işə düşənlər aşağı, yuxarıda işə düşənlər yuxarı yuvarlaqlaşdırılır.
+ * Qoyulmamış səviyyə {@link #NO_LEVEL}-dir.
+ */
+record IndexedTrade(
+        UUID id,
+        Long userId,
+        String symbol,
+        PositionSide side,
+        TradeStatus status,
+        long entryTicks,
+        long stopLossTicks,
+        long takeProfitTicks,
+        long liquidationTicks,
+        LocalDateTime openTime
+) {
+
+    static final long NO_LEVEL = Long.MIN_VALUE;
+
+    static IndexedTrade of(TradeEntity trade, int priceScale) {
+        return of(trade.getId(), trade.getUserId(), trade.getSymbol(), trade.getSide(), trade.getStatus(),
+                trade.getEntryPrice(), trade.getStopLoss(), trade.getTakeProfit(), trade.getLiquidationPrice(),
+                trade.getOpenTime(), priceScale);
+    }
+
+    static IndexedTrade of(ActiveTradeView view, int priceScale) {
+        return of(view.id(), view.userId(), view.symbol(), view.side(), view.status(),
+                view.entryPrice(), view.stopLoss(), view.takeProfit(), view.liquidationPrice(),
+                view.openTime(), priceScale);
+    }
+
+    boolean isActive() {
+        return status == TradeStatus.PENDING || status == TradeStatus.OPEN;
+    }
+
+    /**
+     * LONG üçün giriş, stop loss və likvidasiya qiymət enəndə, take profit qalxanda işə düşür; SHORT üçün əksinə.
+     */
+    private static IndexedTrade of(UUID id, Long userId, String symbol, PositionSide side, TradeStatus status,
+                                   BigDecimal entry, BigDecimal stopLoss, BigDecimal takeProfit,
+                                   BigDecimal liquidation, LocalDateTime openTime, int priceScale) {
+        RoundingMode adverse = side == PositionSide.LONG ? RoundingMode.FLOOR : RoundingMode.CEILING;
+        RoundingMode favorable = side == PositionSide.LONG ? RoundingMode.CEILING : RoundingMode.FLOOR;
+        return new IndexedTrade(id, userId, symbol, side, status,
+                ticks(entry, priceScale, adverse), ticks(stopLoss, priceScale, adverse),
+                ticks(takeProfit, priceScale, favorable), ticks(liquidation, priceScale, adverse), openTime);
+    }
+
+    private static long ticks(BigDecimal price, int priceScale, RoundingMode mode) {
+        return price == null ? NO_LEVEL : TradeMath.toUnits(price, priceScale, mode);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.tradems.engine;
+
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.exception.InsufficientFundsException;
+import com.example.tradems.exception.InvalidTradeParameterException;
+
+import java.math.BigDecimal;
+
+/**
+ * Pozisiya açılmazdan əvvəlki yoxlamalar. Ayrıca saxlanılır ki, servis və benchmark eyni kodu işlətsin.
+ */
+public final class OpenTradeRules {
+
+    public static final int MIN_LEVERAGE = 2;
+    public static final int MAX_LEVERAGE = 50;
+    public static final BigDecimal MIN_MARGIN = new BigDecimal("10");
+
+    private OpenTradeRules() {
+    }
+
+    public static void validateUserAndMargin(boolean premium, BigDecimal available, BigDecimal margin, int leverage) {
+        if (!premium) throw new RuntimeException("Premium status tələb olunur");
+        if (leverage < MIN_LEVERAGE || leverage > MAX_LEVERAGE) throw new InvalidTradeParameterException("Leverage xətası (2x-50x)");
+        if (margin.compareTo(MIN_MARGIN) < 0) throw new InsufficientFundsException("Minimum margin 10 USDT");
+        if (available.compareTo(margin) < 0) throw new InsufficientFundsException("Balans yetərsiz");
+    }
+
+    public static void validateTPSL(PositionSide side, BigDecimal entry, BigDecimal tp, BigDecimal sl) {
+        if (side == PositionSide.LONG) {
+            if (tp != null && tp.compareTo(entry) <= 0) throw new InvalidTradeParameterException("TP girişdən yuxarı olmalıdır");
+            if (sl != null && sl.compareTo(entry) >= 0) throw new InvalidTradeParameterException("SL girişdən aşağı olmalıdır");
+        } else {
+            if (tp != null && tp.compareTo(entry) >= 0) throw new InvalidTradeParameterException("TP girişdən aşağı olmalıdır");
+            if (sl != null && sl.compareTo(entry) <= 0) throw new InvalidTradeParameterException("SL girişdən yuxarı olmalıdır");
+        }
+    }
+}
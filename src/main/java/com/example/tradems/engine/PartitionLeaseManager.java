@@ -0,0 +1,198 @@
+package com.example.tradems.engine;
+
+import com.example.tradems.model.EngineNodeEntity;
+import com.example.tradems.model.PartitionLeaseEntity;
+import com.example.tradems.repository.EngineNodeRepository;
+import com.example.tradems.repository.PartitionLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Simvol partisiyalarını Postgres-dəki lease cədvəli ilə node-lar arasında bölür.
+ * Hər node canlı node sayına görə öz payını götürür, artığını buraxır; yenilənməyən
+ * lease vaxtı bitəndə başqa node tərəfindən götürülür. Lease-i bitmiş node heç nəyə sahib
+ * sayılmır, trade sətrinin kilidi isə keçid anında da təkrar yerinə yetirməyə imkan vermir.
+ * <p>
+ * Lease vaxtları DB saatı ilə yazılıb yoxlanılır. Node öz payını yerli saatla yalnız yeniləmənin
+ * başladığı andan {@code lease-ttl - lease-margin} qədər sayır. Yeniləmə ayrıca thread-də işləyir:
+ * ortaq {@code @Scheduled} thread-i uzun reconcile skanı ilə tutulanda lease-lər bitməsin.
+ */
+@Component
+@Slf4j
+public class PartitionLeaseManager {
+
+    private final PartitionLeaseRepository leaseRepository;
+    private final EngineNodeRepository nodeRepository;
+    private final Clock clock;
+    private final boolean enabled;
+    private final String nodeId;
+    private final int partitions;
+    private final Duration leaseTtl;
+    private final Duration leaseMargin;
+    private final long renewIntervalMillis;
+    // synchronized deyil: içində JDBC var, virtual thread-i carrier-ə bağlamamalıdır
+    private final ReentrantLock renewLock = new ReentrantLock();
+
+    private volatile Set<Integer> owned = Set.of();
+    private volatile LocalDateTime validUntil = LocalDateTime.MIN;
+    private ScheduledExecutorService renewer;
+
+    @Autowired
+    public PartitionLeaseManager(PartitionLeaseRepository leaseRepository,
+                                 EngineNodeRepository nodeRepository,
+                                 Clock clock,
+                                 @Value("${trading.cluster.enabled:false}") boolean enabled,
+                                 @Value("${trading.cluster.node-id:}") String nodeId,
+                                 @Value("${trading.cluster.partitions:32}") int partitions,
+                                 @Value("${trading.cluster.lease-ttl:15s}") Duration leaseTtl,
+                                 @Value("${trading.cluster.lease-margin:2s}") Duration leaseMargin,
+                                 @Value("${trading.cluster.renew-interval:5000}") long renewIntervalMillis) {
+        this.leaseRepository = leaseRepository;
+        this.nodeRepository = nodeRepository;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.partitions = partitions;
+        this.leaseTtl = leaseTtl;
+        this.leaseMargin = leaseMargin;
+        this.renewIntervalMillis = renewIntervalMillis;
+    }
+
+    public static int partitionOf(String symbol, int partitions) {
+        return Math.floorMod(symbol.hashCode(), partitions);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        ensurePartitions();
+        renew();
+        renewer = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("lease-renew").daemon().factory());
+        renewer.scheduleWithFixedDelay(this::renewSafely, renewIntervalMillis, renewIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void ensurePartitions() {
+        for (int partition = 0; partition < partitions; partition++) {
+            if (leaseRepository.existsById(partition)) continue;
+            try {
+                leaseRepository.save(new PartitionLeaseEntity(partition, null, null));
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Partisiya {} artıq başqa node tərəfindən yaradılıb", partition);
+            }
+        }
+    }
+
+    private void renewSafely() {
+        try {
+            renew();
+        } catch (RuntimeException e) {
+            log.warn("Node {} lease-lərini yeniləyə bilmədi", nodeId, e);
+        }
+    }
+
+    public void renew() {
+        if (!enabled) return;
+        renewLock.lock();
+        try {
+            renewLeases();
+        } finally {
+            renewLock.unlock();
+        }
+    }
+
+    private void renewLeases() {
+        LocalDateTime localStart = LocalDateTime.now(clock);
+        LocalDateTime now = heartbeat();
+        LocalDateTime expiresAt = now.plus(leaseTtl);
+
+        long liveNodes = Math.max(1, nodeRepository.countByHeartbeatAtAfter(now.minus(leaseTtl)));
+        int target = (int) Math.ceil((double) partitions / liveNodes);
+
+        TreeSet<Integer> next = new TreeSet<>();
+        for (Integer partition : owned) {
+            if (leaseRepository.acquire(partition, nodeId, expiresAt) == 1) {
+                next.add(partition);
+            }
+        }
+        while (next.size() > target) {
+            Integer extra = next.pollLast();
+            leaseRepository.release(extra, nodeId);
+        }
+        if (next.size() < target) {
+            for (Integer partition : leaseRepository.findClaimable()) {
+                if (next.size() >= target) break;
+                if (leaseRepository.acquire(partition, nodeId, expiresAt) == 1) {
+                    next.add(partition);
+                }
+            }
+        }
+
+        if (!next.equals(owned)) {
+            log.info("Node {} partisiyaları: {} (canlı node: {})", nodeId, next, liveNodes);
+        }
+        owned = Set.copyOf(next);
+        validUntil = localStart.plus(leaseTtl).minus(leaseMargin);
+    }
+
+    /**
+     * Heartbeat-i DB saatı ilə yeniləyir və həmin anı qaytarır.
+     */
+    private LocalDateTime heartbeat() {
+        if (nodeRepository.touch(nodeId) == 0) {
+            nodeRepository.save(new EngineNodeEntity(nodeId, LocalDateTime.now(clock)));
+            nodeRepository.touch(nodeId);
+        }
+        return nodeRepository.findHeartbeat(nodeId);
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        if (!enabled) return;
+        if (renewer != null) {
+            renewer.shutdownNow();
+        }
+        renewLock.lock();
+        try {
+            owned.forEach(partition -> leaseRepository.release(partition, nodeId));
+            owned = Set.of();
+            nodeRepository.deleteById(nodeId);
+        } finally {
+            renewLock.unlock();
+        }
+    }
+
+    public boolean owns(String symbol) {
+        if (!enabled) return true;
+        if (LocalDateTime.now(clock).isAfter(validUntil)) return false;
+        return owned.contains(partitionOf(symbol, partitions));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public Set<Integer> getOwnedPartitions() {
+        return LocalDateTime.now(clock).isAfter(validUntil) ? Set.of() : owned;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.tradems.engine;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Bir trigger növü üçün tick ilə ifadə olunmuş sıralanmış qiymət səviyyələri. Səviyyə ya
+ * qiymət ona enəndə ({@code firesAtOrBelow}), ya da qalxanda işə düşür.
+ */
+final class PriceLevels {
+
+    private final ConcurrentSkipListMap<Long, Set<UUID>> levels = new ConcurrentSkipListMap<>();
+    private final boolean firesAtOrBelow;
+
+    PriceLevels(boolean firesAtOrBelow) {
+        this.firesAtOrBelow = firesAtOrBelow;
+    }
+
+    void add(long level, UUID tradeId) {
+        levels.computeIfAbsent(level, k -> ConcurrentHashMap.newKeySet()).add(tradeId);
+    }
+
+    void remove(long level, UUID tradeId) {
+        Set<UUID> ids = levels.get(level);
+        if (ids != null && ids.remove(tradeId) && ids.isEmpty()) {
+            levels.remove(level, ids);
+        }
+    }
+
+    /**
+     * Qiymət {@code low..high} tick aralığında gəzibsə işə düşən səviyyələrdəki trade-ləri toplayır.
+     */
+    void collect(long low, long high, Collection<UUID> out) {
+        Map<Long, Set<UUID>> hit = firesAtOrBelow
+                ? levels.tailMap(low, true)
+                : levels.headMap(high, true);
+        hit.values().forEach(out::addAll);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.tradems.engine;
+
+import java.math.BigDecimal;
+
+/**
+ * Qiymətin son yoxlamadan bəri gəzdiyi aralıq və son qiymət. Tək nümunədə üçü də eynidir.
+ */
+public record PriceRange(BigDecimal low, BigDecimal high, BigDecimal last) {
+
+    public static PriceRange of(BigDecimal price) {
+        return new PriceRange(price, price, price);
+    }
+
+    public PriceRange including(BigDecimal price) {
+        return new PriceRange(low.min(price), high.max(price), price);
+    }
+
+    /**
+     * İki aralığın birləşməsi; son qiymət bu aralığınkı qalır.
+     */
+    public PriceRange union(PriceRange other) {
+        return new PriceRange(low.min(other.low), high.max(other.high), last);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.tradems.engine;
+
+import com.example.tradems.config.SymbolProperties;
+import com.example.tradems.dto.response.CandleResponse;
+import com.example.tradems.enums.CandleInterval;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Müşahidə olunmuş qiymətlərin yaddaşdakı tarixi: hər simvol üçün {@code ticks.capacity}
+ * ölçülü tick halqası və hər interval üçün {@code ticks.candle-capacity} şam. Simvol başına
+ * yaddaş sabitdir (təxminən {@code 16 * capacity + 132 * candle-capacity} bayt), simvol sayı
+ * {@code ticks.max-symbols} ilə məhdudlaşır. Mühərrik dövrlər arasındakı low/high-ı buradan alır.
+ */
+@Component
+@Slf4j
+public class TickHistory {
+
+    private final SymbolProperties symbolProperties;
+    private final Clock clock;
+    private final int capacity;
+    private final int candleCapacity;
+    private final int maxSymbols;
+    private final ConcurrentHashMap<String, SymbolHistory> histories = new ConcurrentHashMap<>();
+    private volatile boolean limitLogged;
+
+    public TickHistory(SymbolProperties symbolProperties, Clock clock,
+                       @Value("${trading.ticks.capacity:4096}") int capacity,
+                       @Value("${trading.ticks.candle-capacity:720}") int candleCapacity,
+                       @Value("${trading.ticks.max-symbols:5000}") int maxSymbols) {
+        this.symbolProperties = symbolProperties;
+        this.clock = clock;
+        this.capacity = capacity;
+        this.candleCapacity = candleCapacity;
+        this.maxSymbols = maxSymbols;
+    }
+
+    public void record(String symbol, BigDecimal price) {
+        record(symbol, price, clock.millis());
+    }
+
+    public void record(String symbol, BigDecimal price, long timeMillis) {
+        if (price == null || price.signum() <= 0) {
+            return;
+        }
+        SymbolHistory history = historyOf(symbol);
+        if (history != null) {
+            history.add(timeMillis, TradeMath.toUnits(price, history.scale, RoundingMode.HALF_UP));
+        }
+    }
+
+    public void recordAll(Map<String, BigDecimal> prices) {
+        long now = clock.millis();
+        prices.forEach((symbol, price) -> record(symbol, price, now));
+    }
+
+    /**
+     * {@code sinceMillis}-dən sonra müşahidə olunmuş qiymətlərin aralığı, tick yoxdursa {@code null}.
+     */
+    public PriceRange rangeSince(String symbol, long sinceMillis) {
+        SymbolHistory history = histories.get(symbol);
+        if (history == null) {
+            return null;
+        }
+        long[] range;
+        synchronized (history) {
+            range = history.ticks.rangeSince(sinceMillis);
+        }
+        if (range == null) {
+            return null;
+        }
+        int scale = history.scale;
+        return new PriceRange(BigDecimal.valueOf(range[0], scale), BigDecimal.valueOf(range[1], scale),
+                BigDecimal.valueOf(range[2], scale));
+    }
+
+    public List<CandleResponse> candles(String symbol, CandleInterval interval, int limit) {
+        SymbolHistory history = histories.get(symbol);
+        if (history == null) {
+            return List.of();
+        }
+        List<long[]> rows;
+        synchronized (history) {
+            rows = history.candles.get(interval).last(Math.clamp(limit, 1, candleCapacity));
+        }
+        int scale = history.scale;
+        return rows.stream()
+                .map(r -> new CandleResponse(r[0], BigDecimal.valueOf(r[1], scale), BigDecimal.valueOf(r[2], scale),
+                        BigDecimal.valueOf(r[3], scale), BigDecimal.valueOf(r[4], scale), (int) r[5]))
+                .toList();
+    }
+
+    public long now() {
+        return clock.millis();
+    }
+
+    /**
+     * Entity vaxtını tick-lərin yazıldığı saatın zonası ilə epoch ms-ə çevirir.
+     */
+    public long toMillis(LocalDateTime time) {
+        return time.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    private SymbolHistory historyOf(String symbol) {
+        SymbolHistory history = histories.get(symbol);
+        if (history != null) {
+            return history;
+        }
+        if (histories.size() >= maxSymbols) {
+            if (!limitLogged) {
+                limitLogged = true;
+                log.warn("Qiymət tarixi simvol limitinə çatdı ({}), yeni simvollar yazılmır", maxSymbols);
+            }
+            return null;
+        }
+        return histories.computeIfAbsent(symbol,
+                s -> new SymbolHistory(symbolProperties.priceScaleOf(s), capacity, candleCapacity));
+    }
+
+    private static final class SymbolHistory {
+        final int scale;
+        final TickRing ticks;
+        final Map<CandleInterval, CandleSeries> candles = new EnumMap<>(CandleInterval.class);
+
+        SymbolHistory(int scale, int capacity, int candleCapacity) {
+            this.scale = scale;
+            this.ticks = new TickRing(capacity);
+            for (CandleInterval interval : CandleInterval.values()) {
+                candles.put(interval, new CandleSeries(interval.millis(), candleCapacity));
+            }
+        }
+
+        synchronized void add(long time, long price) {
+            ticks.add(time, price);
+            for (CandleSeries series : candles.values()) {
+                series.add(time, price);
+            }
+        }
+    }
+}
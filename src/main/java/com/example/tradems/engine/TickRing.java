@@ -0,0 +1,51 @@
+package com.example.tradems.engine;
+
+/**
+ * Son {@code capacity} tick: vaxt və qiymət (simvolun tick ölçüsündə tam ədəd) iki primitiv
+ * massivdə saxlanılır, dolanda ən köhnəsinin üstünə yazılır. Sinxronizasiya çağıranın işidir.
+ */
+final class TickRing {
+
+    private final long[] times;
+    private final long[] prices;
+    private int next;
+    private int size;
+
+    TickRing(int capacity) {
+        this.times = new long[capacity];
+        this.prices = new long[capacity];
+    }
+
+    void add(long time, long price) {
+        times[next] = time;
+        prices[next] = price;
+        next = (next + 1) % times.length;
+        if (size < times.length) {
+            size++;
+        }
+    }
+
+    /**
+     * {@code since}-dən sonrakı tick-lərin {low, high, son qiymət}, belə tick yoxdursa {@code null}.
+     * Yeni tick-dən geriyə gedilir, ona görə qısa aralıq ucuz başa gəlir.
+     */
+    long[] rangeSince(long since) {
+        long low = Long.MAX_VALUE;
+        long high = Long.MIN_VALUE;
+        int found = 0;
+        for (int i = 0; i < size; i++) {
+            int at = Math.floorMod(next - 1 - i, times.length);
+            if (times[at] <= since) {
+                break;
+            }
+            low = Math.min(low, prices[at]);
+            high = Math.max(high, prices[at]);
+            found++;
+        }
+        return found == 0 ? null : new long[]{low, high, prices[Math.floorMod(next - 1, times.length)]};
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.tradems.engine;
+
+import com.example.tradems.enums.PositionSide;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * PnL və likvidasiya qiymətinin fixed-point (scaled long) hesablanması. Nəticə
+ * BigDecimal yolu ilə bit-bərabərdir: eyni unscaled dəyər və eyni scale. Long
+ * daşması və ya çox böyük scale olduqda BigDecimal referans yoluna keçir.
+ *
+ * <p>Obyekt yaratmayan hissə yalnız long qəbul edən {@link #pnlUnits} və {@link #liquidationUnits}-dir;
+ * BigDecimal qəbul edən metodlar giriş/çıxışda çevirmə edir ({@code unscaledValue}, {@code setScale})
+ * və bu çevirmə obyekt yaradır.
+ */
+public final class TradeMath {
+
+    public static final int RATIO_SCALE = 8;
+    public static final int LIQUIDATION_SCALE = 4;
+
+    private static final int MAX_SCALE = 18;
+    private static final long RATIO_ONE = 100_000_000L;
+    private static final long MAINTENANCE = 500_000L;
+    private static final BigDecimal MAINTENANCE_RATE = new BigDecimal("0.005");
+    private static final long[] POW10 = new long[MAX_SCALE + 1];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i <= MAX_SCALE; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private TradeMath() {
+    }
+
+    public static long toUnits(BigDecimal value, int scale, RoundingMode mode) {
+        return value.setScale(scale, mode).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal pnl(PositionSide side, BigDecimal entry, BigDecimal exit, BigDecimal margin, int leverage) {
+        int priceScale = Math.max(entry.scale(), exit.scale());
+        if (Math.min(entry.scale(), exit.scale()) >= 0 && priceScale <= MAX_SCALE
+                && margin.scale() >= 0 && margin.scale() <= MAX_SCALE) {
+            try {
+                long units = pnlUnits(side == PositionSide.LONG,
+                        unscaledAt(entry, priceScale), unscaledAt(exit, priceScale),
+                        margin.unscaledValue().longValueExact(), leverage);
+                return BigDecimal.valueOf(units, RATIO_SCALE + margin.scale());
+            } catch (ArithmeticException overflow) {
+                // referans yola keç
+            }
+        }
+        return pnlReference(side, entry, exit, margin, leverage);
+    }
+
+    /**
+     * Qiymətlər eyni scale-də, margin öz scale-ində; nəticə {@code RATIO_SCALE + marginScale} scale-indədir.
+     */
+    public static long pnlUnits(boolean isLong, long entry, long exit, long margin, int leverage) {
+        if (entry <= 0) {
+            throw new ArithmeticException("Giriş qiyməti müsbət olmalıdır");
+        }
+        long diff = isLong ? Math.subtractExact(exit, entry) : Math.subtractExact(entry, exit);
+        long ratio = divideHalfUp(Math.multiplyExact(diff, RATIO_ONE), entry);
+        return Math.multiplyExact(Math.multiplyExact(ratio, margin), leverage);
+    }
+
+    public static BigDecimal pnlReference(PositionSide side, BigDecimal entry, BigDecimal exit,
+                                          BigDecimal margin, int leverage) {
+        BigDecimal diff = (side == PositionSide.LONG) ? exit.subtract(entry) : entry.subtract(exit);
+        return diff.divide(entry, RATIO_SCALE, RoundingMode.HALF_UP)
+                .multiply(margin)
+                .multiply(new BigDecimal(leverage));
+    }
+
+    public static BigDecimal liquidationPrice(BigDecimal entry, int leverage, PositionSide side) {
+        if (entry.scale() >= 0 && entry.scale() <= MAX_SCALE - RATIO_SCALE) {
+            try {
+                long units = liquidationUnits(entry.unscaledValue().longValueExact(), entry.scale(),
+                        leverage, side == PositionSide.LONG);
+                return BigDecimal.valueOf(units, LIQUIDATION_SCALE);
+            } catch (ArithmeticException overflow) {
+                // referans yola keç
+            }
+        }
+        return liquidationPriceReference(entry, leverage, side);
+    }
+
+    /**
+     * @return {@code LIQUIDATION_SCALE} scale-ində likvidasiya qiyməti
+     */
+    public static long liquidationUnits(long entry, int entryScale, int leverage, boolean isLong) {
+        if (leverage <= 0) {
+            throw new ArithmeticException("Leverage müsbət olmalıdır");
+        }
+        long factor = divideHalfUp(RATIO_ONE, leverage);
+        long multiplier = isLong ? RATIO_ONE - factor + MAINTENANCE : RATIO_ONE + factor - MAINTENANCE;
+        long product = Math.multiplyExact(entry, multiplier);
+        int productScale = entryScale + RATIO_SCALE;
+        if (productScale >= LIQUIDATION_SCALE) {
+            return divideHalfUp(product, POW10[productScale - LIQUIDATION_SCALE]);
+        }
+        return Math.multiplyExact(product, POW10[LIQUIDATION_SCALE - productScale]);
+    }
+
+    public static BigDecimal liquidationPriceReference(BigDecimal entry, int leverage, PositionSide side) {
+        BigDecimal factor = BigDecimal.ONE.divide(new BigDecimal(leverage), RATIO_SCALE, RoundingMode.HALF_UP);
+        return (side == PositionSide.LONG)
+                ? entry.multiply(BigDecimal.ONE.subtract(factor).add(MAINTENANCE_RATE)).setScale(LIQUIDATION_SCALE, RoundingMode.HALF_UP)
+                : entry.multiply(BigDecimal.ONE.add(factor).subtract(MAINTENANCE_RATE)).setScale(LIQUIDATION_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * {@link RoundingMode#HALF_UP} ilə tam bölmə; {@code divisor} müsbət olmalıdır.
+     */
+    static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) >= divisor - Math.abs(remainder)) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+
+    private static long unscaledAt(BigDecimal value, int scale) {
+        long unscaled = value.unscaledValue().longValueExact();
+        return Math.multiplyExact(unscaled, POW10[scale - value.scale()]);
+    }
+}
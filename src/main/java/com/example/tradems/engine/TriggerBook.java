@@ -0,0 +1,103 @@
+package com.example.tradems.engine;
+
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeStatus;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Bir simvolun trigger kitabı: hər tərəf üçün giriş, stop loss, take profit və
+ * likvidasiya səviyyələri, simvolun tick ölçüsündə tam ədəd kimi ({@link IndexedTrade}-də
+ * indeksə düşəndə hesablanır). Dövrün low/high qiyməti simvol başına bir dəfə tick-ə çevrilir
+ * (low aşağı, high yuxarı), sonra yalnız long müqayisəsi gedir; namizədlər heç vaxt əskik olmur,
+ * dəqiq qərarı isə {@link TriggerRules} sətir kilidi altında BigDecimal ilə verir.
+ */
+final class TriggerBook {
+
+    private final int priceScale;
+
+    private final PriceLevels longEntry = new PriceLevels(true);
+    private final PriceLevels longStopLoss = new PriceLevels(true);
+    private final PriceLevels longLiquidation = new PriceLevels(true);
+    private final PriceLevels longTakeProfit = new PriceLevels(false);
+
+    private final PriceLevels shortEntry = new PriceLevels(false);
+    private final PriceLevels shortStopLoss = new PriceLevels(false);
+    private final PriceLevels shortLiquidation = new PriceLevels(false);
+    private final PriceLevels shortTakeProfit = new PriceLevels(true);
+
+    private int size;
+
+    TriggerBook(int priceScale) {
+        this.priceScale = priceScale;
+    }
+
+    synchronized void add(IndexedTrade trade) {
+        boolean isLong = trade.side() == PositionSide.LONG;
+        if (trade.status() == TradeStatus.PENDING) {
+            add(isLong ? longEntry : shortEntry, trade.entryTicks(), trade.id());
+        } else {
+            add(isLong ? longStopLoss : shortStopLoss, trade.stopLossTicks(), trade.id());
+            add(isLong ? longLiquidation : shortLiquidation, trade.liquidationTicks(), trade.id());
+            add(isLong ? longTakeProfit : shortTakeProfit, trade.takeProfitTicks(), trade.id());
+        }
+        size++;
+    }
+
+    synchronized void remove(IndexedTrade trade) {
+        boolean isLong = trade.side() == PositionSide.LONG;
+        if (trade.status() == TradeStatus.PENDING) {
+            remove(isLong ? longEntry : shortEntry, trade.entryTicks(), trade.id());
+        } else {
+            remove(isLong ? longStopLoss : shortStopLoss, trade.stopLossTicks(), trade.id());
+            remove(isLong ? longLiquidation : shortLiquidation, trade.liquidationTicks(), trade.id());
+            remove(isLong ? longTakeProfit : shortTakeProfit, trade.takeProfitTicks(), trade.id());
+        }
+        size--;
+    }
+
+    void collectPending(BigDecimal low, BigDecimal high, Collection<UUID> out) {
+        long lowTicks = toTicks(low, RoundingMode.FLOOR);
+        long highTicks = toTicks(high, RoundingMode.CEILING);
+        longEntry.collect(lowTicks, highTicks, out);
+        shortEntry.collect(lowTicks, highTicks, out);
+    }
+
+    void collectOpen(BigDecimal low, BigDecimal high, Collection<UUID> out) {
+        long lowTicks = toTicks(low, RoundingMode.FLOOR);
+        long highTicks = toTicks(high, RoundingMode.CEILING);
+        longLiquidation.collect(lowTicks, highTicks, out);
+        longStopLoss.collect(lowTicks, highTicks, out);
+        longTakeProfit.collect(lowTicks, highTicks, out);
+        shortLiquidation.collect(lowTicks, highTicks, out);
+        shortStopLoss.collect(lowTicks, highTicks, out);
+        shortTakeProfit.collect(lowTicks, highTicks, out);
+    }
+
+    int priceScale() {
+        return priceScale;
+    }
+
+    synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void add(PriceLevels levels, long ticks, UUID tradeId) {
+        if (ticks != IndexedTrade.NO_LEVEL) {
+            levels.add(ticks, tradeId);
+        }
+    }
+
+    private void remove(PriceLevels levels, long ticks, UUID tradeId) {
+        if (ticks != IndexedTrade.NO_LEVEL) {
+            levels.remove(ticks, tradeId);
+        }
+    }
+
+    private long toTicks(BigDecimal price, RoundingMode mode) {
+        return TradeMath.toUnits(price, priceScale, mode);
+    }
+}
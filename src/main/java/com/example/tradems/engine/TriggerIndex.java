@@ -0,0 +1,209 @@
+package com.example.tradems.engine;
+
+import com.example.tradems.config.SymbolProperties;
+import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.model.ActiveTradeView;
+import com.example.tradems.model.TradeEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Aktiv trade-lərin yaddaşdakı trigger indeksi. Mühərrik hər qiymət dəyişikliyində
+ * bütün trade-ləri deyil, yalnız səviyyəsi keçilmiş trade-ləri yoxlayır.
+ * İşə düşmüş trade indeksdən çıxdığı üçün qiymətin ödədiyi səviyyələr elə son
+ * yoxlamadan bəri keçilmiş səviyyələrdir.
+ */
+@Component
+public class TriggerIndex {
+
+    private final ConcurrentMap<String, TriggerBook> books = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, IndexedTrade> trades = new ConcurrentHashMap<>();
+    private final SymbolProperties symbolProperties;
+    private volatile boolean ready;
+
+    public TriggerIndex(SymbolProperties symbolProperties) {
+        this.symbolProperties = symbolProperties;
+    }
+
+    public void index(TradeEntity trade) {
+        apply(IndexedTrade.of(trade, scaleOf(trade.getSymbol())));
+    }
+
+    public void index(ActiveTradeView trade) {
+        apply(IndexedTrade.of(trade, scaleOf(trade.symbol())));
+    }
+
+    public void remove(UUID tradeId) {
+        trades.computeIfPresent(tradeId, (id, previous) -> {
+            books.get(previous.symbol()).remove(previous);
+            return null;
+        });
+    }
+
+    /**
+     * Trade-in indi olan vəziyyətini götürür və tranzaksiya commit olunandan sonra indeksə yazır.
+     */
+    public void indexAfterCommit(TradeEntity trade) {
+        IndexedTrade snapshot = IndexedTrade.of(trade, scaleOf(trade.getSymbol()));
+        afterCommit(() -> apply(snapshot));
+    }
+
+    public void removeAfterCommit(UUID tradeId) {
+        afterCommit(() -> remove(tradeId));
+    }
+
+    public void collectPending(String symbol, BigDecimal low, BigDecimal high, Collection<UUID> out) {
+        TriggerBook book = books.get(symbol);
+        if (book != null) {
+            book.collectPending(low, high, out);
+        }
+    }
+
+    public void collectOpen(String symbol, BigDecimal low, BigDecimal high, Collection<UUID> out) {
+        TriggerBook book = books.get(symbol);
+        if (book != null) {
+            book.collectOpen(low, high, out);
+        }
+    }
+
+    public Long userIdOf(UUID tradeId) {
+        IndexedTrade trade = trades.get(tradeId);
+        return trade == null ? null : trade.userId();
+    }
+
+    /**
+     * Trade-in indeksə düşdüyü vəziyyətdəki açılış (limit order üçün yaradılma) vaxtı.
+     */
+    public LocalDateTime openTimeOf(UUID tradeId) {
+        IndexedTrade trade = trades.get(tradeId);
+        return trade == null ? null : trade.openTime();
+    }
+
+    /**
+     * Trade-in indeksdəki statusu; indeksdə yoxdursa {@code null}.
+     */
+    public TradeStatus statusOf(UUID tradeId) {
+        IndexedTrade trade = trades.get(tradeId);
+        return trade == null ? null : trade.status();
+    }
+
+    public boolean hasSymbol(String symbol) {
+        TriggerBook book = books.get(symbol);
+        return book != null && !book.isEmpty();
+    }
+
+    /**
+     * İndeksdəki trade id-lərinin dəyişdirilə bilən surəti.
+     */
+    public Set<UUID> ids() {
+        return new HashSet<>(trades.keySet());
+    }
+
+    /**
+     * İndeks girişlərinin surəti. {@link #reindex} və {@link #removeIfUnchanged} girişi bu surətdəki
+     * obyektlə müqayisə edir: arada yenilənmiş giriş daha təzədir və toxunulmur.
+     */
+    Map<UUID, IndexedTrade> entries() {
+        return new HashMap<>(trades);
+    }
+
+    void reindex(ActiveTradeView trade, IndexedTrade expected) {
+        IndexedTrade next = IndexedTrade.of(trade, scaleOf(trade.symbol()));
+        trades.compute(next.id(), (id, previous) -> {
+            if (previous != expected) return previous;
+            if (previous != null) {
+                books.get(previous.symbol()).remove(previous);
+            }
+            if (!next.isActive()) return null;
+            book(next.symbol()).add(next);
+            return next;
+        });
+    }
+
+    boolean removeIfUnchanged(UUID tradeId, IndexedTrade expected) {
+        boolean[] removed = {false};
+        trades.computeIfPresent(tradeId, (id, previous) -> {
+            if (previous != expected) return previous;
+            books.get(previous.symbol()).remove(previous);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    public Set<String> symbols() {
+        return books.entrySet().stream()
+                .filter(e -> !e.getValue().isEmpty())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    public int size() {
+        return trades.size();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    public void clear() {
+        ready = false;
+        trades.keySet().forEach(this::remove);
+    }
+
+    private void apply(IndexedTrade trade) {
+        if (trade.id() == null) return;
+        if (!trade.isActive()) {
+            remove(trade.id());
+            return;
+        }
+        trades.compute(trade.id(), (id, previous) -> {
+            if (previous != null) {
+                books.get(previous.symbol()).remove(previous);
+            }
+            book(trade.symbol()).add(trade);
+            return trade;
+        });
+    }
+
+    private TriggerBook book(String symbol) {
+        return books.computeIfAbsent(symbol, s -> new TriggerBook(symbolProperties.priceScaleOf(s)));
+    }
+
+    /**
+     * Simvolun tick scale-i kitabda saxlanılır ki, hər indeksləmədə tick ölçüsü yenidən hesablanmasın.
+     */
+    private int scaleOf(String symbol) {
+        return book(symbol).priceScale();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.tradems.engine;
+
+import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.repository.TradeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TriggerIndexLoader {
+
+    private final TradeRepository tradeRepository;
+    private final ActiveTradeScanner scanner;
+    private final TriggerIndex triggerIndex;
+    private final Clock clock;
+
+    @Value("${trading.cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    @Value("${trading.cluster.index-refresh-overlap:30s}")
+    private Duration refreshOverlap = Duration.ofSeconds(30);
+
+    private volatile LocalDateTime lastRefresh;
+
+    /**
+     * İndeksi səhifə-səhifə qurur. Mühərrik ilk səhifədən sonra işə başlaya bilər:
+     * hələ oxunmamış trade-lər sadəcə növbəti dövrlərdə yoxlanılır.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lastRefresh = LocalDateTime.now(clock);
+        triggerIndex.clear();
+        triggerIndex.markReady();
+        long scanned = scanner.scan(triggerIndex::index);
+        log.info("Trigger indeksi quruldu: {} trade oxundu, {} simvol", scanned, triggerIndex.symbols().size());
+    }
+
+    /**
+     * Tam keyset skanı ilə indeksi DB ilə tutuşdurur; itmiş after-commit yeniləmələrini bərpa edir.
+     * Skandan əvvəl indeksdə olub skanda görünməyən trade artıq aktiv deyil və çıxarılır.
+     * Skan zamanı girişi dəyişmiş (əlavə, yenilənmiş, çıxarılmış) trade-lərə toxunulmur: səhifə
+     * daha əvvəl oxunmuş ola bilər və köhnə proyeksiya təzə girişi əvəz etməməlidir.
+     */
+    @Scheduled(fixedDelayString = "${trading.engine.reconcile-interval:300000}",
+            initialDelayString = "${trading.engine.reconcile-interval:300000}")
+    public void reconcile() {
+        if (!triggerIndex.isReady()) return;
+        Map<UUID, IndexedTrade> before = triggerIndex.entries();
+        Set<UUID> stale = new HashSet<>(before.keySet());
+        scanner.scan(trade -> {
+            stale.remove(trade.id());
+            triggerIndex.reindex(trade, before.get(trade.id()));
+        });
+        long removed = stale.stream().filter(id -> triggerIndex.removeIfUnchanged(id, before.get(id))).count();
+        if (removed > 0) {
+            log.info("Trigger indeksindən {} aktiv olmayan trade çıxarıldı", removed);
+        }
+    }
+
+    /**
+     * Klaster rejimində başqa node-larda açılmış və ya aktivləşmiş trade-ləri indeksə əlavə edir.
+     * Aktivləşmə {@code openTime}-ı yenilədiyi üçün bir sorğu hər ikisini tutur.
+     */
+    @Scheduled(fixedDelayString = "${trading.cluster.index-refresh-interval:2000}")
+    public void refresh() {
+        if (!clusterEnabled || !triggerIndex.isReady()) return;
+        LocalDateTime now = LocalDateTime.now(clock);
+        tradeRepository.findActiveOpenedAfter(
+                List.of(TradeStatus.PENDING, TradeStatus.OPEN), lastRefresh.minus(refreshOverlap)
+        ).forEach(triggerIndex::index);
+        lastRefresh = now;
+    }
+}
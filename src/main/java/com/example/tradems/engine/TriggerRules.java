@@ -0,0 +1,77 @@
+package com.example.tradems.engine;
+
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.model.TradeEntity;
+
+import java.math.BigDecimal;
+
+/**
+ * Trade-in səviyyələrinin dəqiq yoxlanışı. Namizədləri {@link TriggerIndex} tick ilə (long) seçir,
+ * yekun qərar isə burada trade-in öz BigDecimal səviyyələri ilə verilir, çünki səviyyə tick ölçüsünə
+ * bölünməyə bilər və nəticə DB-dəki dəyərlə üst-üstə düşməlidir.
+ */
+public final class TriggerRules {
+
+    private TriggerRules() {
+    }
+
+    public static boolean isTargetPriceHit(TradeEntity t, BigDecimal price) {
+        return (t.getSide() == PositionSide.LONG) ? price.compareTo(t.getEntryPrice()) <= 0
+                : price.compareTo(t.getEntryPrice()) >= 0;
+    }
+
+    public static boolean isTakeProfitHit(TradeEntity t, BigDecimal price) {
+        if (t.getTakeProfit() == null) return false;
+        return (t.getSide() == PositionSide.LONG) ? price.compareTo(t.getTakeProfit()) >= 0
+                : price.compareTo(t.getTakeProfit()) <= 0;
+    }
+
+    public static boolean isStopLossHit(TradeEntity t, BigDecimal price) {
+        if (t.getStopLoss() == null) return false;
+        return (t.getSide() == PositionSide.LONG) ? price.compareTo(t.getStopLoss()) <= 0
+                : price.compareTo(t.getStopLoss()) >= 0;
+    }
+
+    public static boolean isLiquidationHit(TradeEntity t, BigDecimal price) {
+        return (t.getSide() == PositionSide.LONG) ? price.compareTo(t.getLiquidationPrice()) <= 0
+                : price.compareTo(t.getLiquidationPrice()) >= 0;
+    }
+
+    /**
+     * Açıq pozisiyanın bağlanma səbəbi, heç bir səviyyə keçilməyibsə {@code null}.
+     */
+    public static String closeReason(TradeEntity t, BigDecimal price) {
+        return closeReason(t, PriceRange.of(price));
+    }
+
+    public static boolean isTargetPriceHit(TradeEntity t, PriceRange range) {
+        return isTargetPriceHit(t, t.getSide() == PositionSide.LONG ? range.low() : range.high());
+    }
+
+    /**
+     * Aralıqda həm zərər, həm mənfəət səviyyəsi keçilibsə hansının əvvəl olduğu bilinmir;
+     * ehtiyatlı qərar verilir — likvidasiya və stop loss take profit-dən öndədir.
+     */
+    public static String closeReason(TradeEntity t, PriceRange range) {
+        boolean isLong = t.getSide() == PositionSide.LONG;
+        BigDecimal adverse = isLong ? range.low() : range.high();
+        BigDecimal favorable = isLong ? range.high() : range.low();
+        if (isLiquidationHit(t, adverse)) return "LIQUIDATED";
+        if (isStopLossHit(t, adverse)) return "STOP_LOSS";
+        if (isTakeProfitHit(t, favorable)) return "TAKE_PROFIT";
+        return null;
+    }
+
+    /**
+     * Bağlanış qiyməti: son qiymət də səviyyəni keçibsə son qiymət, əks halda səviyyənin özü —
+     * qiymət dövr arasında səviyyəyə çatıb geri qayıdıbsa icra həmin səviyyədə olub.
+     */
+    public static BigDecimal exitPrice(TradeEntity t, String reason, PriceRange range) {
+        BigDecimal last = range.last();
+        return switch (reason) {
+            case "LIQUIDATED" -> isLiquidationHit(t, last) ? last : t.getLiquidationPrice();
+            case "STOP_LOSS" -> isStopLossHit(t, last) ? last : t.getStopLoss();
+            default -> isTakeProfitHit(t, last) ? last : t.getTakeProfit();
+        };
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.tradems.enums;
+
+public enum BulkOperationType {
+    RESET_BALANCES, RECALCULATE_RANKS, EXPIRE_SUBSCRIPTIONS
+}
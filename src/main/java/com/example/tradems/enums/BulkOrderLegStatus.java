@@ -0,0 +1,5 @@
+package com.example.tradems.enums;
+
+public enum BulkOrderLegStatus {
+    APPLIED, REJECTED, SKIPPED
+}
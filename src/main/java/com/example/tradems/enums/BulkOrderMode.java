@@ -0,0 +1,5 @@
+package com.example.tradems.enums;
+
+public enum BulkOrderMode {
+    ALL_OR_NOTHING, BEST_EFFORT
+}
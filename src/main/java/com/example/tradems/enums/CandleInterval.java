@@ -0,0 +1,32 @@
+package com.example.tradems.enums;
+
+import com.example.tradems.exception.InvalidTradeParameterException;
+
+public enum CandleInterval {
+    S1("1s", 1_000), M1("1m", 60_000), M5("5m", 300_000);
+
+    private final String code;
+    private final long millis;
+
+    CandleInterval(String code, long millis) {
+        this.code = code;
+        this.millis = millis;
+    }
+
+    public String code() {
+        return code;
+    }
+
+    public long millis() {
+        return millis;
+    }
+
+    public static CandleInterval of(String code) {
+        for (CandleInterval interval : values()) {
+            if (interval.code.equalsIgnoreCase(code) || interval.name().equalsIgnoreCase(code)) {
+                return interval;
+            }
+        }
+        throw new InvalidTradeParameterException("Naməlum interval: " + code + " (1s, 1m, 5m)");
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.tradems.enums;
+
+public enum EngineMode {
+    SINGLE, SHARDED,
+    /** Dövrlər planlaşdırıcı ilə deyil, xaricdən (yük testi, replay) {@code runCycle} ilə işlədilir. */
+    EXTERNAL
+}
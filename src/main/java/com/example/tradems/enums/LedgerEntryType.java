@@ -0,0 +1,10 @@
+package com.example.tradems.enums;
+
+public enum LedgerEntryType {
+    RESERVE,
+    FREEZE,
+    UNFREEZE,
+    RELEASE,
+    PAYOUT,
+    ADJUSTMENT
+}
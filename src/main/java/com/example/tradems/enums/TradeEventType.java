@@ -0,0 +1,5 @@
+package com.example.tradems.enums;
+
+public enum TradeEventType {
+    OPENED, ORDER_PLACED, ACTIVATED, LIQUIDATED, STOP_LOSS, TAKE_PROFIT, CLOSED, CANCELLED
+}
@@ -0,0 +1,7 @@
+package com.example.tradems.exception;
+
+public class BalanceConflictException extends ConcurrentUpdateException {
+    public BalanceConflictException(String message) {
+        super(message);
+    }
+}
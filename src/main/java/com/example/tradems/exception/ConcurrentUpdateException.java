@@ -0,0 +1,7 @@
+package com.example.tradems.exception;
+
+public class ConcurrentUpdateException extends TradingException {
+    public ConcurrentUpdateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.tradems.exception;
+
+public class PriceFormatException extends TradingException {
+    public PriceFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.tradems.exception;
+
+/**
+ * Qiymət servisi vaxtında cavab vermədi, xəta qaytardı və ya circuit açıqdır.
+ */
+public class PriceUnavailableException extends TradingException {
+    public PriceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.tradems.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mühərrik və trade servisinin Micrometer metrikləri. Meter-lər əvvəlcədən qeydiyyatdan
+ * keçirilir və sahələrdə saxlanılır: isti yolda yalnız {@code System.nanoTime()} və
+ * {@code record(long, TimeUnit)} çağırılır, tag axtarışı və {@code Timer.Sample} yaranmır.
+ * Yalnız simvol üzrə qiymət timer-ləri ilk istifadədə yaradılıb keşlənir; onlar
+ * {@code trading.metrics.price-by-symbol} ilə açılır və simvol sayı qədər seriya yaratdığı
+ * üçün percentile histogram-sız (say, cəm, maksimum) qeyd olunur.
+ */
+@Component
+public class TradingMetrics {
+
+    public static final String LIQUIDATED = "LIQUIDATED";
+    public static final String STOP_LOSS = "STOP_LOSS";
+    public static final String TAKE_PROFIT = "TAKE_PROFIT";
+    public static final String ACTIVATED = "ACTIVATED";
+
+    private final MeterRegistry registry;
+    private final boolean priceBySymbol;
+
+    private final Timer cycle;
+    private final Timer pricePhase;
+    private final Timer pendingPhase;
+    private final Timer openPhase;
+    private final Timer settlePhase;
+    private final Counter pendingCandidates;
+    private final Counter openCandidates;
+    private final Map<String, Counter> triggered;
+    private final Timer settlementLag;
+    private final Timer userLockWait;
+    private final Timer tradeLockWait;
+    private final Timer priceFetchAll;
+    private final ConcurrentMap<String, Timer> priceFetchBySymbol = new ConcurrentHashMap<>();
+
+    public TradingMetrics(MeterRegistry registry,
+                          @Value("${trading.metrics.price-by-symbol:false}") boolean priceBySymbol) {
+        this.registry = registry;
+        this.priceBySymbol = priceBySymbol;
+        cycle = histogram(Timer.builder("trading.engine.cycle")
+                .description("Mühərrik dövrünün tam müddəti"));
+        pricePhase = phase("price");
+        pendingPhase = phase("pending");
+        openPhase = phase("open");
+        settlePhase = phase("settle");
+        pendingCandidates = candidates("pending");
+        openCandidates = candidates("open");
+        triggered = Map.of(
+                LIQUIDATED, triggered(LIQUIDATED),
+                STOP_LOSS, triggered(STOP_LOSS),
+                TAKE_PROFIT, triggered(TAKE_PROFIT),
+                ACTIVATED, triggered(ACTIVATED)
+        );
+        settlementLag = histogram(Timer.builder("trading.engine.settlement.lag")
+                .description("Qiymət snapshot-undan trade-in yerinə yetirilməsinə qədər"));
+        userLockWait = lockWait("user");
+        tradeLockWait = lockWait("trade");
+        priceFetchAll = priceTimer("all");
+    }
+
+    public void recordCycle(long nanos) {
+        cycle.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPhases(long priceNanos, long pendingNanos, long openNanos, long settleNanos) {
+        pricePhase.record(priceNanos, TimeUnit.NANOSECONDS);
+        pendingPhase.record(pendingNanos, TimeUnit.NANOSECONDS);
+        openPhase.record(openNanos, TimeUnit.NANOSECONDS);
+        settlePhase.record(settleNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCandidates(long pending, long open) {
+        pendingCandidates.increment(pending);
+        openCandidates.increment(open);
+    }
+
+    /**
+     * Bir snapshot-dan yerinə yetirilmiş {@code settled} trade üçün gecikmə.
+     */
+    public void recordSettlementLag(long nanos, int settled) {
+        for (int i = 0; i < settled; i++) {
+            settlementLag.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Səbəbləri tranzaksiya commit olunandan sonra sayır ki, retry olunan cəhdlər iki dəfə sayılmasın.
+     */
+    public void countTriggeredAfterCommit(TriggerCounts counts) {
+        if (counts.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counts.addTo(triggered);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                counts.addTo(triggered);
+            }
+        });
+    }
+
+    public double triggeredCount(String reason) {
+        return triggered.get(reason).count();
+    }
+
+    public void recordUserLockWait(long nanos) {
+        userLockWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTradeLockWait(long nanos) {
+        tradeLockWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPriceFetch(String symbol, long nanos) {
+        priceTimerOf(symbol).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Toplu sorğunun müddəti sorğudakı hər simvolun qiymətinin gəlmə müddətidir.
+     */
+    public void recordPriceFetch(Collection<String> symbols, long nanos) {
+        if (!priceBySymbol) {
+            priceFetchAll.record(nanos, TimeUnit.NANOSECONDS);
+            return;
+        }
+        for (String symbol : symbols) {
+            priceTimerOf(symbol).record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer priceTimerOf(String symbol) {
+        if (!priceBySymbol) {
+            return priceFetchAll;
+        }
+        Timer timer = priceFetchBySymbol.get(symbol);
+        return timer != null ? timer : priceFetchBySymbol.computeIfAbsent(symbol, this::priceTimer);
+    }
+
+    private Timer priceTimer(String symbol) {
+        return Timer.builder("trading.price.fetch")
+                .description("PriceClient sorğusunun gecikməsi")
+                .tag("symbol", symbol)
+                .register(registry);
+    }
+
+    private Timer phase(String name) {
+        return histogram(Timer.builder("trading.engine.phase")
+                .description("Mühərrik dövrünün mərhələləri")
+                .tag("phase", name));
+    }
+
+    private Timer lockWait(String entity) {
+        return histogram(Timer.builder("trading.lock.wait")
+                .description("findByIdWithLock gözləmə və sorğu müddəti")
+                .tag("entity", entity));
+    }
+
+    private Counter candidates(String phase) {
+        return Counter.builder("trading.engine.candidates")
+                .description("Səviyyəsi keçilmiş və yoxlanılan trade-lər")
+                .tag("phase", phase)
+                .register(registry);
+    }
+
+    private Counter triggered(String reason) {
+        return Counter.builder("trading.engine.triggered")
+                .description("Yerinə yetirilmiş trigger-lər")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private Timer histogram(Timer.Builder builder) {
+        return builder.publishPercentileHistogram().register(registry);
+    }
+}
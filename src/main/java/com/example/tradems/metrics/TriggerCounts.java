@@ -0,0 +1,37 @@
+package com.example.tradems.metrics;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.util.Map;
+
+/**
+ * Bir settlement tranzaksiyasında işə düşmüş trigger-lərin səbəb üzrə sayı.
+ */
+public final class TriggerCounts {
+
+    private int liquidated;
+    private int stopLoss;
+    private int takeProfit;
+    private int activated;
+
+    public void add(String reason) {
+        switch (reason) {
+            case TradingMetrics.LIQUIDATED -> liquidated++;
+            case TradingMetrics.STOP_LOSS -> stopLoss++;
+            case TradingMetrics.TAKE_PROFIT -> takeProfit++;
+            case TradingMetrics.ACTIVATED -> activated++;
+            default -> throw new IllegalArgumentException("Naməlum səbəb: " + reason);
+        }
+    }
+
+    boolean isEmpty() {
+        return liquidated + stopLoss + takeProfit + activated == 0;
+    }
+
+    void addTo(Map<String, Counter> counters) {
+        counters.get(TradingMetrics.LIQUIDATED).increment(liquidated);
+        counters.get(TradingMetrics.STOP_LOSS).increment(stopLoss);
+        counters.get(TradingMetrics.TAKE_PROFIT).increment(takeProfit);
+        counters.get(TradingMetrics.ACTIVATED).increment(activated);
+    }
+}
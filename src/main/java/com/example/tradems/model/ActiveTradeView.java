@@ -0,0 +1,26 @@
+package com.example.tradems.model;
+
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Trigger indeksi üçün lazım olan sahələrin read-only proyeksiyası. Persistence context-ə
+ * düşmür, dirty checking olmur.
+ */
+public record ActiveTradeView(
+        UUID id,
+        Long userId,
+        String symbol,
+        PositionSide side,
+        TradeStatus status,
+        BigDecimal entryPrice,
+        BigDecimal stopLoss,
+        BigDecimal takeProfit,
+        BigDecimal liquidationPrice,
+        LocalDateTime openTime
+) {
+}
@@ -0,0 +1,49 @@
+package com.example.tradems.model;
+
+import com.example.tradems.enums.LedgerEntryType;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Balans hərəkətinin dəyişməz qeydi. Balansı azaldan qeydlər istifadəçi üzrə ardıcıl
+ * {@code debitSeq} daşıyır; (user_id, debit_seq) unikallığı eyni anda iki çıxılmanın
+ * eyni balans üzərində yoxlanmasına imkan vermir.
+ */
+@Data
+@Entity
+@Table(name = "balance_ledger",
+        uniqueConstraints = @UniqueConstraint(name = "uq_balance_ledger_user_debit_seq", columnNames = {"user_id", "debit_seq"}))
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BalanceLedgerEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_ledger_seq")
+    @SequenceGenerator(name = "balance_ledger_seq", sequenceName = "balance_ledger_seq", allocationSize = 50)
+    Long id;
+
+    Long userId;
+
+    UUID tradeId;
+
+    @Enumerated(EnumType.STRING)
+    LedgerEntryType entryType;
+
+    BigDecimal availableDelta;
+
+    BigDecimal frozenDelta;
+
+    Long debitSeq;
+
+    boolean compacted = false;
+
+    LocalDateTime createdAt = LocalDateTime.now();
+}
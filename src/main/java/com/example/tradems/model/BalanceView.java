@@ -0,0 +1,15 @@
+package com.example.tradems.model;
+
+import java.math.BigDecimal;
+
+/**
+ * İstifadəçi balansının bir SQL snapshot-ından oxunmuş proyeksiyası: sıxılmış balans
+ * üstəgəl hələ sıxılmamış ledger qeydləri. {@code debitSeq} son çıxılmanın nömrəsidir.
+ */
+public record BalanceView(
+        Long userId,
+        BigDecimal available,
+        BigDecimal frozen,
+        Long debitSeq
+) {
+}
@@ -0,0 +1,53 @@
+package com.example.tradems.model;
+
+import com.example.tradems.enums.BulkOperationStatus;
+import com.example.tradems.enums.BulkOperationType;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Uzun sürən admin əməliyyatının vəziyyəti. {@code lastUserId} sonuncu commit olunmuş
+ * chunk-ın kursorudur; əməliyyat kəsiləndə buradan davam edir.
+ */
+@Data
+@Entity
+@Table(name = "bulk_operations")
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BulkOperationEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Enumerated(EnumType.STRING)
+    BulkOperationType type;
+
+    @Enumerated(EnumType.STRING)
+    BulkOperationStatus status;
+
+    Long lastUserId = 0L;
+
+    long processed;
+
+    long affected;
+
+    long total;
+
+    String error;
+
+    LocalDateTime startedAt;
+
+    LocalDateTime updatedAt;
+
+    LocalDateTime finishedAt;
+
+    @Version
+    Long version;
+}
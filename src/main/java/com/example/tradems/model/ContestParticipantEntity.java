@@ -0,0 +1,38 @@
+package com.example.tradems.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Yarışma iştirakçısı. Hər qoşulma ayrıca sətir əlavə edir, ortaq sətir yenilənmir;
+ * {@code counted} sətrin {@code cotest.current_participants}-ə artıq əlavə edildiyini göstərir.
+ */
+@Data
+@Entity
+@Table(name = "contest_participants")
+@IdClass(ContestParticipantId.class)
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ContestParticipantEntity {
+    @Id
+    Long contestId;
+
+    @Id
+    Long userId;
+
+    LocalDateTime joinedAt;
+
+    boolean counted = false;
+
+    BigDecimal pnl = BigDecimal.ZERO;
+
+    int closedTrades;
+}
@@ -0,0 +1,13 @@
+package com.example.tradems.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Yarışma sıralaması üçün iştirakçının yığcam proyeksiyası.
+ */
+public record ContestStanding(
+        Long userId,
+        BigDecimal pnl,
+        int closedTrades
+) {
+}
@@ -7,6 +7,12 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.FieldDefaults;
 
+import java.time.LocalDateTime;
+
+/**
+ * Yarışma. {@code currentParticipants} qoşulma zamanı yox, {@code ContestFlusher} tərəfindən
+ * toplu artırılır; {@code targetReachedAt} hədəfə çatma anını bir dəfə qeyd edir.
+ */
 @Data
 @Entity
 @Table(name = "cotest")
@@ -17,8 +23,11 @@ import lombok.experimental.FieldDefaults;
 public class CotestEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
-    Long id=1L;
+    Long id;
+    String name;
     boolean active=false;
     int currentParticipants = 0;
-    final int targetParticipants = 100;
+    int targetParticipants = 100;
+    LocalDateTime startedAt;
+    LocalDateTime targetReachedAt;
 }
@@ -0,0 +1,23 @@
+package com.example.tradems.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "engine_node")
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EngineNodeEntity {
+    @Id
+    String nodeId;
+
+    LocalDateTime heartbeatAt;
+}
@@ -0,0 +1,13 @@
+package com.example.tradems.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Reytinq üçün istifadəçinin yığcam proyeksiyası.
+ */
+public record LeaderboardStanding(
+        Long userId,
+        String username,
+        BigDecimal balance
+) {
+}
@@ -0,0 +1,25 @@
+package com.example.tradems.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "engine_partition_lease")
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PartitionLeaseEntity {
+    @Id
+    Integer partitionId;
+
+    String owner;
+
+    LocalDateTime expiresAt;
+}
@@ -59,4 +59,7 @@ public class TradeEntity {
 
      LocalDateTime closeTime;
 
+    @Version
+     Long version;
+
 }
@@ -0,0 +1,25 @@
+package com.example.tradems.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Outbox relay-inin son verdiyi offset. Tək sətirdir; relay onu kilidləyib offset verir,
+ * ona görə offset-lər təkrarlanmır və commit sırası ilə görünür.
+ */
+@Data
+@Entity
+@Table(name = "trade_outbox_cursor")
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TradeOutboxCursorEntity {
+    @Id
+    Integer id;
+
+    long lastOffset;
+}
@@ -0,0 +1,56 @@
+package com.example.tradems.model;
+
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeEventType;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Trade həyat dövrü hadisəsi; trade dəyişikliyi ilə eyni tranzaksiyada yazılır.
+ * {@code relayOffset} relay göndərəndə verilir və istehlakçılar üçün davam nöqtəsidir;
+ * {@code null} hələ göndərilməmiş deməkdir. {@code createdAt}-i {@code TradeOutboxService} yazır.
+ */
+@Data
+@Entity
+@Table(name = "trade_outbox")
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TradeOutboxEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trade_outbox_seq")
+    @SequenceGenerator(name = "trade_outbox_seq", sequenceName = "trade_outbox_seq", allocationSize = 50)
+    Long id;
+
+    Long userId;
+
+    UUID tradeId;
+
+    @Enumerated(EnumType.STRING)
+    TradeEventType eventType;
+
+    String symbol;
+
+    @Enumerated(EnumType.STRING)
+    PositionSide side;
+
+    BigDecimal margin;
+
+    Integer leverage;
+
+    BigDecimal price;
+
+    BigDecimal pnl;
+
+    Long relayOffset;
+
+    LocalDateTime createdAt;
+}
@@ -27,4 +27,6 @@ BigDecimal virtualBalance=BigDecimal.ZERO;
 UserRank userRank;
 boolean isPremium=false;
 LocalDateTime subscriptionEndDate;
+@Version
+Long version;
 }
@@ -0,0 +1,59 @@
+package com.example.tradems.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hadisələri JSON lines faylına əlavə edir. Fayl yalnız böyüyür; istehlakçı son oxuduğu
+ * {@code offset}-i saxlayıb ondan kiçik və ya bərabər olan sətirləri ötür. Batch-lər kilid altında
+ * yazılır ki, paralel relay-lərin sətirləri bir-birinə qarışmasın.
+ */
+@Component
+@ConditionalOnProperty(prefix = "trading.outbox", name = "sink", havingValue = "file")
+@Slf4j
+public class FileTradeEventSink implements TradeEventSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public FileTradeEventSink(ObjectMapper objectMapper,
+                              @Value("${trading.outbox.file.path:build/outbox/trade-events.jsonl}") String path) {
+        this.objectMapper = objectMapper;
+        this.path = Path.of(path);
+    }
+
+    @Override
+    public void publish(List<TradeEvent> events) {
+        writeLock.lock();
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (TradeEvent event : events) {
+                    writer.write(objectMapper.writeValueAsString(event));
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Hadisə faylına yazılmadı: " + path, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
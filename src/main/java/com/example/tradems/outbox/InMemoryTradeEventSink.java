@@ -0,0 +1,76 @@
+package com.example.tradems.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Proses daxilində son {@code capacity} hadisəni saxlayan sink: yerli işləmə və testlər üçün.
+ * Abunəçilər hadisəni relay thread-ində alır. Hadisələr restartda itir, ona görə yalnız
+ * {@code trading.outbox.sink=memory} açıq seçiləndə yaradılır.
+ */
+@Component
+@ConditionalOnProperty(prefix = "trading.outbox", name = "sink", havingValue = "memory")
+@Slf4j
+public class InMemoryTradeEventSink implements TradeEventSink {
+
+    private final ArrayDeque<TradeEvent> events = new ArrayDeque<>();
+    private final List<Consumer<TradeEvent>> subscribers = new CopyOnWriteArrayList<>();
+    private final int capacity;
+
+    public InMemoryTradeEventSink(@Value("${trading.outbox.memory.capacity:10000}") int capacity) {
+        this.capacity = capacity;
+        log.warn("Outbox hadisələri yalnız yaddaşda saxlanılır (son {}), restartda itəcək: "
+                + "yerli işləmə xaricində trading.outbox.sink=file və ya başqa sink seçin", capacity);
+    }
+
+    @Override
+    public void publish(List<TradeEvent> batch) {
+        synchronized (events) {
+            for (TradeEvent event : batch) {
+                events.addLast(event);
+                if (events.size() > capacity) {
+                    events.removeFirst();
+                }
+            }
+        }
+        for (TradeEvent event : batch) {
+            for (Consumer<TradeEvent> subscriber : subscribers) {
+                try {
+                    subscriber.accept(event);
+                } catch (RuntimeException e) {
+                    log.warn("Hadisə abunəçisi xəta verdi (offset {}): {}", event.offset(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    public void subscribe(Consumer<TradeEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * {@code offset}-dən sonrakı ən çox {@code limit} hadisə; yaddaşdan çıxmışlar qaytarılmır.
+     */
+    public List<TradeEvent> readAfter(long offset, int limit) {
+        List<TradeEvent> result = new ArrayList<>();
+        synchronized (events) {
+            for (TradeEvent event : events) {
+                if (event.offset() > offset) {
+                    result.add(event);
+                    if (result.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.tradems.outbox;
+
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeEventType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Sink-ə göndərilən hadisə. {@code offset} bütün axın üzrə artandır; istehlakçı son
+ * emal etdiyi offset-i saxlayıb oradan davam edir. Relay commit-dən əvvəl düşərsə batch
+ * yeni offset-lərlə təkrar gəlir — təkrarı {@code tradeId} və {@code type} ilə ayırmaq olar.
+ */
+public record TradeEvent(
+        long offset,
+        Long userId,
+        UUID tradeId,
+        TradeEventType type,
+        String symbol,
+        PositionSide side,
+        BigDecimal margin,
+        Integer leverage,
+        BigDecimal price,
+        BigDecimal pnl,
+        LocalDateTime occurredAt
+) {
+}
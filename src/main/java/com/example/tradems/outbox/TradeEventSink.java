@@ -0,0 +1,12 @@
+package com.example.tradems.outbox;
+
+import java.util.List;
+
+/**
+ * Relay-in hadisələri ötürdüyü yer. Xəta atarsa batch göndərilmiş sayılmır və növbəti
+ * dövrdə eyni sıra ilə təkrar göndərilir, ona görə çatdırılma ən azı bir dəfədir.
+ */
+public interface TradeEventSink {
+
+    void publish(List<TradeEvent> events);
+}
@@ -0,0 +1,41 @@
+package com.example.tradems.repository;
+
+import com.example.tradems.model.BalanceLedgerEntity;
+import com.example.tradems.model.BalanceView;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BalanceLedgerRepository extends JpaRepository<BalanceLedgerEntity, Long> {
+
+    @Query("SELECT new com.example.tradems.model.BalanceView(u.id, " +
+            "u.virtualBalance + COALESCE((SELECT SUM(l.availableDelta) FROM BalanceLedgerEntity l " +
+            "WHERE l.userId = u.id AND l.compacted = false), CAST(0 AS BigDecimal)), " +
+            "u.frozenBalance + COALESCE((SELECT SUM(l.frozenDelta) FROM BalanceLedgerEntity l " +
+            "WHERE l.userId = u.id AND l.compacted = false), CAST(0 AS BigDecimal)), " +
+            "COALESCE((SELECT MAX(l.debitSeq) FROM BalanceLedgerEntity l WHERE l.userId = u.id), CAST(0 AS Long))) " +
+            "FROM UserEntity u WHERE u.id = :userId")
+    Optional<BalanceView> findBalance(@Param("userId") Long userId);
+
+    @Query("SELECT new com.example.tradems.model.BalanceView(u.id, " +
+            "u.virtualBalance + COALESCE((SELECT SUM(l.availableDelta) FROM BalanceLedgerEntity l " +
+            "WHERE l.userId = u.id AND l.compacted = false), CAST(0 AS BigDecimal)), " +
+            "u.frozenBalance + COALESCE((SELECT SUM(l.frozenDelta) FROM BalanceLedgerEntity l " +
+            "WHERE l.userId = u.id AND l.compacted = false), CAST(0 AS BigDecimal)), " +
+            "COALESCE((SELECT MAX(l.debitSeq) FROM BalanceLedgerEntity l WHERE l.userId = u.id), CAST(0 AS Long))) " +
+            "FROM UserEntity u WHERE u.id IN :userIds AND u.isPremium = true")
+    List<BalanceView> findPremiumBalances(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT l FROM BalanceLedgerEntity l WHERE l.compacted = false ORDER BY l.id")
+    List<BalanceLedgerEntity> findUncompacted(Limit limit);
+
+    @Modifying
+    @Query("UPDATE BalanceLedgerEntity l SET l.compacted = true WHERE l.id IN :ids AND l.compacted = false")
+    int markCompacted(@Param("ids") Collection<Long> ids);
+}
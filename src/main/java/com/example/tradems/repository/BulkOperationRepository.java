@@ -0,0 +1,11 @@
+package com.example.tradems.repository;
+
+import com.example.tradems.enums.BulkOperationStatus;
+import com.example.tradems.model.BulkOperationEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface BulkOperationRepository extends JpaRepository<BulkOperationEntity, Long> {
+    List<BulkOperationEntity> findByStatus(BulkOperationStatus status);
+}
@@ -0,0 +1,42 @@
+package com.example.tradems.repository;
+
+import com.example.tradems.model.ContestParticipantEntity;
+import com.example.tradems.model.ContestParticipantId;
+import com.example.tradems.model.ContestStanding;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ContestParticipantRepository extends JpaRepository<ContestParticipantEntity, ContestParticipantId> {
+
+    /**
+     * Sətir yalnız yarışma aktivdirsə əlavə edilir (0 qaytarır əks halda). Təkrar qoşulma birincili
+     * açar xətası verir; {@code merge} kimi mövcud sətri yeniləmir.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO contest_participants (contest_id, user_id, joined_at, counted, pnl, closed_trades) " +
+            "SELECT c.id, :userId, :joinedAt, false, 0, 0 FROM cotest c WHERE c.id = :contestId AND c.active = true",
+            nativeQuery = true)
+    int insertIfActive(@Param("contestId") Long contestId, @Param("userId") Long userId, @Param("joinedAt") LocalDateTime joinedAt);
+
+    @Query("SELECT p.userId FROM ContestParticipantEntity p WHERE p.contestId = :contestId AND p.counted = false")
+    List<Long> findUncountedUserIds(@Param("contestId") Long contestId);
+
+    @Modifying
+    @Query("UPDATE ContestParticipantEntity p SET p.counted = true " +
+            "WHERE p.contestId = :contestId AND p.userId IN :userIds AND p.counted = false")
+    int markCounted(@Param("contestId") Long contestId, @Param("userIds") Collection<Long> userIds);
+
+    List<ContestParticipantEntity> findByContestIdAndUserIdIn(Long contestId, Collection<Long> userIds);
+
+    @Query("SELECT new com.example.tradems.model.ContestStanding(p.userId, p.pnl, p.closedTrades) " +
+            "FROM ContestParticipantEntity p WHERE p.contestId = :contestId")
+    List<ContestStanding> findStandings(@Param("contestId") Long contestId);
+}
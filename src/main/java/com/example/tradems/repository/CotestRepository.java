@@ -0,0 +1,24 @@
+package com.example.tradems.repository;
+
+import com.example.tradems.model.CotestEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface CotestRepository extends JpaRepository<CotestEntity, Long> {
+
+    List<CotestEntity> findByActiveTrue();
+
+    @Modifying
+    @Query("UPDATE CotestEntity c SET c.currentParticipants = c.currentParticipants + :delta WHERE c.id = :id")
+    int addParticipants(@Param("id") Long id, @Param("delta") int delta);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE CotestEntity c SET c.targetReachedAt = :now WHERE c.id = :id " +
+            "AND c.targetReachedAt IS NULL AND c.currentParticipants >= c.targetParticipants")
+    int markTargetReached(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
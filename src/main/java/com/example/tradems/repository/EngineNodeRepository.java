@@ -0,0 +1,25 @@
+package com.example.tradems.repository;
+
+import com.example.tradems.model.EngineNodeEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface EngineNodeRepository extends JpaRepository<EngineNodeEntity, String> {
+    long countByHeartbeatAtAfter(LocalDateTime since);
+
+    /**
+     * Heartbeat-i DB saatı ilə yazır; lease vaxtları bu dəyərdən hesablanır.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE EngineNodeEntity n SET n.heartbeatAt = LOCAL DATETIME WHERE n.nodeId = :nodeId")
+    int touch(@Param("nodeId") String nodeId);
+
+    @Query("SELECT n.heartbeatAt FROM EngineNodeEntity n WHERE n.nodeId = :nodeId")
+    LocalDateTime findHeartbeat(@Param("nodeId") String nodeId);
+}
@@ -0,0 +1,36 @@
+package com.example.tradems.repository;
+
+import com.example.tradems.model.PartitionLeaseEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PartitionLeaseRepository extends JpaRepository<PartitionLeaseEntity, Integer> {
+
+    /**
+     * Bitmə anı node-un saatı ilə deyil, DB saatı ilə yoxlanılır ki, node-lar arası saat
+     * fərqi eyni partisiyanı iki node-a verməsin.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PartitionLeaseEntity l SET l.owner = :owner, l.expiresAt = :expiresAt " +
+            "WHERE l.partitionId = :partitionId " +
+            "AND (l.owner IS NULL OR l.owner = :owner OR l.expiresAt < LOCAL DATETIME)")
+    int acquire(@Param("partitionId") Integer partitionId, @Param("owner") String owner,
+                @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE PartitionLeaseEntity l SET l.owner = NULL, l.expiresAt = NULL " +
+            "WHERE l.partitionId = :partitionId AND l.owner = :owner")
+    int release(@Param("partitionId") Integer partitionId, @Param("owner") String owner);
+
+    @Query("SELECT l.partitionId FROM PartitionLeaseEntity l " +
+            "WHERE l.owner IS NULL OR l.expiresAt < LOCAL DATETIME ORDER BY l.partitionId")
+    List<Integer> findClaimable();
+}
@@ -0,0 +1,17 @@
+package com.example.tradems.repository;
+
+import com.example.tradems.model.TradeOutboxCursorEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface TradeOutboxCursorRepository extends JpaRepository<TradeOutboxCursorEntity, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM TradeOutboxCursorEntity c WHERE c.id = :id")
+    Optional<TradeOutboxCursorEntity> lockById(@Param("id") Integer id);
+}
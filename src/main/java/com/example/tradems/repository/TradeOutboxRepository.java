@@ -0,0 +1,31 @@
+package com.example.tradems.repository;
+
+import com.example.tradems.model.TradeOutboxEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TradeOutboxRepository extends JpaRepository<TradeOutboxEntity, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM TradeOutboxEntity o WHERE o.relayOffset IS NULL AND o.createdAt <= :cutoff " +
+            "ORDER BY o.createdAt, o.id")
+    List<TradeOutboxEntity> lockPending(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Query("SELECT COALESCE(MAX(o.relayOffset), CAST(0 AS Long)) FROM TradeOutboxEntity o")
+    long findLastOffset();
+
+    @Query("SELECT o FROM TradeOutboxEntity o WHERE o.relayOffset > :after ORDER BY o.relayOffset")
+    List<TradeOutboxEntity> findRelayedAfter(@Param("after") long after, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM TradeOutboxEntity o WHERE o.relayOffset IS NOT NULL AND o.createdAt < :before")
+    int deleteRelayedBefore(@Param("before") LocalDateTime before);
+}
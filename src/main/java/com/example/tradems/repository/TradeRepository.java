@@ -1,12 +1,43 @@
 package com.example.tradems.repository;
 import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.model.ActiveTradeView;
 import com.example.tradems.model.TradeEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface TradeRepository extends JpaRepository<TradeEntity, UUID> {
     List<TradeEntity> findByUserIdAndStatus(Long userId, TradeStatus status);
 
+    List<TradeEntity> findByUserIdInAndStatus(Collection<Long> userIds, TradeStatus status);
+
     List<TradeEntity> findAllByStatus(TradeStatus tradeStatus);
+
+    @Query("SELECT new com.example.tradems.model.ActiveTradeView(t.id, t.userId, t.symbol, t.side, t.status, " +
+            "t.entryPrice, t.stopLoss, t.takeProfit, t.liquidationPrice, t.openTime) " +
+            "FROM TradeEntity t WHERE t.status IN :statuses AND t.id > :after ORDER BY t.id")
+    List<ActiveTradeView> findActivePage(@Param("statuses") Collection<TradeStatus> statuses,
+                                         @Param("after") UUID after, Limit limit);
+
+    @Query("SELECT new com.example.tradems.model.ActiveTradeView(t.id, t.userId, t.symbol, t.side, t.status, " +
+            "t.entryPrice, t.stopLoss, t.takeProfit, t.liquidationPrice, t.openTime) " +
+            "FROM TradeEntity t WHERE t.status IN :statuses AND t.openTime > :since")
+    List<ActiveTradeView> findActiveOpenedAfter(@Param("statuses") Collection<TradeStatus> statuses,
+                                                @Param("since") LocalDateTime since);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TradeEntity t WHERE t.id = :id")
+    Optional<TradeEntity> findByIdWithLock(@Param("id") UUID id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TradeEntity t WHERE t.id IN :ids ORDER BY t.id")
+    List<TradeEntity> findAllByIdInWithLock(@Param("ids") Collection<UUID> ids);
 }
@@ -1,20 +1,79 @@
 package com.example.tradems.repository;
 
+import com.example.tradems.model.LeaderboardStanding;
 import com.example.tradems.model.UserEntity;
-import feign.Param;
 import jakarta.persistence.LockModeType;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<UserEntity, Long>
 {
-    List<UserEntity> findAll(Sort sort);
+    @Query("SELECT new com.example.tradems.model.LeaderboardStanding(u.id, u.username, u.virtualBalance) " +
+            "FROM UserEntity u ORDER BY u.virtualBalance DESC, u.id")
+    List<LeaderboardStanding> findTopStandings(Limit limit);
+
+    @Query("SELECT new com.example.tradems.model.LeaderboardStanding(u.id, u.username, u.virtualBalance) " +
+            "FROM UserEntity u WHERE u.id IN :ids")
+    List<LeaderboardStanding> findStandings(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT COUNT(u) FROM UserEntity u WHERE u.virtualBalance > :balance " +
+            "OR (u.virtualBalance = :balance AND u.id < :id)")
+    long countRankedAbove(@Param("balance") BigDecimal balance, @Param("id") Long id);
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT u FROM UserEntity u WHERE u.id = :id")
     Optional<UserEntity> findByIdWithLock(@Param("id") Long id);
+
+    @Query("SELECT u.id FROM UserEntity u WHERE u.id > :after ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Limit limit);
+
+    /**
+     * Hissənin premium sətirlərini id sırası ilə kilidləyir: sıxılma da istifadəçiləri bu sıra ilə yeniləyir.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u.id FROM UserEntity u WHERE u.isPremium = true AND u.id > :after AND u.id <= :upTo ORDER BY u.id")
+    List<Long> lockPremiumIds(@Param("after") Long after, @Param("upTo") Long upTo);
+
+    /**
+     * Premium balansını birbaşa hədəfə yazır. Sıxılmamış ledger qeydləri çıxılır ki, sonradan
+     * sıxılanda balans yenə hədəfdə qalsın.
+     */
+    @Modifying
+    @Query("UPDATE VERSIONED UserEntity u SET u.virtualBalance = :balance - " +
+            "COALESCE((SELECT SUM(l.availableDelta) FROM BalanceLedgerEntity l " +
+            "WHERE l.userId = u.id AND l.compacted = false), CAST(0 AS BigDecimal)) " +
+            "WHERE u.isPremium = true AND u.id > :after AND u.id <= :upTo " +
+            "AND u.virtualBalance + COALESCE((SELECT SUM(l.availableDelta) FROM BalanceLedgerEntity l " +
+            "WHERE l.userId = u.id AND l.compacted = false), CAST(0 AS BigDecimal)) <> :balance")
+    int resetBalances(@Param("after") Long after, @Param("upTo") Long upTo, @Param("balance") BigDecimal balance);
+
+    @Modifying
+    @Query("UPDATE VERSIONED UserEntity u SET u.userRank = CASE " +
+            "WHEN u.virtualBalance >= :champion THEN com.example.tradems.enums.UserRank.CHAMPION " +
+            "WHEN u.virtualBalance >= :pro THEN com.example.tradems.enums.UserRank.PRO " +
+            "WHEN u.virtualBalance >= :trader THEN com.example.tradems.enums.UserRank.TRADER " +
+            "ELSE com.example.tradems.enums.UserRank.ROOKIE END " +
+            "WHERE u.id > :after AND u.id <= :upTo")
+    int recalculateRanks(@Param("after") Long after, @Param("upTo") Long upTo, @Param("trader") BigDecimal trader,
+                         @Param("pro") BigDecimal pro, @Param("champion") BigDecimal champion);
+
+    @Modifying
+    @Query("UPDATE VERSIONED UserEntity u SET u.isPremium = false " +
+            "WHERE u.isPremium = true AND u.subscriptionEndDate < :now AND u.id > :after AND u.id <= :upTo")
+    int expireSubscriptions(@Param("after") Long after, @Param("upTo") Long upTo, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE VERSIONED UserEntity u SET u.virtualBalance = u.virtualBalance + :available, " +
+            "u.frozenBalance = u.frozenBalance + :frozen WHERE u.id = :id")
+    int applyLedger(@Param("id") Long id, @Param("available") BigDecimal available, @Param("frozen") BigDecimal frozen);
 }
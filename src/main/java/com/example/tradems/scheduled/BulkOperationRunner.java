@@ -0,0 +1,75 @@
+package com.example.tradems.scheduled;
+
+import com.example.tradems.dto.response.BulkOperationResponse;
+import com.example.tradems.enums.BulkOperationType;
+import com.example.tradems.exception.ConcurrentUpdateException;
+import com.example.tradems.model.BulkOperationEntity;
+import com.example.tradems.service.BulkOperationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Toplu əməliyyatları arxa planda hissə-hissə icra edir. Restartdan sonra yarımçıq qalmış
+ * əməliyyatlar kursordan davam etdirilir.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BulkOperationRunner {
+
+    private static final int MAX_CONFLICTS = 5;
+
+    private final BulkOperationService operationService;
+    @Qualifier("bulkOperationExecutor")
+    private final ExecutorService executor;
+
+    public BulkOperationResponse start(BulkOperationType type) {
+        BulkOperationEntity operation = operationService.create(type);
+        log.info("Toplu əməliyyat başladı: {} #{}", type, operation.getId());
+        executor.submit(() -> run(operation.getId()));
+        return operationService.status(operation.getId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        for (Long operationId : operationService.findRunning()) {
+            log.info("Yarımçıq toplu əməliyyat davam etdirilir: #{}", operationId);
+            executor.submit(() -> run(operationId));
+        }
+    }
+
+    /**
+     * Eyni əməliyyatı iki node davam etdirirsə hissələr version toqquşması ilə ardıcıllaşır.
+     * Təkrar cəhdləri bitmiş toqquşma əməliyyatı FAILED etmir: hissəni başqa node yazıb,
+     * kursor yenidən oxunur. {@code MAX_CONFLICTS} ardıcıl toqquşmadan sonra bu node geri çəkilir
+     * və əməliyyat RUNNING qalır.
+     */
+    private void run(Long operationId) {
+        try {
+            boolean more = true;
+            int conflicts = 0;
+            while (more) {
+                try {
+                    more = operationService.processChunk(operationId);
+                    conflicts = 0;
+                } catch (ConcurrencyFailureException | ConcurrentUpdateException e) {
+                    if (++conflicts >= MAX_CONFLICTS) {
+                        log.warn("Toplu əməliyyat #{} başqa node tərəfindən icra olunur, bu node dayanır", operationId);
+                        return;
+                    }
+                    log.debug("Toplu əməliyyat #{} hissəsi toqquşdu, kursor yenidən oxunur", operationId);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Toplu əməliyyat dayandı: #{}", operationId, e);
+            operationService.fail(operationId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.tradems.scheduled;
+
+import com.example.tradems.service.ContestService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ContestFlusher {
+
+    private final ContestService contestService;
+
+    /**
+     * Yerli qoşulma sayğaclarını və PnL dəyişikliklərini DB-yə köçürür; hər yarışma ayrı tranzaksiyadır.
+     */
+    @Scheduled(fixedDelayString = "${trading.contest.flush-interval:1000}")
+    public void flush() {
+        for (Long contestId : contestService.activeIds()) {
+            try {
+                contestService.flush(contestId);
+            } catch (RuntimeException e) {
+                log.warn("Yarışma #{} flush təxirə salındı: {}", contestId, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.tradems.scheduled;
+
+import com.example.tradems.exception.BalanceConflictException;
+import com.example.tradems.service.BalanceLedgerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerCompactor {
+
+    private final BalanceLedgerService ledgerService;
+
+    @Value("${trading.ledger.compact-batch-size:5000}")
+    private int batchSize = 5000;
+
+    /**
+     * Ledger qeydlərini {@code users} balanslarına köçürür; hər batch ayrı tranzaksiyadır.
+     */
+    @Scheduled(fixedDelayString = "${trading.ledger.compact-interval:5000}")
+    public void compact() {
+        try {
+            int compacted;
+            do {
+                compacted = ledgerService.compact(batchSize);
+            } while (compacted == batchSize);
+        } catch (BalanceConflictException e) {
+            log.debug("Ledger sıxılması təxirə salındı: {}", e.getMessage());
+        }
+    }
+}
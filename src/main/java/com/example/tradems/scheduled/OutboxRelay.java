@@ -0,0 +1,67 @@
+package com.example.tradems.scheduled;
+
+import com.example.tradems.outbox.TradeEventSink;
+import com.example.tradems.service.TradeOutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    private final TradeOutboxService outboxService;
+    private final ObjectProvider<TradeEventSink> sinkProvider;
+    private final Clock clock;
+
+    @Value("${trading.outbox.relay-batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${trading.outbox.retention:24h}")
+    private Duration retention = Duration.ofHours(24);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkSink() {
+        if (sinkProvider.getIfAvailable() == null) {
+            log.warn("trading.outbox.sink seçilməyib: hadisələr trade_outbox cədvəlində qalır və ötürülmür");
+        }
+    }
+
+    /**
+     * Outbox-u sink-ə ötürür; dolu batch-dən sonra dərhal növbətisi götürülür.
+     * Sink yoxdursa hadisələr cədvəldə qalır və sink qoşulanda ötürülür.
+     */
+    @Scheduled(fixedDelayString = "${trading.outbox.relay-interval:200}")
+    public void relay() {
+        TradeEventSink sink = sinkProvider.getIfAvailable();
+        if (sink == null) {
+            return;
+        }
+        try {
+            int relayed;
+            do {
+                relayed = outboxService.relay(sink, batchSize);
+            } while (relayed == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Outbox ötürülməsi təxirə salındı: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${trading.outbox.purge-interval:600000}")
+    public void purge() {
+        int purged = outboxService.purge(LocalDateTime.now(clock).minus(retention));
+        if (purged > 0) {
+            log.info("Outbox-dan {} köhnə hadisə silindi", purged);
+        }
+    }
+}
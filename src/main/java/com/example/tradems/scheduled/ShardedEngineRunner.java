@@ -0,0 +1,81 @@
+package com.example.tradems.scheduled;
+
+import com.example.tradems.dto.response.EngineShardResponse;
+import com.example.tradems.engine.EngineShard;
+import com.example.tradems.engine.TriggerIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+
+@Component
+@ConditionalOnProperty(prefix = "trading.engine", name = "mode", havingValue = "SHARDED")
+@RequiredArgsConstructor
+@Slf4j
+public class ShardedEngineRunner {
+
+    private static final long STOP_TIMEOUT_MILLIS = 5000;
+
+    private final TradeExecutionEngine engine;
+    private final TriggerIndex triggerIndex;
+
+    @Value("${trading.engine.shards:4}")
+    private int shardCount = 4;
+
+    @Value("${trading.engine.virtual-threads:${trading.threads.virtual:false}}")
+    private boolean virtualThreads;
+
+    @Value("${trading.engine.fixed-delay:1000}")
+    private long fixedDelayMillis = 1000;
+
+    private final List<EngineShard> shards = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        ThreadFactory factory = virtualThreads
+                ? Thread.ofVirtual().name("engine-shard-", 0).factory()
+                : Thread.ofPlatform().name("engine-shard-", 0).daemon(true).factory();
+        for (int i = 0; i < shardCount; i++) {
+            EngineShard shard = new EngineShard(i, shardCount, fixedDelayMillis, engine, triggerIndex);
+            Thread thread = factory.newThread(shard);
+            shards.add(shard);
+            threads.add(thread);
+            thread.start();
+        }
+        log.info("Shard mühərriki başladı: {} shard, {} thread", shardCount, virtualThreads ? "virtual" : "platform");
+    }
+
+    /**
+     * Shard-ları dayandırır və thread-lərin bitməsini gözləyir ki, kontekst bağlananda
+     * yarımçıq dövr DB pool-u bağlanmış halda qalmasın.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        shards.forEach(EngineShard::stop);
+        threads.forEach(Thread::interrupt);
+        for (Thread thread : threads) {
+            try {
+                thread.join(STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (thread.isAlive()) {
+                log.warn("Shard thread-i {} ms ərzində dayanmadı: {}", STOP_TIMEOUT_MILLIS, thread.getName());
+            }
+        }
+    }
+
+    public synchronized List<EngineShardResponse> stats() {
+        return shards.stream().map(EngineShard::stats).toList();
+    }
+}
@@ -1,149 +1,262 @@
 package com.example.tradems.scheduled;
-import com.example.tradems.client.PriceClient;
-import com.example.tradems.enums.PositionSide;
-import com.example.tradems.enums.TradeStatus;
-import com.example.tradems.model.TradeEntity;
-import com.example.tradems.model.UserEntity;
-import com.example.tradems.repository.TradeRepository;
-import com.example.tradems.repository.UserRepository;
-import jakarta.transaction.Transactional;
+import com.example.tradems.engine.PartitionLeaseManager;
+import com.example.tradems.engine.PriceRange;
+import com.example.tradems.engine.TickHistory;
+import com.example.tradems.engine.TriggerIndex;
+import com.example.tradems.enums.EngineMode;
+import com.example.tradems.metrics.TradingMetrics;
+import com.example.tradems.service.PriceService;
+import com.example.tradems.service.PriceSnapshot;
+import com.example.tradems.service.TradeSettlementService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class TradeExecutionEngine {
 
-    private final TradeRepository tradeRepository;
-    private final UserRepository userRepository;
-    private final PriceClient priceClient;
+    private final PriceService priceService;
+    private final TriggerIndex triggerIndex;
+    private final TradeSettlementService settlementService;
+    private final PartitionLeaseManager leaseManager;
+    private final TradingMetrics metrics;
+    @Qualifier("engineSettleExecutor")
+    private final ExecutorService engineSettleExecutor;
+    private final TickHistory tickHistory;
 
-    @Scheduled(fixedDelayString = "${trading.engine.fixed-delay:1000}")
-    public void runEngine() {
-        processPendingOrders();
-        processOpenPositions();
-    }
+    /** Simvolun son yoxlandığı an (tick tarixinin saatı ilə); növbəti dövr aralığı buradan götürür. */
+    private final ConcurrentHashMap<String, Long> lastEvaluated = new ConcurrentHashMap<>();
 
-    private void processPendingOrders() {
-        tradeRepository.findAllByStatus(TradeStatus.PENDING)
-                .forEach(this::tryToExecutePendingOrder);
-    }
+    /**
+     * Yerinə yetirilməsi xəta ilə bitmiş trade-lərin aralıqları, simvol üzrə. Pəncərə artıq irəli
+     * çəkildiyi üçün növbəti dövr onları yeni aralıqla birləşdirib yenidən yoxlayır.
+     */
+    private final ConcurrentHashMap<String, Map<UUID, PriceRange>> failedRanges = new ConcurrentHashMap<>();
 
-    private void processOpenPositions() {
-        tradeRepository.findAllByStatus(TradeStatus.OPEN)
-                .forEach(this::checkAndClosePosition);
-    }
+    @Value("${trading.engine.mode:SINGLE}")
+    private EngineMode mode = EngineMode.SINGLE;
 
-    @Transactional
-    public void tryToExecutePendingOrder(TradeEntity trade) {
-        try {
-            BigDecimal currentPrice = getCurrentPrice(trade.getSymbol());
-            if (isTargetPriceHit(trade, currentPrice)) {
-                activateOrder(trade);
-            }
-        } catch (Exception e) {
-            log.error("Pending trade aktivləşdirilərkən xəta (ID: {}): {}", trade.getId(), e.getMessage());
-        }
-    }
+    @Value("${trading.engine.settle-parallelism:1}")
+    private int settleParallelism = 1;
 
-    @Transactional
-    public void checkAndClosePosition(TradeEntity trade) {
-        try {
-            BigDecimal currentPrice = getCurrentPrice(trade.getSymbol());
-
-            if (isLiquidationHit(trade, currentPrice)) {
-                finalizePosition(trade, currentPrice, "LIQUIDATED");
-            } else if (isStopLossHit(trade, currentPrice)) {
-                finalizePosition(trade, currentPrice, "STOP_LOSS");
-            } else if (isTakeProfitHit(trade, currentPrice)) {
-                finalizePosition(trade, currentPrice, "TAKE_PROFIT");
-            }
-        } catch (Exception e) {
-            log.error("Pozisiya yoxlanarkən xəta (ID: {}): {}", trade.getId(), e.getMessage());
+    @Scheduled(fixedDelayString = "${trading.engine.fixed-delay:1000}")
+    public void runEngine() {
+        if (mode != EngineMode.SINGLE || !triggerIndex.isReady()) {
+            return;
         }
+        runCycle(ownedSymbols());
     }
 
-    private void activateOrder(TradeEntity trade) {
-        UserEntity user = userRepository.findByIdWithLock(trade.getUserId())
-                .orElseThrow(() -> new RuntimeException("İstifadəçi tapılmadı"));
-
-        user.setFrozenBalance(user.getFrozenBalance().subtract(trade.getMargin()));
-
-        trade.setStatus(TradeStatus.OPEN);
-        trade.setOpenTime(LocalDateTime.now());
-
-        userRepository.save(user);
-        tradeRepository.save(trade);
-        log.info("Limit order aktivləşdi: {} {} @ {}", trade.getSymbol(), trade.getSide(), trade.getEntryPrice());
+    /**
+     * İndeksdəki simvollardan bu node-un lease-ə sahib olduğu partisiyalara düşənlər.
+     */
+    public Set<String> ownedSymbols() {
+        Set<String> symbols = triggerIndex.symbols();
+        if (leaseManager.isEnabled()) {
+            symbols.removeIf(symbol -> !leaseManager.owns(symbol));
+        }
+        return symbols;
     }
 
-    private void finalizePosition(TradeEntity trade, BigDecimal exitPrice, String reason) {
-        UserEntity user = userRepository.findByIdWithLock(trade.getUserId())
-                .orElseThrow(() -> new RuntimeException("İstifadəçi tapılmadı"));
+    /**
+     * Verilən simvollar üçün bir dövr: qiymət snapshot-u, keçilmiş səviyyələr, yerinə yetirmə.
+     * Tək rejimdə bütün simvollar, shard rejimində isə shard-ın öz simvolları ilə çağırılır.
+     * Səviyyələr təkcə snapshot qiyməti ilə deyil, əvvəlki dövrdən bəri müşahidə olunmuş
+     * low/high ilə yoxlanılır — dövrlər arasında keçilib geri qayıtmış səviyyə də tutulur.
+     * Əvvəlki dövrdə yerinə yetirilə bilməmiş trade-lər qiymət geri qayıtsa da saxlanmış aralıqla
+     * yenidən göndərilir.
+     */
+    public CycleResult runCycle(Collection<String> symbols) {
+        if (symbols.isEmpty()) {
+            pruneEvaluated();
+            return CycleResult.EMPTY;
+        }
 
-        BigDecimal pnlValue = calculatePnL(trade, exitPrice);
-        BigDecimal payout = trade.getMargin().add(pnlValue).max(BigDecimal.ZERO);
+        long cycleStart = System.nanoTime();
+        long fetchesBefore = priceService.getFetchCount();
+        long evaluatedAt = tickHistory.now();
+        PriceSnapshot snapshot = priceService.snapshot(symbols);
+        long priced = System.nanoTime();
 
-        user.setVirtualBalance(user.getVirtualBalance().add(payout));
+        Map<Long, Map<UUID, PriceRange>> byUser = new HashMap<>();
+        Map<UUID, String> symbolOf = new HashMap<>();
+        Set<UUID> ids = new LinkedHashSet<>();
+        // 0: pending mərhələsi ns, 1: open mərhələsi ns, 2: pending namizəd, 3: open namizəd
+        long[] phases = new long[4];
+        snapshot.forEach((symbol, price) -> {
+            ids.clear();
+            Long since = lastEvaluated.put(symbol, evaluatedAt);
+            PriceRange range = rangeSince(symbol, since, price);
+            long start = System.nanoTime();
+            triggerIndex.collectPending(symbol, range.low(), range.high(), ids);
+            long pendingDone = System.nanoTime();
+            int pending = ids.size();
+            triggerIndex.collectOpen(symbol, range.low(), range.high(), ids);
+            phases[0] += pendingDone - start;
+            phases[1] += System.nanoTime() - pendingDone;
+            phases[2] += pending;
+            phases[3] += ids.size() - pending;
+            for (UUID id : ids) {
+                Long userId = triggerIndex.userIdOf(id);
+                if (userId != null) {
+                    byUser.computeIfAbsent(userId, u -> new LinkedHashMap<>()).put(id, rangeFor(symbol, id, since, price, range));
+                    symbolOf.put(id, symbol);
+                }
+            }
+            Map<UUID, PriceRange> retry = failedRanges.remove(symbol);
+            if (retry != null) {
+                retry.forEach((id, kept) -> {
+                    Long userId = triggerIndex.userIdOf(id);
+                    if (userId != null) {
+                        byUser.computeIfAbsent(userId, u -> new LinkedHashMap<>())
+                                .merge(id, PriceRange.of(price).union(kept), PriceRange::union);
+                        symbolOf.put(id, symbol);
+                    }
+                });
+            }
+        });
 
-        trade.setStatus(TradeStatus.CLOSED);
-        trade.setClosePrice(exitPrice);
-        trade.setCloseTime(LocalDateTime.now());
-        trade.setPnl(pnlValue);
+        pruneEvaluated();
+        long settleStart = System.nanoTime();
+        int candidates = 0;
+        for (Map<UUID, PriceRange> group : byUser.values()) {
+            candidates += group.size();
+        }
+        int settled = settleParallelism > 1 && byUser.size() > 1
+                ? settleConcurrently(byUser, symbolOf, priced)
+                : settleSequentially(byUser, symbolOf, priced);
+        long cycleEnd = System.nanoTime();
 
-        userRepository.save(user);
-        tradeRepository.save(trade);
-        log.info("Pozisiya bağlandı ({}): {} PnL: {}", reason, trade.getId(), pnlValue);
+        metrics.recordCycle(cycleEnd - cycleStart);
+        metrics.recordPhases(priced - cycleStart, phases[0], phases[1], cycleEnd - settleStart);
+        metrics.recordCandidates(phases[2], phases[3]);
+        log.debug("Mühərrik dövrü: {} simvol, {} qiymət sorğusu, {} namizəd, {} yerinə yetirildi",
+                snapshot.size(), priceService.getFetchCount() - fetchesBefore, candidates, settled);
+        return new CycleResult(snapshot.size(), candidates, settled);
     }
 
-
-    private boolean isTargetPriceHit(TradeEntity t, BigDecimal price) {
-        return (t.getSide() == PositionSide.LONG) ? price.compareTo(t.getEntryPrice()) <= 0
-                : price.compareTo(t.getEntryPrice()) >= 0;
+    private int settleSequentially(Map<Long, Map<UUID, PriceRange>> byUser, Map<UUID, String> symbolOf, long priced) {
+        int settled = 0;
+        for (Map.Entry<Long, Map<UUID, PriceRange>> group : byUser.entrySet()) {
+            settled += settleAndRecord(group.getKey(), group.getValue(), symbolOf, priced);
+        }
+        return settled;
     }
 
-    private boolean isTakeProfitHit(TradeEntity t, BigDecimal price) {
-        if (t.getTakeProfit() == null) return false;
-        return (t.getSide() == PositionSide.LONG) ? price.compareTo(t.getTakeProfit()) >= 0
-                : price.compareTo(t.getTakeProfit()) <= 0;
+    /**
+     * İstifadəçi qrupları ayrı tranzaksiyalardır və bir-birindən asılı deyil; eyni anda ən çox
+     * {@code settle-parallelism} qrup işlənir ki, JDBC pool-u və sətir kilidləri tükənməsin.
+     */
+    private int settleConcurrently(Map<Long, Map<UUID, PriceRange>> byUser, Map<UUID, String> symbolOf, long priced) {
+        Semaphore permits = new Semaphore(settleParallelism);
+        List<Future<Integer>> results = new ArrayList<>(byUser.size());
+        for (Map.Entry<Long, Map<UUID, PriceRange>> group : byUser.entrySet()) {
+            permits.acquireUninterruptibly();
+            try {
+                results.add(engineSettleExecutor.submit(() -> {
+                    try {
+                        return settleAndRecord(group.getKey(), group.getValue(), symbolOf, priced);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw e;
+            }
+        }
+        int settled = 0;
+        for (Future<Integer> result : results) {
+            try {
+                settled += result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("Paralel yerinə yetirmədə xəta: {}", e.getCause().getMessage());
+            }
+        }
+        return settled;
     }
 
-    private boolean isStopLossHit(TradeEntity t, BigDecimal price) {
-        if (t.getStopLoss() == null) return false;
-        return (t.getSide() == PositionSide.LONG) ? price.compareTo(t.getStopLoss()) <= 0
-                : price.compareTo(t.getStopLoss()) >= 0;
+    /**
+     * {@code since}-dən sonra yazılmış tick-lərin aralığı və snapshot qiyməti. Simvol bu node-da
+     * ilk dəfə yoxlanırsa və ya tarix boşdursa yalnız snapshot qiyməti götürülür.
+     */
+    private PriceRange rangeSince(String symbol, Long since, BigDecimal price) {
+        if (since == null) {
+            return PriceRange.of(price);
+        }
+        PriceRange observed = tickHistory.rangeSince(symbol, since);
+        return observed == null ? PriceRange.of(price) : observed.including(price);
     }
 
-    private boolean isLiquidationHit(TradeEntity t, BigDecimal price) {
-        return (t.getSide() == PositionSide.LONG) ? price.compareTo(t.getLiquidationPrice()) <= 0
-                : price.compareTo(t.getLiquidationPrice()) >= 0;
+    /**
+     * Trade-in yoxlanılacağı aralıq: trade pəncərənin ortasında açılıbsa (limit order yaradılıbsa)
+     * aralıq onun açılışından başlayır — ondan əvvəlki qiymətlər bu trade-ə aid deyil.
+     */
+    private PriceRange rangeFor(String symbol, UUID tradeId, Long since, BigDecimal price, PriceRange symbolRange) {
+        if (since == null) {
+            return symbolRange;
+        }
+        LocalDateTime openTime = triggerIndex.openTimeOf(tradeId);
+        if (openTime == null) {
+            return PriceRange.of(price);
+        }
+        long opened = tickHistory.toMillis(openTime);
+        return opened <= since ? symbolRange : rangeSince(symbol, opened, price);
     }
 
-    private BigDecimal calculatePnL(TradeEntity trade, BigDecimal exitPrice) {
-        BigDecimal entryPrice = trade.getEntryPrice();
-        BigDecimal leverage = new BigDecimal(trade.getLeverage());
-
-        BigDecimal diff = (trade.getSide() == PositionSide.LONG) ? exitPrice.subtract(entryPrice)
-                : entryPrice.subtract(exitPrice);
+    /**
+     * İndeksdən çıxmış simvolların son yoxlama vaxtı silinir: simvola saatlar sonra yeni trade
+     * gələndə pəncərə köhnə tick-lərdən başlamasın.
+     */
+    private void pruneEvaluated() {
+        lastEvaluated.keySet().removeIf(symbol -> !triggerIndex.hasSymbol(symbol));
+        failedRanges.keySet().removeIf(symbol -> !triggerIndex.hasSymbol(symbol));
+    }
 
-        return diff.divide(entryPrice, 8, RoundingMode.HALF_UP)
-                .multiply(trade.getMargin())
-                .multiply(leverage);
+    private int settleAndRecord(Long userId, Map<UUID, PriceRange> ranges, Map<UUID, String> symbolOf, long priced) {
+        int done = settle(userId, ranges, symbolOf);
+        metrics.recordSettlementLag(System.nanoTime() - priced, done);
+        return done;
     }
 
-    private BigDecimal getCurrentPrice(String symbol) {
+    private int settle(Long userId, Map<UUID, PriceRange> ranges, Map<UUID, String> symbolOf) {
         try {
-            String raw = priceClient.getRealtimePrice(symbol);
-            return new BigDecimal(raw.split(": ")[1].replace(" USD", "").trim());
+            return settlementService.settleRanges(userId, ranges);
         } catch (Exception e) {
-            log.error("Qiymət oxunarkən xəta ({}): {}", symbol, e.getMessage());
-            return BigDecimal.ZERO;
+            log.error("İstifadəçi {} üçün {} trade yerinə yetirilərkən xəta: {}", userId, ranges.size(), e.getMessage());
+            ranges.forEach((id, range) -> failedRanges
+                    .computeIfAbsent(symbolOf.get(id), s -> new ConcurrentHashMap<>())
+                    .merge(id, range, PriceRange::union));
+            return 0;
         }
     }
-}
\ No newline at end of file
+
+    public record CycleResult(int symbols, int candidates, int settled) {
+        static final CycleResult EMPTY = new CycleResult(0, 0, 0);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.tradems.service;
+
+import com.example.tradems.enums.LedgerEntryType;
+import com.example.tradems.exception.BalanceConflictException;
+import com.example.tradems.exception.InsufficientFundsException;
+import com.example.tradems.exception.UserNotFoundException;
+import com.example.tradems.model.BalanceLedgerEntity;
+import com.example.tradems.model.BalanceView;
+import com.example.tradems.repository.BalanceLedgerRepository;
+import com.example.tradems.repository.UserRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Balans dəyişiklikləri {@code balance_ledger} cədvəlinə əlavə olunur, istifadəçi sətri
+ * kilidlənmir. Balansı artıran qeydlər yoxlamasız yazılır; azaldanlar oxunmuş snapshot-a
+ * görə yoxlanılıb növbəti {@code debitSeq} ilə yazılır, eyni anda yazılmış başqa çıxılma
+ * unikallıq xətası verir. {@code users} cədvəlindəki balanslar {@link #compact(int)} ilə
+ * yenilənən proyeksiyadır.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceLedgerService {
+
+    private final BalanceLedgerRepository ledgerRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BalanceView balanceOf(Long userId) {
+        return ledgerRepository.findBalance(userId)
+                .orElseThrow(() -> new UserNotFoundException("İstifadəçi tapılmadı"));
+    }
+
+    /**
+     * Balansdan {@code amount} çıxır; {@code frozenDelta} dondurulmuş balansa əlavə olunur.
+     *
+     * @param balance yoxlamanın aparıldığı snapshot
+     */
+    @Transactional
+    public void debit(BalanceView balance, UUID tradeId, LedgerEntryType type, BigDecimal amount, BigDecimal frozenDelta) {
+        if (balance.available().compareTo(amount) < 0) {
+            throw new InsufficientFundsException("Balans yetərsiz");
+        }
+        BalanceLedgerEntity entry = entry(balance.userId(), tradeId, type, amount.negate(), frozenDelta);
+        entry.setDebitSeq(balance.debitSeq() + 1);
+        try {
+            ledgerRepository.saveAndFlush(entry);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Balans eyni anda dəyişdi: user {}, seq {}", balance.userId(), entry.getDebitSeq());
+            throw new BalanceConflictException("Balans eyni anda dəyişdi, yenidən cəhd edin");
+        }
+    }
+
+    /**
+     * Bir paketin bütün çıxılmalarını bir yoxlama ilə yazır. Qeydlər ardıcıl {@code debitSeq}
+     * alır, ona görə paketlə eyni anda yazılmış istənilən çıxılma unikallıq xətası verir.
+     *
+     * @param balance yoxlamanın aparıldığı snapshot
+     * @param entries mənfi {@code availableDelta} ilə hazırlanmış qeydlər
+     */
+    @Transactional
+    public void debitAll(BalanceView balance, List<BalanceLedgerEntity> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        BigDecimal total = entries.stream()
+                .map(BalanceLedgerEntity::getAvailableDelta)
+                .reduce(BigDecimal.ZERO, BigDecimal::subtract);
+        if (balance.available().compareTo(total) < 0) {
+            throw new InsufficientFundsException("Balans yetərsiz");
+        }
+        long seq = balance.debitSeq();
+        for (BalanceLedgerEntity entry : entries) {
+            entry.setDebitSeq(++seq);
+        }
+        try {
+            ledgerRepository.saveAllAndFlush(entries);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Balans eyni anda dəyişdi: user {}, seq {}-{}", balance.userId(), balance.debitSeq() + 1, seq);
+            throw new BalanceConflictException("Balans eyni anda dəyişdi, yenidən cəhd edin");
+        }
+    }
+
+    /**
+     * Müxtəlif istifadəçilərin çıxılmalarını bir batch-də yazır: hər qeyd öz snapshot-unun növbəti
+     * {@code debitSeq}-ini alır, ona görə snapshot-dan sonra həmin istifadəçiyə yazılmış istənilən
+     * çıxılma unikallıq xətası verir və bütün batch geri qaytarılır.
+     *
+     * @param debits snapshot → mənfi {@code availableDelta} ilə hazırlanmış qeyd, istifadəçi başına bir
+     */
+    @Transactional
+    public void debitEach(Map<BalanceView, BalanceLedgerEntity> debits) {
+        if (debits.isEmpty()) {
+            return;
+        }
+        debits.forEach((balance, entry) -> {
+            if (balance.available().add(entry.getAvailableDelta()).signum() < 0) {
+                throw new InsufficientFundsException("Balans yetərsiz");
+            }
+            entry.setDebitSeq(balance.debitSeq() + 1);
+        });
+        try {
+            ledgerRepository.saveAllAndFlush(debits.values());
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Balans eyni anda dəyişdi: {} istifadəçidən biri", debits.size());
+            throw new BalanceConflictException("Balans eyni anda dəyişdi, yenidən cəhd edin");
+        }
+    }
+
+    @Transactional
+    public void credit(Long userId, UUID tradeId, LedgerEntryType type, BigDecimal availableDelta, BigDecimal frozenDelta) {
+        ledgerRepository.save(entry(userId, tradeId, type, availableDelta, frozenDelta));
+    }
+
+    @Transactional
+    public void creditAll(List<BalanceLedgerEntity> entries) {
+        ledgerRepository.saveAll(entries);
+    }
+
+    /**
+     * Ən çox {@code batchSize} sıxılmamış qeydi istifadəçi balanslarına köçürür.
+     *
+     * @return köçürülmüş qeyd sayı
+     */
+    @Transactional
+    public int compact(int batchSize) {
+        List<BalanceLedgerEntity> entries = ledgerRepository.findUncompacted(Limit.of(batchSize));
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        Map<Long, BigDecimal[]> totals = new TreeMap<>();
+        for (BalanceLedgerEntity entry : entries) {
+            BigDecimal[] sum = totals.computeIfAbsent(entry.getUserId(), id -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            sum[0] = sum[0].add(entry.getAvailableDelta());
+            sum[1] = sum[1].add(entry.getFrozenDelta());
+        }
+        int marked = ledgerRepository.markCompacted(entries.stream().map(BalanceLedgerEntity::getId).toList());
+        if (marked != entries.size()) {
+            throw new BalanceConflictException("Ledger başqa node tərəfindən sıxılır");
+        }
+        totals.forEach((userId, sum) -> userRepository.applyLedger(userId, sum[0], sum[1]));
+        eventPublisher.publishEvent(new BalancesCompactedEvent(List.copyOf(totals.keySet())));
+        return entries.size();
+    }
+
+    public static BalanceLedgerEntity entry(Long userId, UUID tradeId, LedgerEntryType type,
+                                            BigDecimal availableDelta, BigDecimal frozenDelta) {
+        BalanceLedgerEntity entry = new BalanceLedgerEntity();
+        entry.setUserId(userId);
+        entry.setTradeId(tradeId);
+        entry.setEntryType(type);
+        entry.setAvailableDelta(availableDelta);
+        entry.setFrozenDelta(frozenDelta);
+        return entry;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.tradems.service;
+
+import java.util.Collection;
+
+/**
+ * {@code users} cədvəlindəki balansları dəyişmiş istifadəçilər.
+ */
+public record BalancesCompactedEvent(Collection<Long> userIds) {
+}
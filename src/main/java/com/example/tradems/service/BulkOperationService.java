@@ -0,0 +1,155 @@
+package com.example.tradems.service;
+
+import com.example.tradems.config.RetryOnConflict;
+import com.example.tradems.dto.response.BulkOperationResponse;
+import com.example.tradems.enums.BulkOperationStatus;
+import com.example.tradems.enums.BulkOperationType;
+import com.example.tradems.enums.LedgerEntryType;
+import com.example.tradems.exception.TradingException;
+import com.example.tradems.model.BalanceLedgerEntity;
+import com.example.tradems.model.BalanceView;
+import com.example.tradems.model.BulkOperationEntity;
+import com.example.tradems.repository.BalanceLedgerRepository;
+import com.example.tradems.repository.BulkOperationRepository;
+import com.example.tradems.repository.UserRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * İstifadəçilər üzərində toplu əməliyyatlar. İş id sırası ilə {@code chunk-size} ölçülü
+ * hissələrə bölünür; hər hissənin dəyişiklikləri və əməliyyatın kursoru bir tranzaksiyada
+ * commit olunur, ona görə də kəsilmiş əməliyyat təkrar tətbiq etmədən davam edir.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkOperationService {
+
+    private final BulkOperationRepository operationRepository;
+    private final UserRepository userRepository;
+    private final BalanceLedgerRepository ledgerRepository;
+    private final BalanceLedgerService ledgerService;
+    private final Clock clock;
+
+    @Value("${trading.bulk.chunk-size:5000}")
+    private int chunkSize = 5000;
+
+    @Value("${trading.bulk.reset-balance:10000}")
+    private BigDecimal resetBalance = BigDecimal.valueOf(10_000);
+
+    @Value("${trading.ranks.trader:15000}")
+    private BigDecimal traderMin = BigDecimal.valueOf(15_000);
+
+    @Value("${trading.ranks.pro:50000}")
+    private BigDecimal proMin = BigDecimal.valueOf(50_000);
+
+    @Value("${trading.ranks.champion:100000}")
+    private BigDecimal championMin = BigDecimal.valueOf(100_000);
+
+    @Transactional
+    public BulkOperationEntity create(BulkOperationType type) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        BulkOperationEntity operation = new BulkOperationEntity();
+        operation.setType(type);
+        operation.setStatus(BulkOperationStatus.RUNNING);
+        operation.setTotal(userRepository.count());
+        operation.setStartedAt(now);
+        operation.setUpdatedAt(now);
+        return operationRepository.save(operation);
+    }
+
+    /**
+     * Növbəti hissəni icra edir.
+     *
+     * @return davam etmək lazımdırsa {@code true}
+     */
+    @RetryOnConflict
+    @Transactional
+    public boolean processChunk(Long operationId) {
+        BulkOperationEntity operation = find(operationId);
+        if (operation.getStatus() != BulkOperationStatus.RUNNING) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        Long after = operation.getLastUserId();
+        List<Long> ids = userRepository.findIdsAfter(after, Limit.of(chunkSize));
+        if (ids.isEmpty()) {
+            operation.setStatus(BulkOperationStatus.COMPLETED);
+            operation.setFinishedAt(now);
+            operation.setUpdatedAt(now);
+            log.info("Toplu əməliyyat bitdi: {} #{}, {} istifadəçi, {} dəyişiklik",
+                    operation.getType(), operationId, operation.getProcessed(), operation.getAffected());
+            return false;
+        }
+        Long upTo = ids.get(ids.size() - 1);
+        int affected = switch (operation.getType()) {
+            case RESET_BALANCES -> resetBalances(after, upTo);
+            case RECALCULATE_RANKS -> userRepository.recalculateRanks(after, upTo, traderMin, proMin, championMin);
+            case EXPIRE_SUBSCRIPTIONS -> userRepository.expireSubscriptions(after, upTo, now);
+        };
+        operation.setLastUserId(upTo);
+        operation.setProcessed(operation.getProcessed() + ids.size());
+        operation.setAffected(operation.getAffected() + affected);
+        operation.setUpdatedAt(now);
+        return true;
+    }
+
+    @Transactional
+    public void fail(Long operationId, String error) {
+        BulkOperationEntity operation = find(operationId);
+        operation.setStatus(BulkOperationStatus.FAILED);
+        operation.setError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+        operation.setUpdatedAt(LocalDateTime.now(clock));
+    }
+
+    public List<Long> findRunning() {
+        return operationRepository.findByStatus(BulkOperationStatus.RUNNING).stream()
+                .map(BulkOperationEntity::getId)
+                .toList();
+    }
+
+    public BulkOperationResponse status(Long operationId) {
+        BulkOperationEntity operation = find(operationId);
+        return new BulkOperationResponse(operation.getId(), operation.getType(), operation.getStatus(),
+                operation.getProcessed(), operation.getAffected(), operation.getTotal(), operation.getError(),
+                operation.getStartedAt(), operation.getUpdatedAt(), operation.getFinishedAt());
+    }
+
+    /**
+     * Premium balansları bir {@code UPDATE} ilə hədəfə yazılır, sıxılmanı gözləmir. Sətirlər əvvəlcə
+     * kilidlənir: yarımçıq sıxılma ya əvvəl commit olunur, ya da sıfırlamadan sonra öz qeydlərini
+     * üstünə əlavə edir. Balansı azalan istifadəçilər üçün snapshot-un növbəti {@code debitSeq}-i ilə
+     * sıfır məbləğli qeyd yazılır — köhnə balansla yoxlanmış eyni anda çıxılma unikallıq xətası verir.
+     */
+    private int resetBalances(Long after, Long upTo) {
+        List<Long> premium = userRepository.lockPremiumIds(after, upTo);
+        if (premium.isEmpty()) {
+            return 0;
+        }
+        Map<BalanceView, BalanceLedgerEntity> lowered = new LinkedHashMap<>();
+        for (BalanceView balance : ledgerRepository.findPremiumBalances(premium)) {
+            if (balance.available().compareTo(resetBalance) > 0) {
+                lowered.put(balance, BalanceLedgerService.entry(balance.userId(), null, LedgerEntryType.ADJUSTMENT,
+                        BigDecimal.ZERO, BigDecimal.ZERO));
+            }
+        }
+        ledgerService.debitEach(lowered);
+        return userRepository.resetBalances(after, upTo, resetBalance);
+    }
+
+    private BulkOperationEntity find(Long operationId) {
+        return operationRepository.findById(operationId)
+                .orElseThrow(() -> new TradingException("Toplu əməliyyat tapılmadı: " + operationId));
+    }
+}
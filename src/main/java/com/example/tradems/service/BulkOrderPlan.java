@@ -0,0 +1,85 @@
+package com.example.tradems.service;
+
+import com.example.tradems.dto.response.BulkOrderLegResponse;
+import com.example.tradems.dto.response.BulkOrderResponse;
+import com.example.tradems.enums.BulkOrderAction;
+import com.example.tradems.enums.BulkOrderLegStatus;
+import com.example.tradems.enums.BulkOrderMode;
+import com.example.tradems.model.TradeEntity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Paketin yoxlanılmış ayaqları. {@code available} paket boyu işlənən balansdır: ləğv və
+ * bağlanışlar onu artırır, açılışlar azaldır. Yazma yalnız bütün ayaqlar yoxlanandan sonra olur.
+ */
+final class BulkOrderPlan {
+
+    final Long userId;
+    BigDecimal available;
+    final List<Leg> legs = new ArrayList<>();
+
+    BulkOrderPlan(Long userId, BigDecimal available) {
+        this.userId = userId;
+        this.available = available;
+    }
+
+    static final class Leg {
+        final BulkOrderAction action;
+        final int index;
+        final UUID tradeId;
+        final TradeEntity trade;
+        final String error;
+        BigDecimal closePrice;
+        BigDecimal pnl;
+        BigDecimal payout;
+
+        private Leg(BulkOrderAction action, int index, UUID tradeId, TradeEntity trade, String error) {
+            this.action = action;
+            this.index = index;
+            this.tradeId = tradeId;
+            this.trade = trade;
+            this.error = error;
+        }
+    }
+
+    Leg accept(BulkOrderAction action, int index, TradeEntity trade) {
+        Leg leg = new Leg(action, index, trade.getId(), trade, null);
+        legs.add(leg);
+        return leg;
+    }
+
+    void reject(BulkOrderAction action, int index, UUID tradeId, String error) {
+        legs.add(new Leg(action, index, tradeId, null, error));
+    }
+
+    List<Leg> accepted(BulkOrderAction action) {
+        return legs.stream().filter(leg -> leg.error == null && leg.action == action).toList();
+    }
+
+    int rejected() {
+        return (int) legs.stream().filter(leg -> leg.error != null).count();
+    }
+
+    BulkOrderResponse response(BulkOrderMode mode, boolean applied) {
+        List<BulkOrderLegResponse> result = new ArrayList<>(legs.size());
+        int appliedLegs = 0;
+        for (Leg leg : legs) {
+            BulkOrderLegStatus status;
+            if (leg.error != null) {
+                status = BulkOrderLegStatus.REJECTED;
+            } else if (applied) {
+                status = BulkOrderLegStatus.APPLIED;
+                appliedLegs++;
+            } else {
+                status = BulkOrderLegStatus.SKIPPED;
+            }
+            UUID tradeId = leg.trade != null ? leg.trade.getId() : leg.tradeId;
+            result.add(new BulkOrderLegResponse(leg.action, leg.index, tradeId, status, leg.error));
+        }
+        return new BulkOrderResponse(userId, mode, applied, appliedLegs, rejected(), result);
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.tradems.service;
+
+import com.example.tradems.dto.request.CreateContestRequest;
+import com.example.tradems.dto.response.ContestResponse;
+import com.example.tradems.dto.response.ContestStandingResponse;
+import com.example.tradems.exception.TradingException;
+import com.example.tradems.exception.UserNotFoundException;
+import com.example.tradems.model.ContestParticipantEntity;
+import com.example.tradems.model.ContestStanding;
+import com.example.tradems.model.CotestEntity;
+import com.example.tradems.repository.ContestParticipantRepository;
+import com.example.tradems.repository.CotestRepository;
+import com.example.tradems.repository.UserRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Yarışmalar. Qoşulma yalnız {@code contest_participants}-ə şərtli sətir əlavə edir (yarışma
+ * aktiv olmalıdır) və yerli gözləyənlərə yazılır, ona görə eyni anda minlərlə qoşulma {@code cotest} sətri üzərində növbəyə düzülmür.
+ * {@link #flush(Long)} sayılmamış sətirləri götürüb sayğacı artırır və hədəfə
+ * çatmanı şərtli UPDATE ilə qeyd edir — keçid bütün node-lar üzrə bir dəfə baş verir.
+ * Sıralama bağlanış hadisələri ilə yerində yenilənir, digər node-ların bağlanışları
+ * {@code rebuild-interval} ilə DB-dən gəlir.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContestService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final CotestRepository contestRepository;
+    private final ContestParticipantRepository participantRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock;
+
+    private final ConcurrentHashMap<Long, ContestState> states = new ConcurrentHashMap<>();
+
+    @Transactional
+    public ContestResponse create(CreateContestRequest request) {
+        CotestEntity contest = new CotestEntity();
+        contest.setName(request.name());
+        contest.setTargetParticipants(request.targetParticipants());
+        CotestEntity saved = contestRepository.save(contest);
+        return toResponse(saved, saved.getCurrentParticipants());
+    }
+
+    @Transactional
+    public ContestResponse start(Long contestId) {
+        CotestEntity contest = find(contestId);
+        if (contest.isActive()) {
+            throw new TradingException("Yarışma artıq başlayıb");
+        }
+        contest.setActive(true);
+        contest.setStartedAt(LocalDateTime.now(clock));
+        ContestState state = new ContestState(contest, participantRepository.findStandings(contestId));
+        states.put(contestId, state);
+        log.info("Yarışma başladı: #{} {}", contestId, contest.getName());
+        return toResponse(contest, state.participants());
+    }
+
+    @Transactional
+    public ContestResponse stop(Long contestId) {
+        ContestState state = states.get(contestId);
+        if (state != null) {
+            applyFlush(state, drainUntilCommit(state));
+            // rollback olsa vəziyyət yerində qalır, yığılmış dəyişikliklər növbəti flush-a düşür
+            afterCommit(() -> states.remove(contestId, state));
+        }
+        CotestEntity contest = find(contestId);
+        contest.setActive(false);
+        log.info("Yarışma bitdi: #{}", contestId);
+        return toResponse(contest, contest.getCurrentParticipants());
+    }
+
+    public ContestResponse join(Long contestId, Long userId) {
+        ContestState state = activeState(contestId);
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("İstifadəçi tapılmadı");
+        }
+        boolean reserved = state.reserve(userId);
+        boolean inserted = false;
+        try {
+            inserted = participantRepository.insertIfActive(contestId, userId, LocalDateTime.now(clock)) == 1;
+        } catch (DataIntegrityViolationException e) {
+            throw new TradingException("İstifadəçi artıq yarışmadadır");
+        } finally {
+            if (reserved && !inserted) {
+                state.release(userId);
+            }
+        }
+        if (!inserted) {
+            throw new TradingException("Yarışma aktiv deyil");
+        }
+        state.joined(userId);
+        return toResponse(state.contest, state.participants());
+    }
+
+    public ContestResponse get(Long contestId) {
+        ContestState state = states.get(contestId);
+        if (state != null) {
+            return toResponse(state.contest, state.participants());
+        }
+        CotestEntity contest = find(contestId);
+        return toResponse(contest, contest.getCurrentParticipants());
+    }
+
+    public List<ContestStandingResponse> standings(Long contestId, int page, int pageSize) {
+        int rows = Math.clamp(pageSize, 1, MAX_PAGE_SIZE);
+        int from = offset(page, rows);
+        ContestState state = states.get(contestId);
+        List<ContestStanding> standings;
+        if (state != null) {
+            standings = state.page(from, rows);
+        } else {
+            find(contestId);
+            standings = participantRepository.findStandings(contestId).stream()
+                    .sorted(Comparator.comparing(ContestStanding::pnl).reversed().thenComparing(ContestStanding::userId))
+                    .skip(from)
+                    .limit(rows)
+                    .toList();
+        }
+        return IntStream.range(0, standings.size())
+                .mapToObj(i -> toResponse(from + i + 1, standings.get(i)))
+                .toList();
+    }
+
+    /**
+     * Yarışma başlayandan sonra bağlanmış pozisiyanın PnL-i sıralamaya əlavə olunur;
+     * iştirakçı olmayanların dəyişikliyi flush zamanı atılır.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradeClosed(TradeClosedEvent event) {
+        for (ContestState state : states.values()) {
+            LocalDateTime startedAt = state.contest.getStartedAt();
+            if (startedAt != null && !event.closedAt().isBefore(startedAt)) {
+                state.closed(event.userId(), event.pnl());
+            }
+        }
+    }
+
+    public Set<Long> activeIds() {
+        return Set.copyOf(states.keySet());
+    }
+
+    @Transactional
+    public void flush(Long contestId) {
+        ContestState state = states.get(contestId);
+        if (state != null) {
+            applyFlush(state, drainUntilCommit(state));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${trading.contest.rebuild-interval:60000}",
+            initialDelayString = "${trading.contest.rebuild-interval:60000}")
+    public void rebuild() {
+        Set<Long> active = new HashSet<>();
+        for (CotestEntity contest : contestRepository.findByActiveTrue()) {
+            active.add(contest.getId());
+            List<ContestStanding> standings = participantRepository.findStandings(contest.getId());
+            states.compute(contest.getId(), (id, state) -> state == null
+                    ? new ContestState(contest, standings)
+                    : state.reload(contest, standings));
+        }
+        states.keySet().retainAll(active);
+    }
+
+    /**
+     * Yığılmış dəyişiklikləri götürür; tranzaksiya commit olunmasa geri qaytarır.
+     */
+    private Map<Long, ContestStanding> drainUntilCommit(ContestState state) {
+        Map<Long, ContestStanding> drained = state.drainDeltas();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    state.restore(drained);
+                }
+            }
+        });
+        return drained;
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void applyFlush(ContestState state, Map<Long, ContestStanding> deltas) {
+        Long contestId = state.contestId;
+        List<Long> claimed = participantRepository.findUncountedUserIds(contestId);
+        int counted = claimed.isEmpty() ? 0 : participantRepository.markCounted(contestId, claimed);
+        if (counted > 0) {
+            contestRepository.addParticipants(contestId, counted);
+        }
+        if (!deltas.isEmpty()) {
+            for (ContestParticipantEntity participant : participantRepository.findByContestIdAndUserIdIn(contestId, deltas.keySet())) {
+                ContestStanding delta = deltas.get(participant.getUserId());
+                participant.setPnl(participant.getPnl().add(delta.pnl()));
+                participant.setClosedTrades(participant.getClosedTrades() + delta.closedTrades());
+            }
+        }
+        boolean reached = contestRepository.markTargetReached(contestId, LocalDateTime.now(clock)) == 1;
+        CotestEntity contest = find(contestId);
+        // başqa node eyni sətirləri eyni anda götürübsə onun commit-i bizimkindən əvvəldir,
+        // ona görə commit-dən sonra oxunmuş sətirlərin hamısı sayılmış olur
+        afterCommit(() -> state.counted(contest, claimed));
+        if (reached) {
+            log.info("Yarışma hədəfə çatdı: #{}, {} iştirakçı", contestId, contest.getCurrentParticipants());
+            eventPublisher.publishEvent(new ContestTargetReachedEvent(contestId, contest.getCurrentParticipants()));
+        }
+    }
+
+    /**
+     * Başqa node-da başladılmış yarışma növbəti {@link #rebuild()}-i gözləmədən yüklənir.
+     */
+    private ContestState activeState(Long contestId) {
+        ContestState state = states.get(contestId);
+        if (state != null) {
+            return state;
+        }
+        CotestEntity contest = find(contestId);
+        if (!contest.isActive()) {
+            throw new TradingException("Yarışma aktiv deyil");
+        }
+        return states.computeIfAbsent(contestId,
+                id -> new ContestState(contest, participantRepository.findStandings(id)));
+    }
+
+    private static int offset(int page, int rows) {
+        try {
+            return Math.multiplyExact(Math.max(page, 0), rows);
+        } catch (ArithmeticException e) {
+            throw new TradingException("Səhifə nömrəsi çox böyükdür: " + page);
+        }
+    }
+
+    private CotestEntity find(Long contestId) {
+        return contestRepository.findById(contestId)
+                .orElseThrow(() -> new TradingException("Yarışma tapılmadı: " + contestId));
+    }
+
+    private ContestResponse toResponse(CotestEntity contest, long participants) {
+        return new ContestResponse(contest.getId(), contest.getName(), contest.isActive(), participants,
+                contest.getTargetParticipants(), contest.getStartedAt(), contest.getTargetReachedAt());
+    }
+
+    private ContestStandingResponse toResponse(long rank, ContestStanding standing) {
+        return new ContestStandingResponse(rank, standing.userId(), standing.pnl(), standing.closedTrades());
+    }
+}
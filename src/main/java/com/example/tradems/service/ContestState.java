@@ -0,0 +1,135 @@
+package com.example.tradems.service;
+
+import com.example.tradems.model.ContestStanding;
+import com.example.tradems.model.CotestEntity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aktiv yarışmanın bu node-dakı vəziyyəti. Hələ sayılmamış qoşulmalar {@code uncounted}-da
+ * saxlanılır (ölçüsünü {@link ConcurrentHashMap} zolaqlı sayğacla tutur), flush yalnız
+ * götürdüyü sətirləri oradan çıxarır. Bağlanışların PnL-i {@code deltas}-da yığılır və flush zamanı
+ * DB-yə köçürülür. Sıralama hər bağlanışda yalnız həmin iştirakçının yeri dəyişməklə yenilənir.
+ */
+final class ContestState {
+
+    private static final Comparator<ContestStanding> ORDER = Comparator
+            .comparing(ContestStanding::pnl).reversed()
+            .thenComparing(ContestStanding::userId);
+
+    final Long contestId;
+    private final Set<Long> uncounted = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<Long, ContestStanding> deltas = new ConcurrentHashMap<>();
+    private final TreeSet<ContestStanding> board = new TreeSet<>(ORDER);
+    private final Map<Long, ContestStanding> byUser = new HashMap<>();
+    volatile CotestEntity contest;
+
+    ContestState(CotestEntity contest, List<ContestStanding> standings) {
+        this.contestId = contest.getId();
+        reload(contest, standings);
+    }
+
+    /**
+     * Sətir əlavə edilməzdən əvvəl çağırılır ki, flush-un götürdüyü hər yerli sətir burada olsun.
+     * İstifadəçi artıq gözləyirdisə {@code false} qaytarır.
+     */
+    boolean reserve(Long userId) {
+        return uncounted.add(userId);
+    }
+
+    void release(Long userId) {
+        uncounted.remove(userId);
+    }
+
+    synchronized void joined(Long userId) {
+        if (!byUser.containsKey(userId)) {
+            put(new ContestStanding(userId, BigDecimal.ZERO, 0));
+        }
+    }
+
+    /**
+     * Flush commit olunandan sonra: sayğac DB-dəki dəyərə keçir, götürülmüş sətirlər gözləyənlərdən çıxır.
+     */
+    void counted(CotestEntity contest, Collection<Long> claimed) {
+        this.contest = contest;
+        claimed.forEach(uncounted::remove);
+    }
+
+    void closed(Long userId, BigDecimal pnl) {
+        ContestStanding delta = new ContestStanding(userId, pnl, 1);
+        deltas.merge(userId, delta, ContestState::sum);
+        synchronized (this) {
+            ContestStanding previous = byUser.get(userId);
+            if (previous != null) {
+                board.remove(previous);
+                put(sum(previous, delta));
+            }
+        }
+    }
+
+    Map<Long, ContestStanding> drainDeltas() {
+        Map<Long, ContestStanding> drained = new HashMap<>();
+        for (Long userId : deltas.keySet()) {
+            ContestStanding delta = deltas.remove(userId);
+            if (delta != null) {
+                drained.put(userId, delta);
+            }
+        }
+        return drained;
+    }
+
+    void restore(Map<Long, ContestStanding> drained) {
+        drained.forEach((userId, delta) -> deltas.merge(userId, delta, ContestState::sum));
+    }
+
+    long participants() {
+        return contest.getCurrentParticipants() + uncounted.size();
+    }
+
+    /**
+     * DB-dən oxunmuş sıralamanı hələ flush olunmamış PnL-lə birlikdə yerləşdirir.
+     */
+    synchronized ContestState reload(CotestEntity contest, List<ContestStanding> standings) {
+        this.contest = contest;
+        board.clear();
+        byUser.clear();
+        for (ContestStanding standing : standings) {
+            ContestStanding pending = deltas.get(standing.userId());
+            put(pending != null ? sum(standing, pending) : standing);
+        }
+        return this;
+    }
+
+    synchronized List<ContestStanding> page(int from, int rows) {
+        List<ContestStanding> result = new ArrayList<>(rows);
+        int i = 0;
+        for (ContestStanding standing : board) {
+            if (i++ < from) {
+                continue;
+            }
+            result.add(standing);
+            if (result.size() == rows) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private void put(ContestStanding standing) {
+        board.add(standing);
+        byUser.put(standing.userId(), standing);
+    }
+
+    private static ContestStanding sum(ContestStanding a, ContestStanding b) {
+        return new ContestStanding(a.userId(), a.pnl().add(b.pnl()), a.closedTrades() + b.closedTrades());
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.tradems.service;
+
+/**
+ * Yarışma iştirakçı hədəfinə çatdı. Bütün node-lar üzrə bir dəfə dərc olunur.
+ */
+public record ContestTargetReachedEvent(Long contestId, int participants) {
+}
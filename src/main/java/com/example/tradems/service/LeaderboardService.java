@@ -0,0 +1,156 @@
+package com.example.tradems.service;
+
+import com.example.tradems.dto.response.LeaderboardEntryResponse;
+import com.example.tradems.exception.UserNotFoundException;
+import com.example.tradems.model.LeaderboardStanding;
+import com.example.tradems.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+/**
+ * Yaddaşda saxlanılan top-N reytinq. Balanslar ledger sıxılanda dəyişir; bu zaman yalnız
+ * dəyişmiş istifadəçilər oxunub sıralamada yerləri yenilənir. Sərhəddə ehtiyat üçün
+ * {@code 2 * size} qədər istifadəçi saxlanılır; ehtiyat tükənəndə və ya restartdan sonra
+ * reytinq {@code virtual_balance} indeksi ilə DB-dən yenidən qurulur.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaderboardService {
+
+    private static final Comparator<LeaderboardStanding> ORDER = Comparator
+            .comparing(LeaderboardStanding::balance).reversed()
+            .thenComparing(LeaderboardStanding::userId);
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final UserRepository userRepository;
+
+    @Value("${trading.leaderboard.size:1000}")
+    private int size = 1000;
+
+    private final TreeSet<LeaderboardStanding> board = new TreeSet<>(ORDER);
+    private final Map<Long, LeaderboardStanding> byUser = new HashMap<>();
+    private boolean truncated;
+
+    private volatile Ranking ranking = new Ranking(List.of(), Map.of());
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${trading.leaderboard.rebuild-interval:600000}",
+            initialDelayString = "${trading.leaderboard.rebuild-interval:600000}")
+    public void rebuild() {
+        List<LeaderboardStanding> top = userRepository.findTopStandings(Limit.of(capacity()));
+        synchronized (this) {
+            board.clear();
+            byUser.clear();
+            top.forEach(this::put);
+            truncated = top.size() == capacity();
+            publish();
+        }
+        log.info("Reytinq quruldu: {} istifadəçi", top.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalancesCompacted(BalancesCompactedEvent event) {
+        if (update(userRepository.findStandings(event.userIds()))) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Yeni istifadəçinin balansı hadisədə gəlir, DB-dən oxunmur.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserCreated(UserCreatedEvent event) {
+        if (update(List.of(new LeaderboardStanding(event.userId(), event.username(), event.balance())))) {
+            rebuild();
+        }
+    }
+
+    public List<LeaderboardEntryResponse> page(int page, int pageSize) {
+        List<LeaderboardStanding> standings = ranking.standings();
+        int limit = Math.min(standings.size(), size);
+        int rows = Math.clamp(pageSize, 1, MAX_PAGE_SIZE);
+        long offset = (long) Math.max(page, 0) * rows;
+        if (offset >= limit) {
+            return List.of();
+        }
+        int from = (int) offset;
+        return IntStream.range(from, Math.min(from + rows, limit))
+                .mapToObj(i -> toResponse(i + 1, standings.get(i)))
+                .toList();
+    }
+
+    public LeaderboardEntryResponse rankOf(Long userId) {
+        Ranking current = ranking;
+        Integer position = current.positions().get(userId);
+        if (position != null) {
+            return toResponse(position + 1, current.standings().get(position));
+        }
+        LeaderboardStanding standing = userRepository.findStandings(List.of(userId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new UserNotFoundException("İstifadəçi tapılmadı"));
+        long rank = userRepository.countRankedAbove(standing.balance(), standing.userId()) + 1;
+        return toResponse(rank, standing);
+    }
+
+    /**
+     * @return reytinqin DB-dən yenidən qurulması lazımdırsa {@code true}
+     */
+    synchronized boolean update(Collection<LeaderboardStanding> standings) {
+        for (LeaderboardStanding standing : standings) {
+            LeaderboardStanding previous = byUser.remove(standing.userId());
+            if (previous != null) {
+                board.remove(previous);
+            }
+            if (!truncated || !board.isEmpty() && ORDER.compare(standing, board.last()) < 0) {
+                put(standing);
+            }
+        }
+        while (board.size() > capacity()) {
+            byUser.remove(board.pollLast().userId());
+            truncated = true;
+        }
+        publish();
+        return truncated && board.size() < size;
+    }
+
+    private void put(LeaderboardStanding standing) {
+        board.add(standing);
+        byUser.put(standing.userId(), standing);
+    }
+
+    private void publish() {
+        List<LeaderboardStanding> snapshot = List.copyOf(board);
+        Map<Long, Integer> index = new HashMap<>(snapshot.size() * 2);
+        for (int i = 0; i < snapshot.size(); i++) {
+            index.put(snapshot.get(i).userId(), i);
+        }
+        ranking = new Ranking(snapshot, index);
+    }
+
+    private int capacity() {
+        return size * 2;
+    }
+
+    private record Ranking(List<LeaderboardStanding> standings, Map<Long, Integer> positions) {
+    }
+
+    private LeaderboardEntryResponse toResponse(long rank, LeaderboardStanding standing) {
+        return new LeaderboardEntryResponse(rank, standing.username(), standing.balance());
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.tradems.service;
+
+import com.example.tradems.dto.response.OpenTradeResponse;
+import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.model.TradeEntity;
+import com.example.tradems.repository.TradeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+/**
+ * Açıq pozisiyaların PnL-ini SSE ilə yayır. Hər tick-də abunəçilərin simvolları üçün keşdən
+ * qiymət snapshot-u götürülür: mühərrikin aldığı qiymətlər təkrar sorğulanmır, yalnız
+ * {@code price-max-age}-dən köhnələri alınır. Qiyməti dəyişmiş simvolun hər pozisiyası bir dəfə
+ * qiymətləndirilir və sahibinin bütün bağlantılarına göndərilir. {@link PositionsChangedEvent}
+ * yalnız bu node-da dərc olunur, ona görə pozisiya siyahıları {@code resync-interval} ilə DB-dən
+ * də yoxlanılır.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PositionStreamService {
+
+    private static final int RESYNC_BATCH = 500;
+
+    private final TradeRepository tradeRepository;
+    private final PriceService priceService;
+    @Qualifier("positionStreamExecutor")
+    private final ExecutorService streamExecutor;
+
+    @Value("${trading.stream.timeout:1800000}")
+    private long timeoutMillis = 1_800_000;
+
+    @Value("${trading.stream.price-max-age:2000}")
+    private long priceMaxAgeMillis = 2000;
+
+    private final Map<Long, Set<PositionSubscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, List<TradeEntity>> positions = new ConcurrentHashMap<>();
+    private final Map<String, BigDecimal> lastPrices = new ConcurrentHashMap<>();
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        PositionSubscriber subscriber = new PositionSubscriber(userId, emitter, streamExecutor,
+                () -> currentPositions(userId), this::unsubscribe);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        if (!positions.containsKey(userId)) {
+            // sorğu map-in kilidi altında getməsin; arada yüklənmiş təzə siyahı saxlanılır
+            positions.putIfAbsent(userId, loadPositions(userId));
+        }
+        subscriber.requestSnapshot();
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${trading.stream.tick-interval:1000}")
+    public void tick() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Map<String, List<TradeEntity>> bySymbol = new HashMap<>();
+        positions.values().forEach(trades -> trades.forEach(trade ->
+                bySymbol.computeIfAbsent(trade.getSymbol(), s -> new ArrayList<>()).add(trade)));
+        if (bySymbol.isEmpty()) {
+            return;
+        }
+        PriceSnapshot prices = priceService.cachedSnapshot(bySymbol.keySet(), priceMaxAgeMillis);
+        bySymbol.forEach((symbol, trades) -> {
+            BigDecimal price = prices.priceOf(symbol);
+            if (price == null || price.equals(lastPrices.put(symbol, price))) {
+                return;
+            }
+            for (TradeEntity trade : trades) {
+                OpenTradeResponse update = PositionValuation.value(trade, price);
+                subscribers.getOrDefault(trade.getUserId(), Set.of()).forEach(s -> s.offer(update));
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPositionsChanged(PositionsChangedEvent event) {
+        Set<PositionSubscriber> connections = subscribers.get(event.userId());
+        if (connections == null) {
+            return;
+        }
+        positions.put(event.userId(), loadPositions(event.userId()));
+        connections.forEach(PositionSubscriber::requestSnapshot);
+    }
+
+    /**
+     * Başqa node-da açılmış və ya bağlanmış pozisiyaları tapır; siyahısı dəyişmiş istifadəçinin
+     * bağlantılarına yeni snapshot göndərilir.
+     */
+    @Scheduled(fixedDelayString = "${trading.stream.resync-interval:30000}")
+    public void resync() {
+        List<Long> userIds = List.copyOf(subscribers.keySet());
+        for (int from = 0; from < userIds.size(); from += RESYNC_BATCH) {
+            List<Long> batch = userIds.subList(from, Math.min(from + RESYNC_BATCH, userIds.size()));
+            Map<Long, List<TradeEntity>> open = tradeRepository.findByUserIdInAndStatus(batch, TradeStatus.OPEN).stream()
+                    .collect(Collectors.groupingBy(TradeEntity::getUserId));
+            for (Long userId : batch) {
+                List<TradeEntity> previous = positions.get(userId);
+                List<TradeEntity> reloaded = List.copyOf(open.getOrDefault(userId, List.of()));
+                if (previous == null || tradeIds(previous).equals(tradeIds(reloaded))) {
+                    continue;
+                }
+                if (positions.replace(userId, previous, reloaded)) {
+                    subscribers.getOrDefault(userId, Set.of()).forEach(PositionSubscriber::requestSnapshot);
+                }
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void unsubscribe(PositionSubscriber subscriber) {
+        subscriber.close();
+        subscribers.computeIfPresent(subscriber.userId(), (userId, connections) -> {
+            connections.remove(subscriber);
+            if (connections.isEmpty()) {
+                positions.remove(userId);
+                return null;
+            }
+            return connections;
+        });
+    }
+
+    private List<TradeEntity> loadPositions(Long userId) {
+        return List.copyOf(tradeRepository.findByUserIdAndStatus(userId, TradeStatus.OPEN));
+    }
+
+    private static Set<UUID> tradeIds(List<TradeEntity> trades) {
+        return trades.stream().map(TradeEntity::getId).collect(Collectors.toSet());
+    }
+
+    private List<OpenTradeResponse> currentPositions(Long userId) {
+        return positions.getOrDefault(userId, List.of()).stream()
+                .map(trade -> PositionValuation.value(trade, lastPrices.get(trade.getSymbol())))
+                .toList();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.tradems.service;
+
+import com.example.tradems.dto.response.OpenTradeResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bir SSE bağlantısı. Göndərilməmiş yeniləmələr trade üzrə birləşdirilir: yavaş klient
+ * yalnız hər pozisiyanın son vəziyyətini alır, növbə böyümür. Eyni anda ən çox bir
+ * göndərmə gedir.
+ */
+@Slf4j
+final class PositionSubscriber {
+
+    private final Long userId;
+    private final SseEmitter emitter;
+    private final Executor executor;
+    private final Supplier<List<OpenTradeResponse>> snapshot;
+    private final Consumer<PositionSubscriber> onClose;
+
+    private final Map<UUID, OpenTradeResponse> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean resync = new AtomicBoolean(true);
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private volatile boolean closed;
+
+    PositionSubscriber(Long userId, SseEmitter emitter, Executor executor,
+                       Supplier<List<OpenTradeResponse>> snapshot, Consumer<PositionSubscriber> onClose) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.executor = executor;
+        this.snapshot = snapshot;
+        this.onClose = onClose;
+    }
+
+    Long userId() {
+        return userId;
+    }
+
+    void offer(OpenTradeResponse update) {
+        pending.put(update.id(), update);
+        schedule();
+    }
+
+    /**
+     * Növbəti göndərmədə yeniləmələr əvəzinə bütün pozisiyaların siyahısı gedir.
+     */
+    void requestSnapshot() {
+        resync.set(true);
+        pending.clear();
+        schedule();
+    }
+
+    void close() {
+        closed = true;
+        pending.clear();
+    }
+
+    private void schedule() {
+        if (!closed && sending.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!closed) {
+                if (resync.getAndSet(false)) {
+                    emitter.send(SseEmitter.event().name("snapshot").data(snapshot.get()));
+                    continue;
+                }
+                List<OpenTradeResponse> batch = new ArrayList<>(pending.size());
+                for (UUID tradeId : List.copyOf(pending.keySet())) {
+                    OpenTradeResponse update = pending.remove(tradeId);
+                    if (update != null) {
+                        batch.add(update);
+                    }
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+                emitter.send(SseEmitter.event().name("positions").data(batch));
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Stream bağlantısı kəsildi: user {}", userId);
+            emitter.completeWithError(e);
+            onClose.accept(this);
+            return;
+        } finally {
+            sending.set(false);
+        }
+        if (!closed && (resync.get() || !pending.isEmpty())) {
+            schedule();
+        }
+    }
+}
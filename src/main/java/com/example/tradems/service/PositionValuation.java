@@ -0,0 +1,32 @@
+package com.example.tradems.service;
+
+import com.example.tradems.dto.response.OpenTradeResponse;
+import com.example.tradems.engine.TradeMath;
+import com.example.tradems.model.TradeEntity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Açıq pozisiyanın verilən qiymətlə cari PnL-i; həm sorğu, həm də stream yolu istifadə edir.
+ */
+final class PositionValuation {
+
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    private PositionValuation() {
+    }
+
+    static OpenTradeResponse value(TradeEntity trade, BigDecimal current) {
+        BigDecimal pnl = null;
+        BigDecimal pnlPerc = null;
+        if (current != null) {
+            pnl = TradeMath.pnl(trade.getSide(), trade.getEntryPrice(), current, trade.getMargin(), trade.getLeverage());
+            pnlPerc = pnl.divide(trade.getMargin(), 4, RoundingMode.HALF_UP).multiply(HUNDRED);
+        }
+        return new OpenTradeResponse(
+                trade.getId(), trade.getSymbol(), trade.getSide(), trade.getEntryPrice(),
+                current, trade.getMargin(), trade.getLeverage(), pnl, pnlPerc
+        );
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.tradems.service;
+
+/**
+ * İstifadəçinin açıq pozisiyaları dəyişdi (açıldı, aktivləşdi, bağlandı və ya ləğv edildi).
+ */
+public record PositionsChangedEvent(Long userId) {
+}
@@ -0,0 +1,336 @@
+package com.example.tradems.service;
+
+import com.example.tradems.client.PriceQuote;
+import com.example.tradems.client.PriceSource;
+import com.example.tradems.dto.response.PriceStatsResponse;
+import com.example.tradems.engine.TickHistory;
+import com.example.tradems.exception.PriceFormatException;
+import com.example.tradems.exception.PriceUnavailableException;
+import com.example.tradems.metrics.TradingMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PriceService {
+
+    private final PriceSource priceSource;
+    @Qualifier("priceFetchExecutor")
+    private final ExecutorService priceFetchExecutor;
+    private final TradingMetrics metrics;
+    private final TickHistory tickHistory;
+
+    private final LongAdder fetchCount = new LongAdder();
+    private final LongAdder fetchFailures = new LongAdder();
+    private final LongAdder fetchNanos = new LongAdder();
+    private final LongAccumulator maxFetchNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder snapshotHits = new LongAdder();
+    private final LongAdder snapshotMisses = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder staleServed = new LongAdder();
+    private final LongAdder skippedSymbols = new LongAdder();
+
+    private final ConcurrentHashMap<String, CachedPrice> cache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<BigDecimal>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${trading.price.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${trading.price.cache.max-age:500}")
+    private long cacheMaxAgeMillis = 500;
+
+    @Value("${trading.price.cache.max-size:10000}")
+    private int cacheMaxSize = 10_000;
+
+    @Value("${trading.price.last-known-good.max-age:3000}")
+    private long lastKnownGoodMaxAgeMillis = 3000;
+
+    @Value("${trading.price.fallback-budget:1000}")
+    private long fallbackBudgetMillis = 1000;
+
+    private record CachedPrice(BigDecimal price, long fetchedAt) {
+    }
+
+    /**
+     * Oxuma yolu üçün snapshot: {@code trading.price.cache.max-age} daxilində alınmış qiymətlər
+     * keşdən, qalanları bir toplu sorğu ilə alınır. Eyni simvolu eyni anda istəyən sorğular
+     * bir-birinin sorğusunu gözləyir, provayderə ikinci dəfə getmir.
+     * Trigger yoxlaması üçün istifadə edilməməlidir — orada {@link #snapshot} lazımdır.
+     */
+    public PriceSnapshot cachedSnapshot(Collection<String> symbols) {
+        return cachedSnapshot(symbols, cacheMaxAgeMillis);
+    }
+
+    /**
+     * {@link #cachedSnapshot(Collection)} verilmiş yaş limiti ilə: mühərrikin bu dövrdə aldığı
+     * qiymətlər də keşdədir, ona görə limit dövr intervalından böyük olanda təkrar sorğu getmir.
+     */
+    public PriceSnapshot cachedSnapshot(Collection<String> symbols, long maxAgeMillis) {
+        long now = System.nanoTime();
+        long maxAge = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+        Map<String, BigDecimal> prices = new HashMap<>();
+        Map<String, CompletableFuture<BigDecimal>> claimed = new HashMap<>();
+        Map<String, CompletableFuture<BigDecimal>> awaited = new HashMap<>();
+
+        for (String symbol : new LinkedHashSet<>(symbols)) {
+            CachedPrice cached = cache.get(symbol);
+            if (cached != null && now - cached.fetchedAt() <= maxAge) {
+                cacheHits.increment();
+                prices.put(symbol, cached.price());
+                continue;
+            }
+            cacheMisses.increment();
+            CompletableFuture<BigDecimal> future = new CompletableFuture<>();
+            CompletableFuture<BigDecimal> running = inFlight.putIfAbsent(symbol, future);
+            if (running == null) {
+                claimed.put(symbol, future);
+            } else {
+                awaited.put(symbol, running);
+            }
+        }
+
+        if (!claimed.isEmpty()) {
+            Map<String, BigDecimal> fetched = Map.of();
+            try {
+                fetched = fetchAll(claimed.keySet());
+                prices.putAll(fetched);
+            } finally {
+                for (Map.Entry<String, CompletableFuture<BigDecimal>> entry : claimed.entrySet()) {
+                    inFlight.remove(entry.getKey(), entry.getValue());
+                    entry.getValue().complete(fetched.get(entry.getKey()));
+                }
+            }
+        }
+        awaited.forEach((symbol, future) -> {
+            BigDecimal price = future.join();
+            if (price != null) {
+                prices.put(symbol, price);
+            }
+        });
+        return new PriceSnapshot(prices, snapshotHits, snapshotMisses);
+    }
+
+    /**
+     * Simvolları {@code batchSize} ölçülü hissələrlə, hər hissəni bir sorğu ilə paralel alır.
+     * Tək hissə çağıran thread-də alınır ki, shard-lar ortaq pool-u gözləməsin.
+     * Qiyməti alına bilməyən simvollar snapshot-a düşmür və həmin dövrdə yoxlanılmır.
+     */
+    public PriceSnapshot snapshot(Collection<String> symbols) {
+        return new PriceSnapshot(fetchAll(symbols), snapshotHits, snapshotMisses);
+    }
+
+    /**
+     * Sifariş qəbulu üçün yalnız indi alınmış qiymətlər: keşə və son məlum qiymətə baxılmır,
+     * alına bilməyən simvol snapshot-a düşmür.
+     */
+    public PriceSnapshot freshSnapshot(Collection<String> symbols) {
+        List<String> distinct = List.copyOf(new LinkedHashSet<>(symbols));
+        if (distinct.isEmpty()) {
+            return new PriceSnapshot(new HashMap<>(), snapshotHits, snapshotMisses);
+        }
+        return new PriceSnapshot(remember(fetchPrices(distinct)), snapshotHits, snapshotMisses);
+    }
+
+    private Map<String, BigDecimal> fetchAll(Collection<String> symbols) {
+        List<String> distinct = List.copyOf(new LinkedHashSet<>(symbols));
+        if (distinct.size() <= batchSize) {
+            Map<String, BigDecimal> prices = remember(fetchPrices(distinct));
+            fillFromLastKnownGood(distinct, prices);
+            return prices;
+        }
+
+        List<CompletableFuture<Map<String, BigDecimal>>> futures = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += batchSize) {
+            List<String> chunk = distinct.subList(from, Math.min(from + batchSize, distinct.size()));
+            futures.add(CompletableFuture.supplyAsync(() -> fetchPrices(chunk), priceFetchExecutor));
+        }
+
+        Map<String, BigDecimal> prices = new HashMap<>(distinct.size() * 2);
+        futures.forEach(future -> prices.putAll(future.join()));
+        remember(prices);
+        fillFromLastKnownGood(distinct, prices);
+        return prices;
+    }
+
+    /**
+     * Təzə qiyməti alınmamış simvollar üçün {@code last-known-good.max-age}-dən köhnə olmayan
+     * son qiymət. Belə qiymət də yoxdursa simvol snapshot-a düşmür və mühərrik onu bu dövrdə
+     * yoxlamır — köhnəlmiş və ya sıfır qiymətlə trigger yoxlanılmır.
+     */
+    private void fillFromLastKnownGood(List<String> symbols, Map<String, BigDecimal> prices) {
+        if (prices.size() >= symbols.size()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long maxAge = TimeUnit.MILLISECONDS.toNanos(lastKnownGoodMaxAgeMillis);
+        int skipped = 0;
+        for (String symbol : symbols) {
+            if (prices.containsKey(symbol)) {
+                continue;
+            }
+            CachedPrice cached = cache.get(symbol);
+            if (cached != null && now - cached.fetchedAt() <= maxAge) {
+                prices.put(symbol, cached.price());
+                staleServed.increment();
+            } else {
+                skipped++;
+            }
+        }
+        if (skipped > 0) {
+            skippedSymbols.add(skipped);
+            log.warn("{} simvol üçün təzə qiymət yoxdur, bu dövrdə buraxılır", skipped);
+        }
+    }
+
+    /**
+     * Təzə alınmış qiymətləri keşə yazır. Limit aşılanda əvvəlcə köhnəlmiş, sonra
+     * qalan yazılar silinir — keş yalnız sorğu sayını azaldır, dəqiqlik üçün lazım deyil.
+     */
+    private Map<String, BigDecimal> remember(Map<String, BigDecimal> prices) {
+        tickHistory.recordAll(prices);
+        long now = System.nanoTime();
+        prices.forEach((symbol, price) -> cache.put(symbol, new CachedPrice(price, now)));
+        if (cache.size() > cacheMaxSize) {
+            long maxAge = TimeUnit.MILLISECONDS.toNanos(cacheMaxAgeMillis);
+            cache.values().removeIf(cached -> now - cached.fetchedAt() > maxAge);
+            var it = cache.keySet().iterator();
+            while (cache.size() > cacheMaxSize && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        return prices;
+    }
+
+    private Map<String, BigDecimal> fetchPrices(List<String> symbols) {
+        long start = System.nanoTime();
+        try {
+            List<PriceQuote> quotes = priceSource.getPrices(symbols);
+            Map<String, BigDecimal> prices = new HashMap<>(quotes.size() * 2);
+            for (PriceQuote quote : quotes) {
+                if (quote.price() != null && quote.price().signum() > 0) {
+                    prices.put(quote.symbol(), quote.price());
+                }
+            }
+            return prices;
+        } catch (PriceUnavailableException e) {
+            fetchFailures.increment();
+            if (!priceSource.isAvailable()) {
+                return new HashMap<>();
+            }
+            log.warn("Toplu qiymət sorğusu alınmadı, simvollar tək-tək sorğulanır: {}", e.getMessage());
+            return fetchOneByOne(symbols);
+        } finally {
+            metrics.recordPriceFetch(symbols, recordFetch(start));
+        }
+    }
+
+    /**
+     * Tək-tək sorğular {@code fallback-budget} ilə məhdudlaşır ki, yavaş price-ms bütün dövrü
+     * saxlamasın; vaxt bitəndə və ya circuit açılanda qalan simvollar buraxılır.
+     */
+    private Map<String, BigDecimal> fetchOneByOne(List<String> symbols) {
+        Map<String, BigDecimal> prices = new HashMap<>(symbols.size() * 2);
+        long budgetEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(fallbackBudgetMillis);
+        for (String symbol : symbols) {
+            if (System.nanoTime() >= budgetEnd || !priceSource.isAvailable()) {
+                break;
+            }
+            BigDecimal price = fetchPrice(symbol);
+            if (price != null) {
+                prices.put(symbol, price);
+            }
+        }
+        return prices;
+    }
+
+    private BigDecimal fetchPrice(String symbol) {
+        long start = System.nanoTime();
+        try {
+            return priceSource.getPrice(symbol);
+        } catch (PriceUnavailableException | PriceFormatException e) {
+            fetchFailures.increment();
+            log.error("Qiymət oxunarkən xəta ({}): {}", symbol, e.getMessage());
+            return null;
+        } finally {
+            metrics.recordPriceFetch(symbol, recordFetch(start));
+        }
+    }
+
+    private long recordFetch(long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        fetchCount.increment();
+        fetchNanos.add(elapsed);
+        maxFetchNanos.accumulate(elapsed);
+        return elapsed;
+    }
+
+    public long getFetchCount() {
+        return fetchCount.sum();
+    }
+
+    public long getFetchFailures() {
+        return fetchFailures.sum();
+    }
+
+    public long getSnapshotHits() {
+        return snapshotHits.sum();
+    }
+
+    public long getSnapshotMisses() {
+        return snapshotMisses.sum();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    public long getStaleServed() {
+        return staleServed.sum();
+    }
+
+    public long getSkippedSymbols() {
+        return skippedSymbols.sum();
+    }
+
+    public double getAverageFetchMillis() {
+        long count = fetchCount.sum();
+        return count == 0 ? 0 : (double) fetchNanos.sum() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxFetchMillis() {
+        return (double) maxFetchNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public PriceStatsResponse stats() {
+        return new PriceStatsResponse(
+                getFetchCount(), getFetchFailures(), getAverageFetchMillis(), getMaxFetchMillis(),
+                getSnapshotHits(), getSnapshotMisses(), getCacheHits(), getCacheMisses(), cache.size(),
+                getStaleServed(), getSkippedSymbols(), priceSource.getHedgedRequests(), priceSource.getTimeouts(),
+                priceSource.getRejected(), priceSource.circuitState(), priceSource.getCircuitOpens()
+        );
+    }
+}
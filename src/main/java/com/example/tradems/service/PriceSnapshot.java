@@ -0,0 +1,49 @@
+package com.example.tradems.service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Bir mühərrik dövrü üçün dondurulmuş qiymətlər. Hər simvol dövrdə bir dəfə sorğulanır,
+ * bütün trade-lər eyni qiymətə qarşı yoxlanılır.
+ */
+public final class PriceSnapshot {
+
+    private final Map<String, BigDecimal> prices;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    PriceSnapshot(Map<String, BigDecimal> prices, LongAdder hits, LongAdder misses) {
+        this.prices = prices;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * Simvolun qiymətini qaytarır, qiymət alına bilməyibsə {@code null}.
+     */
+    public BigDecimal priceOf(String symbol) {
+        BigDecimal price = prices.get(symbol);
+        if (price == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return price;
+    }
+
+    public void forEach(BiConsumer<String, BigDecimal> action) {
+        prices.forEach(action);
+    }
+
+    public Set<String> symbols() {
+        return prices.keySet();
+    }
+
+    public int size() {
+        return prices.size();
+    }
+}
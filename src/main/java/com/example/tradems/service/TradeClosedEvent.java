@@ -0,0 +1,11 @@
+package com.example.tradems.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Pozisiya PnL ilə bağlandı (əl ilə, TP/SL və ya likvidasiya).
+ */
+public record TradeClosedEvent(Long userId, UUID tradeId, BigDecimal pnl, LocalDateTime closedAt) {
+}
@@ -0,0 +1,136 @@
+package com.example.tradems.service;
+
+import com.example.tradems.enums.TradeEventType;
+import com.example.tradems.model.TradeEntity;
+import com.example.tradems.model.TradeOutboxCursorEntity;
+import com.example.tradems.model.TradeOutboxEntity;
+import com.example.tradems.outbox.TradeEvent;
+import com.example.tradems.outbox.TradeEventSink;
+import com.example.tradems.repository.TradeOutboxCursorRepository;
+import com.example.tradems.repository.TradeOutboxRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Trade hadisələrinin outbox-u. Yazma çağıranın tranzaksiyasında olur: qeydlər pooled
+ * sequence ilə id alır və trade yenilənmələri ilə eyni JDBC batch-də göndərilir, ona görə
+ * mühərrikin yazma yoluna ayrıca sorğu əlavə etmir.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TradeOutboxService {
+
+    private static final Integer CURSOR_ID = 1;
+
+    private final TradeOutboxRepository outboxRepository;
+    private final TradeOutboxCursorRepository cursorRepository;
+    private final Clock clock;
+
+    @Value("${trading.outbox.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${trading.outbox.settle-delay:1000}")
+    private long settleDelayMillis = 1000;
+
+    public void record(TradeEntity trade, TradeEventType type) {
+        if (enabled) {
+            TradeOutboxEntity entry = entry(trade, type);
+            entry.setCreatedAt(LocalDateTime.now(clock));
+            outboxRepository.save(entry);
+        }
+    }
+
+    public void recordAll(List<TradeOutboxEntity> entries) {
+        if (enabled && !entries.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now(clock);
+            entries.forEach(entry -> entry.setCreatedAt(now));
+            outboxRepository.saveAll(entries);
+        }
+    }
+
+    /**
+     * Ən köhnə {@code batchSize} göndərilməmiş hadisəni sink-ə ötürür və onlara ardıcıl
+     * offset verir. Offset-lər {@code trade_outbox_cursor} sətri kilid altında ikən verilir və
+     * eyni tranzaksiyada commit olunur: relay-lər bütün node-lar üzrə növbə ilə işləyir, offset
+     * təkrarlanmır və istehlakçı {@code n+1}-i {@code n}-dən əvvəl görmür.
+     *
+     * <p>Sıra zəmanəti trade üzrədir: bir trade-in hadisələri trade sətri üzərindəki toqquşma ilə
+     * ardıcıllaşır, sonrakı hadisə əvvəlkinin commit-indən sonra yaranır. Müxtəlif trade-lər arasında
+     * sıra yazılma vaxtına yaxındır, amma zəmanətli deyil: {@code settle-delay}-dən gec commit olunan
+     * hadisə özündən sonra yazılmış hadisələrdən sonra, daha böyük offset ilə gedir.
+     *
+     * @return göndərilmiş hadisə sayı
+     */
+    @Transactional
+    public int relay(TradeEventSink sink, int batchSize) {
+        TradeOutboxCursorEntity cursor = lockCursor();
+        LocalDateTime cutoff = LocalDateTime.now(clock).minusNanos(settleDelayMillis * 1_000_000);
+        List<TradeOutboxEntity> pending = outboxRepository.lockPending(cutoff, Limit.of(batchSize));
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        long offset = cursor.getLastOffset();
+        List<TradeEvent> events = new ArrayList<>(pending.size());
+        for (TradeOutboxEntity entry : pending) {
+            entry.setRelayOffset(++offset);
+            events.add(toEvent(entry));
+        }
+        cursor.setLastOffset(offset);
+        sink.publish(events);
+        return events.size();
+    }
+
+    /**
+     * Göndərilmiş hadisələri {@code offset}-dən başlayaraq oxuyur — sink-i qaçırmış
+     * istehlakçının davam etməsi üçün.
+     */
+    public List<TradeEvent> readAfter(long offset, int limit) {
+        return outboxRepository.findRelayedAfter(offset, Limit.of(limit)).stream()
+                .map(TradeOutboxService::toEvent)
+                .toList();
+    }
+
+    @Transactional
+    public int purge(LocalDateTime before) {
+        return outboxRepository.deleteRelayedBefore(before);
+    }
+
+    /**
+     * Sətir changelog-da yaradılır; olmadıqda (liquibase-siz test bazası) mövcud ən böyük offset-dən
+     * yaradılır. Eyni anda yaradan ikinci relay açar xətası ilə geri çəkilir və növbəti dövrdə sətri tapır.
+     */
+    private TradeOutboxCursorEntity lockCursor() {
+        return cursorRepository.lockById(CURSOR_ID).orElseGet(() -> cursorRepository.saveAndFlush(
+                new TradeOutboxCursorEntity(CURSOR_ID, outboxRepository.findLastOffset())));
+    }
+
+    public static TradeOutboxEntity entry(TradeEntity trade, TradeEventType type) {
+        TradeOutboxEntity entry = new TradeOutboxEntity();
+        entry.setUserId(trade.getUserId());
+        entry.setTradeId(trade.getId());
+        entry.setEventType(type);
+        entry.setSymbol(trade.getSymbol());
+        entry.setSide(trade.getSide());
+        entry.setMargin(trade.getMargin());
+        entry.setLeverage(trade.getLeverage());
+        entry.setPrice(trade.getClosePrice() != null ? trade.getClosePrice() : trade.getEntryPrice());
+        entry.setPnl(trade.getPnl());
+        return entry;
+    }
+
+    private static TradeEvent toEvent(TradeOutboxEntity entry) {
+        return new TradeEvent(entry.getRelayOffset(), entry.getUserId(), entry.getTradeId(), entry.getEventType(),
+                entry.getSymbol(), entry.getSide(), entry.getMargin(), entry.getLeverage(), entry.getPrice(),
+                entry.getPnl(), entry.getCreatedAt());
+    }
+}
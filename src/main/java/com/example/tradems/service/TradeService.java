@@ -1,27 +1,51 @@
 package com.example.tradems.service;
 
-import com.example.tradems.client.PriceClient;
+import com.example.tradems.client.PriceSource;
+import com.example.tradems.engine.OpenTradeRules;
+import com.example.tradems.engine.TradeMath;
+import com.example.tradems.engine.TriggerIndex;
+import com.example.tradems.config.RetryOnConflict;
+import com.example.tradems.dto.request.BulkOrderRequest;
 import com.example.tradems.dto.request.OpenTradeRequest;
+import com.example.tradems.dto.response.BulkOrderResponse;
 import com.example.tradems.dto.response.OpenTradeResponse;
 import com.example.tradems.dto.response.PendingTradeResponse;
+import com.example.tradems.enums.BulkOrderAction;
+import com.example.tradems.enums.BulkOrderMode;
+import com.example.tradems.enums.LedgerEntryType;
+import com.example.tradems.enums.LockingMode;
 import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeEventType;
 import com.example.tradems.enums.TradeStatus;
-import com.example.tradems.exception.InsufficientFundsException;
 import com.example.tradems.exception.InvalidTradeParameterException;
+import com.example.tradems.exception.PriceFormatException;
+import com.example.tradems.exception.PriceUnavailableException;
+import com.example.tradems.metrics.TradingMetrics;
 import com.example.tradems.exception.UserNotFoundException;
+import com.example.tradems.model.BalanceLedgerEntity;
+import com.example.tradems.model.BalanceView;
 import com.example.tradems.model.TradeEntity;
+import com.example.tradems.model.TradeOutboxEntity;
 import com.example.tradems.model.UserEntity;
 import com.example.tradems.repository.TradeRepository;
 import com.example.tradems.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -31,32 +55,91 @@ public class TradeService {
 
     private final UserRepository userRepository;
     private final TradeRepository tradeRepository;
-    private final PriceClient priceClient;
-
-
+    private final PriceSource priceSource;
+    private final TriggerIndex triggerIndex;
+    private final PriceService priceService;
+    private final BalanceLedgerService ledgerService;
+    private final TradeOutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TradingMetrics metrics;
+
+    @Value("${trading.locking.mode:OPTIMISTIC}")
+    private LockingMode lockingMode = LockingMode.OPTIMISTIC;
+
+    @RetryOnConflict
     @Transactional
     public TradeEntity openTrade(OpenTradeRequest request) {
-        UserEntity user = userRepository.findByIdWithLock(request.userId())
+        UserEntity user = findUser(request.userId())
                 .orElseThrow(() ->  new UserNotFoundException("İstifadəçi tapılmadı"));
+        BalanceView balance = ledgerService.balanceOf(user.getId());
 
-        validateUserAndMargin(user, request.margin(), request.leverage());
+        validateUserAndMargin(user, balance, request.margin(), request.leverage());
 
         BigDecimal entryPrice = resolveEntryPrice(request);
         TradeStatus status = (request.targetPrice() != null) ? TradeStatus.PENDING : TradeStatus.OPEN;
 
         validateTPSL(request.side(), entryPrice, request.takeProfit(), request.stopLoss());
-        updateUserBalanceForOpening(user, request.margin(), status);
 
-        TradeEntity trade = createTradeEntity(request, entryPrice, status);
+        TradeEntity saved = tradeRepository.save(createTradeEntity(request, entryPrice, status));
+        reserveMargin(balance, saved.getId(), request.margin(), status);
+        outboxService.record(saved, status == TradeStatus.PENDING ? TradeEventType.ORDER_PLACED : TradeEventType.OPENED);
+        triggerIndex.indexAfterCommit(saved);
+        eventPublisher.publishEvent(new PositionsChangedEvent(saved.getUserId()));
+        return saved;
+    }
+
+    /**
+     * Açılış, ləğv və bağlanış paketini bir tranzaksiyada icra edir. İstifadəçi bir dəfə oxunur
+     * (pessimistik rejimdə bir dəfə kilidlənir), bütün ayaqlar eyni balans snapshot-ına qarşı
+     * yoxlanılır və hər simvolun qiyməti bir dəfə alınır. Əvvəl ləğv və bağlanışlar hesablanır,
+     * azad olan margin eyni paketin açılışlarında istifadə oluna bilər.
+     * {@code ALL_OR_NOTHING} rejimində bir ayaq da keçməsə heç nə yazılmır.
+     */
+    @RetryOnConflict
+    @Transactional
+    public BulkOrderResponse submitBatch(BulkOrderRequest request) {
+        UserEntity user = findUser(request.userId())
+                .orElseThrow(() -> new UserNotFoundException("İstifadəçi tapılmadı"));
+        BalanceView balance = ledgerService.balanceOf(user.getId());
+
+        List<OpenTradeRequest> opens = request.open() != null ? request.open() : List.of();
+        List<UUID> cancels = request.cancel() != null ? request.cancel() : List.of();
+        List<UUID> closes = request.close() != null ? request.close() : List.of();
+
+        Map<UUID, TradeEntity> trades = findTradesById(cancels, closes);
+        Set<String> symbols = new HashSet<>();
+        closes.stream().map(trades::get).filter(Objects::nonNull).forEach(t -> symbols.add(t.getSymbol()));
+        opens.stream().filter(o -> !isLimitOrder(o)).forEach(o -> symbols.add(o.symbol().toUpperCase()));
+        PriceSnapshot prices = priceService.freshSnapshot(symbols);
+
+        BulkOrderPlan plan = new BulkOrderPlan(user.getId(), balance.available());
+        Set<UUID> seen = new HashSet<>();
+        for (int i = 0; i < cancels.size(); i++) {
+            planCancel(plan, i, cancels.get(i), trades, seen);
+        }
+        for (int i = 0; i < closes.size(); i++) {
+            planClose(plan, i, closes.get(i), trades, seen, prices);
+        }
+        for (int i = 0; i < opens.size(); i++) {
+            planOpen(plan, i, opens.get(i), user, prices);
+        }
 
-        userRepository.save(user);
-        return tradeRepository.save(trade);
+        if (plan.rejected() > 0 && request.mode() == BulkOrderMode.ALL_OR_NOTHING) {
+            log.info("Paket rədd edildi: user {}, {} ayaqdan {} keçmədi", user.getId(), plan.legs.size(), plan.rejected());
+            return plan.response(request.mode(), false);
+        }
+        applyPlan(plan, balance);
+        return plan.response(request.mode(), true);
     }
 
     public List<OpenTradeResponse> getActiveTrades(Long userId) {
-        return tradeRepository.findByUserIdAndStatus(userId, TradeStatus.OPEN)
-                .stream()
-                .map(this::mapToOpenTradeResponse)
+        List<TradeEntity> trades = tradeRepository.findByUserIdAndStatus(userId, TradeStatus.OPEN);
+        if (trades.isEmpty()) {
+            return List.of();
+        }
+        PriceSnapshot prices = priceService.cachedSnapshot(trades.stream().map(TradeEntity::getSymbol).toList());
+        return trades.stream()
+                .map(trade -> PositionValuation.value(trade, prices.priceOf(trade.getSymbol())))
                 .toList();
     }
 
@@ -69,43 +152,197 @@ public class TradeService {
                 )).toList();
     }
 
+    @RetryOnConflict
     @Transactional
     public void cancelPendingTrade(UUID tradeId) {
         TradeEntity trade = findTradeById(tradeId);
         validateStatus(trade, TradeStatus.PENDING, "Yalnız gözləyən sifarişlər ləğv edilə bilər");
 
-        UserEntity user = userRepository.findByIdWithLock(trade.getUserId())
-                .orElseThrow(() -> new UserNotFoundException("İstifadəçi tapılmadı"));
-
-        restoreBalance(user, trade.getMargin());
+        ledgerService.credit(trade.getUserId(), tradeId, LedgerEntryType.RELEASE, trade.getMargin(), trade.getMargin().negate());
         finalizeTrade(trade, TradeStatus.CLOSED, null, null);
 
-        userRepository.save(user);
         tradeRepository.save(trade);
+        outboxService.record(trade, TradeEventType.CANCELLED);
+        triggerIndex.removeAfterCommit(tradeId);
+        eventPublisher.publishEvent(new PositionsChangedEvent(trade.getUserId()));
     }
 
+    @RetryOnConflict
     @Transactional
     public void closeTradeManually(UUID tradeId) {
         TradeEntity trade = findTradeById(tradeId);
         validateStatus(trade, TradeStatus.OPEN, "Yalnız aktiv pozisiyalar bağlana bilər");
 
-        UserEntity user = userRepository.findByIdWithLock(trade.getUserId())
-                .orElseThrow(() -> new UserNotFoundException("İstifadəçi tapılmadı"));
-
         BigDecimal closePrice = getRealtimePrice(trade.getSymbol());
         BigDecimal pnl = calculateInstantPnL(trade, closePrice);
         BigDecimal payout = trade.getMargin().add(pnl).max(BigDecimal.ZERO);
 
-        user.setVirtualBalance(user.getVirtualBalance().add(payout));
+        ledgerService.credit(trade.getUserId(), tradeId, LedgerEntryType.PAYOUT, payout, BigDecimal.ZERO);
         finalizeTrade(trade, TradeStatus.CLOSED, closePrice, pnl);
 
-        userRepository.save(user);
         tradeRepository.save(trade);
+        outboxService.record(trade, TradeEventType.CLOSED);
+        triggerIndex.removeAfterCommit(tradeId);
+        eventPublisher.publishEvent(new TradeClosedEvent(trade.getUserId(), tradeId, pnl, trade.getCloseTime()));
+        eventPublisher.publishEvent(new PositionsChangedEvent(trade.getUserId()));
     }
 
 
+    private void planCancel(BulkOrderPlan plan, int index, UUID tradeId, Map<UUID, TradeEntity> trades, Set<UUID> seen) {
+        try {
+            TradeEntity trade = batchTrade(plan, tradeId, trades, seen);
+            validateStatus(trade, TradeStatus.PENDING, "Yalnız gözləyən sifarişlər ləğv edilə bilər");
+            plan.available = plan.available.add(trade.getMargin());
+            plan.accept(BulkOrderAction.CANCEL, index, trade);
+        } catch (RuntimeException e) {
+            plan.reject(BulkOrderAction.CANCEL, index, tradeId, e.getMessage());
+        }
+    }
+
+    private void planClose(BulkOrderPlan plan, int index, UUID tradeId, Map<UUID, TradeEntity> trades,
+                           Set<UUID> seen, PriceSnapshot prices) {
+        try {
+            TradeEntity trade = batchTrade(plan, tradeId, trades, seen);
+            validateStatus(trade, TradeStatus.OPEN, "Yalnız aktiv pozisiyalar bağlana bilər");
+            BigDecimal closePrice = prices.priceOf(trade.getSymbol());
+            if (closePrice == null) {
+                throw new PriceUnavailableException("Qiymət alınmadı: " + trade.getSymbol());
+            }
+            BigDecimal pnl = calculateInstantPnL(trade, closePrice);
+            BulkOrderPlan.Leg leg = plan.accept(BulkOrderAction.CLOSE, index, trade);
+            leg.closePrice = closePrice;
+            leg.pnl = pnl;
+            leg.payout = trade.getMargin().add(pnl).max(BigDecimal.ZERO);
+            plan.available = plan.available.add(leg.payout);
+        } catch (RuntimeException e) {
+            plan.reject(BulkOrderAction.CLOSE, index, tradeId, e.getMessage());
+        }
+    }
+
+    private void planOpen(BulkOrderPlan plan, int index, OpenTradeRequest request, UserEntity user, PriceSnapshot prices) {
+        try {
+            if (!plan.userId.equals(request.userId())) {
+                throw new InvalidTradeParameterException("Paketin bütün ayaqları eyni istifadəçiyə aid olmalıdır");
+            }
+            OpenTradeRules.validateUserAndMargin(user.isPremium(), plan.available, request.margin(), request.leverage());
+            BigDecimal entryPrice = isLimitOrder(request)
+                    ? request.targetPrice()
+                    : prices.priceOf(request.symbol().toUpperCase());
+            if (entryPrice == null) {
+                throw new PriceUnavailableException("Qiymət alınmadı: " + request.symbol());
+            }
+            TradeStatus status = (request.targetPrice() != null) ? TradeStatus.PENDING : TradeStatus.OPEN;
+            validateTPSL(request.side(), entryPrice, request.takeProfit(), request.stopLoss());
+            plan.available = plan.available.subtract(request.margin());
+            plan.accept(BulkOrderAction.OPEN, index, createTradeEntity(request, entryPrice, status));
+        } catch (RuntimeException e) {
+            plan.reject(BulkOrderAction.OPEN, index, null, e.getMessage());
+        }
+    }
+
+    /**
+     * Qəbul olunmuş ayaqları yazır: trade-lər bir {@code saveAll} ilə (JDBC batch), ledger
+     * qeydləri bir kredit və bir çıxılma paketi ilə.
+     */
+    private void applyPlan(BulkOrderPlan plan, BalanceView balance) {
+        List<TradeEntity> changed = new ArrayList<>();
+        List<BalanceLedgerEntity> credits = new ArrayList<>();
+        BigDecimal credited = BigDecimal.ZERO;
+
+        for (BulkOrderPlan.Leg leg : plan.accepted(BulkOrderAction.CANCEL)) {
+            TradeEntity trade = leg.trade;
+            credits.add(BalanceLedgerService.entry(trade.getUserId(), trade.getId(), LedgerEntryType.RELEASE,
+                    trade.getMargin(), trade.getMargin().negate()));
+            credited = credited.add(trade.getMargin());
+            finalizeTrade(trade, TradeStatus.CLOSED, null, null);
+            changed.add(trade);
+        }
+        for (BulkOrderPlan.Leg leg : plan.accepted(BulkOrderAction.CLOSE)) {
+            TradeEntity trade = leg.trade;
+            credits.add(BalanceLedgerService.entry(trade.getUserId(), trade.getId(), LedgerEntryType.PAYOUT,
+                    leg.payout, BigDecimal.ZERO));
+            credited = credited.add(leg.payout);
+            finalizeTrade(trade, TradeStatus.CLOSED, leg.closePrice, leg.pnl);
+            changed.add(trade);
+            eventPublisher.publishEvent(new TradeClosedEvent(trade.getUserId(), trade.getId(), leg.pnl, trade.getCloseTime()));
+        }
+        List<BulkOrderPlan.Leg> opened = plan.accepted(BulkOrderAction.OPEN);
+        opened.forEach(leg -> changed.add(leg.trade));
+
+        tradeRepository.saveAll(changed);
+        ledgerService.creditAll(credits);
+
+        List<BalanceLedgerEntity> debits = new ArrayList<>(opened.size());
+        for (BulkOrderPlan.Leg leg : opened) {
+            TradeEntity trade = leg.trade;
+            boolean pending = trade.getStatus() == TradeStatus.PENDING;
+            debits.add(BalanceLedgerService.entry(trade.getUserId(), trade.getId(),
+                    pending ? LedgerEntryType.FREEZE : LedgerEntryType.RESERVE,
+                    trade.getMargin().negate(), pending ? trade.getMargin() : BigDecimal.ZERO));
+        }
+        ledgerService.debitAll(new BalanceView(balance.userId(), balance.available().add(credited),
+                balance.frozen(), balance.debitSeq()), debits);
+
+        List<TradeOutboxEntity> events = new ArrayList<>(changed.size());
+        for (BulkOrderPlan.Leg leg : plan.legs) {
+            if (leg.error != null) {
+                continue;
+            }
+            events.add(TradeOutboxService.entry(leg.trade, batchEventType(leg)));
+            if (leg.action == BulkOrderAction.OPEN) {
+                triggerIndex.indexAfterCommit(leg.trade);
+            } else {
+                triggerIndex.removeAfterCommit(leg.trade.getId());
+            }
+        }
+        outboxService.recordAll(events);
+        eventPublisher.publishEvent(new PositionsChangedEvent(plan.userId));
+    }
+
+    private TradeEventType batchEventType(BulkOrderPlan.Leg leg) {
+        return switch (leg.action) {
+            case OPEN -> leg.trade.getStatus() == TradeStatus.PENDING ? TradeEventType.ORDER_PLACED : TradeEventType.OPENED;
+            case CANCEL -> TradeEventType.CANCELLED;
+            case CLOSE -> TradeEventType.CLOSED;
+        };
+    }
+
+    private TradeEntity batchTrade(BulkOrderPlan plan, UUID tradeId, Map<UUID, TradeEntity> trades, Set<UUID> seen) {
+        TradeEntity trade = trades.get(tradeId);
+        if (trade == null || !plan.userId.equals(trade.getUserId())) {
+            throw new RuntimeException("Trade tapılmadı");
+        }
+        if (!seen.add(tradeId)) {
+            throw new InvalidTradeParameterException("Trade paketdə bir dəfədən çox göstərilib");
+        }
+        return trade;
+    }
+
+    private Map<UUID, TradeEntity> findTradesById(List<UUID> cancels, List<UUID> closes) {
+        Set<UUID> ids = new HashSet<>(cancels);
+        ids.addAll(closes);
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        List<TradeEntity> found;
+        if (lockingMode == LockingMode.PESSIMISTIC) {
+            long start = System.nanoTime();
+            found = tradeRepository.findAllByIdInWithLock(ids);
+            metrics.recordTradeLockWait(System.nanoTime() - start);
+        } else {
+            found = tradeRepository.findAllById(ids);
+        }
+        Map<UUID, TradeEntity> trades = new HashMap<>(found.size() * 2);
+        found.forEach(trade -> trades.put(trade.getId(), trade));
+        return trades;
+    }
+
+    private boolean isLimitOrder(OpenTradeRequest request) {
+        return request.targetPrice() != null && request.targetPrice().compareTo(BigDecimal.ZERO) > 0;
+    }
+
     private BigDecimal resolveEntryPrice(OpenTradeRequest request) {
-        if (request.targetPrice() != null && request.targetPrice().compareTo(BigDecimal.ZERO) > 0) {
+        if (isLimitOrder(request)) {
             return request.targetPrice();
         }
         BigDecimal marketPrice = getRealtimePrice(request.symbol());
@@ -115,18 +352,14 @@ public class TradeService {
         return marketPrice;
     }
 
-    private void updateUserBalanceForOpening(UserEntity user, BigDecimal margin, TradeStatus status) {
-        user.setVirtualBalance(user.getVirtualBalance().subtract(margin));
+    private void reserveMargin(BalanceView balance, UUID tradeId, BigDecimal margin, TradeStatus status) {
         if (status == TradeStatus.PENDING) {
-            user.setFrozenBalance(safeGet(user.getFrozenBalance()).add(margin));
+            ledgerService.debit(balance, tradeId, LedgerEntryType.FREEZE, margin, margin);
+        } else {
+            ledgerService.debit(balance, tradeId, LedgerEntryType.RESERVE, margin, BigDecimal.ZERO);
         }
     }
 
-    private void restoreBalance(UserEntity user, BigDecimal margin) {
-        user.setFrozenBalance(safeGet(user.getFrozenBalance()).subtract(margin));
-        user.setVirtualBalance(safeGet(user.getVirtualBalance()).add(margin));
-    }
-
     private void finalizeTrade(TradeEntity trade, TradeStatus status, BigDecimal closePrice, BigDecimal pnl) {
         trade.setStatus(status);
         trade.setClosePrice(closePrice);
@@ -135,38 +368,21 @@ public class TradeService {
     }
 
     private BigDecimal calculateInstantPnL(TradeEntity trade, BigDecimal currentPrice) {
-        BigDecimal diff = (trade.getSide() == PositionSide.LONG)
-                ? currentPrice.subtract(trade.getEntryPrice())
-                : trade.getEntryPrice().subtract(currentPrice);
-
-        return diff.divide(trade.getEntryPrice(), 8, RoundingMode.HALF_UP)
-                .multiply(trade.getMargin())
-                .multiply(new BigDecimal(trade.getLeverage()));
+        return TradeMath.pnl(trade.getSide(), trade.getEntryPrice(), currentPrice, trade.getMargin(), trade.getLeverage());
     }
 
     private BigDecimal getRealtimePrice(String symbol) {
+        long start = System.nanoTime();
         try {
-            String raw = priceClient.getRealtimePrice(symbol);
-            String priceStr = raw.split(": ")[1].replace(" USD", "").trim();
-            return new BigDecimal(priceStr);
-        } catch (Exception e) {
-            log.error("Qiymət alınarkən xəta: {}", symbol, e);
-            return BigDecimal.ZERO;
+            return priceSource.getPrice(symbol);
+        } catch (PriceFormatException e) {
+            log.error("Qiymət cavabı oxunmadı ({}): {}", symbol, e.getMessage());
+            throw e;
+        } finally {
+            metrics.recordPriceFetch(symbol, System.nanoTime() - start);
         }
     }
 
-
-    private OpenTradeResponse mapToOpenTradeResponse(TradeEntity trade) {
-        BigDecimal current = getRealtimePrice(trade.getSymbol());
-        BigDecimal pnl = calculateInstantPnL(trade, current);
-        BigDecimal pnlPerc = pnl.divide(trade.getMargin(), 4, RoundingMode.HALF_UP).multiply(new BigDecimal("100"));
-
-        return new OpenTradeResponse(
-                trade.getId(), trade.getSymbol(), trade.getSide(), trade.getEntryPrice(),
-                current, trade.getMargin(), trade.getLeverage(), pnl, pnlPerc
-        );
-    }
-
     private TradeEntity createTradeEntity(OpenTradeRequest req, BigDecimal entry, TradeStatus status) {
         TradeEntity trade = new TradeEntity();
         trade.setUserId(req.userId());
@@ -183,40 +399,45 @@ public class TradeService {
         return trade;
     }
 
-    private void validateUserAndMargin(UserEntity user, BigDecimal margin, int leverage) {
-        if (!user.isPremium()) throw new RuntimeException("Premium status tələb olunur");
-        if (leverage < 2 || leverage > 50) throw new InvalidTradeParameterException("Leverage xətası (2x-50x)");
-        if (margin.compareTo(new BigDecimal("10")) < 0) throw new InsufficientFundsException("Minimum margin 10 USDT");
-        if (user.getVirtualBalance().compareTo(margin) < 0) throw new InsufficientFundsException("Balans yetərsiz");
+    private void validateUserAndMargin(UserEntity user, BalanceView balance, BigDecimal margin, int leverage) {
+        OpenTradeRules.validateUserAndMargin(user.isPremium(), balance.available(), margin, leverage);
     }
 
     private void validateTPSL(PositionSide side, BigDecimal entry, BigDecimal tp, BigDecimal sl) {
-        if (side == PositionSide.LONG) {
-            if (tp != null && tp.compareTo(entry) <= 0) throw new InvalidTradeParameterException("TP girişdən yuxarı olmalıdır");
-            if (sl != null && sl.compareTo(entry) >= 0) throw new InvalidTradeParameterException("SL girişdən aşağı olmalıdır");
-        } else {
-            if (tp != null && tp.compareTo(entry) >= 0) throw new InvalidTradeParameterException("TP girişdən aşağı olmalıdır");
-            if (sl != null && sl.compareTo(entry) <= 0) throw new InvalidTradeParameterException("SL girişdən yuxarı olmalıdır");
-        }
+        OpenTradeRules.validateTPSL(side, entry, tp, sl);
     }
 
     private BigDecimal calculateLiquidationPrice(BigDecimal entry, int leverage, PositionSide side) {
-        BigDecimal factor = BigDecimal.ONE.divide(new BigDecimal(leverage), 8, RoundingMode.HALF_UP);
-        BigDecimal maintenance = new BigDecimal("0.005");
-        return (side == PositionSide.LONG)
-                ? entry.multiply(BigDecimal.ONE.subtract(factor).add(maintenance)).setScale(4, RoundingMode.HALF_UP)
-                : entry.multiply(BigDecimal.ONE.add(factor).subtract(maintenance)).setScale(4, RoundingMode.HALF_UP);
+        return TradeMath.liquidationPrice(entry, leverage, side);
+    }
+
+    /**
+     * Optimistik rejimdə sətir kilidlənmir; paralel dəyişiklik commit zamanı version
+     * toqquşması kimi üzə çıxır və {@link RetryOnConflict} metodu yenidən çağırır.
+     */
+    private Optional<UserEntity> findUser(Long userId) {
+        if (lockingMode != LockingMode.PESSIMISTIC) {
+            return userRepository.findById(userId);
+        }
+        long start = System.nanoTime();
+        Optional<UserEntity> user = userRepository.findByIdWithLock(userId);
+        metrics.recordUserLockWait(System.nanoTime() - start);
+        return user;
     }
 
     private TradeEntity findTradeById(UUID id) {
-        return tradeRepository.findById(id).orElseThrow(() -> new RuntimeException("Trade tapılmadı"));
+        Optional<TradeEntity> trade;
+        if (lockingMode == LockingMode.PESSIMISTIC) {
+            long start = System.nanoTime();
+            trade = tradeRepository.findByIdWithLock(id);
+            metrics.recordTradeLockWait(System.nanoTime() - start);
+        } else {
+            trade = tradeRepository.findById(id);
+        }
+        return trade.orElseThrow(() -> new RuntimeException("Trade tapılmadı"));
     }
 
     private void validateStatus(TradeEntity trade, TradeStatus expected, String msg) {
         if (trade.getStatus() != expected) throw new RuntimeException(msg);
     }
-
-    private BigDecimal safeGet(BigDecimal val) {
-        return val == null ? BigDecimal.ZERO : val;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,240 @@
+package com.example.tradems.service;
+
+import com.example.tradems.config.RetryOnConflict;
+import com.example.tradems.engine.PriceRange;
+import com.example.tradems.engine.TradeMath;
+import com.example.tradems.engine.TriggerIndex;
+import com.example.tradems.engine.TriggerRules;
+import com.example.tradems.enums.LedgerEntryType;
+import com.example.tradems.enums.LockingMode;
+import com.example.tradems.enums.TradeEventType;
+import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.metrics.TradingMetrics;
+import com.example.tradems.metrics.TriggerCounts;
+import com.example.tradems.model.BalanceLedgerEntity;
+import com.example.tradems.model.TradeEntity;
+import com.example.tradems.model.TradeOutboxEntity;
+import com.example.tradems.repository.TradeRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Mühərrikin tetiklədiyi trade-ləri öz tranzaksiyasında yerinə yetirir. Trade-in statusu
+ * yenidən yoxlanılır; optimistik rejimdə paralel dəyişiklik version toqquşması ilə
+ * rədd olunur və batch yenidən oxunur. Balans dəyişiklikləri ledger-ə əlavə olunur.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TradeSettlementService {
+
+    private final TradeRepository tradeRepository;
+    private final BalanceLedgerService ledgerService;
+    private final TradeOutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TriggerIndex triggerIndex;
+    private final TradingMetrics metrics;
+    private final Clock clock;
+
+    @Value("${trading.locking.mode:OPTIMISTIC}")
+    private LockingMode lockingMode = LockingMode.OPTIMISTIC;
+
+    /**
+     * Bir istifadəçinin dövrdə tetiklənmiş bütün trade-lərini bir tranzaksiyada yerinə yetirir:
+     * ledger qeydləri və trade yenilənmələri JDBC batch ilə göndərilir.
+     *
+     * @param prices trade id → yoxlama qiyməti
+     * @return yerinə yetirilmiş trade sayı
+     */
+    @RetryOnConflict
+    @Transactional
+    public int settleBatch(Long userId, Map<UUID, BigDecimal> prices) {
+        Map<UUID, PriceRange> ranges = new HashMap<>(prices.size() * 2);
+        prices.forEach((id, price) -> ranges.put(id, PriceRange.of(price)));
+        return settle(userId, ranges);
+    }
+
+    /**
+     * {@link #settleBatch}-in aralıq variantı: trigger dövrlər arasındakı low/high ilə yoxlanılır,
+     * bağlanış qiyməti {@link TriggerRules#exitPrice} ilə seçilir.
+     *
+     * @param ranges trade id → son yoxlamadan bəri qiymət aralığı
+     */
+    @RetryOnConflict
+    @Transactional
+    public int settleRanges(Long userId, Map<UUID, PriceRange> ranges) {
+        return settle(userId, ranges);
+    }
+
+    private int settle(Long userId, Map<UUID, PriceRange> prices) {
+        List<TradeEntity> trades;
+        if (lockingMode == LockingMode.PESSIMISTIC) {
+            long start = System.nanoTime();
+            trades = tradeRepository.findAllByIdInWithLock(prices.keySet());
+            metrics.recordTradeLockWait(System.nanoTime() - start);
+        } else {
+            trades = tradeRepository.findAllById(prices.keySet());
+        }
+        dropMissing(prices.keySet(), trades);
+
+        List<BalanceLedgerEntity> entries = new ArrayList<>(trades.size());
+        List<TradeEntity> changed = new ArrayList<>(trades.size());
+        List<TradeOutboxEntity> events = new ArrayList<>(trades.size());
+        TriggerCounts triggered = new TriggerCounts();
+        for (TradeEntity trade : trades) {
+            PriceRange range = prices.get(trade.getId());
+            String reason = trade.getStatus() == TradeStatus.OPEN ? TriggerRules.closeReason(trade, range) : null;
+            if (!userId.equals(trade.getUserId())) {
+                triggerIndex.indexAfterCommit(trade);
+            } else if (trade.getStatus() == TradeStatus.PENDING && TriggerRules.isTargetPriceHit(trade, range)) {
+                entries.add(unfreeze(trade, applyActivation(trade)));
+                changed.add(trade);
+                events.add(TradeOutboxService.entry(trade, TradeEventType.ACTIVATED));
+                triggered.add(TradingMetrics.ACTIVATED);
+            } else if (reason != null) {
+                BigDecimal exit = TriggerRules.exitPrice(trade, reason, range);
+                entries.add(payout(trade, applyClose(trade, exit, reason)));
+                changed.add(trade);
+                events.add(TradeOutboxService.entry(trade, TradeEventType.valueOf(reason)));
+                triggered.add(reason);
+            } else if (trade.getStatus() != triggerIndex.statusOf(trade.getId())) {
+                // indeks köhnə vəziyyətdədir (məs. PENDING kimi qalıb): SL/TP səviyyələri indekslənsin
+                triggerIndex.indexAfterCommit(trade);
+            }
+        }
+        if (changed.isEmpty()) {
+            return 0;
+        }
+
+        ledgerService.creditAll(entries);
+        tradeRepository.saveAll(changed);
+        outboxService.recordAll(events);
+        metrics.countTriggeredAfterCommit(triggered);
+        eventPublisher.publishEvent(new PositionsChangedEvent(userId));
+        return changed.size();
+    }
+
+    @RetryOnConflict
+    @Transactional
+    public boolean tryActivate(UUID tradeId, BigDecimal price) {
+        TradeEntity trade = loadActiveTrade(tradeId, TradeStatus.PENDING);
+        if (trade == null || !TriggerRules.isTargetPriceHit(trade, price)) {
+            return false;
+        }
+        ledgerService.creditAll(List.of(unfreeze(trade, applyActivation(trade))));
+        tradeRepository.save(trade);
+        outboxService.record(trade, TradeEventType.ACTIVATED);
+        countTriggered(TradingMetrics.ACTIVATED);
+        eventPublisher.publishEvent(new PositionsChangedEvent(trade.getUserId()));
+        return true;
+    }
+
+    @RetryOnConflict
+    @Transactional
+    public boolean tryClose(UUID tradeId, BigDecimal price) {
+        TradeEntity trade = loadActiveTrade(tradeId, TradeStatus.OPEN);
+        if (trade == null) {
+            return false;
+        }
+        String reason = TriggerRules.closeReason(trade, price);
+        if (reason == null) {
+            return false;
+        }
+        ledgerService.creditAll(List.of(payout(trade, applyClose(trade, price, reason))));
+        tradeRepository.save(trade);
+        outboxService.record(trade, TradeEventType.valueOf(reason));
+        countTriggered(reason);
+        eventPublisher.publishEvent(new PositionsChangedEvent(trade.getUserId()));
+        return true;
+    }
+
+    private void countTriggered(String reason) {
+        TriggerCounts triggered = new TriggerCounts();
+        triggered.add(reason);
+        metrics.countTriggeredAfterCommit(triggered);
+    }
+
+    private TradeEntity loadActiveTrade(UUID tradeId, TradeStatus expected) {
+        TradeEntity trade;
+        if (lockingMode == LockingMode.PESSIMISTIC) {
+            long start = System.nanoTime();
+            trade = tradeRepository.findByIdWithLock(tradeId).orElse(null);
+            metrics.recordTradeLockWait(System.nanoTime() - start);
+        } else {
+            trade = tradeRepository.findById(tradeId).orElse(null);
+        }
+        if (trade == null) {
+            triggerIndex.removeAfterCommit(tradeId);
+            return null;
+        }
+        if (trade.getStatus() != expected) {
+            triggerIndex.indexAfterCommit(trade);
+            return null;
+        }
+        return trade;
+    }
+
+    private void dropMissing(Set<UUID> requested, List<TradeEntity> found) {
+        if (found.size() == requested.size()) return;
+        Set<UUID> missing = new HashSet<>(requested);
+        found.forEach(trade -> missing.remove(trade.getId()));
+        missing.forEach(triggerIndex::removeAfterCommit);
+    }
+
+    /**
+     * @return dondurulmuş balansdan çıxılacaq margin
+     */
+    private BigDecimal applyActivation(TradeEntity trade) {
+        trade.setStatus(TradeStatus.OPEN);
+        trade.setOpenTime(LocalDateTime.now(clock));
+        triggerIndex.indexAfterCommit(trade);
+        log.info("Limit order aktivləşdi: {} {} @ {}", trade.getSymbol(), trade.getSide(), trade.getEntryPrice());
+        return trade.getMargin();
+    }
+
+    /**
+     * @return balansa köçürüləcək məbləğ
+     */
+    private BigDecimal applyClose(TradeEntity trade, BigDecimal exitPrice, String reason) {
+        BigDecimal pnlValue = calculatePnL(trade, exitPrice);
+        BigDecimal payout = trade.getMargin().add(pnlValue).max(BigDecimal.ZERO);
+
+        trade.setStatus(TradeStatus.CLOSED);
+        trade.setClosePrice(exitPrice);
+        trade.setCloseTime(LocalDateTime.now(clock));
+        trade.setPnl(pnlValue);
+        triggerIndex.removeAfterCommit(trade.getId());
+        eventPublisher.publishEvent(new TradeClosedEvent(trade.getUserId(), trade.getId(), pnlValue, trade.getCloseTime()));
+        log.info("Pozisiya bağlandı ({}): {} PnL: {}", reason, trade.getId(), pnlValue);
+        return payout;
+    }
+
+    private BalanceLedgerEntity unfreeze(TradeEntity trade, BigDecimal margin) {
+        return BalanceLedgerService.entry(trade.getUserId(), trade.getId(), LedgerEntryType.UNFREEZE,
+                BigDecimal.ZERO, margin.negate());
+    }
+
+    private BalanceLedgerEntity payout(TradeEntity trade, BigDecimal amount) {
+        return BalanceLedgerService.entry(trade.getUserId(), trade.getId(), LedgerEntryType.PAYOUT,
+                amount, BigDecimal.ZERO);
+    }
+
+    private BigDecimal calculatePnL(TradeEntity trade, BigDecimal exitPrice) {
+        return TradeMath.pnl(trade.getSide(), trade.getEntryPrice(), exitPrice, trade.getMargin(), trade.getLeverage());
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.tradems.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Yeni istifadəçi başlanğıc balansı ilə yaradıldı.
+ */
+public record UserCreatedEvent(Long userId, String username, BigDecimal balance) {
+}
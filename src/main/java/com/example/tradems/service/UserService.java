@@ -1,21 +1,25 @@
 package com.example.tradems.service;
+import com.example.tradems.dto.response.UserBalanceResponse;
+import com.example.tradems.enums.LedgerEntryType;
 import com.example.tradems.enums.UserRank;
 import com.example.tradems.exception.UserNotFoundException;
+import com.example.tradems.model.BalanceView;
 import com.example.tradems.model.UserEntity;
 import com.example.tradems.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
     private final UserRepository userRepository;
+    private final BalanceLedgerService ledgerService;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     public UserEntity createUser(String username, boolean isPremium) {
@@ -29,7 +33,9 @@ public class UserService {
             user.setVirtualBalance(BigDecimal.ZERO);
         }
         user.setUserRank(UserRank.ROOKIE);
-        return userRepository.save(user);
+        UserEntity saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserCreatedEvent(saved.getId(), saved.getUsername(), saved.getVirtualBalance()));
+        return saved;
     }
 
 
@@ -44,21 +50,19 @@ public class UserService {
         if (!user.isPremium()) {
             return;
         }
-        user.setVirtualBalance(user.getVirtualBalance().add(amount));
-        userRepository.save(user);
+        adjust(ledgerService.balanceOf(userId), amount);
     }
 
-    public void resetBalances() {
-        List<UserEntity> users = userRepository.findAll();
-        for (UserEntity user : users) {
-            if (user.isPremium()) {
-                user.setVirtualBalance(BigDecimal.valueOf(10_000));
-            }
-        }
-        userRepository.saveAll(users);
+    public UserBalanceResponse getBalance(Long userId) {
+        BalanceView balance = ledgerService.balanceOf(userId);
+        return new UserBalanceResponse(balance.userId(), balance.available(), balance.frozen());
     }
 
-    public List<UserEntity> getLeaderboard() {
-        return userRepository.findAll(Sort.by(Sort.Direction.DESC, "virtualBalance"));
+    private void adjust(BalanceView balance, BigDecimal amount) {
+        if (amount.signum() < 0) {
+            ledgerService.debit(balance, null, LedgerEntryType.ADJUSTMENT, amount.negate(), BigDecimal.ZERO);
+        } else if (amount.signum() > 0) {
+            ledgerService.credit(balance.userId(), null, LedgerEntryType.ADJUSTMENT, amount, BigDecimal.ZERO);
+        }
     }
 }
@@ -0,0 +1,141 @@
+package com.example.tradems.replay;
+
+import com.example.tradems.enums.TradeEventType;
+import com.example.tradems.model.BalanceLedgerEntity;
+import com.example.tradems.model.TradeEntity;
+import com.example.tradems.model.TradeOutboxEntity;
+import com.example.tradems.repository.BalanceLedgerRepository;
+import com.example.tradems.repository.TradeOutboxCursorRepository;
+import com.example.tradems.repository.TradeOutboxRepository;
+import com.example.tradems.repository.TradeRepository;
+import com.example.tradems.repository.UserRepository;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Replay üçün repository-lərin yaddaşdakı implementasiyası. Settlement yolunun çağırdığı metodlar
+ * dəstəklənir, qalanları {@link UnsupportedOperationException} atır — replay-ə yeni yol əlavə
+ * olunanda bu dərhal görünür. Tranzaksiya yoxdur: trade-lər eyni obyekt kimi qaytarılır,
+ * ledger qeydləri istifadəçi üzrə cəmlənir, outbox hadisələri növ üzrə sayılır.
+ */
+final class InMemoryRepositories {
+
+    final Map<UUID, TradeEntity> trades = new LinkedHashMap<>();
+    final Map<Long, BigDecimal> balanceDeltas = new TreeMap<>();
+    final Map<TradeEventType, Long> events = new EnumMap<>(TradeEventType.class);
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    TradeRepository tradeRepository() {
+        return proxy(TradeRepository.class, (method, args) -> switch (method) {
+            case "save", "saveAndFlush" -> saveTrade((TradeEntity) args[0]);
+            case "saveAll", "saveAllAndFlush" -> {
+                List<TradeEntity> saved = new ArrayList<>();
+                ((Iterable<TradeEntity>) args[0]).forEach(trade -> saved.add(saveTrade(trade)));
+                yield saved;
+            }
+            case "findById", "findByIdWithLock" -> Optional.ofNullable(trades.get((UUID) args[0]));
+            case "findAllById", "findAllByIdInWithLock" -> findAll((Iterable<UUID>) args[0]);
+            case "count" -> (long) trades.size();
+            default -> throw unsupported(TradeRepository.class, method);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    BalanceLedgerRepository ledgerRepository() {
+        return proxy(BalanceLedgerRepository.class, (method, args) -> switch (method) {
+            case "save", "saveAndFlush" -> credit((BalanceLedgerEntity) args[0]);
+            case "saveAll", "saveAllAndFlush" -> {
+                ((Iterable<BalanceLedgerEntity>) args[0]).forEach(this::credit);
+                yield args[0] instanceof List<?> list ? list : List.of();
+            }
+            default -> throw unsupported(BalanceLedgerRepository.class, method);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    TradeOutboxRepository outboxRepository() {
+        return proxy(TradeOutboxRepository.class, (method, args) -> switch (method) {
+            case "save", "saveAndFlush" -> record((TradeOutboxEntity) args[0]);
+            case "saveAll", "saveAllAndFlush" -> {
+                ((Iterable<TradeOutboxEntity>) args[0]).forEach(this::record);
+                yield args[0] instanceof List<?> list ? list : List.of();
+            }
+            default -> throw unsupported(TradeOutboxRepository.class, method);
+        });
+    }
+
+    TradeOutboxCursorRepository outboxCursorRepository() {
+        return proxy(TradeOutboxCursorRepository.class, (method, args) -> {
+            throw unsupported(TradeOutboxCursorRepository.class, method);
+        });
+    }
+
+    UserRepository userRepository() {
+        return proxy(UserRepository.class, (method, args) -> {
+            throw unsupported(UserRepository.class, method);
+        });
+    }
+
+    private TradeEntity saveTrade(TradeEntity trade) {
+        if (trade.getId() == null) {
+            trade.setId(new UUID(0, trades.size() + 1L));
+        }
+        trades.put(trade.getId(), trade);
+        return trade;
+    }
+
+    private List<TradeEntity> findAll(Iterable<UUID> ids) {
+        List<TradeEntity> found = new ArrayList<>(ids instanceof Collection<?> c ? c.size() : 16);
+        for (UUID id : ids) {
+            TradeEntity trade = trades.get(id);
+            if (trade != null) {
+                found.add(trade);
+            }
+        }
+        found.sort((a, b) -> a.getId().compareTo(b.getId()));
+        return found;
+    }
+
+    private BalanceLedgerEntity credit(BalanceLedgerEntity entry) {
+        balanceDeltas.merge(entry.getUserId(), entry.getAvailableDelta(), BigDecimal::add);
+        return entry;
+    }
+
+    private TradeOutboxEntity record(TradeOutboxEntity entry) {
+        events.merge(entry.getEventType(), 1L, Long::sum);
+        return entry;
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        Object instance = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> self == args[0];
+                    case "hashCode" -> System.identityHashCode(self);
+                    default -> "InMemory" + type.getSimpleName();
+                };
+            }
+            return handler.handle(method.getName(), args);
+        });
+        return type.cast(instance);
+    }
+
+    private static UnsupportedOperationException unsupported(Class<?> type, String method) {
+        return new UnsupportedOperationException("Replay-də dəstəklənmir: " + type.getSimpleName() + "." + method);
+    }
+}
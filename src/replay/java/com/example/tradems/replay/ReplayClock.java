@@ -0,0 +1,43 @@
+package com.example.tradems.replay;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Replay-in saatı: vaxtı tick-lər irəli çəkir, ona görə açılış/bağlanış vaxtları və nəticə
+ * divar saatından asılı deyil. Tək thread-dən istifadə olunur.
+ */
+final class ReplayClock extends Clock {
+
+    private long millis;
+
+    ReplayClock(long millis) {
+        this.millis = millis;
+    }
+
+    void set(long millis) {
+        this.millis = millis;
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+}
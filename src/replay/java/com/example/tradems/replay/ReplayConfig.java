@@ -0,0 +1,59 @@
+package com.example.tradems.replay;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Replay-in parametrləri, {@code --key=value} arqumentləri ilə verilir, məsələn
+ * {@code ./gradlew replay --args="--ticks=ticks.bin --positions=positions.csv --cycle=250"}.
+ * {@code --convert=ticks.csv} verilərsə CSV {@code --ticks} faylına çevrilir və replay işləmir.
+ */
+public record ReplayConfig(
+        String ticks,
+        String convert,
+        String tickSize,
+        String positions,
+        int synthetic,
+        int users,
+        long cycleMillis,
+        long seed,
+        String report,
+        String trades
+) {
+
+    private static final Set<String> KNOWN = Set.of(
+            "ticks", "convert", "tick-size", "positions", "synthetic", "users", "cycle", "seed", "report", "trades"
+    );
+
+    public static ReplayConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Arqument --key=value formatında olmalıdır: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        ReplayConfig config = new ReplayConfig(
+                values.getOrDefault("ticks", "build/replay/ticks.bin"),
+                values.get("convert"),
+                values.getOrDefault("tick-size", "0.0001"),
+                values.get("positions"),
+                Integer.parseInt(values.getOrDefault("synthetic", "0")),
+                Integer.parseInt(values.getOrDefault("users", "100")),
+                Long.parseLong(values.getOrDefault("cycle", "0")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                values.getOrDefault("report", "build/results/replay/report.json"),
+                values.getOrDefault("trades", "build/results/replay/trades.csv")
+        );
+        values.keySet().removeAll(KNOWN);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Naməlum parametr: " + values.keySet());
+        }
+        if (config.convert() == null && config.positions() == null && config.synthetic() <= 0) {
+            throw new IllegalArgumentException("--positions=<csv> və ya --synthetic=<say> lazımdır");
+        }
+        return config;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.tradems.replay;
+
+import com.example.tradems.engine.PriceRange;
+import com.example.tradems.engine.TriggerIndex;
+import com.example.tradems.service.TradeSettlementService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Tick faylını mühərrikin yoxlama yolundan keçirir: {@link TriggerIndex} keçilmiş səviyyələri tapır,
+ * {@link TradeSettlementService#settleRanges} onları yerinə yetirir. {@code cycleMillis} sıfırdırsa
+ * hər tick ayrıca yoxlanılır; müsbətdirsə tick-lər həmin uzunluqda dövrlərə yığılır və dövrün
+ * sonunda low/high ilə yoxlanılır — istehsaldakı dövr aralığının nəticəyə təsirini təkrarlamaq üçün.
+ */
+final class ReplayEngine {
+
+    private final TickFileReader ticks;
+    private final ReplayClock clock;
+    private final TriggerIndex triggerIndex;
+    private final TradeSettlementService settlementService;
+    private final long cycleMillis;
+
+    private final String[] symbols;
+    private final int[] scales;
+    private final long[] lows;
+    private final long[] highs;
+    private final long[] lasts;
+    private final boolean[] dirty;
+    private final Set<UUID> ids = new LinkedHashSet<>();
+    private long cycleEnd = Long.MIN_VALUE;
+
+    private long ticksRead;
+    private long evaluations;
+    private long candidates;
+    private long settled;
+
+    record Result(long ticks, long evaluations, long candidates, long settled, long elapsedNanos) {
+
+        double ticksPerSecond() {
+            return elapsedNanos == 0 ? 0 : ticks * 1e9 / elapsedNanos;
+        }
+    }
+
+    ReplayEngine(TickFileReader ticks, ReplayClock clock, TriggerIndex triggerIndex,
+                 TradeSettlementService settlementService, long cycleMillis) {
+        this.ticks = ticks;
+        this.clock = clock;
+        this.triggerIndex = triggerIndex;
+        this.settlementService = settlementService;
+        this.cycleMillis = cycleMillis;
+        this.symbols = ticks.symbols();
+        this.scales = ticks.scales();
+        this.lows = new long[symbols.length];
+        this.highs = new long[symbols.length];
+        this.lasts = new long[symbols.length];
+        this.dirty = new boolean[symbols.length];
+    }
+
+    Result run() throws IOException {
+        long start = System.nanoTime();
+        ticks.forEach(this::onTick);
+        if (cycleMillis > 0 && cycleEnd != Long.MIN_VALUE) {
+            clock.set(cycleEnd);
+            flushCycle();
+        }
+        return new Result(ticksRead, evaluations, candidates, settled, System.nanoTime() - start);
+    }
+
+    private void onTick(long timeMillis, int symbol, long price) {
+        ticksRead++;
+        if (cycleMillis <= 0) {
+            clock.set(timeMillis);
+            evaluate(symbol, price, price, price);
+            return;
+        }
+        if (timeMillis >= cycleEnd) {
+            if (cycleEnd != Long.MIN_VALUE) {
+                clock.set(cycleEnd);
+                flushCycle();
+            }
+            cycleEnd = Math.floorDiv(timeMillis, cycleMillis) * cycleMillis + cycleMillis;
+        }
+        if (dirty[symbol]) {
+            lows[symbol] = Math.min(lows[symbol], price);
+            highs[symbol] = Math.max(highs[symbol], price);
+        } else {
+            dirty[symbol] = true;
+            lows[symbol] = price;
+            highs[symbol] = price;
+        }
+        lasts[symbol] = price;
+    }
+
+    private void flushCycle() {
+        for (int symbol = 0; symbol < symbols.length; symbol++) {
+            if (dirty[symbol]) {
+                dirty[symbol] = false;
+                evaluate(symbol, lows[symbol], highs[symbol], lasts[symbol]);
+            }
+        }
+    }
+
+    /**
+     * Mühərrik dövrünün bir simvol üçün hissəsi: namizədlər istifadəçi üzrə qruplaşdırılır,
+     * hər qrup bir {@code settleRanges} çağırışıdır. Qruplar istifadəçi id-sinə görə sıralanır
+     * ki, eyni fayl həmişə eyni nəticəni versin.
+     */
+    private void evaluate(int symbol, long low, long high, long last) {
+        evaluations++;
+        String name = symbols[symbol];
+        int scale = scales[symbol];
+        BigDecimal lowPrice = BigDecimal.valueOf(low, scale);
+        BigDecimal highPrice = low == high ? lowPrice : BigDecimal.valueOf(high, scale);
+        ids.clear();
+        triggerIndex.collectPending(name, lowPrice, highPrice, ids);
+        triggerIndex.collectOpen(name, lowPrice, highPrice, ids);
+        if (ids.isEmpty()) {
+            return;
+        }
+        candidates += ids.size();
+        PriceRange range = new PriceRange(lowPrice, highPrice, BigDecimal.valueOf(last, scale));
+        Map<Long, Map<UUID, PriceRange>> byUser = new TreeMap<>();
+        for (UUID id : ids) {
+            Long userId = triggerIndex.userIdOf(id);
+            if (userId != null) {
+                byUser.computeIfAbsent(userId, u -> new LinkedHashMap<>()).put(id, range);
+            }
+        }
+        byUser.forEach((userId, group) -> settled += settlementService.settleRanges(userId, group));
+    }
+}
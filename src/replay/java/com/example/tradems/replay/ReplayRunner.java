@@ -0,0 +1,229 @@
+package com.example.tradems.replay;
+
+import com.example.tradems.config.SymbolProperties;
+import com.example.tradems.engine.TradeMath;
+import com.example.tradems.engine.TriggerIndex;
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.metrics.TradingMetrics;
+import com.example.tradems.model.TradeEntity;
+import com.example.tradems.service.BalanceLedgerService;
+import com.example.tradems.service.TradeOutboxService;
+import com.example.tradems.service.TradeSettlementService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Tarixi qiymət yolunun deterministik replay-i: tick faylı memory-mapped oxunur və istehsaldakı
+ * {@link TriggerIndex}, {@link com.example.tradems.engine.TriggerRules} və {@link TradeSettlementService}
+ * kodundan keçirilir. DB və Spring konteksti yoxdur ({@link InMemoryRepositories}), vaxt tick-lərdən
+ * gəlir ({@link ReplayClock}). Eyni fayl və pozisiyalar həmişə eyni {@code trades.csv}-ni verir,
+ * ona görə mühərrik dəyişikliyindən əvvəlki və sonrakı nəticələr diff ilə müqayisə olunur.
+ *
+ * <pre>./gradlew replay --args="--convert=incident.csv --ticks=build/replay/incident.bin --tick-size=0.01"
+ * ./gradlew replay --args="--ticks=build/replay/incident.bin --positions=positions.csv --cycle=1000"
+ * ./gradlew replay --args="--ticks=build/replay/incident.bin --synthetic=100000 --users=1000"</pre>
+ *
+ * Pozisiya CSV-si: {@code id,userId,symbol,side,status,entryPrice,margin,leverage,stopLoss,takeProfit,liquidationPrice}.
+ * Boş SL/TP qoyulmur, boş likvidasiya qiyməti hesablanır; status {@code OPEN} və ya {@code PENDING}.
+ */
+public class ReplayRunner {
+
+    public static void main(String[] args) throws Exception {
+        ReplayConfig config = ReplayConfig.parse(args);
+        if (config.convert() != null) {
+            SymbolProperties symbolProperties = new SymbolProperties();
+            symbolProperties.setDefaultTickSize(new BigDecimal(config.tickSize()));
+            Path out = Path.of(config.ticks());
+            long written = TickFile.convertCsv(Path.of(config.convert()), out, symbolProperties);
+            System.out.printf(Locale.ROOT, "%d tick yazıldı: %s%n", written, out.toAbsolutePath());
+            return;
+        }
+        try (TickFileReader ticks = new TickFileReader(Path.of(config.ticks()))) {
+            replay(config, ticks);
+        }
+    }
+
+    private static void replay(ReplayConfig config, TickFileReader ticks) throws IOException {
+        String[] symbols = ticks.symbols();
+        int[] scales = ticks.scales();
+        SymbolProperties symbolProperties = new SymbolProperties();
+        for (int i = 0; i < symbols.length; i++) {
+            symbolProperties.getTickSize().put(symbols[i], BigDecimal.ONE.movePointLeft(scales[i]));
+        }
+
+        ReplayClock clock = new ReplayClock(ticks.firstTime());
+        InMemoryRepositories repositories = new InMemoryRepositories();
+        ApplicationEventPublisher events = event -> {
+        };
+        TriggerIndex triggerIndex = new TriggerIndex(symbolProperties);
+        TradeSettlementService settlementService = new TradeSettlementService(
+                repositories.tradeRepository(),
+                new BalanceLedgerService(repositories.ledgerRepository(), repositories.userRepository(), events),
+                new TradeOutboxService(repositories.outboxRepository(), repositories.outboxCursorRepository(), clock),
+                events, triggerIndex, new TradingMetrics(new SimpleMeterRegistry(), false), clock);
+
+        List<TradeEntity> positions = config.positions() != null
+                ? readPositions(Path.of(config.positions()), clock)
+                : syntheticPositions(config, symbols, scales, ticks.firstPrices(), clock);
+        for (TradeEntity trade : positions) {
+            repositories.trades.put(trade.getId(), trade);
+            triggerIndex.index(trade);
+        }
+
+        ReplayEngine.Result result = new ReplayEngine(ticks, clock, triggerIndex, settlementService,
+                config.cycleMillis()).run();
+        report(config, symbols.length, positions, result, repositories);
+    }
+
+    private static List<TradeEntity> readPositions(Path csv, ReplayClock clock) throws IOException {
+        List<TradeEntity> positions = new ArrayList<>();
+        List<String> lines = Files.readAllLines(csv);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank() || (i == 0 && line.startsWith("id"))) {
+                continue;
+            }
+            String[] cols = line.split(",", -1);
+            if (cols.length < 11) {
+                throw new IllegalArgumentException("Sətir " + (i + 1) + ": 11 sütun gözlənilirdi");
+            }
+            PositionSide side = PositionSide.valueOf(cols[3].trim());
+            BigDecimal entry = new BigDecimal(cols[5].trim());
+            int leverage = Integer.parseInt(cols[7].trim());
+            TradeEntity trade = position(
+                    cols[0].isBlank() ? new UUID(0, i) : UUID.fromString(cols[0].trim()),
+                    Long.parseLong(cols[1].trim()), cols[2].trim(), side, TradeStatus.valueOf(cols[4].trim()),
+                    entry, new BigDecimal(cols[6].trim()), leverage, decimalOrNull(cols[8]), decimalOrNull(cols[9]),
+                    cols[10].isBlank() ? TradeMath.liquidationPrice(entry, leverage, side) : new BigDecimal(cols[10].trim()),
+                    clock);
+            positions.add(trade);
+        }
+        return positions;
+    }
+
+    /**
+     * Faylın ilk qiymətləri ətrafında təsadüfi, amma {@code seed}-ə görə təkrarlanan portfel:
+     * hər onuncu pozisiya limit order-dir, SL/TP giriş qiymətindən 0.5–3.5% və 1–6% uzaqdadır.
+     */
+    private static List<TradeEntity> syntheticPositions(ReplayConfig config, String[] symbols, int[] scales,
+                                                        long[] firstPrices, ReplayClock clock) {
+        Random random = new Random(config.seed());
+        List<TradeEntity> positions = new ArrayList<>(config.synthetic());
+        for (int i = 0; i < config.synthetic(); i++) {
+            int symbol = i % symbols.length;
+            if (firstPrices[symbol] < 0) {
+                continue;
+            }
+            int scale = scales[symbol];
+            BigDecimal price = BigDecimal.valueOf(firstPrices[symbol], scale);
+            PositionSide side = random.nextBoolean() ? PositionSide.LONG : PositionSide.SHORT;
+            int sign = side == PositionSide.LONG ? 1 : -1;
+            boolean pending = random.nextInt(10) == 0;
+            BigDecimal entry = pending ? scale(price, 1 - sign * (0.005 + random.nextDouble() * 0.015), scale) : price;
+            BigDecimal stopLoss = scale(entry, 1 - sign * (0.005 + random.nextDouble() * 0.03), scale);
+            BigDecimal takeProfit = scale(entry, 1 + sign * (0.01 + random.nextDouble() * 0.05), scale);
+            int leverage = 1 + random.nextInt(50);
+            positions.add(position(new UUID(config.seed(), i), 1L + i % config.users(), symbols[symbol], side,
+                    pending ? TradeStatus.PENDING : TradeStatus.OPEN, entry, BigDecimal.TEN, leverage, stopLoss, takeProfit,
+                    TradeMath.liquidationPrice(entry, leverage, side), clock));
+        }
+        return positions;
+    }
+
+    private static TradeEntity position(UUID id, Long userId, String symbol, PositionSide side, TradeStatus status,
+                                        BigDecimal entry, BigDecimal margin, int leverage, BigDecimal stopLoss,
+                                        BigDecimal takeProfit, BigDecimal liquidation, ReplayClock clock) {
+        TradeEntity trade = new TradeEntity();
+        trade.setId(id);
+        trade.setUserId(userId);
+        trade.setSymbol(symbol);
+        trade.setSide(side);
+        trade.setStatus(status);
+        trade.setEntryPrice(entry);
+        trade.setMargin(margin);
+        trade.setLeverage(leverage);
+        trade.setStopLoss(stopLoss);
+        trade.setTakeProfit(takeProfit);
+        trade.setLiquidationPrice(liquidation);
+        trade.setOpenTime(LocalDateTime.now(clock));
+        trade.setVersion(0L);
+        return trade;
+    }
+
+    private static void report(ReplayConfig config, int symbols, List<TradeEntity> positions,
+                               ReplayEngine.Result result, InMemoryRepositories repositories) throws IOException {
+        Map<TradeStatus, Long> statuses = positions.stream()
+                .collect(Collectors.groupingBy(TradeEntity::getStatus, Collectors.counting()));
+        BigDecimal pnl = positions.stream()
+                .map(TradeEntity::getPnl)
+                .filter(value -> value != null)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        double seconds = result.elapsedNanos() / 1e9;
+
+        System.out.printf(Locale.ROOT, "Replay: %d tick, %d simvol, %.3f s, %.0f tick/s, dövr %s%n",
+                result.ticks(), symbols, seconds, result.ticksPerSecond(),
+                config.cycleMillis() > 0 ? config.cycleMillis() + " ms" : "hər tick");
+        System.out.printf(Locale.ROOT, "Pozisiya: %d, yoxlama: %d, namizəd: %d, yerinə yetirildi: %d%n",
+                positions.size(), result.evaluations(), result.candidates(), result.settled());
+        System.out.println("Hadisələr: " + repositories.events);
+        System.out.println("Yekun statuslar: " + statuses + ", PnL: " + pnl.toPlainString());
+
+        Path trades = Path.of(config.trades());
+        if (trades.getParent() != null) {
+            Files.createDirectories(trades.getParent());
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(trades)) {
+            out.write("id,userId,symbol,side,status,entryPrice,closePrice,pnl,openTime,closeTime");
+            out.newLine();
+            for (TradeEntity trade : positions.stream().sorted(Comparator.comparing(TradeEntity::getId)).toList()) {
+                out.write(String.join(",", trade.getId().toString(), trade.getUserId().toString(), trade.getSymbol(),
+                        trade.getSide().name(), trade.getStatus().name(), trade.getEntryPrice().toPlainString(),
+                        plain(trade.getClosePrice()), plain(trade.getPnl()), String.valueOf(trade.getOpenTime()),
+                        trade.getCloseTime() == null ? "" : trade.getCloseTime().toString()));
+                out.newLine();
+            }
+        }
+
+        Path path = Path.of(config.report());
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.writeString(path, String.format(Locale.ROOT,
+                "{\"config\":\"%s\",\"ticks\":%d,\"symbols\":%d,\"seconds\":%.3f,\"ticksPerSecond\":%.0f,"
+                        + "\"positions\":%d,\"evaluations\":%d,\"candidates\":%d,\"settled\":%d,"
+                        + "\"events\":\"%s\",\"statuses\":\"%s\",\"pnl\":\"%s\"}%n",
+                config, result.ticks(), symbols, seconds, result.ticksPerSecond(), positions.size(),
+                result.evaluations(), result.candidates(), result.settled(), repositories.events, statuses,
+                pnl.toPlainString()));
+        System.out.println("Hesabat: " + path.toAbsolutePath() + ", trade-lər: " + trades.toAbsolutePath());
+    }
+
+    private static BigDecimal decimalOrNull(String value) {
+        return value.isBlank() ? null : new BigDecimal(value.trim());
+    }
+
+    private static BigDecimal scale(BigDecimal price, double factor, int scale) {
+        return price.multiply(BigDecimal.valueOf(factor)).setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "" : value.toPlainString();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.tradems.replay;
+
+import com.example.tradems.config.SymbolProperties;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Replay-in tick faylı. Başlıq: {@code MAGIC}, versiya, simvol cədvəlinin offset-i və tick sayı;
+ * ardınca sabit ölçülü tick-lər (vaxt ms, simvol nömrəsi, simvolun tick ölçüsündə tam ədəd qiymət),
+ * sonda simvol cədvəli (ad, scale). Ədədlər big-endian, tick-lər vaxta görə artan sıradadır.
+ */
+final class TickFile {
+
+    static final int MAGIC = 0x54524B31;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 24;
+    static final int RECORD_BYTES = 20;
+
+    private TickFile() {
+    }
+
+    /**
+     * {@code time,symbol,price} sətirlərindən ibarət CSV-ni tick faylına çevirir. Vaxt epoch ms və ya
+     * ISO-8601 ola bilər; rəqəmlə başlamayan birinci sətir başlıq sayılır.
+     *
+     * @return yazılmış tick sayı
+     */
+    static long convertCsv(Path csv, Path out, SymbolProperties symbolProperties) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(csv);
+             TickFileWriter writer = new TickFileWriter(out, symbolProperties)) {
+            String line;
+            long lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank() || (lineNo == 1 && !Character.isDigit(line.charAt(0)))) {
+                    continue;
+                }
+                String[] cols = line.split(",");
+                if (cols.length < 3) {
+                    throw new IllegalArgumentException("Sətir " + lineNo + ": time,symbol,price gözlənilirdi");
+                }
+                writer.write(parseTime(cols[0].trim()), cols[1].trim(), new BigDecimal(cols[2].trim()));
+            }
+            return writer.count();
+        }
+    }
+
+    private static long parseTime(String value) {
+        return value.indexOf('T') > 0 ? Instant.parse(value).toEpochMilli() : Long.parseLong(value);
+    }
+}
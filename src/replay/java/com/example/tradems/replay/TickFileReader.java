@@ -0,0 +1,123 @@
+package com.example.tradems.replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * {@link TickFile}-ı memory-mapped oxuyur. Tick-lər 2 GB-dan kiçik hissələrlə map olunur və
+ * mütləq offset-lə oxunur — tick başına obyekt yaradılmır, köçürmə olmur.
+ */
+final class TickFileReader implements AutoCloseable {
+
+    private static final long SEGMENT_RECORDS = Integer.MAX_VALUE / TickFile.RECORD_BYTES;
+
+    private final FileChannel channel;
+    private final long count;
+    private final String[] symbols;
+    private final int[] scales;
+
+    @FunctionalInterface
+    interface TickConsumer {
+        void accept(long timeMillis, int symbol, long price);
+    }
+
+    TickFileReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, TickFile.HEADER_BYTES);
+            if (header.getInt() != TickFile.MAGIC) {
+                throw new IOException("Tick faylı deyil: " + path);
+            }
+            int version = header.getInt();
+            if (version != TickFile.VERSION) {
+                throw new IOException("Dəstəklənməyən tick faylı versiyası: " + version);
+            }
+            long tableOffset = header.getLong();
+            this.count = header.getLong();
+
+            ByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, tableOffset, channel.size() - tableOffset);
+            int symbolCount = table.getInt();
+            this.symbols = new String[symbolCount];
+            this.scales = new int[symbolCount];
+            for (int i = 0; i < symbolCount; i++) {
+                byte[] name = new byte[table.getShort()];
+                table.get(name);
+                symbols[i] = new String(name, StandardCharsets.UTF_8);
+                scales[i] = table.get();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    long count() {
+        return count;
+    }
+
+    String[] symbols() {
+        return symbols.clone();
+    }
+
+    int[] scales() {
+        return scales.clone();
+    }
+
+    /**
+     * Tick-ləri fayldakı sıra ilə ötürür.
+     */
+    void forEach(TickConsumer consumer) throws IOException {
+        for (long from = 0; from < count; from += SEGMENT_RECORDS) {
+            MappedByteBuffer segment = segment(from);
+            int end = segment.capacity();
+            for (int at = 0; at < end; at += TickFile.RECORD_BYTES) {
+                consumer.accept(segment.getLong(at), segment.getInt(at + 8), segment.getLong(at + 12));
+            }
+        }
+    }
+
+    /**
+     * Hər simvolun ilk qiyməti (simvol nömrəsi ilə), bütün simvollar tapılan kimi dayanır.
+     */
+    long[] firstPrices() throws IOException {
+        long[] first = new long[symbols.length];
+        Arrays.fill(first, -1);
+        int found = 0;
+        for (long from = 0; from < count && found < symbols.length; from += SEGMENT_RECORDS) {
+            MappedByteBuffer segment = segment(from);
+            int end = segment.capacity();
+            for (int at = 0; at < end && found < symbols.length; at += TickFile.RECORD_BYTES) {
+                int symbol = segment.getInt(at + 8);
+                if (first[symbol] < 0) {
+                    first[symbol] = segment.getLong(at + 12);
+                    found++;
+                }
+            }
+        }
+        return first;
+    }
+
+    /**
+     * İlk tick-in vaxtı, fayl boşdursa {@code 0}.
+     */
+    long firstTime() throws IOException {
+        return count == 0 ? 0 : segment(0).getLong(0);
+    }
+
+    private MappedByteBuffer segment(long from) throws IOException {
+        long records = Math.min(SEGMENT_RECORDS, count - from);
+        return channel.map(FileChannel.MapMode.READ_ONLY,
+                TickFile.HEADER_BYTES + from * TickFile.RECORD_BYTES, records * TickFile.RECORD_BYTES);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
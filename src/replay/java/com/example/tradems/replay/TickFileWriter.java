@@ -0,0 +1,104 @@
+package com.example.tradems.replay;
+
+import com.example.tradems.config.SymbolProperties;
+import com.example.tradems.engine.TradeMath;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link TickFile} formatında yazır. Simvollar ilk göründükləri sıra ilə nömrələnir, qiymət
+ * simvolun {@link SymbolProperties} tick ölçüsünə yuvarlaqlaşdırılır. Cədvəl və başlıq
+ * {@link #close()}-da yazılır.
+ */
+final class TickFileWriter implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final SymbolProperties symbolProperties;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TickFile.RECORD_BYTES * 8192);
+    private final Map<String, Integer> symbolIds = new LinkedHashMap<>();
+    private final List<Integer> scales = new ArrayList<>();
+    private long count;
+    private long lastTime = Long.MIN_VALUE;
+
+    TickFileWriter(Path path, SymbolProperties symbolProperties) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.symbolProperties = symbolProperties;
+        channel.position(TickFile.HEADER_BYTES);
+    }
+
+    void write(long timeMillis, String symbol, BigDecimal price) throws IOException {
+        if (timeMillis < lastTime) {
+            throw new IllegalArgumentException("Tick-lər vaxta görə sıralanmalıdır: " + timeMillis + " < " + lastTime);
+        }
+        lastTime = timeMillis;
+        int id = symbolIds.computeIfAbsent(symbol, s -> {
+            scales.add(symbolProperties.priceScaleOf(s));
+            return symbolIds.size();
+        });
+        if (buffer.remaining() < TickFile.RECORD_BYTES) {
+            drain();
+        }
+        buffer.putLong(timeMillis)
+                .putInt(id)
+                .putLong(TradeMath.toUnits(price, scales.get(id), RoundingMode.HALF_UP));
+        count++;
+    }
+
+    long count() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+            long tableOffset = channel.position();
+            List<byte[]> names = symbolIds.keySet().stream().map(s -> s.getBytes(StandardCharsets.UTF_8)).toList();
+            ByteBuffer table = ByteBuffer.allocate(4 + names.stream().mapToInt(n -> n.length + 3).sum());
+            table.putInt(names.size());
+            for (int i = 0; i < names.size(); i++) {
+                table.putShort((short) names.get(i).length).put(names.get(i)).put(scales.get(i).byteValue());
+            }
+            writeFully(table.flip(), tableOffset);
+
+            ByteBuffer header = ByteBuffer.allocate(TickFile.HEADER_BYTES)
+                    .putInt(TickFile.MAGIC)
+                    .putInt(TickFile.VERSION)
+                    .putLong(tableOffset)
+                    .putLong(count);
+            writeFully(header.flip(), 0);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.tradems;
+
+import com.example.tradems.enums.LedgerEntryType;
+import com.example.tradems.exception.BalanceConflictException;
+import com.example.tradems.exception.InsufficientFundsException;
+import com.example.tradems.model.BalanceLedgerEntity;
+import com.example.tradems.model.BalanceView;
+import com.example.tradems.model.UserEntity;
+import com.example.tradems.repository.BalanceLedgerRepository;
+import com.example.tradems.repository.UserRepository;
+import com.example.tradems.service.BalanceLedgerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.cloud.vault.enabled=false"
+})
+@Import(BalanceLedgerService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BalanceLedgerTest {
+
+    @Autowired
+    private BalanceLedgerService ledgerService;
+    @Autowired
+    private BalanceLedgerRepository ledgerRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        UserEntity user = new UserEntity();
+        user.setUsername("ledger");
+        user.setPremium(true);
+        user.setVirtualBalance(new BigDecimal("100"));
+        userId = userRepository.save(user).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledgerRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void debit_ShouldConflict_WhenAnotherDebitWasWrittenAfterSnapshot() {
+        BalanceView snapshot = ledgerService.balanceOf(userId);
+
+        ledgerService.debit(snapshot, UUID.randomUUID(), LedgerEntryType.RESERVE, new BigDecimal("60"), BigDecimal.ZERO);
+
+        assertThrows(BalanceConflictException.class, () -> ledgerService.debit(
+                snapshot, UUID.randomUUID(), LedgerEntryType.RESERVE, new BigDecimal("60"), BigDecimal.ZERO));
+        assertThrows(InsufficientFundsException.class, () -> ledgerService.debit(
+                ledgerService.balanceOf(userId), UUID.randomUUID(), LedgerEntryType.RESERVE, new BigDecimal("60"), BigDecimal.ZERO));
+        assertEquals(0, new BigDecimal("40").compareTo(ledgerService.balanceOf(userId).available()));
+    }
+
+    @Test
+    void debitEach_ShouldConflict_WhenTradeDebitRacesBalanceReset() {
+        BalanceView snapshot = ledgerService.balanceOf(userId);
+        BalanceLedgerEntity reset = BalanceLedgerService.entry(userId, null, LedgerEntryType.ADJUSTMENT,
+                new BigDecimal("-50"), BigDecimal.ZERO);
+
+        ledgerService.debit(snapshot, UUID.randomUUID(), LedgerEntryType.RESERVE, new BigDecimal("60"), BigDecimal.ZERO);
+
+        assertThrows(BalanceConflictException.class, () -> ledgerService.debitEach(Map.of(snapshot, reset)));
+        assertEquals(0, new BigDecimal("40").compareTo(ledgerService.balanceOf(userId).available()));
+    }
+
+    @Test
+    void compact_ShouldKeepProjectedBalance() {
+        UUID tradeId = UUID.randomUUID();
+        ledgerService.debit(ledgerService.balanceOf(userId), tradeId, LedgerEntryType.FREEZE, new BigDecimal("30"), new BigDecimal("30"));
+        ledgerService.credit(userId, tradeId, LedgerEntryType.UNFREEZE, BigDecimal.ZERO, new BigDecimal("-30"));
+        ledgerService.credit(userId, tradeId, LedgerEntryType.PAYOUT, new BigDecimal("45.5"), BigDecimal.ZERO);
+
+        BalanceView before = ledgerService.balanceOf(userId);
+        assertEquals(3, ledgerService.compact(100));
+        BalanceView after = ledgerService.balanceOf(userId);
+        UserEntity user = userRepository.findById(userId).orElseThrow();
+
+        assertEquals(0, new BigDecimal("115.5").compareTo(before.available()));
+        assertEquals(0, before.available().compareTo(after.available()));
+        assertEquals(0, before.frozen().compareTo(after.frozen()));
+        assertEquals(0, after.available().compareTo(user.getVirtualBalance()));
+        assertEquals(before.debitSeq(), after.debitSeq());
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.tradems;
+
+import com.example.tradems.config.ClockConfig;
+import com.example.tradems.dto.response.BulkOperationResponse;
+import com.example.tradems.enums.BulkOperationStatus;
+import com.example.tradems.enums.BulkOperationType;
+import com.example.tradems.enums.LedgerEntryType;
+import com.example.tradems.model.UserEntity;
+import com.example.tradems.repository.BalanceLedgerRepository;
+import com.example.tradems.repository.BulkOperationRepository;
+import com.example.tradems.repository.UserRepository;
+import com.example.tradems.service.BalanceLedgerService;
+import com.example.tradems.service.BulkOperationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.cloud.vault.enabled=false",
+        "trading.bulk.chunk-size=2"
+})
+@Import({BulkOperationService.class, BalanceLedgerService.class, ClockConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkOperationTest {
+
+    @Autowired
+    private BulkOperationService operationService;
+    @Autowired
+    private BalanceLedgerService ledgerService;
+    @Autowired
+    private BulkOperationRepository operationRepository;
+    @Autowired
+    private BalanceLedgerRepository ledgerRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        operationRepository.deleteAll();
+        ledgerRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void resetBalances_ShouldResumeFromCursor_AfterInterruption() {
+        List<Long> premium = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            premium.add(saveUser("premium-" + i, true, new BigDecimal(1_000 * (i + 1))).getId());
+        }
+        Long free = saveUser("free", false, new BigDecimal("5")).getId();
+        ledgerService.credit(premium.get(0), null, LedgerEntryType.PAYOUT, new BigDecimal("250"), BigDecimal.ZERO);
+
+        Long operationId = operationService.create(BulkOperationType.RESET_BALANCES).getId();
+        assertTrue(operationService.processChunk(operationId));
+        BulkOperationResponse interrupted = operationService.status(operationId);
+        assertEquals(2, interrupted.processed());
+        assertEquals(BulkOperationStatus.RUNNING, interrupted.status());
+
+        while (operationService.processChunk(operationId)) {
+            assertTrue(operationService.status(operationId).processed() <= 6);
+        }
+
+        BulkOperationResponse done = operationService.status(operationId);
+        assertEquals(BulkOperationStatus.COMPLETED, done.status());
+        assertEquals(6, done.processed());
+        assertEquals(5, done.affected());
+        for (Long userId : premium) {
+            assertEquals(0, new BigDecimal("10000").compareTo(ledgerService.balanceOf(userId).available()));
+        }
+        assertEquals(0, new BigDecimal("5").compareTo(ledgerService.balanceOf(free).available()));
+        assertFalse(operationService.processChunk(operationId));
+    }
+
+    @Test
+    void resetBalances_ShouldWriteUserBalances_WithoutWaitingForCompaction() {
+        Long poor = saveUser("poor", true, new BigDecimal("3000")).getId();
+        Long rich = saveUser("rich", true, new BigDecimal("40000")).getId();
+        ledgerService.credit(poor, null, LedgerEntryType.PAYOUT, new BigDecimal("500"), BigDecimal.ZERO);
+
+        Long operationId = operationService.create(BulkOperationType.RESET_BALANCES).getId();
+        while (operationService.processChunk(operationId)) {
+            // bütün hissələr
+        }
+
+        assertEquals(2, operationService.status(operationId).affected());
+        assertEquals(0, new BigDecimal("10000").compareTo(userRepository.findById(rich).orElseThrow().getVirtualBalance()));
+        assertEquals(0, new BigDecimal("9500").compareTo(userRepository.findById(poor).orElseThrow().getVirtualBalance()));
+        assertEquals(0, new BigDecimal("10000").compareTo(ledgerService.balanceOf(poor).available()));
+        assertTrue(ledgerRepository.findAll().stream().allMatch(entry -> entry.getAvailableDelta().signum() == 0
+                || entry.getEntryType() != LedgerEntryType.ADJUSTMENT));
+
+        ledgerService.credit(poor, null, LedgerEntryType.PAYOUT, new BigDecimal("75"), BigDecimal.ZERO);
+        ledgerService.compact(1000);
+        assertEquals(0, new BigDecimal("10075").compareTo(userRepository.findById(poor).orElseThrow().getVirtualBalance()));
+        assertEquals(0, new BigDecimal("10000").compareTo(userRepository.findById(rich).orElseThrow().getVirtualBalance()));
+    }
+
+    private UserEntity saveUser(String username, boolean premium, BigDecimal balance) {
+        UserEntity user = new UserEntity();
+        user.setUsername(username);
+        user.setPremium(premium);
+        user.setVirtualBalance(balance);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.tradems;
+
+import com.example.tradems.client.PriceSource;
+import com.example.tradems.client.StubPriceClient;
+import com.example.tradems.config.ClockConfig;
+import com.example.tradems.config.SymbolProperties;
+import com.example.tradems.engine.PartitionLeaseManager;
+import com.example.tradems.engine.TickHistory;
+import com.example.tradems.engine.TriggerIndex;
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.metrics.TradingMetrics;
+import com.example.tradems.model.TradeEntity;
+import com.example.tradems.model.UserEntity;
+import com.example.tradems.repository.BalanceLedgerRepository;
+import com.example.tradems.repository.EngineNodeRepository;
+import com.example.tradems.repository.PartitionLeaseRepository;
+import com.example.tradems.repository.TradeRepository;
+import com.example.tradems.repository.UserRepository;
+import com.example.tradems.scheduled.TradeExecutionEngine;
+import com.example.tradems.service.BalanceLedgerService;
+import com.example.tradems.service.PriceService;
+import com.example.tradems.service.TradeOutboxService;
+import com.example.tradems.service.TradeSettlementService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.cloud.vault.enabled=false"
+})
+@Import({TradeSettlementService.class, BalanceLedgerService.class, TriggerIndex.class, SymbolProperties.class,
+        TradingMetrics.class, SimpleMeterRegistry.class, TradeOutboxService.class, ClockConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClusterEngineTest {
+
+    private static final int PARTITIONS = 16;
+    private static final List<String> SYMBOLS = List.of(
+            "BTCUSDT", "ETHUSDT", "SOLUSDT", "BNBUSDT", "XRPUSDT", "ADAUSDT",
+            "DOGEUSDT", "AVAXUSDT", "DOTUSDT", "LINKUSDT", "LTCUSDT", "TRXUSDT"
+    );
+
+    @Autowired
+    private TradeRepository tradeRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PartitionLeaseRepository leaseRepository;
+    @Autowired
+    private EngineNodeRepository nodeRepository;
+    @Autowired
+    private TradeSettlementService settlementService;
+    @Autowired
+    private TriggerIndex triggerIndex;
+    @Autowired
+    private BalanceLedgerService ledgerService;
+    @Autowired
+    private BalanceLedgerRepository ledgerRepository;
+    @Autowired
+    private TradingMetrics metrics;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+    private ExecutorService executor;
+    private StubPriceClient priceClient;
+    private PriceService priceService;
+    private TickHistory tickHistory;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+        priceClient = new StubPriceClient(new BigDecimal("100"), 0);
+        tickHistory = new TickHistory(new SymbolProperties(), clock, 1024, 60, 100);
+        priceService = new PriceService(new PriceSource(priceClient, executor), executor, metrics, tickHistory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        triggerIndex.clear();
+        tradeRepository.deleteAll();
+        ledgerRepository.deleteAll();
+        userRepository.deleteAll();
+        leaseRepository.deleteAll();
+        nodeRepository.deleteAll();
+    }
+
+    @Test
+    void eachTradeIsSettledExactlyOnce_WhenSeveralEnginesShareOneDatabase() throws Exception {
+        List<PartitionLeaseManager> nodes = startNodes(3, Duration.ofSeconds(5));
+        assertPartitionsSplit(nodes);
+
+        UserEntity user = new UserEntity();
+        user.setUsername("grid");
+        user.setPremium(true);
+        user = userRepository.save(user);
+
+        List<TradeEntity> trades = new ArrayList<>();
+        for (String symbol : SYMBOLS) {
+            for (int i = 0; i < 10; i++) {
+                trades.add(tradeRepository.save(openLong(user.getId(), symbol)));
+            }
+        }
+        trades.forEach(triggerIndex::index);
+        triggerIndex.markReady();
+        SYMBOLS.forEach(symbol -> priceClient.setPrice(symbol, new BigDecimal("120")));
+        double takeProfitsBefore = metrics.triggeredCount(TradingMetrics.TAKE_PROFIT);
+
+        List<TradeExecutionEngine> engines = nodes.stream()
+                .map(node -> new TradeExecutionEngine(priceService, triggerIndex, settlementService, node, metrics, executor, tickHistory))
+                .toList();
+        ExecutorService nodeThreads = Executors.newFixedThreadPool(engines.size());
+        try {
+            for (int round = 0; round < 3; round++) {
+                List<Callable<TradeExecutionEngine.CycleResult>> cycles = engines.stream()
+                        .<Callable<TradeExecutionEngine.CycleResult>>map(engine -> () -> engine.runCycle(engine.ownedSymbols()))
+                        .toList();
+                for (Future<TradeExecutionEngine.CycleResult> result : nodeThreads.invokeAll(cycles)) {
+                    result.get();
+                }
+            }
+        } finally {
+            nodeThreads.shutdownNow();
+        }
+
+        assertTrue(tradeRepository.findAll().stream().allMatch(t -> t.getStatus() == TradeStatus.CLOSED));
+        assertEquals(trades.size(), metrics.triggeredCount(TradingMetrics.TAKE_PROFIT) - takeProfitsBefore);
+        BigDecimal payoutPerTrade = new BigDecimal("30");
+        BigDecimal expected = payoutPerTrade.multiply(BigDecimal.valueOf(trades.size()));
+        BigDecimal balance = ledgerService.balanceOf(user.getId()).available();
+        assertEquals(0, expected.compareTo(balance), "balance " + balance);
+
+        ledgerService.compact(1000);
+        BigDecimal compacted = userRepository.findById(user.getId()).orElseThrow().getVirtualBalance();
+        assertEquals(0, expected.compareTo(compacted), "compacted " + compacted);
+    }
+
+    @Test
+    void leasesMoveToRemainingNode_WhenHolderStopsRenewing() throws InterruptedException {
+        List<PartitionLeaseManager> nodes = startNodes(2, Duration.ofSeconds(1));
+        PartitionLeaseManager stopped = nodes.get(0);
+        PartitionLeaseManager survivor = nodes.get(1);
+        assertFalse(stopped.getOwnedPartitions().isEmpty());
+        assertFalse(survivor.getOwnedPartitions().isEmpty());
+
+        // lease-in bitməsi DB saatı ilə yoxlanılır, yerli saatın irəli çəkilməsi kifayət deyil
+        clock.advance(Duration.ofSeconds(20));
+        Thread.sleep(1200);
+        survivor.renew();
+
+        assertTrue(stopped.getOwnedPartitions().isEmpty());
+        assertFalse(stopped.owns("BTCUSDT"));
+        assertEquals(PARTITIONS, survivor.getOwnedPartitions().size());
+    }
+
+    private List<PartitionLeaseManager> startNodes(int count, Duration leaseTtl) {
+        List<PartitionLeaseManager> nodes = IntStream.range(0, count)
+                .mapToObj(i -> new PartitionLeaseManager(leaseRepository, nodeRepository, clock,
+                        true, "node-" + i, PARTITIONS, leaseTtl, Duration.ofMillis(200), 5000))
+                .toList();
+        nodes.get(0).ensurePartitions();
+        for (int round = 0; round < 3; round++) {
+            nodes.forEach(PartitionLeaseManager::renew);
+        }
+        return nodes;
+    }
+
+    @Test
+    void owns_ShouldExpireLocally_BeforeLeaseExpiresInDatabase() {
+        PartitionLeaseManager node = startNodes(1, Duration.ofSeconds(5)).get(0);
+        assertEquals(PARTITIONS, node.getOwnedPartitions().size());
+
+        clock.advance(Duration.ofMillis(4900));
+        assertFalse(node.owns("BTCUSDT"));
+        assertTrue(node.getOwnedPartitions().isEmpty());
+        assertTrue(leaseRepository.findClaimable().isEmpty());
+    }
+
+    private void assertPartitionsSplit(List<PartitionLeaseManager> nodes) {
+        Set<Integer> all = new HashSet<>();
+        for (PartitionLeaseManager node : nodes) {
+            for (Integer partition : node.getOwnedPartitions()) {
+                assertTrue(all.add(partition), "partition " + partition + " has two owners");
+            }
+        }
+        assertEquals(PARTITIONS, all.size());
+    }
+
+    private TradeEntity openLong(Long userId, String symbol) {
+        TradeEntity trade = new TradeEntity();
+        trade.setUserId(userId);
+        trade.setSymbol(symbol);
+        trade.setSide(PositionSide.LONG);
+        trade.setStatus(TradeStatus.OPEN);
+        trade.setEntryPrice(new BigDecimal("100"));
+        trade.setMargin(new BigDecimal("10"));
+        trade.setLeverage(10);
+        trade.setTakeProfit(new BigDecimal("110"));
+        trade.setLiquidationPrice(new BigDecimal("90.5"));
+        return trade;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.tradems;
+
+import com.example.tradems.config.ClockConfig;
+import com.example.tradems.dto.request.CreateContestRequest;
+import com.example.tradems.dto.response.ContestStandingResponse;
+import com.example.tradems.exception.TradingException;
+import com.example.tradems.model.CotestEntity;
+import com.example.tradems.model.UserEntity;
+import com.example.tradems.repository.ContestParticipantRepository;
+import com.example.tradems.repository.CotestRepository;
+import com.example.tradems.repository.UserRepository;
+import com.example.tradems.service.ContestService;
+import com.example.tradems.service.ContestTargetReachedEvent;
+import com.example.tradems.service.TradeClosedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.cloud.vault.enabled=false"
+})
+@Import({ContestService.class, ClockConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RecordApplicationEvents
+class ContestServiceTest {
+
+    @Autowired
+    private ContestService contestService;
+    @Autowired
+    private CotestRepository contestRepository;
+    @Autowired
+    private ContestParticipantRepository participantRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ApplicationEvents events;
+
+    @AfterEach
+    void tearDown() {
+        participantRepository.deleteAll();
+        contestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void flush_ShouldCountConcurrentJoins_AndReachTargetOnce() throws Exception {
+        Long contestId = contestService.create(new CreateContestRequest("launch", 40)).id();
+        contestService.start(contestId);
+        List<Long> userIds = users(50);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> joins = new ArrayList<>();
+            for (Long userId : userIds) {
+                joins.add(executor.submit(() -> contestService.join(contestId, userId)));
+            }
+            for (Future<?> join : joins) {
+                join.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThrows(TradingException.class, () -> contestService.join(contestId, userIds.get(0)));
+
+        contestService.flush(contestId);
+        contestService.flush(contestId);
+
+        assertEquals(50, contestRepository.findById(contestId).orElseThrow().getCurrentParticipants());
+        assertNotNull(contestService.get(contestId).targetReachedAt());
+        assertEquals(1, events.stream(ContestTargetReachedEvent.class).count());
+    }
+
+    @Test
+    void standings_ShouldFollowClosedTrades_AndPersistOnFlush() {
+        Long contestId = contestService.create(new CreateContestRequest("pnl", 10)).id();
+        contestService.start(contestId);
+        List<Long> userIds = users(3);
+        userIds.forEach(userId -> contestService.join(contestId, userId));
+        Long outsider = users(1).get(0);
+
+        LocalDateTime now = LocalDateTime.now();
+        contestService.onTradeClosed(new TradeClosedEvent(userIds.get(0), UUID.randomUUID(), new BigDecimal("-20"), now));
+        contestService.onTradeClosed(new TradeClosedEvent(userIds.get(1), UUID.randomUUID(), new BigDecimal("35"), now));
+        contestService.onTradeClosed(new TradeClosedEvent(userIds.get(1), UUID.randomUUID(), new BigDecimal("5"), now));
+        contestService.onTradeClosed(new TradeClosedEvent(outsider, UUID.randomUUID(), new BigDecimal("99"), now));
+        contestService.onTradeClosed(new TradeClosedEvent(userIds.get(2), UUID.randomUUID(), new BigDecimal("500"),
+                now.minusDays(1)));
+
+        List<ContestStandingResponse> live = contestService.standings(contestId, 0, 10);
+        assertEquals(List.of(userIds.get(1), userIds.get(2), userIds.get(0)),
+                live.stream().map(ContestStandingResponse::userId).toList());
+        assertEquals(0, new BigDecimal("40").compareTo(live.get(0).pnl()));
+        assertEquals(2, live.get(0).closedTrades());
+
+        contestService.stop(contestId);
+
+        List<ContestStandingResponse> stored = contestService.standings(contestId, 0, 10);
+        assertEquals(3, stored.size());
+        assertEquals(userIds.get(1), stored.get(0).userId());
+        assertEquals(0, new BigDecimal("40").compareTo(stored.get(0).pnl()));
+        assertEquals(0, new BigDecimal("-20").compareTo(stored.get(2).pnl()));
+    }
+
+    @Test
+    void join_ShouldReject_WhenContestStoppedOnAnotherNode() {
+        Long contestId = contestService.create(new CreateContestRequest("late", 10)).id();
+        contestService.start(contestId);
+        List<Long> userIds = users(2);
+        contestService.join(contestId, userIds.get(0));
+
+        CotestEntity stored = contestRepository.findById(contestId).orElseThrow();
+        stored.setActive(false);
+        contestRepository.save(stored);
+
+        assertThrows(TradingException.class, () -> contestService.join(contestId, userIds.get(1)));
+        assertEquals(1, participantRepository.count());
+        assertEquals(1, contestService.get(contestId).participants());
+
+        contestService.flush(contestId);
+        assertEquals(1, contestRepository.findById(contestId).orElseThrow().getCurrentParticipants());
+        assertEquals(1, contestService.get(contestId).participants());
+    }
+
+    @Test
+    void standings_ShouldReject_WhenPageOffsetOverflows() {
+        Long contestId = contestService.create(new CreateContestRequest("paging", 10)).id();
+
+        assertThrows(TradingException.class, () -> contestService.standings(contestId, Integer.MAX_VALUE, 100));
+    }
+
+    private List<Long> users(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UserEntity user = new UserEntity();
+            user.setUsername("contest-" + UUID.randomUUID());
+            user.setVirtualBalance(new BigDecimal("1000"));
+            ids.add(userRepository.save(user).getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.tradems;
+
+import com.example.tradems.dto.response.LeaderboardEntryResponse;
+import com.example.tradems.model.LeaderboardStanding;
+import com.example.tradems.repository.UserRepository;
+import com.example.tradems.service.BalancesCompactedEvent;
+import com.example.tradems.service.LeaderboardService;
+import com.example.tradems.service.UserCreatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private LeaderboardService leaderboardService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(leaderboardService, "size", 2);
+    }
+
+    @Test
+    void onBalancesCompacted_ShouldMoveOnlyChangedUsers() {
+        when(userRepository.findTopStandings(any(Limit.class))).thenReturn(List.of(
+                standing(1L, "300"), standing(2L, "200"), standing(3L, "100")));
+        leaderboardService.rebuild();
+
+        when(userRepository.findStandings(List.of(3L))).thenReturn(List.of(standing(3L, "250")));
+        leaderboardService.onBalancesCompacted(new BalancesCompactedEvent(List.of(3L)));
+
+        List<LeaderboardEntryResponse> top = leaderboardService.page(0, 10);
+        assertEquals(2, top.size());
+        assertEquals("user-1", top.get(0).username());
+        assertEquals("user-3", top.get(1).username());
+        assertEquals(3, leaderboardService.rankOf(2L).rank());
+        verify(userRepository, never()).countRankedAbove(any(), any());
+    }
+
+    @Test
+    void onUserCreated_ShouldPlaceUser_WithoutReadingDatabase() {
+        when(userRepository.findTopStandings(any(Limit.class))).thenReturn(List.of(
+                standing(1L, "300"), standing(2L, "100")));
+        leaderboardService.rebuild();
+
+        leaderboardService.onUserCreated(new UserCreatedEvent(5L, "user-5", new BigDecimal("200")));
+
+        List<LeaderboardEntryResponse> top = leaderboardService.page(0, 10);
+        assertEquals(List.of("user-1", "user-5"), top.stream().map(LeaderboardEntryResponse::username).toList());
+        assertEquals(3, leaderboardService.rankOf(2L).rank());
+        verify(userRepository, never()).findStandings(any());
+    }
+
+    @Test
+    void rankOf_ShouldCountInDatabase_WhenUserIsOutsideBoard() {
+        when(userRepository.findTopStandings(any(Limit.class))).thenReturn(List.of(
+                standing(1L, "300"), standing(2L, "200"), standing(3L, "150"), standing(4L, "120")));
+        leaderboardService.rebuild();
+        when(userRepository.findStandings(List.of(9L))).thenReturn(List.of(standing(9L, "50")));
+        when(userRepository.countRankedAbove(new BigDecimal("50"), 9L)).thenReturn(41L);
+
+        LeaderboardEntryResponse rank = leaderboardService.rankOf(9L);
+
+        assertEquals(42, rank.rank());
+        assertEquals(new BigDecimal("50"), rank.balance());
+    }
+
+    @Test
+    void page_ShouldReturnEmpty_WhenOffsetOverflowsInt() {
+        when(userRepository.findTopStandings(any(Limit.class))).thenReturn(List.of(
+                standing(1L, "300"), standing(2L, "200")));
+        leaderboardService.rebuild();
+
+        assertEquals(List.of(), leaderboardService.page(Integer.MAX_VALUE, 100));
+        assertEquals(List.of(), leaderboardService.page(21_474_837, 100));
+        assertEquals(2, leaderboardService.page(0, 100).size());
+    }
+
+    private LeaderboardStanding standing(Long userId, String balance) {
+        return new LeaderboardStanding(userId, "user-" + userId, new BigDecimal(balance));
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.tradems;
+
+import com.example.tradems.config.ClockConfig;
+import com.example.tradems.config.RetryConfig;
+import com.example.tradems.config.SymbolProperties;
+import com.example.tradems.engine.PriceRange;
+import com.example.tradems.engine.TriggerIndex;
+import com.example.tradems.enums.LedgerEntryType;
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.metrics.TradingMetrics;
+import com.example.tradems.model.TradeEntity;
+import com.example.tradems.model.UserEntity;
+import com.example.tradems.repository.BalanceLedgerRepository;
+import com.example.tradems.repository.TradeOutboxRepository;
+import com.example.tradems.repository.TradeRepository;
+import com.example.tradems.repository.UserRepository;
+import com.example.tradems.service.BalanceLedgerService;
+import com.example.tradems.service.PositionsChangedEvent;
+import com.example.tradems.service.TradeOutboxService;
+import com.example.tradems.service.TradeSettlementService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Yerinə yetirmə tranzaksiyası commit olunmamış başqa tranzaksiya eyni trade-i yeniləyir:
+ * version toqquşması {@code @RetryOnConflict} ilə yeni tranzaksiyada, təzə oxunmuş sətirlə təkrarlanır.
+ */
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.cloud.vault.enabled=false",
+        "trading.retry.max-attempts=3",
+        "trading.retry.backoff-millis=1"
+})
+@Import({TradeSettlementService.class, BalanceLedgerService.class, TriggerIndex.class, SymbolProperties.class,
+        TradingMetrics.class, SimpleMeterRegistry.class, TradeOutboxService.class, ClockConfig.class,
+        RetryConfig.class, OptimisticLockingTest.RacingWriterConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OptimisticLockingTest {
+
+    @Autowired
+    private TradeSettlementService settlementService;
+    @Autowired
+    private TradeRepository tradeRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BalanceLedgerRepository ledgerRepository;
+    @Autowired
+    private TradeOutboxRepository outboxRepository;
+    @Autowired
+    private RacingWriter racingWriter;
+    @Autowired
+    private TradingMetrics metrics;
+
+    private TradeEntity trade;
+
+    @BeforeEach
+    void setUp() {
+        UserEntity user = new UserEntity();
+        user.setUsername("racer");
+        user.setPremium(true);
+        user = userRepository.save(user);
+
+        TradeEntity open = new TradeEntity();
+        open.setUserId(user.getId());
+        open.setSymbol("BTCUSDT");
+        open.setSide(PositionSide.LONG);
+        open.setStatus(TradeStatus.OPEN);
+        open.setEntryPrice(new BigDecimal("100"));
+        open.setMargin(new BigDecimal("10"));
+        open.setLeverage(10);
+        open.setTakeProfit(new BigDecimal("110"));
+        open.setLiquidationPrice(new BigDecimal("90.5"));
+        trade = tradeRepository.save(open);
+    }
+
+    @AfterEach
+    void tearDown() {
+        racingWriter.reset();
+        outboxRepository.deleteAll();
+        tradeRepository.deleteAll();
+        ledgerRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void settleRanges_ShouldRereadTradeAndSucceed_WhenConcurrentUpdateWins() {
+        racingWriter.conflicts.set(1);
+        racingWriter.tradeId = trade.getId();
+        double takeProfits = metrics.triggeredCount(TradingMetrics.TAKE_PROFIT);
+
+        int settled = settlementService.settleRanges(trade.getUserId(), range(trade, "120"));
+
+        assertEquals(1, settled);
+        assertEquals(2, racingWriter.attempts.get());
+        TradeEntity closed = tradeRepository.findById(trade.getId()).orElseThrow();
+        assertEquals(TradeStatus.CLOSED, closed.getStatus());
+        assertEquals(0, new BigDecimal("95.1").compareTo(closed.getStopLoss()));
+        assertEquals(1, payouts());
+        // iki cəhd, bir commit: trigger bir dəfə sayılır
+        assertEquals(takeProfits + 1, metrics.triggeredCount(TradingMetrics.TAKE_PROFIT));
+    }
+
+    @Test
+    void settleRanges_ShouldGiveUp_AfterRetryLimit() {
+        racingWriter.conflicts.set(Integer.MAX_VALUE);
+        racingWriter.tradeId = trade.getId();
+        double takeProfits = metrics.triggeredCount(TradingMetrics.TAKE_PROFIT);
+
+        assertThrows(ConcurrencyFailureException.class,
+                () -> settlementService.settleRanges(trade.getUserId(), range(trade, "120")));
+
+        assertEquals(3, racingWriter.attempts.get());
+        assertEquals(TradeStatus.OPEN, tradeRepository.findById(trade.getId()).orElseThrow().getStatus());
+        assertEquals(0, payouts());
+        assertEquals(takeProfits, metrics.triggeredCount(TradingMetrics.TAKE_PROFIT));
+    }
+
+    private long payouts() {
+        return ledgerRepository.findAll().stream()
+                .filter(entry -> entry.getEntryType() == LedgerEntryType.PAYOUT)
+                .count();
+    }
+
+    private static Map<UUID, PriceRange> range(TradeEntity trade, String price) {
+        return Map.of(trade.getId(), PriceRange.of(new BigDecimal(price)));
+    }
+
+    /**
+     * Yerinə yetirmə commit olunmazdan əvvəl başqa thread-də, ayrıca tranzaksiyada eyni trade-i yeniləyir.
+     */
+    static class RacingWriter {
+
+        private final TradeRepository tradeRepository;
+        private final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final AtomicInteger conflicts = new AtomicInteger();
+        final AtomicInteger attempts = new AtomicInteger();
+        volatile UUID tradeId;
+
+        RacingWriter(TradeRepository tradeRepository) {
+            this.tradeRepository = tradeRepository;
+        }
+
+        @EventListener
+        public void onPositionsChanged(PositionsChangedEvent event) throws Exception {
+            int attempt = attempts.incrementAndGet();
+            if (tradeId == null || conflicts.getAndDecrement() <= 0) {
+                return;
+            }
+            executor.submit(() -> {
+                TradeEntity concurrent = tradeRepository.findById(tradeId).orElseThrow();
+                // hər cəhddə fərqli dəyər: dəyişməyən entity yenilənmir və version artmır
+                concurrent.setStopLoss(new BigDecimal("95").add(BigDecimal.valueOf(attempt, 1)));
+                return tradeRepository.save(concurrent);
+            }).get();
+        }
+
+        void reset() {
+            tradeId = null;
+            conflicts.set(0);
+            attempts.set(0);
+        }
+
+        void shutdown() {
+            executor.shutdownNow();
+        }
+    }
+
+    @TestConfiguration
+    static class RacingWriterConfig {
+
+        @Bean(destroyMethod = "shutdown")
+        RacingWriter racingWriter(TradeRepository tradeRepository) {
+            return new RacingWriter(tradeRepository);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.tradems;
+
+import com.example.tradems.client.PriceSource;
+import com.example.tradems.client.StubPriceClient;
+import com.example.tradems.config.SymbolProperties;
+import com.example.tradems.controller.TradeController;
+import com.example.tradems.engine.TickHistory;
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.metrics.TradingMetrics;
+import com.example.tradems.model.TradeEntity;
+import com.example.tradems.repository.TradeRepository;
+import com.example.tradems.service.PositionStreamService;
+import com.example.tradems.service.PositionsChangedEvent;
+import com.example.tradems.service.PriceService;
+import com.example.tradems.service.TradeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class PositionStreamServiceTest {
+
+    private static final Long USER_ID = 1L;
+    private static final String SYMBOL = "BTCUSDT";
+
+    private final TradeRepository tradeRepository = mock(TradeRepository.class);
+    private final QueuedExecutor streamExecutor = new QueuedExecutor();
+    private ExecutorService priceExecutor;
+    private StubPriceClient priceClient;
+    private PriceService priceService;
+    private PositionStreamService streamService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        priceExecutor = Executors.newCachedThreadPool();
+        priceClient = new StubPriceClient(new BigDecimal("100"), 0);
+        TradingMetrics metrics = new TradingMetrics(new SimpleMeterRegistry(), false);
+        TickHistory tickHistory = new TickHistory(new SymbolProperties(), Clock.systemUTC(), 64, 4, 10);
+        priceService = new PriceService(new PriceSource(priceClient, priceExecutor), priceExecutor,
+                metrics, tickHistory);
+        streamService = new PositionStreamService(tradeRepository, priceService, streamExecutor);
+        ReflectionTestUtils.setField(streamService, "priceMaxAgeMillis", 0L);
+        mockMvc = MockMvcBuilders.standaloneSetup(new TradeController(mock(TradeService.class), streamService)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        priceExecutor.shutdownNow();
+    }
+
+    @Test
+    void tick_ShouldCoalescePendingUpdates_ToLatestPricePerTrade() throws Exception {
+        TradeEntity trade = openTrade();
+        when(tradeRepository.findByUserIdAndStatus(USER_ID, TradeStatus.OPEN)).thenReturn(List.of(trade));
+        MockHttpServletResponse response = stream();
+        streamExecutor.runAll();
+        assertEquals(1, events(response, "snapshot"));
+
+        priceClient.setPrice(SYMBOL, new BigDecimal("101"));
+        streamService.tick();
+        priceClient.setPrice(SYMBOL, new BigDecimal("102"));
+        streamService.tick();
+        streamExecutor.runAll();
+
+        String content = response.getContentAsString();
+        assertEquals(1, events(response, "positions"));
+        assertTrue(content.contains("\"currentPrice\":102"));
+        assertFalse(content.contains("\"currentPrice\":101"));
+    }
+
+    @Test
+    void tick_ShouldReuseEnginePrices_WithoutFetchingAgain() throws Exception {
+        when(tradeRepository.findByUserIdAndStatus(USER_ID, TradeStatus.OPEN)).thenReturn(List.of(openTrade()));
+        ReflectionTestUtils.setField(streamService, "priceMaxAgeMillis", 60_000L);
+        MockHttpServletResponse response = stream();
+        streamExecutor.runAll();
+
+        priceClient.setPrice(SYMBOL, new BigDecimal("103"));
+        priceService.snapshot(List.of(SYMBOL));
+        long fetches = priceService.getFetchCount();
+        streamService.tick();
+        streamExecutor.runAll();
+
+        assertEquals(fetches, priceService.getFetchCount());
+        assertTrue(response.getContentAsString().contains("\"currentPrice\":103"));
+    }
+
+    @Test
+    void unsubscribe_ShouldStopUpdates_WhenConnectionCompletes() throws Exception {
+        when(tradeRepository.findByUserIdAndStatus(USER_ID, TradeStatus.OPEN)).thenReturn(List.of(openTrade()));
+        MvcResult result = mockMvc.perform(get("/api/trades/user/stream/" + USER_ID))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        streamExecutor.runAll();
+        assertEquals(1, streamService.subscriberCount());
+
+        result.getRequest().getAsyncContext().complete();
+        assertEquals(0, streamService.subscriberCount());
+
+        int written = result.getResponse().getContentAsString().length();
+        priceClient.setPrice(SYMBOL, new BigDecimal("105"));
+        streamService.tick();
+        streamExecutor.runAll();
+        assertEquals(written, result.getResponse().getContentAsString().length());
+    }
+
+    @Test
+    void onPositionsChanged_ShouldSendFreshSnapshot() throws Exception {
+        TradeEntity first = openTrade();
+        TradeEntity second = openTrade();
+        when(tradeRepository.findByUserIdAndStatus(USER_ID, TradeStatus.OPEN))
+                .thenReturn(List.of(first), List.of(first, second));
+        MockHttpServletResponse response = stream();
+        streamExecutor.runAll();
+        assertFalse(response.getContentAsString().contains(second.getId().toString()));
+
+        streamService.onPositionsChanged(new PositionsChangedEvent(USER_ID));
+        streamExecutor.runAll();
+
+        assertEquals(2, events(response, "snapshot"));
+        assertTrue(response.getContentAsString().contains(second.getId().toString()));
+    }
+
+    @Test
+    void resync_ShouldSendSnapshot_OnlyWhenPositionsChangedElsewhere() throws Exception {
+        TradeEntity first = openTrade();
+        TradeEntity second = openTrade();
+        when(tradeRepository.findByUserIdAndStatus(USER_ID, TradeStatus.OPEN)).thenReturn(List.of(first));
+        when(tradeRepository.findByUserIdInAndStatus(any(), eq(TradeStatus.OPEN)))
+                .thenReturn(List.of(first), List.of(first, second));
+        MockHttpServletResponse response = stream();
+        streamExecutor.runAll();
+
+        streamService.resync();
+        streamExecutor.runAll();
+        assertEquals(1, events(response, "snapshot"));
+
+        streamService.resync();
+        streamExecutor.runAll();
+        assertEquals(2, events(response, "snapshot"));
+        assertTrue(response.getContentAsString().contains(second.getId().toString()));
+    }
+
+    private MockHttpServletResponse stream() throws Exception {
+        return mockMvc.perform(get("/api/trades/user/stream/" + USER_ID))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static long events(MockHttpServletResponse response, String name) throws Exception {
+        return response.getContentAsString().lines().filter(line -> line.equals("event:" + name)).count();
+    }
+
+    private static TradeEntity openTrade() {
+        TradeEntity trade = new TradeEntity();
+        trade.setId(UUID.randomUUID());
+        trade.setUserId(USER_ID);
+        trade.setSymbol(SYMBOL);
+        trade.setSide(PositionSide.LONG);
+        trade.setStatus(TradeStatus.OPEN);
+        trade.setEntryPrice(new BigDecimal("100"));
+        trade.setMargin(new BigDecimal("10"));
+        trade.setLeverage(10);
+        return trade;
+    }
+
+    /**
+     * Göndərmələri test özü işə salır, ona görə birləşdirmə deterministik yoxlanılır.
+     */
+    private static final class QueuedExecutor extends AbstractExecutorService {
+
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
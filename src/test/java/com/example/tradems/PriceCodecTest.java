@@ -0,0 +1,45 @@
+package com.example.tradems;
+
+import com.example.tradems.client.PriceCodec;
+import com.example.tradems.exception.PriceFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PriceCodecTest {
+
+    @Test
+    void decode_ShouldReadLegacyTextFormat() {
+        assertEquals(new BigDecimal("50000.0"), PriceCodec.decode(bytes("Price: 50000.0 USD")));
+        assertEquals(new BigDecimal("0.00012345"), PriceCodec.decode(bytes("Price: 0.00012345 USD")));
+    }
+
+    @Test
+    void decode_ShouldReadJsonFormat() {
+        assertEquals(new BigDecimal("67123.45"), PriceCodec.decode(bytes("{\"symbol\":\"BTCUSDT\",\"price\":67123.45}")));
+        assertEquals(new BigDecimal("3000"), PriceCodec.decode(bytes("{ \"price\" : \"3000\" }")));
+    }
+
+    @Test
+    void decode_ShouldRoundTripBinaryFormat() {
+        BigDecimal price = new BigDecimal("67123.4567");
+
+        assertEquals(price, PriceCodec.decode(PriceCodec.encodeBinary(price)));
+    }
+
+    @Test
+    void decode_ShouldThrowTypedFailure_WhenBodyIsNotAPrice() {
+        assertThrows(PriceFormatException.class, () -> PriceCodec.decode(bytes("Price: N/A")));
+        assertThrows(PriceFormatException.class, () -> PriceCodec.decode(bytes("{\"symbol\":\"BTCUSDT\"}")));
+        assertThrows(PriceFormatException.class, () -> PriceCodec.decode(new byte[0]));
+        assertThrows(PriceFormatException.class, () -> PriceCodec.decode(bytes("Price: 1.5E3 USD")));
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.tradems;
+
+import com.example.tradems.client.PriceClient;
+import com.example.tradems.client.PriceQuote;
+import com.example.tradems.client.PriceSource;
+import com.example.tradems.client.StubPriceClient;
+import com.example.tradems.config.SymbolProperties;
+import com.example.tradems.engine.TickHistory;
+import com.example.tradems.metrics.TradingMetrics;
+import com.example.tradems.service.PriceService;
+import com.example.tradems.service.PriceSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PriceServiceTest {
+
+    private ExecutorService executor;
+    private StubPriceClient priceClient;
+    private PriceService priceService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        priceClient = spy(new StubPriceClient(new BigDecimal("100"), 0));
+        priceService = new PriceService(new PriceSource(priceClient, executor), executor, new TradingMetrics(new SimpleMeterRegistry(), true),
+                new TickHistory(new SymbolProperties(), Clock.systemUTC(), 1024, 60, 100));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void snapshot_ShouldFetchDistinctSymbolsInOneBatchCall() {
+        priceClient.setPrice("BTCUSDT", new BigDecimal("50000.0"));
+        priceClient.setPrice("ETHUSDT", new BigDecimal("3000.0"));
+
+        PriceSnapshot snapshot = priceService.snapshot(List.of("BTCUSDT", "ETHUSDT", "BTCUSDT", "BTCUSDT"));
+
+        assertEquals(2, snapshot.size());
+        assertEquals(new BigDecimal("50000.0"), snapshot.priceOf("BTCUSDT"));
+        assertEquals(new BigDecimal("3000.0"), snapshot.priceOf("ETHUSDT"));
+        assertNull(snapshot.priceOf("SOLUSDT"));
+        assertEquals(1, priceService.getFetchCount());
+        assertEquals(2, priceService.getSnapshotHits());
+        assertEquals(1, priceService.getSnapshotMisses());
+        verify(priceClient, times(1)).getRealtimePrices(anyCollection());
+        verify(priceClient, never()).getRealtimePrice(anyString());
+    }
+
+    @Test
+    void cachedSnapshot_ShouldServeRepeatedReadsFromCache() {
+        priceClient.setPrice("BTCUSDT", new BigDecimal("50000.0"));
+        priceClient.setPrice("ETHUSDT", new BigDecimal("3000.0"));
+
+        priceService.cachedSnapshot(List.of("BTCUSDT", "ETHUSDT", "BTCUSDT"));
+        PriceSnapshot second = priceService.cachedSnapshot(List.of("ETHUSDT", "BTCUSDT"));
+
+        assertEquals(new BigDecimal("50000.0"), second.priceOf("BTCUSDT"));
+        assertEquals(new BigDecimal("3000.0"), second.priceOf("ETHUSDT"));
+        assertEquals(1, priceService.getFetchCount());
+        assertEquals(2, priceService.getCacheMisses());
+        assertEquals(2, priceService.getCacheHits());
+    }
+
+    @Test
+    void cachedSnapshot_ShouldRefetchOnlyStaleSymbols() {
+        ReflectionTestUtils.setField(priceService, "cacheMaxAgeMillis", 0L);
+        priceClient.setPrice("BTCUSDT", new BigDecimal("50000.0"));
+
+        priceService.cachedSnapshot(List.of("BTCUSDT"));
+        priceClient.setPrice("BTCUSDT", new BigDecimal("51000.0"));
+        PriceSnapshot second = priceService.cachedSnapshot(List.of("BTCUSDT"));
+
+        assertEquals(new BigDecimal("51000.0"), second.priceOf("BTCUSDT"));
+        assertEquals(2, priceService.getFetchCount());
+        assertEquals(0, priceService.getCacheHits());
+    }
+
+    @Test
+    void snapshot_ShouldServeLastKnownGoodPrice_WhenUpstreamMissesDeadline() {
+        SwitchablePriceClient upstream = new SwitchablePriceClient();
+        PriceService service = resilientService(upstream, 3000);
+
+        assertEquals(new BigDecimal("100"), service.snapshot(List.of("BTCUSDT")).priceOf("BTCUSDT"));
+        upstream.delayMillis = 2000;
+        long start = System.nanoTime();
+        PriceSnapshot stale = service.snapshot(List.of("BTCUSDT"));
+
+        assertEquals(new BigDecimal("100"), stale.priceOf("BTCUSDT"));
+        assertEquals(1, service.getStaleServed());
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1000));
+    }
+
+    @Test
+    void snapshot_ShouldSkipSymbolAndOpenCircuit_WhenNoFreshPriceExists() {
+        SwitchablePriceClient upstream = new SwitchablePriceClient();
+        upstream.failing = true;
+        PriceService service = resilientService(upstream, 0);
+
+        for (int i = 0; i < 3; i++) {
+            PriceSnapshot snapshot = service.snapshot(List.of("BTCUSDT"));
+            assertEquals(0, snapshot.size());
+        }
+        int callsWhenOpened = upstream.calls;
+        service.snapshot(List.of("BTCUSDT"));
+
+        assertEquals("OPEN", service.stats().circuitState());
+        assertEquals(callsWhenOpened, upstream.calls);
+        assertEquals(4, service.getSkippedSymbols());
+    }
+
+    private PriceService resilientService(PriceClient upstream, long lastKnownGoodMaxAge) {
+        PriceSource source = new PriceSource(upstream, executor);
+        ReflectionTestUtils.setField(source, "callTimeoutMillis", 200L);
+        ReflectionTestUtils.setField(source, "hedgeDelayMillis", 50L);
+        ReflectionTestUtils.setField(source, "failureThreshold", 2);
+        ReflectionTestUtils.setField(source, "openDurationMillis", 60_000L);
+        PriceService service = new PriceService(source, executor, new TradingMetrics(new SimpleMeterRegistry(), true),
+                new TickHistory(new SymbolProperties(), Clock.systemUTC(), 1024, 60, 100));
+        ReflectionTestUtils.setField(service, "lastKnownGoodMaxAgeMillis", lastKnownGoodMaxAge);
+        ReflectionTestUtils.setField(service, "fallbackBudgetMillis", 300L);
+        return service;
+    }
+
+    private static final class SwitchablePriceClient implements PriceClient {
+
+        volatile long delayMillis;
+        volatile boolean failing;
+        volatile int calls;
+
+        @Override
+        public byte[] getRealtimePrice(String symbol) {
+            respond();
+            return "Price: 100 USD".getBytes(StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public List<PriceQuote> getRealtimePrices(Collection<String> symbols) {
+            respond();
+            return symbols.stream().map(symbol -> new PriceQuote(symbol, new BigDecimal("100"))).toList();
+        }
+
+        private synchronized void respond() {
+            calls++;
+            if (failing) {
+                throw new IllegalStateException("price-ms 503");
+            }
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
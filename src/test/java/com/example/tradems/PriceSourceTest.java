@@ -0,0 +1,140 @@
+package com.example.tradems;
+
+import com.example.tradems.client.PriceClient;
+import com.example.tradems.client.PriceQuote;
+import com.example.tradems.client.PriceSource;
+import com.example.tradems.exception.PriceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceSourceTest {
+
+    private ExecutorService executor;
+    private ScriptedPriceClient upstream;
+    private PriceSource source;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+        upstream = new ScriptedPriceClient();
+        source = new PriceSource(upstream, executor);
+        ReflectionTestUtils.setField(source, "callTimeoutMillis", 1000L);
+        ReflectionTestUtils.setField(source, "hedgeDelayMillis", 50L);
+        ReflectionTestUtils.setField(source, "failureThreshold", 1);
+        ReflectionTestUtils.setField(source, "openDurationMillis", 50L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstream.release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void getPrices_ShouldHedgeSlowCall_AndTakeFirstSuccessfulAnswer() {
+        upstream.slowFirstCallMillis = 800;
+        long start = System.nanoTime();
+
+        List<PriceQuote> quotes = source.getPrices(List.of("BTCUSDT"));
+
+        assertEquals(new BigDecimal("100"), quotes.get(0).price());
+        assertEquals(1, source.getHedgedRequests());
+        assertEquals(2, upstream.calls.get());
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(600));
+        assertEquals("CLOSED", source.circuitState());
+    }
+
+    @Test
+    void getPrices_ShouldReleaseHalfOpenProbe_WhenCallerIsInterrupted() throws Exception {
+        upstream.failing = true;
+        assertThrows(PriceUnavailableException.class, () -> source.getPrices(List.of("BTCUSDT")));
+        assertEquals("OPEN", source.circuitState());
+        Thread.sleep(60);
+
+        upstream.failing = false;
+        upstream.blocking = true;
+        AtomicReference<Throwable> probeError = new AtomicReference<>();
+        Thread probe = new Thread(() -> {
+            try {
+                source.getPrices(List.of("BTCUSDT"));
+            } catch (Throwable e) {
+                probeError.set(e);
+            }
+        });
+        probe.start();
+        assertTrue(upstream.entered.await(1, TimeUnit.SECONDS));
+        assertEquals("HALF_OPEN", source.circuitState());
+        probe.interrupt();
+        probe.join(1000);
+
+        assertInstanceOf(PriceUnavailableException.class, probeError.get());
+        assertTrue(source.isAvailable());
+
+        upstream.blocking = false;
+        assertEquals(new BigDecimal("100"), source.getPrices(List.of("BTCUSDT")).get(0).price());
+        assertEquals("CLOSED", source.circuitState());
+    }
+
+    private static final class ScriptedPriceClient implements PriceClient {
+
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile long slowFirstCallMillis;
+        volatile boolean failing;
+        volatile boolean blocking;
+
+        @Override
+        public byte[] getRealtimePrice(String symbol) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<PriceQuote> getRealtimePrices(Collection<String> symbols) {
+            int call = calls.incrementAndGet();
+            if (failing) {
+                throw new IllegalStateException("price-ms 503");
+            }
+            if (blocking) {
+                entered.countDown();
+                await();
+            } else if (call == 1 && slowFirstCallMillis > 0) {
+                sleep(slowFirstCallMillis);
+            }
+            return symbols.stream().map(symbol -> new PriceQuote(symbol, new BigDecimal("100"))).toList();
+        }
+
+        private void await() {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private static void sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
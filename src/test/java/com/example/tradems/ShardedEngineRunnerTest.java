@@ -0,0 +1,173 @@
+package com.example.tradems;
+
+import com.example.tradems.client.PriceSource;
+import com.example.tradems.client.StubPriceClient;
+import com.example.tradems.config.SymbolProperties;
+import com.example.tradems.dto.response.EngineShardResponse;
+import com.example.tradems.engine.EngineShard;
+import com.example.tradems.engine.PartitionLeaseManager;
+import com.example.tradems.engine.PriceRange;
+import com.example.tradems.engine.TickHistory;
+import com.example.tradems.engine.TriggerIndex;
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.metrics.TradingMetrics;
+import com.example.tradems.model.TradeEntity;
+import com.example.tradems.scheduled.ShardedEngineRunner;
+import com.example.tradems.scheduled.TradeExecutionEngine;
+import com.example.tradems.service.PriceService;
+import com.example.tradems.service.TradeSettlementService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Shard thread-ləri eyni indeksi paralel yoxlayır: hər simvol tək shard-a düşdüyü üçün
+ * hər trade bir dəfə bağlanmalı, {@code stop()}-dan sonra isə heç bir dövr işləməməlidir.
+ */
+class ShardedEngineRunnerTest {
+
+    private static final int SHARDS = 4;
+    private static final int SYMBOLS = 24;
+    private static final int TRADES_PER_SYMBOL = 25;
+
+    private final Clock clock = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+    private final TriggerIndex triggerIndex = new TriggerIndex(new SymbolProperties());
+    private final TradeSettlementService settlementService = mock(TradeSettlementService.class);
+    private final Map<UUID, Integer> settled = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private StubPriceClient priceClient;
+    private ShardedEngineRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(SHARDS);
+        TradingMetrics metrics = new TradingMetrics(new SimpleMeterRegistry(), false);
+        TickHistory tickHistory = new TickHistory(new SymbolProperties(), clock, 1024, 60, 100);
+        priceClient = new StubPriceClient(new BigDecimal("100"), 0);
+        PriceService priceService = new PriceService(new PriceSource(priceClient, executor), executor, metrics, tickHistory);
+        TradeExecutionEngine engine = new TradeExecutionEngine(priceService, triggerIndex, settlementService,
+                mock(PartitionLeaseManager.class), metrics, executor, tickHistory);
+
+        // real settlement commit-dən sonra trade-i indeksdən çıxarır
+        when(settlementService.settleRanges(anyLong(), any())).thenAnswer(invocation -> {
+            Map<UUID, PriceRange> ranges = invocation.getArgument(1);
+            ranges.keySet().forEach(id -> {
+                settled.merge(id, 1, Integer::sum);
+                triggerIndex.remove(id);
+            });
+            return ranges.size();
+        });
+
+        runner = new ShardedEngineRunner(engine, triggerIndex);
+        ReflectionTestUtils.setField(runner, "shardCount", SHARDS);
+        ReflectionTestUtils.setField(runner, "fixedDelayMillis", 5L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        runner.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void start_ShouldSettleEachTradeExactlyOnce_AcrossShards() throws InterruptedException {
+        Set<UUID> opened = new HashSet<>();
+        for (int s = 0; s < SYMBOLS; s++) {
+            String symbol = "SYM" + s + "USDT";
+            for (int t = 0; t < TRADES_PER_SYMBOL; t++) {
+                opened.add(openTrade(1L + t % 5, symbol).getId());
+            }
+            priceClient.setPrice(symbol, new BigDecimal("94"));
+        }
+        triggerIndex.markReady();
+
+        runner.start();
+        awaitSettled(opened.size());
+        runner.stop();
+
+        assertEquals(opened, settled.keySet());
+        assertTrue(settled.values().stream().allMatch(count -> count == 1), "trade bir neçə dəfə bağlandı");
+        assertEquals(0, triggerIndex.size());
+
+        List<EngineShardResponse> stats = runner.stats();
+        assertEquals(SHARDS, stats.size());
+        Set<Integer> busyShards = IntStream.range(0, SYMBOLS)
+                .mapToObj(s -> EngineShard.shardOf("SYM" + s + "USDT", SHARDS))
+                .collect(Collectors.toSet());
+        stats.stream()
+                .filter(shard -> busyShards.contains(shard.shard()))
+                .forEach(shard -> assertTrue(shard.cycles() > 0, "shard " + shard.shard() + " işləmədi"));
+    }
+
+    @Test
+    void stop_ShouldJoinShardThreads_AndFreezeCycles() throws InterruptedException {
+        openTrade(1L, "BTCUSDT");
+        triggerIndex.markReady();
+        runner.start();
+        Thread.sleep(50);
+
+        runner.stop();
+
+        assertTrue(Thread.getAllStackTraces().keySet().stream()
+                .noneMatch(thread -> thread.getName().startsWith("engine-shard-")), "shard thread-i hələ işləyir");
+        Map<Integer, Long> cycles = cyclesByShard();
+        Thread.sleep(50);
+        assertEquals(cycles, cyclesByShard());
+    }
+
+    private Map<Integer, Long> cyclesByShard() {
+        return runner.stats().stream()
+                .collect(Collectors.toMap(EngineShardResponse::shard, EngineShardResponse::cycles));
+    }
+
+    private void awaitSettled(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (settled.size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private TradeEntity openTrade(Long userId, String symbol) {
+        TradeEntity trade = new TradeEntity();
+        trade.setId(UUID.randomUUID());
+        trade.setUserId(userId);
+        trade.setSymbol(symbol);
+        trade.setSide(PositionSide.LONG);
+        trade.setStatus(TradeStatus.OPEN);
+        trade.setEntryPrice(new BigDecimal("100"));
+        trade.setMargin(new BigDecimal("10"));
+        trade.setLeverage(10);
+        trade.setStopLoss(new BigDecimal("95"));
+        trade.setTakeProfit(new BigDecimal("110"));
+        trade.setLiquidationPrice(new BigDecimal("90.5"));
+        trade.setOpenTime(LocalDateTime.now(clock));
+        triggerIndex.index(trade);
+        return trade;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.tradems;
+
+import com.example.tradems.config.SymbolProperties;
+import com.example.tradems.dto.response.CandleResponse;
+import com.example.tradems.engine.PriceRange;
+import com.example.tradems.engine.TickHistory;
+import com.example.tradems.engine.TriggerRules;
+import com.example.tradems.enums.CandleInterval;
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.model.TradeEntity;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TickHistoryTest {
+
+    private static final long T0 = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+
+    private final TickHistory history = new TickHistory(new SymbolProperties(),
+            Clock.fixed(Instant.ofEpochMilli(T0), ZoneOffset.UTC), 8, 4, 10);
+
+    @Test
+    void candles_ShouldAggregateTicksPerInterval() {
+        history.record("BTCUSDT", new BigDecimal("100"), T0 + 1_000);
+        history.record("BTCUSDT", new BigDecimal("104"), T0 + 20_000);
+        history.record("BTCUSDT", new BigDecimal("98"), T0 + 40_000);
+        history.record("BTCUSDT", new BigDecimal("101"), T0 + 61_000);
+        // gecikmiş tick birinci şamın low-unu genişləndirir, close dəyişmir
+        history.record("BTCUSDT", new BigDecimal("97"), T0 + 50_000);
+
+        List<CandleResponse> candles = history.candles("BTCUSDT", CandleInterval.M1, 10);
+
+        assertEquals(2, candles.size());
+        CandleResponse first = candles.get(0);
+        assertEquals(T0, first.openTime());
+        assertEquals(0, first.open().compareTo(new BigDecimal("100")));
+        assertEquals(0, first.high().compareTo(new BigDecimal("104")));
+        assertEquals(0, first.low().compareTo(new BigDecimal("97")));
+        assertEquals(0, first.close().compareTo(new BigDecimal("98")));
+        assertEquals(4, first.ticks());
+        assertEquals(T0 + 60_000, candles.get(1).openTime());
+    }
+
+    @Test
+    void rangeSince_ShouldCoverTicksBetweenCycles() {
+        history.record("BTCUSDT", new BigDecimal("100"), T0);
+        history.record("BTCUSDT", new BigDecimal("94.5"), T0 + 100);
+        history.record("BTCUSDT", new BigDecimal("101"), T0 + 200);
+        history.record("BTCUSDT", new BigDecimal("99"), T0 + 300);
+
+        PriceRange range = history.rangeSince("BTCUSDT", T0);
+
+        assertEquals(0, range.low().compareTo(new BigDecimal("94.5")));
+        assertEquals(0, range.high().compareTo(new BigDecimal("101")));
+        assertEquals(0, range.last().compareTo(new BigDecimal("99")));
+        assertNull(history.rangeSince("BTCUSDT", T0 + 300));
+        assertNull(history.rangeSince("ETHUSDT", T0));
+    }
+
+    @Test
+    void closeReason_ShouldCatchLevelCrossedWithinInterval() {
+        TradeEntity trade = openTrade(PositionSide.LONG, "100", "95", "110", "91");
+        PriceRange range = new PriceRange(new BigDecimal("94.5"), new BigDecimal("101"), new BigDecimal("99"));
+
+        assertNull(TriggerRules.closeReason(trade, range.last()));
+        String reason = TriggerRules.closeReason(trade, range);
+
+        assertEquals("STOP_LOSS", reason);
+        assertEquals(0, TriggerRules.exitPrice(trade, reason, range).compareTo(new BigDecimal("95")));
+    }
+
+    @Test
+    void closeReason_ShouldPreferStopLossWhenBothLevelsCrossed() {
+        TradeEntity trade = openTrade(PositionSide.SHORT, "100", "105", "90", "109");
+        PriceRange range = new PriceRange(new BigDecimal("89"), new BigDecimal("106"), new BigDecimal("88"));
+
+        String reason = TriggerRules.closeReason(trade, range);
+
+        assertEquals("STOP_LOSS", reason);
+        assertEquals(0, TriggerRules.exitPrice(trade, reason, range).compareTo(new BigDecimal("105")));
+    }
+
+    private TradeEntity openTrade(PositionSide side, String entry, String stopLoss, String takeProfit, String liquidation) {
+        TradeEntity trade = new TradeEntity();
+        trade.setId(UUID.randomUUID());
+        trade.setSymbol("BTCUSDT");
+        trade.setSide(side);
+        trade.setStatus(TradeStatus.OPEN);
+        trade.setEntryPrice(new BigDecimal(entry));
+        trade.setStopLoss(new BigDecimal(stopLoss));
+        trade.setTakeProfit(new BigDecimal(takeProfit));
+        trade.setLiquidationPrice(new BigDecimal(liquidation));
+        return trade;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.tradems;
 import com.example.tradems.controller.TradeController;
+import com.example.tradems.service.PositionStreamService;
 import com.example.tradems.service.TradeService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +23,9 @@ class TradeControllerTest {
     @MockitoBean
     private TradeService tradeService;
 
+    @MockitoBean
+    private PositionStreamService positionStreamService;
+
 
     @Test
     void getActiveTrades_ShouldReturnList() throws Exception {
@@ -0,0 +1,221 @@
+package com.example.tradems;
+
+import com.example.tradems.client.PriceSource;
+import com.example.tradems.client.StubPriceClient;
+import com.example.tradems.config.SymbolProperties;
+import com.example.tradems.engine.PartitionLeaseManager;
+import com.example.tradems.engine.PriceRange;
+import com.example.tradems.engine.TickHistory;
+import com.example.tradems.engine.TriggerIndex;
+import com.example.tradems.engine.TriggerRules;
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.metrics.TradingMetrics;
+import com.example.tradems.model.TradeEntity;
+import com.example.tradems.scheduled.TradeExecutionEngine;
+import com.example.tradems.service.PriceService;
+import com.example.tradems.service.TradeSettlementService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TradeExecutionEngineTest {
+
+    private static final String SYMBOL = "BTCUSDT";
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+    private final TradeSettlementService settlementService = mock(TradeSettlementService.class);
+    private final TriggerIndex triggerIndex = new TriggerIndex(new SymbolProperties());
+    private ExecutorService executor;
+    private TickHistory tickHistory;
+    private StubPriceClient priceClient;
+    private PriceService priceService;
+    private TradeExecutionEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        TradingMetrics metrics = new TradingMetrics(new SimpleMeterRegistry(), false);
+        tickHistory = new TickHistory(new SymbolProperties(), clock, 1024, 60, 100);
+        priceClient = new StubPriceClient(new BigDecimal("100"), 0);
+        priceService = new PriceService(new PriceSource(priceClient, executor), executor, metrics, tickHistory);
+        engine = new TradeExecutionEngine(priceService, triggerIndex, settlementService,
+                mock(PartitionLeaseManager.class), metrics, executor, tickHistory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void runCycle_ShouldNotFire_WhenTradeOpenedAfterDip() {
+        TradeEntity before = openTrade(1L, "95");
+        engine.runCycle(Set.of(SYMBOL));
+
+        clock.advance(Duration.ofMillis(100));
+        tickHistory.record(SYMBOL, new BigDecimal("94"));
+        clock.advance(Duration.ofMillis(100));
+        TradeEntity after = openTrade(2L, "95");
+        clock.advance(Duration.ofMillis(100));
+        engine.runCycle(Set.of(SYMBOL));
+
+        PriceRange beforeRange = capturedRange(before);
+        assertEquals(0, new BigDecimal("94").compareTo(beforeRange.low()));
+        assertEquals("STOP_LOSS", TriggerRules.closeReason(before, beforeRange));
+
+        PriceRange afterRange = capturedRange(after);
+        assertEquals(0, new BigDecimal("100").compareTo(afterRange.low()));
+        assertNull(TriggerRules.closeReason(after, afterRange));
+    }
+
+    @Test
+    void runCycle_ShouldFetchPricesPerDistinctSymbol_NotPerTrade() {
+        List<String> symbols = List.of(SYMBOL, "ETHUSDT", "SOLUSDT");
+        for (int i = 0; i < 300; i++) {
+            openTrade(1L + i % 7, symbols.get(i % symbols.size()), "95");
+        }
+        long before = priceService.getFetchCount();
+        TradeExecutionEngine.CycleResult small = engine.runCycle(Set.copyOf(symbols));
+        long smallFetches = priceService.getFetchCount() - before;
+
+        for (int i = 0; i < 3000; i++) {
+            openTrade(1L + i % 7, symbols.get(i % symbols.size()), "95");
+        }
+        before = priceService.getFetchCount();
+        TradeExecutionEngine.CycleResult large = engine.runCycle(Set.copyOf(symbols));
+
+        assertEquals(1, smallFetches);
+        assertEquals(smallFetches, priceService.getFetchCount() - before);
+        assertEquals(symbols.size(), small.symbols());
+        assertEquals(symbols.size(), large.symbols());
+    }
+
+    @Test
+    void runCycle_ShouldForgetWindow_WhenSymbolLeavesIndex() {
+        TradeEntity first = openTrade(1L, "95");
+        engine.runCycle(Set.of(SYMBOL));
+        triggerIndex.remove(first.getId());
+        engine.runCycle(Set.of());
+
+        clock.advance(Duration.ofHours(1));
+        tickHistory.record(SYMBOL, new BigDecimal("94"));
+        clock.advance(Duration.ofMillis(100));
+        TradeEntity later = openTrade(2L, "95");
+        later.setOpenTime(LocalDateTime.now(clock).minusHours(2));
+        triggerIndex.index(later);
+        engine.runCycle(Set.of(SYMBOL));
+
+        verify(settlementService, never()).settleRanges(anyLong(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void runCycle_ShouldRetryFailedRange_AfterPriceReturns() {
+        TradeEntity trade = openTrade(1L, "95");
+        when(settlementService.settleRanges(eq(1L), any()))
+                .thenThrow(new IllegalStateException("db"))
+                .thenReturn(1);
+        engine.runCycle(Set.of(SYMBOL));
+
+        clock.advance(Duration.ofMillis(100));
+        tickHistory.record(SYMBOL, new BigDecimal("94"));
+        clock.advance(Duration.ofMillis(100));
+        engine.runCycle(Set.of(SYMBOL));
+
+        clock.advance(Duration.ofMillis(100));
+        engine.runCycle(Set.of(SYMBOL));
+
+        ArgumentCaptor<Map<UUID, PriceRange>> ranges = ArgumentCaptor.forClass(Map.class);
+        verify(settlementService, times(2)).settleRanges(eq(1L), ranges.capture());
+        List<Map<UUID, PriceRange>> calls = ranges.getAllValues();
+        PriceRange retried = calls.get(1).get(trade.getId());
+        assertEquals(0, new BigDecimal("94").compareTo(retried.low()));
+        assertEquals(0, new BigDecimal("100").compareTo(retried.last()));
+        assertEquals("STOP_LOSS", TriggerRules.closeReason(trade, retried));
+    }
+
+    @SuppressWarnings("unchecked")
+    private PriceRange capturedRange(TradeEntity trade) {
+        ArgumentCaptor<Map<UUID, PriceRange>> ranges = ArgumentCaptor.forClass(Map.class);
+        verify(settlementService).settleRanges(eq(trade.getUserId()), ranges.capture());
+        return ranges.getValue().get(trade.getId());
+    }
+
+    private TradeEntity openTrade(Long userId, String stopLoss) {
+        return openTrade(userId, SYMBOL, stopLoss);
+    }
+
+    private TradeEntity openTrade(Long userId, String symbol, String stopLoss) {
+        TradeEntity trade = new TradeEntity();
+        trade.setId(UUID.randomUUID());
+        trade.setUserId(userId);
+        trade.setSymbol(symbol);
+        trade.setSide(PositionSide.LONG);
+        trade.setStatus(TradeStatus.OPEN);
+        trade.setEntryPrice(new BigDecimal("100"));
+        trade.setMargin(new BigDecimal("10"));
+        trade.setLeverage(10);
+        trade.setStopLoss(new BigDecimal(stopLoss));
+        trade.setTakeProfit(new BigDecimal("110"));
+        trade.setLiquidationPrice(new BigDecimal("90.5"));
+        trade.setOpenTime(LocalDateTime.now(clock));
+        triggerIndex.index(trade);
+        return trade;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.tradems;
+
+import com.example.tradems.engine.TradeMath;
+import com.example.tradems.enums.PositionSide;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TradeMathTest {
+
+    private static final int ITERATIONS = 200_000;
+
+    @Test
+    void pnl_ShouldMatchBigDecimalReferenceExactly() {
+        Random random = new Random(42);
+        for (int i = 0; i < ITERATIONS; i++) {
+            PositionSide side = random.nextBoolean() ? PositionSide.LONG : PositionSide.SHORT;
+            BigDecimal entry = randomPrice(random);
+            BigDecimal exit = randomPrice(random);
+            BigDecimal margin = BigDecimal.valueOf(1 + random.nextInt(1_000_000), random.nextInt(5));
+            int leverage = 1 + random.nextInt(125);
+
+            BigDecimal expected = TradeMath.pnlReference(side, entry, exit, margin, leverage);
+            BigDecimal actual = TradeMath.pnl(side, entry, exit, margin, leverage);
+
+            assertEquals(expected, actual, () -> side + " " + entry + " -> " + exit + " x" + leverage + " m=" + margin);
+        }
+    }
+
+    @Test
+    void liquidationPrice_ShouldMatchBigDecimalReferenceExactly() {
+        Random random = new Random(7);
+        for (int i = 0; i < ITERATIONS; i++) {
+            PositionSide side = random.nextBoolean() ? PositionSide.LONG : PositionSide.SHORT;
+            BigDecimal entry = randomPrice(random);
+            int leverage = 1 + random.nextInt(125);
+
+            assertEquals(TradeMath.liquidationPriceReference(entry, leverage, side),
+                    TradeMath.liquidationPrice(entry, leverage, side),
+                    () -> side + " " + entry + " x" + leverage);
+        }
+    }
+
+    @Test
+    void pnl_ShouldFallBackToReference_WhenFixedPointOverflows() {
+        BigDecimal entry = new BigDecimal("0.00000001");
+        BigDecimal exit = new BigDecimal("99999999999.99999999");
+        BigDecimal margin = new BigDecimal("1000000.0000");
+
+        assertEquals(TradeMath.pnlReference(PositionSide.LONG, entry, exit, margin, 125),
+                TradeMath.pnl(PositionSide.LONG, entry, exit, margin, 125));
+    }
+
+    private BigDecimal randomPrice(Random random) {
+        int scale = random.nextInt(9);
+        long unscaled = 1 + (long) (random.nextDouble() * 100_000 * Math.pow(10, scale));
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+}
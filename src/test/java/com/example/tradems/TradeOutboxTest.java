@@ -0,0 +1,127 @@
+package com.example.tradems;
+
+import com.example.tradems.config.ClockConfig;
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeEventType;
+import com.example.tradems.model.TradeEntity;
+import com.example.tradems.outbox.InMemoryTradeEventSink;
+import com.example.tradems.outbox.TradeEvent;
+import com.example.tradems.repository.TradeOutboxCursorRepository;
+import com.example.tradems.repository.TradeOutboxRepository;
+import com.example.tradems.service.TradeOutboxService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = {
+        "spring.liquibase.enabled=false",
+        "spring.cloud.vault.enabled=false",
+        "trading.outbox.settle-delay=0"
+})
+@Import({TradeOutboxService.class, ClockConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TradeOutboxTest {
+
+    @Autowired
+    private TradeOutboxService outboxService;
+    @Autowired
+    private TradeOutboxRepository outboxRepository;
+    @Autowired
+    private TradeOutboxCursorRepository cursorRepository;
+
+    @AfterEach
+    void tearDown() {
+        outboxRepository.deleteAll();
+        cursorRepository.deleteAll();
+    }
+
+    @Test
+    void relay_ShouldAssignConsecutiveOffsets_AndResumeAfterLastRelayed() {
+        TradeEntity trade = trade(1L);
+        outboxService.record(trade, TradeEventType.OPENED);
+        outboxService.record(trade(2L), TradeEventType.ORDER_PLACED);
+        outboxService.record(trade, TradeEventType.TAKE_PROFIT);
+        InMemoryTradeEventSink sink = new InMemoryTradeEventSink(100);
+
+        assertEquals(2, outboxService.relay(sink, 2));
+        assertEquals(1, outboxService.relay(sink, 2));
+        assertEquals(0, outboxService.relay(sink, 2));
+
+        List<TradeEvent> events = sink.readAfter(0, 10);
+        assertEquals(List.of(1L, 2L, 3L), events.stream().map(TradeEvent::offset).toList());
+        assertEquals(List.of(TradeEventType.OPENED, TradeEventType.TAKE_PROFIT), events.stream()
+                .filter(e -> e.userId().equals(1L)).map(TradeEvent::type).toList());
+        assertEquals(List.of(2L, 3L), outboxService.readAfter(1, 10).stream().map(TradeEvent::offset).toList());
+    }
+
+    @Test
+    void relay_ShouldKeepEventsPending_WhenSinkFails() {
+        outboxService.record(trade(1L), TradeEventType.OPENED);
+
+        assertThrows(IllegalStateException.class, () -> outboxService.relay(events -> {
+            throw new IllegalStateException("sink down");
+        }, 10));
+
+        InMemoryTradeEventSink sink = new InMemoryTradeEventSink(100);
+        assertEquals(1, outboxService.relay(sink, 10));
+        assertEquals(1L, sink.readAfter(0, 10).get(0).offset());
+    }
+
+    @Test
+    void relay_ShouldNotDuplicateOffsets_WhenRelaysRunConcurrently() throws Exception {
+        InMemoryTradeEventSink sink = new InMemoryTradeEventSink(1000);
+        outboxService.relay(sink, 10);
+        for (long i = 0; i < 200; i++) {
+            outboxService.record(trade(i % 7), TradeEventType.OPENED);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> relays = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                relays.add(executor.submit(() -> {
+                    while (outboxService.relay(sink, 10) > 0) {
+                        Thread.onSpinWait();
+                    }
+                }));
+            }
+            for (Future<?> relay : relays) {
+                relay.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<Long> offsets = sink.readAfter(0, 1000).stream().map(TradeEvent::offset).toList();
+        assertEquals(LongStream.rangeClosed(1, 200).boxed().toList(), offsets);
+        assertEquals(200L, cursorRepository.findById(1).orElseThrow().getLastOffset());
+    }
+
+    private TradeEntity trade(Long userId) {
+        TradeEntity trade = new TradeEntity();
+        trade.setId(UUID.randomUUID());
+        trade.setUserId(userId);
+        trade.setSymbol("BTCUSDT");
+        trade.setSide(PositionSide.LONG);
+        trade.setMargin(new BigDecimal("100"));
+        trade.setLeverage(10);
+        trade.setEntryPrice(new BigDecimal("50000"));
+        return trade;
+    }
+}
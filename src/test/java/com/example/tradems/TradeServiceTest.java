@@ -1,14 +1,26 @@
 package com.example.tradems;
 
-import com.example.tradems.client.PriceClient;
+import com.example.tradems.client.PriceSource;
+import com.example.tradems.dto.request.BulkOrderRequest;
 import com.example.tradems.dto.request.OpenTradeRequest;
+import com.example.tradems.dto.response.BulkOrderResponse;
+import com.example.tradems.engine.TriggerIndex;
+import com.example.tradems.enums.BulkOrderLegStatus;
+import com.example.tradems.enums.BulkOrderMode;
+import com.example.tradems.enums.LedgerEntryType;
 import com.example.tradems.enums.PositionSide;
 import com.example.tradems.enums.TradeStatus;
 import com.example.tradems.exception.InsufficientFundsException;
+import com.example.tradems.metrics.TradingMetrics;
+import com.example.tradems.model.BalanceView;
 import com.example.tradems.model.TradeEntity;
 import com.example.tradems.model.UserEntity;
 import com.example.tradems.repository.TradeRepository;
 import com.example.tradems.repository.UserRepository;
+import com.example.tradems.service.BalanceLedgerService;
+import com.example.tradems.service.PriceService;
+import com.example.tradems.service.PriceSnapshot;
+import com.example.tradems.service.TradeOutboxService;
 import com.example.tradems.service.TradeService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,16 +28,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.hibernate.validator.internal.util.Contracts.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -37,7 +57,19 @@ class TradeServiceTest {
     @Mock
     private TradeRepository tradeRepository;
     @Mock
-    private PriceClient priceClient;
+    private PriceSource priceSource;
+    @Mock
+    private TriggerIndex triggerIndex;
+    @Mock
+    private PriceService priceService;
+    @Mock
+    private BalanceLedgerService ledgerService;
+    @Mock
+    private TradeOutboxService outboxService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private TradingMetrics metrics;
 
     @InjectMocks
     private TradeService tradeService;
@@ -60,11 +92,15 @@ class TradeServiceTest {
     }
 
 
+    private BalanceView balance(String available) {
+        return new BalanceView(1L, new BigDecimal(available), BigDecimal.ZERO, 0L);
+    }
+
     @Test
     void openTrade_ShouldThrowException_WhenBalanceInsufficient() {
 
-        mockUser.setVirtualBalance(new BigDecimal("50"));
-        when(userRepository.findByIdWithLock(anyLong())).thenReturn(Optional.of(mockUser));
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(mockUser));
+        when(ledgerService.balanceOf(1L)).thenReturn(balance("50"));
 
 
         assertThrows(InsufficientFundsException.class, () -> tradeService.openTrade(mockRequest));
@@ -73,8 +109,10 @@ class TradeServiceTest {
     @Test
     void openTrade_ShouldOpenMarketTrade_WhenRequestIsValid() {
 
-        when(userRepository.findByIdWithLock(anyLong())).thenReturn(Optional.of(mockUser));
-        when(priceClient.getRealtimePrice("BTCUSDT")).thenReturn("Price: 50000.0 USD");
+        BalanceView balance = balance("1000");
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(mockUser));
+        when(ledgerService.balanceOf(1L)).thenReturn(balance);
+        when(priceSource.getPrice("BTCUSDT")).thenReturn(new BigDecimal("50000.0"));
         when(tradeRepository.save(any(TradeEntity.class))).thenAnswer(i -> i.getArguments()[0]);
 
 
@@ -85,8 +123,7 @@ class TradeServiceTest {
         assertEquals(TradeStatus.OPEN, result.getStatus());
         assertEquals(new BigDecimal("50000.0"), result.getEntryPrice());
 
-        assertEquals(new BigDecimal("900"), mockUser.getVirtualBalance());
-
+        verify(ledgerService).debit(balance, result.getId(), LedgerEntryType.RESERVE, new BigDecimal("100"), BigDecimal.ZERO);
         verify(tradeRepository).save(any(TradeEntity.class));
     }
 
@@ -102,12 +139,60 @@ class TradeServiceTest {
         trade.setUserId(1L);
 
         when(tradeRepository.findById(any())).thenReturn(Optional.of(trade));
-        when(userRepository.findByIdWithLock(any())).thenReturn(Optional.of(mockUser));
-        when(priceClient.getRealtimePrice(any())).thenReturn("Price: 110.0 USD"); // %10 artım
+        when(priceSource.getPrice(any())).thenReturn(new BigDecimal("110.0")); // %10 artım
 
-        tradeService.closeTradeManually(UUID.randomUUID());
+        UUID tradeId = UUID.randomUUID();
+        tradeService.closeTradeManually(tradeId);
 
-        assertEquals(new BigDecimal("1200.00000000"), mockUser.getVirtualBalance());
+        verify(ledgerService).credit(1L, tradeId, LedgerEntryType.PAYOUT, new BigDecimal("200.00000000"), BigDecimal.ZERO);
         assertEquals(new BigDecimal("100.00000000"), trade.getPnl());
     }
-}
\ No newline at end of file
+
+    @Test
+    void submitBatch_BestEffort_ShouldApplyLegsThatFitTheBalance() {
+
+        BalanceView balance = balance("150");
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(mockUser));
+        when(ledgerService.balanceOf(1L)).thenReturn(balance);
+        PriceSnapshot prices = mock(PriceSnapshot.class);
+        when(prices.priceOf("BTCUSDT")).thenReturn(new BigDecimal("50000"));
+        when(priceService.freshSnapshot(any())).thenReturn(prices);
+
+
+        BulkOrderResponse result = tradeService.submitBatch(new BulkOrderRequest(
+                1L, BulkOrderMode.BEST_EFFORT, List.of(mockRequest, mockRequest), null, null));
+
+
+        assertEquals(1, result.appliedLegs());
+        assertEquals(1, result.rejectedLegs());
+        assertEquals(BulkOrderLegStatus.APPLIED, result.legs().get(0).status());
+        assertEquals(BulkOrderLegStatus.REJECTED, result.legs().get(1).status());
+
+        verify(tradeRepository).saveAll(anyList());
+        verify(ledgerService).debitAll(eq(balance), argThat(entries -> entries.size() == 1
+                && entries.get(0).getEntryType() == LedgerEntryType.RESERVE));
+    }
+
+    @Test
+    void submitBatch_AllOrNothing_ShouldWriteNothing_WhenAnyLegFails() {
+
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(mockUser));
+        when(ledgerService.balanceOf(1L)).thenReturn(balance("150"));
+        PriceSnapshot prices = mock(PriceSnapshot.class);
+        when(prices.priceOf("BTCUSDT")).thenReturn(new BigDecimal("50000"));
+        when(priceService.freshSnapshot(any())).thenReturn(prices);
+
+
+        BulkOrderResponse result = tradeService.submitBatch(new BulkOrderRequest(
+                1L, BulkOrderMode.ALL_OR_NOTHING, List.of(mockRequest, mockRequest), null, null));
+
+
+        assertFalse(result.applied());
+        assertEquals(0, result.appliedLegs());
+        assertEquals(BulkOrderLegStatus.SKIPPED, result.legs().get(0).status());
+        assertEquals(BulkOrderLegStatus.REJECTED, result.legs().get(1).status());
+
+        verify(tradeRepository, never()).saveAll(any());
+        verify(ledgerService, never()).debitAll(any(), anyList());
+    }
+}
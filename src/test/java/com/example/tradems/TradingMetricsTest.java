@@ -0,0 +1,124 @@
+package com.example.tradems;
+
+import com.example.tradems.client.PriceSource;
+import com.example.tradems.client.StubPriceClient;
+import com.example.tradems.config.SymbolProperties;
+import com.example.tradems.engine.PartitionLeaseManager;
+import com.example.tradems.engine.TickHistory;
+import com.example.tradems.engine.TriggerIndex;
+import com.example.tradems.metrics.TradingMetrics;
+import com.example.tradems.metrics.TriggerCounts;
+import com.example.tradems.scheduled.TradeExecutionEngine;
+import com.example.tradems.service.PriceService;
+import com.example.tradems.service.TradeSettlementService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.mock;
+
+class TradingMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TradingMetrics metrics = new TradingMetrics(registry, false);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void constructor_ShouldRegisterEngineMeters_BeforeFirstCycle() {
+        assertNotNull(registry.find("trading.engine.cycle").timer());
+        for (String phase : List.of("price", "pending", "open", "settle")) {
+            assertNotNull(registry.find("trading.engine.phase").tag("phase", phase).timer(), phase);
+        }
+        for (String phase : List.of("pending", "open")) {
+            assertNotNull(registry.find("trading.engine.candidates").tag("phase", phase).counter(), phase);
+        }
+        for (String reason : List.of(TradingMetrics.LIQUIDATED, TradingMetrics.STOP_LOSS,
+                TradingMetrics.TAKE_PROFIT, TradingMetrics.ACTIVATED)) {
+            assertNotNull(registry.find("trading.engine.triggered").tag("reason", reason).counter(), reason);
+        }
+        assertNotNull(registry.find("trading.engine.settlement.lag").timer());
+        assertNotNull(registry.find("trading.lock.wait").tag("entity", "user").timer());
+        assertNotNull(registry.find("trading.lock.wait").tag("entity", "trade").timer());
+    }
+
+    @Test
+    void runCycle_ShouldRecordCycleAndEveryPhase() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            TickHistory tickHistory = new TickHistory(new SymbolProperties(), Clock.systemUTC(), 1024, 60, 100);
+            PriceService priceService = new PriceService(
+                    new PriceSource(new StubPriceClient(new BigDecimal("100"), 0), executor),
+                    executor, metrics, tickHistory);
+            TradeExecutionEngine engine = new TradeExecutionEngine(priceService, new TriggerIndex(new SymbolProperties()),
+                    mock(TradeSettlementService.class), mock(PartitionLeaseManager.class), metrics, executor, tickHistory);
+
+            engine.runCycle(Set.of("BTCUSDT"));
+            engine.runCycle(Set.of("BTCUSDT"));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2, registry.get("trading.engine.cycle").timer().count());
+        for (String phase : List.of("price", "pending", "open", "settle")) {
+            assertEquals(2, registry.get("trading.engine.phase").tag("phase", phase).timer().count(), phase);
+        }
+    }
+
+    @Test
+    void countTriggeredAfterCommit_ShouldWaitForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        metrics.countTriggeredAfterCommit(counts(TradingMetrics.STOP_LOSS, TradingMetrics.TAKE_PROFIT));
+
+        assertEquals(0, metrics.triggeredCount(TradingMetrics.STOP_LOSS));
+        assertEquals(0, metrics.triggeredCount(TradingMetrics.TAKE_PROFIT));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(1, metrics.triggeredCount(TradingMetrics.STOP_LOSS));
+        assertEquals(1, metrics.triggeredCount(TradingMetrics.TAKE_PROFIT));
+        assertEquals(0, metrics.triggeredCount(TradingMetrics.LIQUIDATED));
+    }
+
+    @Test
+    void countTriggeredAfterCommit_ShouldNotCount_WhenTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        metrics.countTriggeredAfterCommit(counts(TradingMetrics.LIQUIDATED));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(0, metrics.triggeredCount(TradingMetrics.LIQUIDATED));
+    }
+
+    @Test
+    void countTriggeredAfterCommit_ShouldCountImmediately_OutsideTransaction() {
+        metrics.countTriggeredAfterCommit(counts(TradingMetrics.ACTIVATED, TradingMetrics.ACTIVATED));
+
+        assertEquals(2, metrics.triggeredCount(TradingMetrics.ACTIVATED));
+    }
+
+    private static TriggerCounts counts(String... reasons) {
+        TriggerCounts counts = new TriggerCounts();
+        for (String reason : reasons) {
+            counts.add(reason);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.tradems;
+
+import com.example.tradems.config.SymbolProperties;
+import com.example.tradems.engine.ActiveTradeScanner;
+import com.example.tradems.engine.PriceRange;
+import com.example.tradems.engine.TriggerIndex;
+import com.example.tradems.engine.TriggerIndexLoader;
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.metrics.TradingMetrics;
+import com.example.tradems.model.ActiveTradeView;
+import com.example.tradems.model.TradeEntity;
+import com.example.tradems.repository.TradeRepository;
+import com.example.tradems.service.BalanceLedgerService;
+import com.example.tradems.service.TradeOutboxService;
+import com.example.tradems.service.TradeSettlementService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TriggerIndexTest {
+
+    private TriggerIndex triggerIndex;
+
+    @BeforeEach
+    void setUp() {
+        triggerIndex = new TriggerIndex(new SymbolProperties());
+    }
+
+    @Test
+    void collectOpen_ShouldReturnOnlyTradesWhoseLevelsWereCrossed() {
+        TradeEntity near = openTrade(PositionSide.LONG, "100", "95", "110", "91");
+        TradeEntity far = openTrade(PositionSide.LONG, "100", "80", "130", "75");
+        triggerIndex.index(near);
+        triggerIndex.index(far);
+
+        assertTrue(collectOpen(new BigDecimal("100")).isEmpty());
+        assertEquals(Set.of(near.getId()), collectOpen(new BigDecimal("94")));
+        assertEquals(Set.of(near.getId()), collectOpen(new BigDecimal("111")));
+    }
+
+    @Test
+    void collectOpen_ShouldMirrorLevelsForShortPositions() {
+        TradeEntity shortTrade = openTrade(PositionSide.SHORT, "100", "105", "90", "109");
+        triggerIndex.index(shortTrade);
+
+        assertTrue(collectOpen(new BigDecimal("100")).isEmpty());
+        assertEquals(Set.of(shortTrade.getId()), collectOpen(new BigDecimal("106")));
+        assertEquals(Set.of(shortTrade.getId()), collectOpen(new BigDecimal("89")));
+    }
+
+    @Test
+    void index_ShouldMovePendingTradeToOpenBooksOnActivation() {
+        TradeEntity trade = openTrade(PositionSide.LONG, "100", "95", null, "91");
+        trade.setStatus(TradeStatus.PENDING);
+        triggerIndex.index(trade);
+
+        Set<UUID> pending = new HashSet<>();
+        triggerIndex.collectPending("BTCUSDT", new BigDecimal("99"), new BigDecimal("99"), pending);
+        assertEquals(Set.of(trade.getId()), pending);
+
+        trade.setStatus(TradeStatus.OPEN);
+        triggerIndex.index(trade);
+
+        pending.clear();
+        triggerIndex.collectPending("BTCUSDT", new BigDecimal("99"), new BigDecimal("99"), pending);
+        assertTrue(pending.isEmpty());
+        assertEquals(Set.of(trade.getId()), collectOpen(new BigDecimal("94")));
+    }
+
+    @Test
+    void collectOpen_ShouldRoundOffGridLevelsOutward() {
+        SymbolProperties symbolProperties = new SymbolProperties();
+        symbolProperties.getTickSize().put("BTCUSDT", new BigDecimal("0.01"));
+        triggerIndex = new TriggerIndex(symbolProperties);
+        TradeEntity trade = openTrade(PositionSide.LONG, "100", "95.005", "110.005", "91");
+        triggerIndex.index(trade);
+
+        assertTrue(collectOpen(new BigDecimal("95.01")).isEmpty());
+        assertEquals(Set.of(trade.getId()), collectOpen(new BigDecimal("95.004")));
+        assertTrue(collectOpen(new BigDecimal("109.99")).isEmpty());
+        assertEquals(Set.of(trade.getId()), collectOpen(new BigDecimal("110.001")));
+
+        trade.setStopLoss(new BigDecimal("90.5"));
+        triggerIndex.index(trade);
+        assertTrue(collectOpen(new BigDecimal("95.004")).isEmpty());
+    }
+
+    @Test
+    void remove_ShouldDropTradeAndEmptySymbol() {
+        TradeEntity trade = openTrade(PositionSide.LONG, "100", "95", "110", "91");
+        triggerIndex.index(trade);
+
+        triggerIndex.remove(trade.getId());
+
+        assertTrue(collectOpen(new BigDecimal("50")).isEmpty());
+        assertTrue(triggerIndex.symbols().isEmpty());
+        assertEquals(0, triggerIndex.size());
+    }
+
+    @Test
+    void reconcile_ShouldDropIndexedTradesMissingFromScan() {
+        TradeEntity active = openTrade(PositionSide.LONG, "100", "95", "110", "91");
+        TradeEntity closedElsewhere = openTrade(PositionSide.LONG, "100", "96", "110", "91");
+        triggerIndex.index(active);
+        triggerIndex.index(closedElsewhere);
+        triggerIndex.markReady();
+        TradeRepository tradeRepository = mock(TradeRepository.class);
+        when(tradeRepository.findActivePage(any(), any(), any())).thenReturn(List.of(new ActiveTradeView(
+                active.getId(), 1L, "BTCUSDT", PositionSide.LONG, TradeStatus.OPEN, active.getEntryPrice(),
+                active.getStopLoss(), active.getTakeProfit(), active.getLiquidationPrice(), null)));
+
+        new TriggerIndexLoader(tradeRepository, new ActiveTradeScanner(tradeRepository), triggerIndex,
+                Clock.systemUTC()).reconcile();
+
+        assertEquals(Set.of(active.getId()), triggerIndex.ids());
+        assertEquals(Set.of(active.getId()), collectOpen(new BigDecimal("94")));
+    }
+
+    @Test
+    void reconcile_ShouldKeepEntries_ChangedDuringScan() {
+        TradeEntity activated = openTrade(PositionSide.LONG, "100", "95", "110", "91");
+        activated.setStatus(TradeStatus.PENDING);
+        TradeEntity closed = openTrade(PositionSide.LONG, "100", "96", "110", "91");
+        triggerIndex.index(activated);
+        triggerIndex.index(closed);
+        triggerIndex.markReady();
+        TradeRepository tradeRepository = mock(TradeRepository.class);
+        when(tradeRepository.findActivePage(any(), any(), any())).thenAnswer(invocation -> {
+            // səhifə oxunandan sonra başqa tranzaksiyalar commit olunur
+            activated.setStatus(TradeStatus.OPEN);
+            triggerIndex.index(activated);
+            triggerIndex.remove(closed.getId());
+            return List.of(view(activated, TradeStatus.PENDING), view(closed, TradeStatus.OPEN));
+        });
+
+        new TriggerIndexLoader(tradeRepository, new ActiveTradeScanner(tradeRepository), triggerIndex,
+                Clock.systemUTC()).reconcile();
+
+        assertEquals(TradeStatus.OPEN, triggerIndex.statusOf(activated.getId()));
+        assertNull(triggerIndex.statusOf(closed.getId()));
+    }
+
+    @Test
+    void settleRanges_ShouldReindexOpenTrade_WhenIndexStillHasItPending() {
+        TradeEntity trade = openTrade(PositionSide.LONG, "100", "95", "110", "91");
+        trade.setUserId(1L);
+        trade.setStatus(TradeStatus.PENDING);
+        triggerIndex.index(trade);
+        trade.setStatus(TradeStatus.OPEN);
+        TradeRepository tradeRepository = mock(TradeRepository.class);
+        when(tradeRepository.findAllById(any())).thenReturn(List.of(trade));
+        TradeSettlementService settlementService = new TradeSettlementService(tradeRepository,
+                mock(BalanceLedgerService.class), mock(TradeOutboxService.class),
+                mock(ApplicationEventPublisher.class), triggerIndex,
+                new TradingMetrics(new SimpleMeterRegistry(), false), Clock.systemUTC());
+
+        int settled = settlementService.settleRanges(1L, Map.of(trade.getId(), PriceRange.of(new BigDecimal("100"))));
+
+        assertEquals(0, settled);
+        assertEquals(TradeStatus.OPEN, triggerIndex.statusOf(trade.getId()));
+        assertEquals(Set.of(trade.getId()), collectOpen(new BigDecimal("94")));
+    }
+
+    private static ActiveTradeView view(TradeEntity trade, TradeStatus status) {
+        return new ActiveTradeView(trade.getId(), 1L, trade.getSymbol(), trade.getSide(), status,
+                trade.getEntryPrice(), trade.getStopLoss(), trade.getTakeProfit(), trade.getLiquidationPrice(), null);
+    }
+
+    private Set<UUID> collectOpen(BigDecimal price) {
+        Set<UUID> ids = new HashSet<>();
+        triggerIndex.collectOpen("BTCUSDT", price, price, ids);
+        return ids;
+    }
+
+    private TradeEntity openTrade(PositionSide side, String entry, String stopLoss, String takeProfit, String liquidation) {
+        TradeEntity trade = new TradeEntity();
+        trade.setId(UUID.randomUUID());
+        trade.setSymbol("BTCUSDT");
+        trade.setSide(side);
+        trade.setStatus(TradeStatus.OPEN);
+        trade.setEntryPrice(new BigDecimal(entry));
+        trade.setStopLoss(stopLoss == null ? null : new BigDecimal(stopLoss));
+        trade.setTakeProfit(takeProfit == null ? null : new BigDecimal(takeProfit));
+        trade.setLiquidationPrice(new BigDecimal(liquidation));
+        return trade;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.tradems.replay;
+
+import com.example.tradems.client.PriceSource;
+import com.example.tradems.client.StubPriceClient;
+import com.example.tradems.config.SymbolProperties;
+import com.example.tradems.engine.PartitionLeaseManager;
+import com.example.tradems.engine.PriceRange;
+import com.example.tradems.engine.TickHistory;
+import com.example.tradems.engine.TriggerIndex;
+import com.example.tradems.engine.TriggerRules;
+import com.example.tradems.enums.PositionSide;
+import com.example.tradems.enums.TradeStatus;
+import com.example.tradems.metrics.TradingMetrics;
+import com.example.tradems.model.TradeEntity;
+import com.example.tradems.scheduled.TradeExecutionEngine;
+import com.example.tradems.service.PriceService;
+import com.example.tradems.service.TradeSettlementService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ReplayTest {
+
+    private static final long T0 = Instant.parse("2026-01-01T00:00:00Z").toEpochMilli();
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void tickFile_ShouldRoundTripTicks_SymbolTableAndScales() throws IOException {
+        SymbolProperties symbolProperties = new SymbolProperties();
+        symbolProperties.getTickSize().put("BTCUSDT", new BigDecimal("0.01"));
+        Path file = dir.resolve("ticks.bin");
+        try (TickFileWriter writer = new TickFileWriter(file, symbolProperties)) {
+            writer.write(T0, "BTCUSDT", new BigDecimal("65000.125"));
+            writer.write(T0 + 5, "DOGEUSDT", new BigDecimal("0.12345"));
+            writer.write(T0 + 9, "BTCUSDT", new BigDecimal("64999.99"));
+        }
+
+        try (TickFileReader reader = new TickFileReader(file)) {
+            assertEquals(3, reader.count());
+            assertArrayEquals(new String[]{"BTCUSDT", "DOGEUSDT"}, reader.symbols());
+            assertArrayEquals(new int[]{2, 4}, reader.scales());
+            assertEquals(T0, reader.firstTime());
+            assertArrayEquals(new long[]{6500013, 1235}, reader.firstPrices());
+
+            List<String> ticks = new ArrayList<>();
+            reader.forEach((time, symbol, price) -> ticks.add((time - T0) + ":" + symbol + ":" + price));
+            assertEquals(List.of("0:0:6500013", "5:1:1235", "9:0:6499999"), ticks);
+        }
+    }
+
+    @Test
+    void tickFileReader_ShouldRejectForeignFile_AndUnknownVersion() throws IOException {
+        Path foreign = dir.resolve("foreign.bin");
+        Files.write(foreign, new byte[TickFile.HEADER_BYTES + 4]);
+        IOException notTickFile = assertThrows(IOException.class, () -> new TickFileReader(foreign));
+        assertTrue(notTickFile.getMessage().startsWith("Tick faylı deyil"));
+
+        Path future = dir.resolve("future.bin");
+        try (TickFileWriter writer = new TickFileWriter(future, new SymbolProperties())) {
+            writer.write(T0, "BTCUSDT", new BigDecimal("100"));
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(future.toFile(), "rw")) {
+            raw.seek(4);
+            raw.writeInt(TickFile.VERSION + 1);
+        }
+        IOException unsupported = assertThrows(IOException.class, () -> new TickFileReader(future));
+        assertTrue(unsupported.getMessage().contains(String.valueOf(TickFile.VERSION + 1)));
+    }
+
+    @Test
+    void replay_ShouldWriteIdenticalTrades_ForSameInputs() throws Exception {
+        Path ticks = dir.resolve("walk.bin");
+        Random random = new Random(7);
+        BigDecimal[] prices = {new BigDecimal("100"), new BigDecimal("2.5")};
+        String[] symbols = {"AAAUSDT", "BBBUSDT"};
+        try (TickFileWriter writer = new TickFileWriter(ticks, new SymbolProperties())) {
+            for (int i = 0; i < 20_000; i++) {
+                int symbol = i % symbols.length;
+                prices[symbol] = prices[symbol].multiply(BigDecimal.valueOf(1 + (random.nextDouble() - 0.5) * 0.004));
+                writer.write(T0 + i * 10L, symbols[symbol], prices[symbol]);
+            }
+        }
+
+        Path first = replay(ticks, "first");
+        Path second = replay(ticks, "second");
+
+        List<String> trades = Files.readAllLines(first);
+        assertEquals(trades, Files.readAllLines(second));
+        assertTrue(trades.stream().anyMatch(line -> line.contains("," + TradeStatus.CLOSED + ",")));
+    }
+
+    @Test
+    void replayCycle_ShouldEvaluateSameRange_AsProductionEngine() throws IOException {
+        Path file = dir.resolve("cycle.bin");
+        try (TickFileWriter writer = new TickFileWriter(file, new SymbolProperties())) {
+            writer.write(T0, "BTCUSDT", new BigDecimal("100"));
+            writer.write(T0 + 1010, "BTCUSDT", new BigDecimal("97"));
+            writer.write(T0 + 1020, "BTCUSDT", new BigDecimal("103"));
+            writer.write(T0 + 1500, "BTCUSDT", new BigDecimal("100"));
+        }
+        UUID tradeId = UUID.randomUUID();
+
+        ReplayClock replayClock = new ReplayClock(T0);
+        TriggerIndex replayIndex = new TriggerIndex(new SymbolProperties());
+        TradeEntity replayed = trade(tradeId, replayClock);
+        replayIndex.index(replayed);
+        TradeSettlementService replaySettlement = mock(TradeSettlementService.class);
+        try (TickFileReader reader = new TickFileReader(file)) {
+            new ReplayEngine(reader, replayClock, replayIndex, replaySettlement, 1000).run();
+        }
+
+        ReplayClock engineClock = new ReplayClock(T0);
+        TriggerIndex engineIndex = new TriggerIndex(new SymbolProperties());
+        TradeEntity live = trade(tradeId, engineClock);
+        engineIndex.index(live);
+        TradeSettlementService engineSettlement = mock(TradeSettlementService.class);
+        TickHistory tickHistory = new TickHistory(new SymbolProperties(), engineClock, 1024, 60, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            TradingMetrics metrics = new TradingMetrics(new SimpleMeterRegistry(), false);
+            PriceService priceService = new PriceService(
+                    new PriceSource(new StubPriceClient(new BigDecimal("100"), 0), executor), executor, metrics, tickHistory);
+            TradeExecutionEngine engine = new TradeExecutionEngine(priceService, engineIndex, engineSettlement,
+                    mock(PartitionLeaseManager.class), metrics, executor, tickHistory);
+            engine.runCycle(Set.of("BTCUSDT"));
+            engineClock.set(T0 + 1010);
+            tickHistory.record("BTCUSDT", new BigDecimal("97"));
+            engineClock.set(T0 + 1020);
+            tickHistory.record("BTCUSDT", new BigDecimal("103"));
+            engineClock.set(T0 + 1500);
+            engine.runCycle(Set.of("BTCUSDT"));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        PriceRange replayRange = capturedRange(replaySettlement, tradeId);
+        PriceRange engineRange = capturedRange(engineSettlement, tradeId);
+        assertEquals(0, engineRange.low().compareTo(replayRange.low()));
+        assertEquals(0, engineRange.high().compareTo(replayRange.high()));
+        assertEquals(0, engineRange.last().compareTo(replayRange.last()));
+        assertEquals("STOP_LOSS", TriggerRules.closeReason(replayed, replayRange));
+        assertEquals(TriggerRules.closeReason(live, engineRange), TriggerRules.closeReason(replayed, replayRange));
+    }
+
+    private Path replay(Path ticks, String name) throws Exception {
+        Path trades = dir.resolve(name + "-trades.csv");
+        ReplayRunner.main(new String[]{
+                "--ticks=" + ticks, "--synthetic=500", "--users=20", "--cycle=250",
+                "--trades=" + trades, "--report=" + dir.resolve(name + "-report.json")
+        });
+        return trades;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PriceRange capturedRange(TradeSettlementService settlementService, UUID tradeId) {
+        ArgumentCaptor<Map<UUID, PriceRange>> ranges = ArgumentCaptor.forClass(Map.class);
+        verify(settlementService).settleRanges(eq(1L), ranges.capture());
+        return ranges.getValue().get(tradeId);
+    }
+
+    private static TradeEntity trade(UUID id, ReplayClock clock) {
+        TradeEntity trade = new TradeEntity();
+        trade.setId(id);
+        trade.setUserId(1L);
+        trade.setSymbol("BTCUSDT");
+        trade.setSide(PositionSide.LONG);
+        trade.setStatus(TradeStatus.OPEN);
+        trade.setEntryPrice(new BigDecimal("100"));
+        trade.setMargin(new BigDecimal("10"));
+        trade.setLeverage(10);
+        trade.setStopLoss(new BigDecimal("98"));
+        trade.setTakeProfit(new BigDecimal("110"));
+        trade.setLiquidationPrice(new BigDecimal("90.5"));
+        trade.setOpenTime(LocalDateTime.now(clock));
+        return trade;
+    }
+}